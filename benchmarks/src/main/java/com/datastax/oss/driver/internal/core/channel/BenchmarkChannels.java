@@ -0,0 +1,77 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.driver.internal.core.channel;
+
+import com.datastax.oss.driver.api.core.DefaultProtocolVersion;
+import com.datastax.oss.driver.internal.core.metadata.DefaultEndPoint;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import io.netty.channel.embedded.EmbeddedChannel;
+import java.net.InetSocketAddress;
+
+/**
+ * Creates driver channels for benchmarks, backed by an embedded Netty channel instead of a real
+ * connection.
+ *
+ * <p>Only the stream id accounting methods ({@link DriverChannel#preAcquireId()}, {@link
+ * DriverChannel#getAvailableIds()}, etc.) are usable; writing to these channels won't work.
+ */
+public class BenchmarkChannels {
+
+  @NonNull
+  public static BenchmarkChannel newChannel(int maxIds) {
+    StreamIdGenerator streamIds = new StreamIdGenerator(maxIds);
+    EmbeddedChannel channel = new EmbeddedChannel();
+    channel
+        .pipeline()
+        .addLast(
+            new InFlightHandler(
+                DefaultProtocolVersion.V4,
+                streamIds,
+                maxIds,
+                1000,
+                channel.newPromise(),
+                null,
+                "benchmark"));
+    DriverChannel driverChannel =
+        new DriverChannel(
+            new DefaultEndPoint(new InetSocketAddress("127.0.0.1", 9042)),
+            channel,
+            null,
+            DefaultProtocolVersion.V4);
+    return new BenchmarkChannel(driverChannel, streamIds);
+  }
+
+  public static class BenchmarkChannel {
+
+    private final DriverChannel driverChannel;
+    private final StreamIdGenerator streamIds;
+
+    private BenchmarkChannel(DriverChannel driverChannel, StreamIdGenerator streamIds) {
+      this.driverChannel = driverChannel;
+      this.streamIds = streamIds;
+    }
+
+    @NonNull
+    public DriverChannel getDriverChannel() {
+      return driverChannel;
+    }
+
+    /** Gives back an id obtained with {@link DriverChannel#preAcquireId()}. */
+    public void cancelPreAcquire() {
+      streamIds.cancelPreAcquire();
+    }
+  }
+}
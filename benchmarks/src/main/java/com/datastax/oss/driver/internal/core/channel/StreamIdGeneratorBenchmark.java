@@ -0,0 +1,74 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.driver.internal.core.channel;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of borrowing and returning a stream id, depending on how many ids of the connection are
+ * already in use.
+ *
+ * <p>The borrowed ids are the lowest ones, which is the steady state of a busy connection (ids are
+ * always allocated lowest first), and the worst case for an allocator that scans for the first
+ * available id.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class StreamIdGeneratorBenchmark {
+
+  /** The maximum number of ids, as configured by {@code max-requests-per-connection}. */
+  @Param({"1024", "32768"})
+  public int maxIds;
+
+  /** The percentage of ids that are already borrowed. */
+  @Param({"10", "50", "95"})
+  public int occupancy;
+
+  private StreamIdGenerator generator;
+
+  @Setup
+  public void setup() {
+    generator = new StreamIdGenerator(maxIds);
+    int borrowed = maxIds * occupancy / 100;
+    for (int i = 0; i < borrowed; i++) {
+      generator.preAcquire();
+      generator.acquire();
+    }
+  }
+
+  @Benchmark
+  public int acquireAndRelease() {
+    generator.preAcquire();
+    int id = generator.acquire();
+    generator.release(id);
+    return id;
+  }
+}
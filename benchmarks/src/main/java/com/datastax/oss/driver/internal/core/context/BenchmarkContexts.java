@@ -0,0 +1,54 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.driver.internal.core.context;
+
+import com.datastax.oss.driver.api.core.config.DefaultDriverOption;
+import com.datastax.oss.driver.api.core.config.DriverConfigLoader;
+import com.datastax.oss.driver.api.core.config.ProgrammaticDriverConfigLoaderBuilder;
+import com.datastax.oss.driver.api.core.session.ProgrammaticArguments;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.util.function.Consumer;
+
+/**
+ * Builds standalone driver contexts for benchmarks.
+ *
+ * <p>The contexts are never connected to a cluster: components are initialized lazily as usual, and
+ * the protocol version is forced in the configuration so that it doesn't need to be negotiated.
+ */
+public class BenchmarkContexts {
+
+  public static final String LOCAL_DATACENTER = "dc1";
+
+  @NonNull
+  public static DefaultDriverContext newContext() {
+    return newContext(builder -> {});
+  }
+
+  /**
+   * @param customizer additional options to apply on top of the benchmark defaults (for example the
+   *     compression algorithm).
+   */
+  @NonNull
+  public static DefaultDriverContext newContext(
+      @NonNull Consumer<ProgrammaticDriverConfigLoaderBuilder> customizer) {
+    ProgrammaticDriverConfigLoaderBuilder builder =
+        DriverConfigLoader.programmaticBuilder()
+            .withString(DefaultDriverOption.PROTOCOL_VERSION, "V4")
+            .withString(DefaultDriverOption.LOAD_BALANCING_LOCAL_DATACENTER, LOCAL_DATACENTER);
+    customizer.accept(builder);
+    return new DefaultDriverContext(builder.build(), ProgrammaticArguments.builder().build());
+  }
+}
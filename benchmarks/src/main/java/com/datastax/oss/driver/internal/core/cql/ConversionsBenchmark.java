@@ -0,0 +1,120 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.driver.internal.core.cql;
+
+import com.datastax.oss.driver.api.core.config.DriverExecutionProfile;
+import com.datastax.oss.driver.api.core.cql.BatchStatement;
+import com.datastax.oss.driver.api.core.cql.BatchStatementBuilder;
+import com.datastax.oss.driver.api.core.cql.BoundStatement;
+import com.datastax.oss.driver.api.core.cql.DefaultBatchType;
+import com.datastax.oss.driver.api.core.cql.PreparedStatement;
+import com.datastax.oss.driver.api.core.cql.SimpleStatement;
+import com.datastax.oss.driver.internal.core.context.BenchmarkContexts;
+import com.datastax.oss.driver.internal.core.context.InternalDriverContext;
+import com.datastax.oss.driver.shaded.guava.common.collect.ImmutableList;
+import com.datastax.oss.protocol.internal.Message;
+import com.datastax.oss.protocol.internal.ProtocolConstants;
+import com.datastax.oss.protocol.internal.response.result.ColumnSpec;
+import com.datastax.oss.protocol.internal.response.result.Prepared;
+import com.datastax.oss.protocol.internal.response.result.RawType;
+import com.datastax.oss.protocol.internal.response.result.RowsMetadata;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Conversion of driver statements into protocol messages, as performed by the request handler
+ * before every execution.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ConversionsBenchmark {
+
+  private static final String QUERY = "INSERT INTO ks.table (k, c, v) VALUES (?, ?, ?)";
+
+  private InternalDriverContext context;
+  private DriverExecutionProfile profile;
+  private SimpleStatement simpleStatement;
+  private BoundStatement boundStatement;
+  private BatchStatement batchStatement;
+
+  @Setup
+  public void setup() {
+    context = BenchmarkContexts.newContext();
+    profile = context.getConfig().getDefaultProfile();
+
+    UUID k = UUID.randomUUID();
+    simpleStatement = SimpleStatement.newInstance(QUERY, k, 1, "value");
+
+    // Simulate the server's response to a PREPARE request
+    RowsMetadata variablesMetadata =
+        new RowsMetadata(
+            ImmutableList.of(
+                column(0, "k", ProtocolConstants.DataType.UUID),
+                column(1, "c", ProtocolConstants.DataType.INT),
+                column(2, "v", ProtocolConstants.DataType.VARCHAR)),
+            null,
+            new int[] {0},
+            null);
+    Prepared prepared =
+        new Prepared(
+            new byte[] {1, 2, 3, 4},
+            null,
+            variablesMetadata,
+            new RowsMetadata(ImmutableList.of(), null, null, null));
+    PreparedStatement preparedStatement =
+        Conversions.toPreparedStatement(prepared, new DefaultPrepareRequest(QUERY), context);
+    boundStatement = preparedStatement.bind(k, 1, "value");
+
+    BatchStatementBuilder batchBuilder = BatchStatement.builder(DefaultBatchType.UNLOGGED);
+    for (int i = 0; i < 10; i++) {
+      batchBuilder.addStatement(preparedStatement.bind(k, i, "value"));
+    }
+    batchStatement = batchBuilder.build();
+  }
+
+  private static ColumnSpec column(int index, String name, int typeCode) {
+    return new ColumnSpec("ks", "table", name, index, RawType.PRIMITIVES.get(typeCode));
+  }
+
+  @Benchmark
+  public Message simpleStatementToMessage() {
+    return Conversions.toMessage(simpleStatement, profile, context);
+  }
+
+  @Benchmark
+  public Message boundStatementToMessage() {
+    return Conversions.toMessage(boundStatement, profile, context);
+  }
+
+  @Benchmark
+  public Message batchStatementToMessage() {
+    return Conversions.toMessage(batchStatement, profile, context);
+  }
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.driver.internal.core.cql;
+
+import com.datastax.oss.driver.api.core.ProtocolVersion;
+import com.datastax.oss.driver.api.core.cql.ColumnDefinitions;
+import com.datastax.oss.driver.api.core.cql.Row;
+import com.datastax.oss.driver.api.core.type.codec.TypeCodecs;
+import com.datastax.oss.driver.internal.core.context.BenchmarkContexts;
+import com.datastax.oss.driver.internal.core.context.InternalDriverContext;
+import com.datastax.oss.driver.shaded.guava.common.collect.ImmutableList;
+import com.datastax.oss.protocol.internal.ProtocolConstants;
+import com.datastax.oss.protocol.internal.response.result.ColumnSpec;
+import com.datastax.oss.protocol.internal.response.result.RawType;
+import com.datastax.oss.protocol.internal.response.result.RowsMetadata;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/** Reading cells from a {@link DefaultRow}, by index, by name and through the generic getter. */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DefaultRowBenchmark {
+
+  private Row row;
+
+  @Setup
+  public void setup() {
+    InternalDriverContext context = BenchmarkContexts.newContext();
+    ProtocolVersion version = context.getProtocolVersion();
+    RowsMetadata metadata =
+        new RowsMetadata(
+            ImmutableList.of(
+                column(0, "c_int", ProtocolConstants.DataType.INT),
+                column(1, "c_bigint", ProtocolConstants.DataType.BIGINT),
+                column(2, "c_double", ProtocolConstants.DataType.DOUBLE),
+                column(3, "c_text", ProtocolConstants.DataType.VARCHAR),
+                column(4, "c_uuid", ProtocolConstants.DataType.UUID),
+                new ColumnSpec(
+                    "ks",
+                    "table",
+                    "c_list",
+                    5,
+                    new RawType.RawList(RawType.PRIMITIVES.get(ProtocolConstants.DataType.INT)))),
+            null,
+            new int[] {0},
+            null);
+    ColumnDefinitions definitions = Conversions.toColumnDefinitions(metadata, context);
+    List<ByteBuffer> data =
+        ImmutableList.of(
+            TypeCodecs.INT.encodePrimitive(42, version),
+            TypeCodecs.BIGINT.encodePrimitive(42L, version),
+            TypeCodecs.DOUBLE.encodePrimitive(42.0, version),
+            TypeCodecs.TEXT.encode("The quick brown fox jumps over the lazy dog", version),
+            TypeCodecs.UUID.encode(UUID.randomUUID(), version),
+            TypeCodecs.listOf(TypeCodecs.INT).encode(ImmutableList.of(1, 2, 3, 4, 5), version));
+    row = new DefaultRow(definitions, data, context);
+  }
+
+  private static ColumnSpec column(int index, String name, int typeCode) {
+    return new ColumnSpec("ks", "table", name, index, RawType.PRIMITIVES.get(typeCode));
+  }
+
+  @Benchmark
+  public int getIntByIndex() {
+    return row.getInt(0);
+  }
+
+  @Benchmark
+  public int getIntByName() {
+    return row.getInt("c_int");
+  }
+
+  @Benchmark
+  public Integer getIntGeneric() {
+    return row.get(0, Integer.class);
+  }
+
+  @Benchmark
+  public long getLongByIndex() {
+    return row.getLong(1);
+  }
+
+  @Benchmark
+  public double getDoubleByIndex() {
+    return row.getDouble(2);
+  }
+
+  @Benchmark
+  public String getStringByIndex() {
+    return row.getString(3);
+  }
+
+  @Benchmark
+  public UUID getUuidByIndex() {
+    return row.getUuid(4);
+  }
+
+  @Benchmark
+  public void getListByIndex(Blackhole blackhole) {
+    blackhole.consume(row.getList(5, Integer.class));
+  }
+
+  /** Reads every column once, as a typical mapping loop would. */
+  @Benchmark
+  public void getAllColumns(Blackhole blackhole) {
+    blackhole.consume(row.getInt(0));
+    blackhole.consume(row.getLong(1));
+    blackhole.consume(row.getDouble(2));
+    blackhole.consume(row.getString(3));
+    blackhole.consume(row.getUuid(4));
+    blackhole.consume(row.getList(5, Integer.class));
+  }
+}
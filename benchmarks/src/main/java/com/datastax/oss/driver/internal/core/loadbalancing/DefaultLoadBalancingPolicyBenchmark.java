@@ -0,0 +1,165 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.driver.internal.core.loadbalancing;
+
+import com.datastax.oss.driver.api.core.config.DefaultDriverOption;
+import com.datastax.oss.driver.api.core.config.DriverExecutionProfile;
+import com.datastax.oss.driver.api.core.cql.SimpleStatement;
+import com.datastax.oss.driver.api.core.metadata.Node;
+import com.datastax.oss.driver.api.core.session.Request;
+import com.datastax.oss.driver.api.core.session.Session;
+import com.datastax.oss.driver.internal.core.context.BenchmarkContexts;
+import com.datastax.oss.driver.internal.core.context.InternalDriverContext;
+import com.datastax.oss.driver.internal.core.metadata.BenchmarkNodes;
+import com.datastax.oss.driver.shaded.guava.common.collect.ImmutableSet;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import java.lang.reflect.Proxy;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Query plan computation in {@link DefaultLoadBalancingPolicy}.
+ *
+ * <p>The token map and the connection pools are simulated: replicas are a fixed subset of the
+ * nodes, and in-flight counts are derived from the node instead of read from the session's pools.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class DefaultLoadBalancingPolicyBenchmark {
+
+  @Param({"6", "30"})
+  public int nodeCount;
+
+  /** The number of replicas for the request, 0 simulates a request without routing info. */
+  @Param({"0", "3"})
+  public int replicaCount;
+
+  /** Whether the policy uses {@code basic.load-balancing-policy.lazy-query-plans}. */
+  @Param({"false", "true"})
+  public boolean lazyQueryPlans;
+
+  private BenchmarkPolicy policy;
+  private Request request;
+  private Session session;
+
+  @Setup
+  public void setup() {
+    InternalDriverContext context =
+        BenchmarkContexts.newContext(
+            builder ->
+                builder.withBoolean(
+                    DefaultDriverOption.LOAD_BALANCING_POLICY_LAZY_QUERY_PLANS, lazyQueryPlans));
+    Map<UUID, Node> nodes = new LinkedHashMap<>();
+    ImmutableSet.Builder<Node> replicas = ImmutableSet.builder();
+    for (int i = 0; i < nodeCount; i++) {
+      Node node = BenchmarkNodes.newNode(context, i, BenchmarkContexts.LOCAL_DATACENTER);
+      nodes.put(node.getHostId(), node);
+      if (i < replicaCount) {
+        replicas.add(node);
+      }
+    }
+    policy = new BenchmarkPolicy(context, replicas.build());
+    policy.init(nodes, (node, distance) -> {});
+
+    request = SimpleStatement.newInstance("SELECT * FROM ks.table WHERE k = ?", 42);
+    // Never invoked, the policy only checks that it is present
+    session =
+        (Session)
+            Proxy.newProxyInstance(
+                Session.class.getClassLoader(),
+                new Class<?>[] {Session.class},
+                (proxy, method, args) -> {
+                  throw new UnsupportedOperationException();
+                });
+  }
+
+  @Benchmark
+  public Queue<Node> newQueryPlan() {
+    return policy.newQueryPlan(request, session);
+  }
+
+  /** Computes a plan and iterates through it, as the request handler does on a retry. */
+  @Benchmark
+  public void newQueryPlanAndPoll(Blackhole blackhole) {
+    Queue<Node> plan = policy.newQueryPlan(request, session);
+    Node node;
+    while ((node = plan.poll()) != null) {
+      blackhole.consume(node);
+    }
+  }
+
+  private static class BenchmarkPolicy extends DefaultLoadBalancingPolicy {
+
+    private final Set<Node> replicas;
+    // Simulates the arrays precomputed by the token map
+    private final Object[] replicaArray;
+
+    private BenchmarkPolicy(InternalDriverContext context, Set<Node> replicas) {
+      super(context, DriverExecutionProfile.DEFAULT_NAME);
+      this.replicas = replicas;
+      this.replicaArray = replicas.toArray();
+    }
+
+    @NonNull
+    @Override
+    protected Optional<String> discoverLocalDc(@NonNull Map<UUID, Node> nodes) {
+      // The context has no contact points, skip the checks that rely on them
+      return Optional.of(BenchmarkContexts.LOCAL_DATACENTER);
+    }
+
+    @NonNull
+    @Override
+    protected Set<Node> getReplicas(@Nullable Request request, @Nullable Session session) {
+      return replicas;
+    }
+
+    @NonNull
+    @Override
+    protected Object[] getReplicaArray(@Nullable Request request, @Nullable Session session) {
+      return replicaArray;
+    }
+
+    @Override
+    protected int getInFlight(@NonNull Node node, @NonNull Session session) {
+      // Deterministic but uneven load, so that the "busy replica" branches get exercised
+      return node.hashCode() & 0xF;
+    }
+  }
+}
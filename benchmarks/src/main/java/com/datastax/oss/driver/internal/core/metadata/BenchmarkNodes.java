@@ -0,0 +1,39 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.driver.internal.core.metadata;
+
+import com.datastax.oss.driver.api.core.metadata.NodeState;
+import com.datastax.oss.driver.internal.core.context.InternalDriverContext;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.net.InetSocketAddress;
+import java.util.UUID;
+
+/** Creates nodes for benchmarks, without going through topology refreshes. */
+public class BenchmarkNodes {
+
+  /** @param index used to generate a unique address ({@code 127.0.0.<index + 1>}). */
+  @NonNull
+  public static DefaultNode newNode(
+      @NonNull InternalDriverContext context, int index, @NonNull String datacenter) {
+    DefaultNode node =
+        new DefaultNode(
+            new DefaultEndPoint(new InetSocketAddress("127.0.0." + (index + 1), 9042)), context);
+    node.hostId = UUID.randomUUID();
+    node.datacenter = datacenter;
+    node.state = NodeState.UP;
+    return node;
+  }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.driver.internal.core.pool;
+
+import com.datastax.oss.driver.internal.core.channel.BenchmarkChannels;
+import com.datastax.oss.driver.internal.core.channel.BenchmarkChannels.BenchmarkChannel;
+import com.datastax.oss.driver.internal.core.channel.DriverChannel;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of selecting a channel in a pool (and giving back the stream id right away), depending on
+ * the size of the pool and the selection strategy.
+ *
+ * <p>The channels start with uneven loads, and several threads select concurrently, which is where
+ * the strategies differ the most: with {@link ChannelSelection#MOST_AVAILABLE}, all threads tend to
+ * compete for the same channel.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class ChannelSetBenchmark {
+
+  @Param({"1", "2", "4", "8", "16", "32"})
+  public int poolSize;
+
+  @Param({"MOST_AVAILABLE", "POWER_OF_TWO_CHOICES"})
+  public String selection;
+
+  private static final int MAX_IDS = 1024;
+
+  private ChannelSet channels;
+  private Map<DriverChannel, BenchmarkChannel> benchmarkChannels;
+
+  @Setup
+  public void setup() {
+    channels = new ChannelSet(ChannelSelection.fromConfig(selection));
+    benchmarkChannels = new IdentityHashMap<>();
+    Random random = new Random(0);
+    for (int i = 0; i < poolSize; i++) {
+      BenchmarkChannel channel = BenchmarkChannels.newChannel(MAX_IDS);
+      // Between 0 and 50% of the ids are already in use
+      int inFlight = random.nextInt(MAX_IDS / 2);
+      for (int j = 0; j < inFlight; j++) {
+        channel.getDriverChannel().preAcquireId();
+      }
+      channels.add(channel.getDriverChannel());
+      benchmarkChannels.put(channel.getDriverChannel(), channel);
+    }
+  }
+
+  @Benchmark
+  public DriverChannel selectAndRelease() {
+    DriverChannel channel = channels.next();
+    if (channel != null) {
+      benchmarkChannels.get(channel).cancelPreAcquire();
+    }
+    return channel;
+  }
+}
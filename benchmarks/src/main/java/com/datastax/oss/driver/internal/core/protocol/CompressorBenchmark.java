@@ -0,0 +1,124 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.driver.internal.core.protocol;
+
+import com.datastax.oss.driver.internal.core.context.BenchmarkContexts;
+import com.datastax.oss.driver.internal.core.context.InternalDriverContext;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Compression and decompression of frame bodies with the built-in {@link ByteBufCompressor}s. */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CompressorBenchmark {
+
+  @Param({"lz4", "snappy", "zstd"})
+  public String algorithm;
+
+  /** The size of the uncompressed payload, in bytes. */
+  @Param({"64", "1024", "65536"})
+  public int size;
+
+  @Param({"true", "false"})
+  public boolean direct;
+
+  private ByteBufCompressor compressor;
+  private ByteBuf uncompressed;
+  private ByteBuf compressed;
+
+  @Setup
+  public void setup() {
+    InternalDriverContext context = BenchmarkContexts.newContext();
+    switch (algorithm) {
+      case "lz4":
+        compressor = new Lz4Compressor(context);
+        break;
+      case "snappy":
+        compressor = new SnappyCompressor(context);
+        break;
+      case "zstd":
+        compressor = new ZstdCompressor(context);
+        break;
+      default:
+        throw new IllegalArgumentException("Unsupported algorithm " + algorithm);
+    }
+    ByteBufAllocator allocator = ByteBufAllocator.DEFAULT;
+    uncompressed = direct ? allocator.directBuffer(size) : allocator.heapBuffer(size);
+    uncompressed.writeBytes(newPayload(size));
+    compressed = compressor.compress(uncompressed);
+    uncompressed.readerIndex(0);
+  }
+
+  /**
+   * Generates a payload that looks like a typical CQL frame body: mostly text from a small
+   * vocabulary, with some randomness so that it doesn't compress unrealistically well.
+   */
+  private static byte[] newPayload(int size) {
+    String[] words = {"id", "name", "value", "timestamp", "ks", "table", "user", "event", "data"};
+    Random random = new Random(0);
+    StringBuilder builder = new StringBuilder(size);
+    while (builder.length() < size) {
+      builder.append(words[random.nextInt(words.length)]).append(random.nextInt(1000)).append(' ');
+    }
+    byte[] bytes = builder.toString().getBytes(StandardCharsets.UTF_8);
+    byte[] result = new byte[size];
+    System.arraycopy(bytes, 0, result, 0, size);
+    return result;
+  }
+
+  @TearDown
+  public void teardown() {
+    uncompressed.release();
+    compressed.release();
+  }
+
+  @Benchmark
+  public int compress() {
+    uncompressed.readerIndex(0);
+    ByteBuf output = compressor.compress(uncompressed);
+    int size = output.readableBytes();
+    output.release();
+    return size;
+  }
+
+  @Benchmark
+  public int decompress() {
+    compressed.readerIndex(0);
+    ByteBuf output = compressor.decompress(compressed);
+    int size = output.readableBytes();
+    output.release();
+    return size;
+  }
+}
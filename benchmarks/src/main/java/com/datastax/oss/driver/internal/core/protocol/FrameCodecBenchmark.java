@@ -0,0 +1,193 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.driver.internal.core.protocol;
+
+import com.datastax.oss.driver.api.core.config.DefaultDriverOption;
+import com.datastax.oss.driver.api.core.cql.SimpleStatement;
+import com.datastax.oss.driver.api.core.type.codec.TypeCodecs;
+import com.datastax.oss.driver.internal.core.context.BenchmarkContexts;
+import com.datastax.oss.driver.internal.core.context.InternalDriverContext;
+import com.datastax.oss.driver.internal.core.cql.Conversions;
+import com.datastax.oss.driver.shaded.guava.common.collect.ImmutableList;
+import com.datastax.oss.protocol.internal.Frame;
+import com.datastax.oss.protocol.internal.FrameCodec;
+import com.datastax.oss.protocol.internal.ProtocolConstants;
+import com.datastax.oss.protocol.internal.response.result.ColumnSpec;
+import com.datastax.oss.protocol.internal.response.result.DefaultRows;
+import com.datastax.oss.protocol.internal.response.result.RawType;
+import com.datastax.oss.protocol.internal.response.result.Rows;
+import com.datastax.oss.protocol.internal.response.result.RowsMetadata;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.channel.embedded.EmbeddedChannel;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Round trip through the driver's {@link FrameEncoder} and {@link FrameDecoder}, as installed in
+ * the channel pipeline.
+ *
+ * <p>Each handler is hosted in an {@link EmbeddedChannel}. The responses are produced beforehand by
+ * a server-side {@link FrameCodec}, which acts as an in-process stub server.
+ *
+ * <p>Run with {@code -prof gc} to compare the allocation rates of eager and lazy row decoding.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FrameCodecBenchmark {
+
+  private static final int MAX_FRAME_LENGTH = 256 * 1024 * 1024;
+
+  @Param({"none", "lz4", "snappy"})
+  public String compression;
+
+  /** The number of rows in the response. */
+  @Param({"1", "100", "1000"})
+  public int rowCount;
+
+  @Param({"false", "true"})
+  public boolean lazyRows;
+
+  private InternalDriverContext context;
+  private EmbeddedChannel encoderChannel;
+  private EmbeddedChannel decoderChannel;
+  private Frame request;
+  private ByteBuf encodedResponse;
+
+  @Setup
+  public void setup() {
+    context =
+        BenchmarkContexts.newContext(
+            builder ->
+                builder
+                    .withString(DefaultDriverOption.PROTOCOL_COMPRESSION, compression)
+                    .withBoolean(DefaultDriverOption.PROTOCOL_LAZY_ROWS, lazyRows));
+    int protocolCode = context.getProtocolVersion().getCode();
+
+    FrameCodec<ByteBuf> clientCodec = context.getFrameCodec();
+    encoderChannel = new EmbeddedChannel(new FrameEncoder(clientCodec, MAX_FRAME_LENGTH));
+    decoderChannel = new EmbeddedChannel(new FrameDecoder(clientCodec, MAX_FRAME_LENGTH));
+
+    request =
+        Frame.forRequest(
+            protocolCode,
+            1,
+            false,
+            Frame.NO_PAYLOAD,
+            Conversions.toMessage(
+                SimpleStatement.newInstance("SELECT * FROM ks.table WHERE k = ?", 42),
+                context.getConfig().getDefaultProfile(),
+                context));
+
+    FrameCodec<ByteBuf> serverCodec =
+        FrameCodec.defaultServer(
+            new ByteBufPrimitiveCodec(ByteBufAllocator.DEFAULT), context.getCompressor());
+    encodedResponse =
+        serverCodec.encode(
+            Frame.forResponse(
+                protocolCode,
+                1,
+                null,
+                Frame.NO_PAYLOAD,
+                Collections.emptyList(),
+                newRows(rowCount)));
+  }
+
+  private DefaultRows newRows(int count) {
+    RowsMetadata metadata =
+        new RowsMetadata(
+            ImmutableList.of(
+                column(0, "k", ProtocolConstants.DataType.INT),
+                column(1, "c", ProtocolConstants.DataType.BIGINT),
+                column(2, "v", ProtocolConstants.DataType.VARCHAR)),
+            null,
+            null,
+            null);
+    Queue<List<ByteBuffer>> data = new ArrayDeque<>(count);
+    for (int i = 0; i < count; i++) {
+      data.add(
+          ImmutableList.of(
+              TypeCodecs.INT.encodePrimitive(42, context.getProtocolVersion()),
+              TypeCodecs.BIGINT.encodePrimitive(i, context.getProtocolVersion()),
+              TypeCodecs.TEXT.encode("value " + i, context.getProtocolVersion())));
+    }
+    return new DefaultRows(metadata, data);
+  }
+
+  private static ColumnSpec column(int index, String name, int typeCode) {
+    return new ColumnSpec("ks", "table", name, index, RawType.PRIMITIVES.get(typeCode));
+  }
+
+  @TearDown
+  public void teardown() {
+    encoderChannel.finishAndReleaseAll();
+    decoderChannel.finishAndReleaseAll();
+    encodedResponse.release();
+    context.getNettyOptions().onClose();
+  }
+
+  @Benchmark
+  public int encodeRequest() {
+    encoderChannel.writeOutbound(request);
+    ByteBuf encoded = encoderChannel.readOutbound();
+    int size = encoded.readableBytes();
+    encoded.release();
+    return size;
+  }
+
+  @Benchmark
+  public Frame decodeResponse() {
+    decoderChannel.writeInbound(encodedResponse.retainedDuplicate());
+    return decoderChannel.readInbound();
+  }
+
+  /** Decodes the response, and reads every cell of every row (twice, like repeated getters). */
+  @Benchmark
+  public void decodeResponseAndReadAllRows(Blackhole blackhole) {
+    decoderChannel.writeInbound(encodedResponse.retainedDuplicate());
+    Frame frame = decoderChannel.readInbound();
+    Queue<List<ByteBuffer>> data = ((Rows) frame.message).getData();
+    List<ByteBuffer> row;
+    while ((row = data.poll()) != null) {
+      for (int pass = 0; pass < 2; pass++) {
+        for (int i = 0; i < row.size(); i++) {
+          blackhole.consume(row.get(i));
+        }
+      }
+    }
+  }
+}
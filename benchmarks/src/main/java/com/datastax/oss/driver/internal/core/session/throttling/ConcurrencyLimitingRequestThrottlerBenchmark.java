@@ -0,0 +1,124 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.driver.internal.core.session.throttling;
+
+import com.datastax.oss.driver.api.core.RequestThrottlingException;
+import com.datastax.oss.driver.api.core.config.DefaultDriverOption;
+import com.datastax.oss.driver.api.core.session.throttling.Throttled;
+import com.datastax.oss.driver.internal.core.context.BenchmarkContexts;
+import com.datastax.oss.driver.internal.core.context.InternalDriverContext;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Contention on {@link ConcurrencyLimitingRequestThrottler}, with application threads that each
+ * register a request and complete it as soon as it starts.
+ *
+ * <p>With the default {@code maxConcurrentRequests}, the limit is never reached and we measure the
+ * fast path. With a limit lower than the number of threads, requests get queued and are started by
+ * the threads that complete other requests.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ConcurrencyLimitingRequestThrottlerBenchmark {
+
+  @Param({"10000", "4"})
+  public int maxConcurrentRequests;
+
+  private ConcurrencyLimitingRequestThrottler throttler;
+
+  @Setup
+  public void setup() {
+    InternalDriverContext context =
+        BenchmarkContexts.newContext(
+            builder ->
+                builder
+                    .withInt(
+                        DefaultDriverOption.REQUEST_THROTTLER_MAX_CONCURRENT_REQUESTS,
+                        maxConcurrentRequests)
+                    .withInt(DefaultDriverOption.REQUEST_THROTTLER_MAX_QUEUE_SIZE, 10000));
+    throttler = new ConcurrencyLimitingRequestThrottler(context);
+  }
+
+  @TearDown
+  public void teardown() {
+    throttler.close();
+  }
+
+  @Benchmark
+  @Threads(8)
+  public void threads8() {
+    execute();
+  }
+
+  @Benchmark
+  @Threads(32)
+  public void threads32() {
+    execute();
+  }
+
+  @Benchmark
+  @Threads(64)
+  public void threads64() {
+    execute();
+  }
+
+  private void execute() {
+    BenchmarkRequest request = new BenchmarkRequest();
+    throttler.register(request);
+    // If the request was queued, another thread will start it when it completes its own request
+    while (!request.ready) {
+      if (request.failed) {
+        throw new IllegalStateException("Unexpected throttling failure");
+      }
+      LockSupport.parkNanos(1000);
+    }
+    throttler.signalSuccess(request);
+  }
+
+  private static class BenchmarkRequest implements Throttled {
+    private volatile boolean ready;
+    private volatile boolean failed;
+
+    @Override
+    public void onThrottleReady(boolean wasDelayed) {
+      ready = true;
+    }
+
+    @Override
+    public void onThrottleFailure(@NonNull RequestThrottlingException error) {
+      failed = true;
+    }
+  }
+}
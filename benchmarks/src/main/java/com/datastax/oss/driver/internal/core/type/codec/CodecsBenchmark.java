@@ -0,0 +1,183 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.driver.internal.core.type.codec;
+
+import com.datastax.oss.driver.api.core.ProtocolVersion;
+import com.datastax.oss.driver.api.core.type.DataTypes;
+import com.datastax.oss.driver.api.core.type.codec.TypeCodec;
+import com.datastax.oss.driver.api.core.type.codec.TypeCodecs;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/** Encoding and decoding of the most common CQL types with the built-in codecs. */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CodecsBenchmark {
+
+  private static final ProtocolVersion VERSION = ProtocolVersion.DEFAULT;
+
+  private static final TypeCodec<List<Integer>> LIST_OF_INT = TypeCodecs.listOf(TypeCodecs.INT);
+  private static final TypeCodec<Map<String, Long>> MAP_OF_TEXT_TO_BIGINT =
+      TypeCodecs.mapOf(TypeCodecs.TEXT, TypeCodecs.BIGINT);
+  private static final TypeCodec<int[]> INT_ARRAY =
+      new IntArrayCodec(DataTypes.listOf(DataTypes.INT));
+
+  /** The number of elements in collection values. */
+  @Param({"10", "100"})
+  public int collectionSize;
+
+  private String text;
+  private UUID uuid;
+  private Instant timestamp;
+  private List<Integer> list;
+  private int[] array;
+  private Map<String, Long> map;
+
+  private ByteBuffer encodedInt;
+  private ByteBuffer encodedBigint;
+  private ByteBuffer encodedDouble;
+  private ByteBuffer encodedText;
+  private ByteBuffer encodedUuid;
+  private ByteBuffer encodedTimestamp;
+  private ByteBuffer encodedList;
+  private ByteBuffer encodedMap;
+
+  @Setup
+  public void setup() {
+    text = "The quick brown fox jumps over the lazy dog";
+    uuid = UUID.randomUUID();
+    timestamp = Instant.now();
+    list = new ArrayList<>(collectionSize);
+    array = new int[collectionSize];
+    map = new LinkedHashMap<>();
+    for (int i = 0; i < collectionSize; i++) {
+      list.add(i);
+      array[i] = i;
+      map.put("key" + i, (long) i);
+    }
+
+    encodedInt = TypeCodecs.INT.encodePrimitive(42, VERSION);
+    encodedBigint = TypeCodecs.BIGINT.encodePrimitive(42L, VERSION);
+    encodedDouble = TypeCodecs.DOUBLE.encodePrimitive(42.0, VERSION);
+    encodedText = TypeCodecs.TEXT.encode(text, VERSION);
+    encodedUuid = TypeCodecs.UUID.encode(uuid, VERSION);
+    encodedTimestamp = TypeCodecs.TIMESTAMP.encode(timestamp, VERSION);
+    encodedList = LIST_OF_INT.encode(list, VERSION);
+    encodedMap = MAP_OF_TEXT_TO_BIGINT.encode(map, VERSION);
+  }
+
+  @Benchmark
+  public ByteBuffer encodeInt() {
+    return TypeCodecs.INT.encodePrimitive(42, VERSION);
+  }
+
+  @Benchmark
+  public int decodeInt() {
+    return TypeCodecs.INT.decodePrimitive(encodedInt, VERSION);
+  }
+
+  @Benchmark
+  public ByteBuffer encodeBigint() {
+    return TypeCodecs.BIGINT.encodePrimitive(42L, VERSION);
+  }
+
+  @Benchmark
+  public long decodeBigint() {
+    return TypeCodecs.BIGINT.decodePrimitive(encodedBigint, VERSION);
+  }
+
+  @Benchmark
+  public double decodeDouble() {
+    return TypeCodecs.DOUBLE.decodePrimitive(encodedDouble, VERSION);
+  }
+
+  @Benchmark
+  public ByteBuffer encodeText() {
+    return TypeCodecs.TEXT.encode(text, VERSION);
+  }
+
+  @Benchmark
+  public String decodeText() {
+    return TypeCodecs.TEXT.decode(encodedText, VERSION);
+  }
+
+  @Benchmark
+  public ByteBuffer encodeUuid() {
+    return TypeCodecs.UUID.encode(uuid, VERSION);
+  }
+
+  @Benchmark
+  public UUID decodeUuid() {
+    return TypeCodecs.UUID.decode(encodedUuid, VERSION);
+  }
+
+  @Benchmark
+  public Instant decodeTimestamp() {
+    return TypeCodecs.TIMESTAMP.decode(encodedTimestamp, VERSION);
+  }
+
+  @Benchmark
+  public ByteBuffer encodeListOfInt() {
+    return LIST_OF_INT.encode(list, VERSION);
+  }
+
+  @Benchmark
+  public void decodeListOfInt(Blackhole blackhole) {
+    blackhole.consume(LIST_OF_INT.decode(encodedList, VERSION));
+  }
+
+  @Benchmark
+  public ByteBuffer encodeListOfIntAsArray() {
+    return INT_ARRAY.encode(array, VERSION);
+  }
+
+  @Benchmark
+  public int[] decodeListOfIntAsArray() {
+    return INT_ARRAY.decode(encodedList, VERSION);
+  }
+
+  @Benchmark
+  public ByteBuffer encodeMapOfTextToBigint() {
+    return MAP_OF_TEXT_TO_BIGINT.encode(map, VERSION);
+  }
+
+  @Benchmark
+  public void decodeMapOfTextToBigint(Blackhole blackhole) {
+    blackhole.consume(MAP_OF_TEXT_TO_BIGINT.decode(encodedMap, VERSION));
+  }
+}
@@ -19,6 +19,7 @@ import com.datastax.oss.driver.api.core.config.DriverExecutionProfile;
 import com.datastax.oss.driver.api.core.metadata.Node;
 import com.datastax.oss.driver.api.core.session.Request;
 import com.datastax.oss.driver.api.core.session.Session;
+import com.datastax.oss.driver.api.core.tracker.RequestLatencyBreakdown;
 import com.datastax.oss.driver.api.core.tracker.RequestTracker;
 import edu.umd.cs.findbugs.annotations.NonNull;
 import edu.umd.cs.findbugs.annotations.Nullable;
@@ -111,6 +112,22 @@ public class MultiplexingRequestTracker implements RequestTracker {
     }
   }
 
+  @Override
+  public void onLatencyBreakdown(
+      @NonNull Request request,
+      @NonNull RequestLatencyBreakdown breakdown,
+      @NonNull DriverExecutionProfile executionProfile,
+      @NonNull Node node,
+      @NonNull String logPrefix) {
+    for (RequestTracker tracker : trackers) {
+      try {
+        tracker.onLatencyBreakdown(request, breakdown, executionProfile, node, logPrefix);
+      } catch (Throwable t) {
+        LOG.error("[{}] Unexpected error while invoking request tracker", logPrefix, t);
+      }
+    }
+  }
+
   @Override
   public void onSessionReady(@NonNull Session session) {
     for (RequestTracker tracker : trackers) {
@@ -808,6 +808,420 @@ public enum DefaultDriverOption implements DriverOption {
    * <p>Value-type: int
    */
   SESSION_LEAK_THRESHOLD("advanced.session-leak.threshold"),
+
+  /**
+   * Whether the cells of ROWS responses are decoded lazily, when they are accessed.
+   *
+   * <p>Value-type: boolean
+   */
+  PROTOCOL_LAZY_ROWS("advanced.protocol.lazy-rows"),
+
+  /**
+   * The class of the write coalescer.
+   *
+   * <p>Value-type: {@link String}
+   */
+  COALESCER_CLASS("advanced.coalescer.class"),
+
+  /**
+   * The number of writes that the adaptive coalescer tries to group in a single flush.
+   *
+   * <p>Value-type: int
+   */
+  COALESCER_ADAPTIVE_TARGET_BATCH_SIZE("advanced.coalescer.adaptive.target-batch-size"),
+
+  /**
+   * The maximum time that the adaptive coalescer delays a flush to accumulate writes.
+   *
+   * <p>Value-type: {@link java.time.Duration Duration}
+   */
+  COALESCER_ADAPTIVE_MAX_DELAY("advanced.coalescer.adaptive.max-delay"),
+
+  /**
+   * The largest flush latency that we expect to record for the write coalescer.
+   *
+   * <p>Value-type: {@link java.time.Duration Duration}
+   */
+  METRICS_SESSION_COALESCER_FLUSH_LATENCY_HIGHEST(
+      "advanced.metrics.session.coalescer.flush-latency.highest-latency"),
+
+  /**
+   * The number of significant decimal digits to which internal structures will maintain for the
+   * write coalescer flush latency.
+   *
+   * <p>Value-type: int
+   */
+  METRICS_SESSION_COALESCER_FLUSH_LATENCY_DIGITS(
+      "advanced.metrics.session.coalescer.flush-latency.significant-digits"),
+
+  /**
+   * The interval at which percentile data is refreshed for the write coalescer flush latency.
+   *
+   * <p>Value-type: {@link java.time.Duration Duration}
+   */
+  METRICS_SESSION_COALESCER_FLUSH_LATENCY_INTERVAL(
+      "advanced.metrics.session.coalescer.flush-latency.refresh-interval"),
+
+  /**
+   * How fast LatencyAwareLoadBalancingPolicy forgets past response times.
+   *
+   * <p>Value-type: {@link java.time.Duration}
+   */
+  LOAD_BALANCING_POLICY_LATENCY_DECAY_TIME("basic.load-balancing-policy.latency-decay-time"),
+
+  /**
+   * Whether the built-in load balancing policies compute query plans lazily from precomputed
+   * arrays.
+   *
+   * <p>Value-type: boolean
+   */
+  LOAD_BALANCING_POLICY_LAZY_QUERY_PLANS("basic.load-balancing-policy.lazy-query-plans"),
+
+  /**
+   * The lower bound (and initial value) of the adaptive concurrency limit.
+   *
+   * <p>Value-type: int
+   */
+  REQUEST_THROTTLER_ADAPTIVE_MIN_CONCURRENT_REQUESTS(
+      "advanced.throttler.adaptive.min-concurrent-requests"),
+
+  /**
+   * The upper bound of the adaptive concurrency limit.
+   *
+   * <p>Value-type: int
+   */
+  REQUEST_THROTTLER_ADAPTIVE_MAX_CONCURRENT_REQUESTS(
+      "advanced.throttler.adaptive.max-concurrent-requests"),
+
+  /**
+   * How much latencies can rise, relative to the baseline, before the adaptive throttler backs off.
+   *
+   * <p>Value-type: double
+   */
+  REQUEST_THROTTLER_ADAPTIVE_LATENCY_TOLERANCE("advanced.throttler.adaptive.latency-tolerance"),
+
+  /**
+   * The factor applied to the adaptive concurrency limit when the throttler backs off.
+   *
+   * <p>Value-type: double
+   */
+  REQUEST_THROTTLER_ADAPTIVE_BACKOFF_RATIO("advanced.throttler.adaptive.backoff-ratio"),
+
+  /**
+   * How long the baseline latency of the adaptive throttler takes to adapt to a new normal.
+   *
+   * <p>Value-type: {@link java.time.Duration}
+   */
+  REQUEST_THROTTLER_ADAPTIVE_BASELINE_WINDOW("advanced.throttler.adaptive.baseline-window"),
+
+  /**
+   * Whether to enforce per-node rate and concurrency limits when sending requests.
+   *
+   * <p>Value-type: boolean
+   */
+  REQUEST_THROTTLER_PER_NODE_ENABLED("advanced.throttler.per-node.enabled"),
+
+  /**
+   * The maximum rate of requests sent to each node.
+   *
+   * <p>Value-type: int
+   */
+  REQUEST_THROTTLER_PER_NODE_MAX_REQUESTS_PER_SECOND(
+      "advanced.throttler.per-node.max-requests-per-second"),
+
+  /**
+   * The number of requests that can be sent at once to a node that was idle.
+   *
+   * <p>Value-type: int
+   */
+  REQUEST_THROTTLER_PER_NODE_MAX_BURST("advanced.throttler.per-node.max-burst"),
+
+  /**
+   * The maximum number of requests in flight on each node.
+   *
+   * <p>Value-type: int
+   */
+  REQUEST_THROTTLER_PER_NODE_MAX_CONCURRENT_REQUESTS(
+      "advanced.throttler.per-node.max-concurrent-requests"),
+
+  /**
+   * How long a request can wait for a node when all the nodes in its query plan are over their
+   * limits.
+   *
+   * <p>Value-type: {@link java.time.Duration}
+   */
+  REQUEST_THROTTLER_PER_NODE_MAX_QUEUE_DELAY("advanced.throttler.per-node.max-queue-delay"),
+
+  /**
+   * The Netty transport used by the I/O event loop group.
+   *
+   * <p>Value-type: String
+   */
+  NETTY_IO_TRANSPORT("advanced.netty.io-group.transport"),
+
+  /**
+   * Whether to enable TCP_QUICKACK (native transports only).
+   *
+   * <p>Value-type: boolean
+   */
+  SOCKET_TCP_QUICK_ACK("advanced.socket.tcp-quick-ack"),
+
+  /**
+   * The SO_BUSY_POLL timeout in microseconds (epoll transport only).
+   *
+   * <p>Value-type: int
+   */
+  SOCKET_BUSY_POLL("advanced.socket.busy-poll"),
+
+  /**
+   * Whether the epoll transport uses edge-triggered reads.
+   *
+   * <p>Value-type: boolean
+   */
+  SOCKET_EDGE_TRIGGERED("advanced.socket.edge-triggered"),
+
+  /**
+   * Whether to schedule timeouts on the I/O event loops instead of a dedicated timer thread.
+   *
+   * <p>Value-type: boolean
+   */
+  NETTY_TIMER_PER_EVENT_LOOP("advanced.netty.timer.per-event-loop"),
+
+  /**
+   * Whether to switch connections to the segment-based framing format of protocol v5.
+   *
+   * <p>Value-type: boolean
+   */
+  PROTOCOL_MODERN_FRAMING("advanced.protocol.modern-framing"),
+
+  /**
+   * The compression level used by the zstd compressor.
+   *
+   * <p>Value-type: int
+   */
+  PROTOCOL_ZSTD_LEVEL("advanced.protocol.zstd.level"),
+
+  /**
+   * The path to a dictionary file used by the zstd compressor.
+   *
+   * <p>Value-type: string
+   */
+  PROTOCOL_ZSTD_DICTIONARY("advanced.protocol.zstd.dictionary"),
+
+  /**
+   * The minimum size of a frame body for it to be compressed.
+   *
+   * <p>Value-type: long
+   */
+  PROTOCOL_COMPRESSION_THRESHOLD("advanced.protocol.compression-threshold"),
+
+  /**
+   * The largest compression time that we expect to record.
+   *
+   * <p>Value-type: {@link java.time.Duration Duration}
+   */
+  METRICS_NODE_COMPRESSION_TIME_HIGHEST("advanced.metrics.node.compression.time.highest-latency"),
+
+  /**
+   * The number of significant decimal digits to which internal structures will maintain for
+   * compression times.
+   *
+   * <p>Value-type: int
+   */
+  METRICS_NODE_COMPRESSION_TIME_DIGITS("advanced.metrics.node.compression.time.significant-digits"),
+
+  /**
+   * The interval at which percentile data is refreshed for compression times.
+   *
+   * <p>Value-type: {@link java.time.Duration Duration}
+   */
+  METRICS_NODE_COMPRESSION_TIME_INTERVAL("advanced.metrics.node.compression.time.refresh-interval"),
+
+  /**
+   * Whether the driver-side cache of prepared statements uses weak values.
+   *
+   * <p>Value-type: boolean
+   */
+  PREPARED_CACHE_WEAK_VALUES("advanced.prepared-statements.prepared-cache.weak-values"),
+
+  /**
+   * The maximum number of entries in the driver-side cache of prepared statements.
+   *
+   * <p>Value-type: long
+   */
+  PREPARED_CACHE_MAX_SIZE("advanced.prepared-statements.prepared-cache.max-size"),
+
+  /**
+   * How long an entry of the driver-side cache of prepared statements is kept after it was last
+   * accessed.
+   *
+   * <p>Value-type: {@link java.time.Duration Duration}
+   */
+  PREPARED_CACHE_EXPIRE_AFTER_ACCESS(
+      "advanced.prepared-statements.prepared-cache.expire-after-access"),
+
+  /**
+   * The class of the metrics factory.
+   *
+   * <p>Value-type: {@link String}
+   */
+  METRICS_FACTORY_CLASS("advanced.metrics.factory.class"),
+
+  /**
+   * Whether timers publish aggregable histogram buckets, for metrics backends that support it.
+   *
+   * <p>Value-type: boolean
+   */
+  METRICS_GENERATE_AGGREGABLE_HISTOGRAMS("advanced.metrics.histograms.generate-aggregable"),
+
+  /**
+   * The service-level objectives for requests, for metrics backends that support it.
+   *
+   * <p>Value-type: List of {@link java.time.Duration Duration}
+   */
+  METRICS_SESSION_CQL_REQUESTS_SLO("advanced.metrics.session.cql-requests.slo"),
+
+  /**
+   * The service-level objectives for node messages, for metrics backends that support it.
+   *
+   * <p>Value-type: List of {@link java.time.Duration Duration}
+   */
+  METRICS_NODE_CQL_MESSAGES_SLO("advanced.metrics.node.cql-messages.slo"),
+
+  /**
+   * Whether the Dropwizard factory records timers into striped, lock-free latency histograms.
+   *
+   * <p>Value-type: boolean
+   */
+  METRICS_HISTOGRAMS_LOCK_FREE_ENABLED("advanced.metrics.histograms.lock-free.enabled"),
+
+  /**
+   * The number of recorders in each lock-free latency histogram.
+   *
+   * <p>Value-type: int
+   */
+  METRICS_HISTOGRAMS_LOCK_FREE_STRIPES("advanced.metrics.histograms.lock-free.stripes"),
+
+  /**
+   * Whether to measure the duration of each phase of CQL requests.
+   *
+   * <p>Value-type: boolean
+   */
+  REQUEST_TRACKER_LATENCY_BREAKDOWN_ENABLED("advanced.request-tracker.latency-breakdown.enabled"),
+
+  /**
+   * How a connection pool picks a channel for each request.
+   *
+   * <p>Value-type: {@link String}
+   */
+  CONNECTION_POOL_CHANNEL_SELECTION("advanced.connection.pool.channel-selection"),
+
+  /**
+   * Whether result sets fetch the next page in the background, before the current one is fully
+   * consumed.
+   *
+   * <p>Value-type: boolean
+   */
+  PAGING_PREFETCH_ENABLED("advanced.paging-prefetch.enabled"),
+
+  /**
+   * The fraction of a page that must be consumed before the next page gets prefetched.
+   *
+   * <p>Value-type: double
+   */
+  PAGING_PREFETCH_THRESHOLD("advanced.paging-prefetch.threshold"),
+
+  /**
+   * How many pages a synchronous result set can prefetch ahead of the one being consumed.
+   *
+   * <p>Value-type: int
+   */
+  PAGING_PREFETCH_MAX_PAGES("advanced.paging-prefetch.max-pages"),
+
+  /**
+   * The maximum cumulated size of prefetched pages that have not been consumed yet.
+   *
+   * <p>Value-type: long
+   */
+  PAGING_PREFETCH_MAX_BYTES("advanced.paging-prefetch.max-bytes"),
+
+  /**
+   * The latency percentile that triggers a speculative execution.
+   *
+   * <p>Value-type: double
+   */
+  SPECULATIVE_EXECUTION_PERCENTILE("advanced.speculative-execution-policy.percentile"),
+
+  /**
+   * Whether latencies are tracked per node or for the whole execution profile.
+   *
+   * <p>Value-type: {@link String}
+   */
+  SPECULATIVE_EXECUTION_SCOPE("advanced.speculative-execution-policy.scope"),
+
+  /**
+   * The time window over which latencies are aggregated.
+   *
+   * <p>Value-type: {@link java.time.Duration Duration}
+   */
+  SPECULATIVE_EXECUTION_INTERVAL("advanced.speculative-execution-policy.interval"),
+
+  /**
+   * The largest latency that the latency histograms can record.
+   *
+   * <p>Value-type: {@link java.time.Duration Duration}
+   */
+  SPECULATIVE_EXECUTION_HIGHEST_LATENCY("advanced.speculative-execution-policy.highest-latency"),
+
+  /**
+   * The number of significant decimal digits of the latency histograms.
+   *
+   * <p>Value-type: int
+   */
+  SPECULATIVE_EXECUTION_SIGNIFICANT_DIGITS(
+      "advanced.speculative-execution-policy.significant-digits"),
+
+  /**
+   * The minimum number of latencies in a window before speculative executions are triggered.
+   *
+   * <p>Value-type: int
+   */
+  SPECULATIVE_EXECUTION_MIN_SAMPLES("advanced.speculative-execution-policy.min-samples"),
+
+  /**
+   * The maximum fraction of requests that can trigger a speculative execution.
+   *
+   * <p>Value-type: double
+   */
+  SPECULATIVE_EXECUTION_MAX_RATIO("advanced.speculative-execution-policy.max-ratio"),
+
+  /**
+   * Whether the session-wide retry budget is enabled.
+   *
+   * <p>Value-type: boolean
+   */
+  RETRY_BUDGET_ENABLED("advanced.retry-budget.enabled"),
+
+  /**
+   * The number of tokens added to the retry budget for each successful request.
+   *
+   * <p>Value-type: double
+   */
+  RETRY_BUDGET_RATIO("advanced.retry-budget.ratio"),
+
+  /**
+   * The number of tokens added to the retry budget every second, regardless of the traffic.
+   *
+   * <p>Value-type: int
+   */
+  RETRY_BUDGET_MIN_PER_SECOND("advanced.retry-budget.min-retries-per-second"),
+
+  /**
+   * The maximum number of tokens in the retry budget.
+   *
+   * <p>Value-type: int
+   */
+  RETRY_BUDGET_MAX_TOKENS("advanced.retry-budget.max-tokens"),
   ;
 
   private final String path;
@@ -253,12 +253,19 @@ public class OptionsMap implements Serializable {
     map.put(TypedDriverOption.GRAPH_TRAVERSAL_SOURCE, "g");
     map.put(TypedDriverOption.LOAD_BALANCING_POLICY_CLASS, "DefaultLoadBalancingPolicy");
     map.put(TypedDriverOption.LOAD_BALANCING_POLICY_SLOW_AVOIDANCE, true);
+    map.put(TypedDriverOption.LOAD_BALANCING_POLICY_LATENCY_DECAY_TIME, Duration.ofSeconds(1));
+    map.put(TypedDriverOption.LOAD_BALANCING_POLICY_LAZY_QUERY_PLANS, false);
     map.put(TypedDriverOption.SESSION_LEAK_THRESHOLD, 4);
     map.put(TypedDriverOption.CONNECTION_CONNECT_TIMEOUT, Duration.ofSeconds(5));
     map.put(TypedDriverOption.CONNECTION_INIT_QUERY_TIMEOUT, Duration.ofMillis(500));
     map.put(TypedDriverOption.CONNECTION_SET_KEYSPACE_TIMEOUT, Duration.ofMillis(500));
     map.put(TypedDriverOption.CONNECTION_POOL_LOCAL_SIZE, 1);
     map.put(TypedDriverOption.CONNECTION_POOL_REMOTE_SIZE, 1);
+    map.put(TypedDriverOption.CONNECTION_POOL_CHANNEL_SELECTION, "MOST_AVAILABLE");
+    map.put(TypedDriverOption.PAGING_PREFETCH_ENABLED, false);
+    map.put(TypedDriverOption.PAGING_PREFETCH_THRESHOLD, 0.5);
+    map.put(TypedDriverOption.PAGING_PREFETCH_MAX_PAGES, 1);
+    map.put(TypedDriverOption.PAGING_PREFETCH_MAX_BYTES, 16L * 1024 * 1024);
     map.put(TypedDriverOption.CONNECTION_MAX_REQUESTS, 1024);
     map.put(TypedDriverOption.CONNECTION_MAX_ORPHAN_REQUESTS, 24576);
     map.put(TypedDriverOption.CONNECTION_WARN_INIT_ERROR, true);
@@ -268,17 +275,30 @@ public class OptionsMap implements Serializable {
     map.put(TypedDriverOption.RECONNECTION_MAX_DELAY, Duration.ofSeconds(60));
     map.put(TypedDriverOption.RETRY_POLICY_CLASS, "DefaultRetryPolicy");
     map.put(TypedDriverOption.SPECULATIVE_EXECUTION_POLICY_CLASS, "NoSpeculativeExecutionPolicy");
+    map.put(TypedDriverOption.RETRY_BUDGET_ENABLED, false);
+    map.put(TypedDriverOption.RETRY_BUDGET_RATIO, 0.1);
+    map.put(TypedDriverOption.RETRY_BUDGET_MIN_PER_SECOND, 10);
+    map.put(TypedDriverOption.RETRY_BUDGET_MAX_TOKENS, 100);
     map.put(TypedDriverOption.TIMESTAMP_GENERATOR_CLASS, "AtomicTimestampGenerator");
     map.put(TypedDriverOption.TIMESTAMP_GENERATOR_DRIFT_WARNING_THRESHOLD, Duration.ofSeconds(1));
     map.put(TypedDriverOption.TIMESTAMP_GENERATOR_DRIFT_WARNING_INTERVAL, Duration.ofSeconds(10));
     map.put(TypedDriverOption.TIMESTAMP_GENERATOR_FORCE_JAVA_CLOCK, false);
     map.put(TypedDriverOption.REQUEST_TRACKER_CLASS, "NoopRequestTracker");
+    map.put(TypedDriverOption.REQUEST_TRACKER_LATENCY_BREAKDOWN_ENABLED, false);
     map.put(TypedDriverOption.REQUEST_THROTTLER_CLASS, "PassThroughRequestThrottler");
+    map.put(TypedDriverOption.REQUEST_THROTTLER_PER_NODE_ENABLED, false);
+    map.put(TypedDriverOption.REQUEST_THROTTLER_PER_NODE_MAX_REQUESTS_PER_SECOND, 10000);
+    map.put(TypedDriverOption.REQUEST_THROTTLER_PER_NODE_MAX_BURST, 100);
+    map.put(TypedDriverOption.REQUEST_THROTTLER_PER_NODE_MAX_CONCURRENT_REQUESTS, 0);
+    map.put(TypedDriverOption.REQUEST_THROTTLER_PER_NODE_MAX_QUEUE_DELAY, Duration.ofMillis(5));
     map.put(TypedDriverOption.METADATA_NODE_STATE_LISTENER_CLASS, "NoopNodeStateListener");
     map.put(TypedDriverOption.METADATA_SCHEMA_CHANGE_LISTENER_CLASS, "NoopSchemaChangeListener");
     map.put(TypedDriverOption.ADDRESS_TRANSLATOR_CLASS, "PassThroughAddressTranslator");
     map.put(TypedDriverOption.RESOLVE_CONTACT_POINTS, true);
     map.put(TypedDriverOption.PROTOCOL_MAX_FRAME_LENGTH, 256L * 1024 * 1024);
+    map.put(TypedDriverOption.PROTOCOL_LAZY_ROWS, false);
+    map.put(TypedDriverOption.PROTOCOL_MODERN_FRAMING, false);
+    map.put(TypedDriverOption.PROTOCOL_COMPRESSION_THRESHOLD, 64L);
     map.put(TypedDriverOption.REQUEST_WARN_IF_SET_KEYSPACE, true);
     map.put(TypedDriverOption.REQUEST_TRACE_ATTEMPTS, 5);
     map.put(TypedDriverOption.REQUEST_TRACE_INTERVAL, Duration.ofMillis(3));
@@ -304,6 +324,11 @@ public class OptionsMap implements Serializable {
     map.put(TypedDriverOption.METRICS_SESSION_THROTTLING_HIGHEST, Duration.ofSeconds(3));
     map.put(TypedDriverOption.METRICS_SESSION_THROTTLING_DIGITS, 3);
     map.put(TypedDriverOption.METRICS_SESSION_THROTTLING_INTERVAL, Duration.ofMinutes(5));
+    map.put(
+        TypedDriverOption.METRICS_SESSION_COALESCER_FLUSH_LATENCY_HIGHEST, Duration.ofMillis(100));
+    map.put(TypedDriverOption.METRICS_SESSION_COALESCER_FLUSH_LATENCY_DIGITS, 3);
+    map.put(
+        TypedDriverOption.METRICS_SESSION_COALESCER_FLUSH_LATENCY_INTERVAL, Duration.ofMinutes(5));
     map.put(
         TypedDriverOption.CONTINUOUS_PAGING_METRICS_SESSION_CQL_REQUESTS_HIGHEST,
         Duration.ofSeconds(3));
@@ -321,6 +346,13 @@ public class OptionsMap implements Serializable {
     map.put(TypedDriverOption.METRICS_NODE_GRAPH_MESSAGES_HIGHEST, Duration.ofSeconds(3));
     map.put(TypedDriverOption.METRICS_NODE_GRAPH_MESSAGES_DIGITS, 3);
     map.put(TypedDriverOption.METRICS_NODE_GRAPH_MESSAGES_INTERVAL, Duration.ofMinutes(5));
+    map.put(TypedDriverOption.METRICS_NODE_COMPRESSION_TIME_HIGHEST, Duration.ofMillis(10));
+    map.put(TypedDriverOption.METRICS_NODE_COMPRESSION_TIME_DIGITS, 3);
+    map.put(TypedDriverOption.METRICS_NODE_COMPRESSION_TIME_INTERVAL, Duration.ofMinutes(5));
+    map.put(TypedDriverOption.METRICS_FACTORY_CLASS, "DropwizardMetricsFactory");
+    map.put(TypedDriverOption.METRICS_GENERATE_AGGREGABLE_HISTOGRAMS, true);
+    map.put(TypedDriverOption.METRICS_HISTOGRAMS_LOCK_FREE_ENABLED, false);
+    map.put(TypedDriverOption.METRICS_HISTOGRAMS_LOCK_FREE_STRIPES, 4);
     map.put(TypedDriverOption.SOCKET_TCP_NODELAY, true);
     map.put(TypedDriverOption.HEARTBEAT_INTERVAL, Duration.ofSeconds(30));
     map.put(TypedDriverOption.HEARTBEAT_TIMEOUT, Duration.ofMillis(500));
@@ -342,8 +374,10 @@ public class OptionsMap implements Serializable {
     map.put(TypedDriverOption.REPREPARE_MAX_STATEMENTS, 0);
     map.put(TypedDriverOption.REPREPARE_MAX_PARALLELISM, 100);
     map.put(TypedDriverOption.REPREPARE_TIMEOUT, Duration.ofMillis(500));
+    map.put(TypedDriverOption.PREPARED_CACHE_WEAK_VALUES, true);
     map.put(TypedDriverOption.NETTY_DAEMON, false);
     map.put(TypedDriverOption.NETTY_IO_SIZE, 0);
+    map.put(TypedDriverOption.NETTY_IO_TRANSPORT, "AUTO");
     map.put(TypedDriverOption.NETTY_IO_SHUTDOWN_QUIET_PERIOD, 2);
     map.put(TypedDriverOption.NETTY_IO_SHUTDOWN_TIMEOUT, 15);
     map.put(TypedDriverOption.NETTY_IO_SHUTDOWN_UNIT, "SECONDS");
@@ -353,7 +387,11 @@ public class OptionsMap implements Serializable {
     map.put(TypedDriverOption.NETTY_ADMIN_SHUTDOWN_UNIT, "SECONDS");
     map.put(TypedDriverOption.NETTY_TIMER_TICK_DURATION, Duration.ofMillis(100));
     map.put(TypedDriverOption.NETTY_TIMER_TICKS_PER_WHEEL, 2048);
+    map.put(TypedDriverOption.NETTY_TIMER_PER_EVENT_LOOP, false);
     map.put(TypedDriverOption.COALESCER_INTERVAL, Duration.of(10, ChronoUnit.MICROS));
+    map.put(TypedDriverOption.COALESCER_CLASS, "DefaultWriteCoalescer");
+    map.put(TypedDriverOption.COALESCER_ADAPTIVE_TARGET_BATCH_SIZE, 16);
+    map.put(TypedDriverOption.COALESCER_ADAPTIVE_MAX_DELAY, Duration.of(100, ChronoUnit.MICROS));
   }
 
   @Immutable
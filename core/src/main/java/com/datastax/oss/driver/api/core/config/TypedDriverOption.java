@@ -164,6 +164,25 @@ public class TypedDriverOption<ValueT> {
   /** The number of connections in the REMOTE pool. */
   public static final TypedDriverOption<Integer> CONNECTION_POOL_REMOTE_SIZE =
       new TypedDriverOption<>(DefaultDriverOption.CONNECTION_POOL_REMOTE_SIZE, GenericType.INTEGER);
+  /**
+   * Whether result sets fetch the next page in the background, before the current one is fully
+   * consumed.
+   */
+  public static final TypedDriverOption<Boolean> PAGING_PREFETCH_ENABLED =
+      new TypedDriverOption<>(DefaultDriverOption.PAGING_PREFETCH_ENABLED, GenericType.BOOLEAN);
+  /** The fraction of a page that must be consumed before the next page gets prefetched. */
+  public static final TypedDriverOption<Double> PAGING_PREFETCH_THRESHOLD =
+      new TypedDriverOption<>(DefaultDriverOption.PAGING_PREFETCH_THRESHOLD, GenericType.DOUBLE);
+  /** How many pages a synchronous result set can prefetch ahead of the one being consumed. */
+  public static final TypedDriverOption<Integer> PAGING_PREFETCH_MAX_PAGES =
+      new TypedDriverOption<>(DefaultDriverOption.PAGING_PREFETCH_MAX_PAGES, GenericType.INTEGER);
+  /** The maximum cumulated size of prefetched pages that have not been consumed yet. */
+  public static final TypedDriverOption<Long> PAGING_PREFETCH_MAX_BYTES =
+      new TypedDriverOption<>(DefaultDriverOption.PAGING_PREFETCH_MAX_BYTES, GenericType.LONG);
+  /** How a connection pool picks a channel for each request. */
+  public static final TypedDriverOption<String> CONNECTION_POOL_CHANNEL_SELECTION =
+      new TypedDriverOption<>(
+          DefaultDriverOption.CONNECTION_POOL_CHANNEL_SELECTION, GenericType.STRING);
   /**
    * Whether to schedule reconnection attempts if all contact points are unreachable on the first
    * initialization attempt.
@@ -193,6 +212,45 @@ public class TypedDriverOption<ValueT> {
   public static final TypedDriverOption<Duration> SPECULATIVE_EXECUTION_DELAY =
       new TypedDriverOption<>(
           DefaultDriverOption.SPECULATIVE_EXECUTION_DELAY, GenericType.DURATION);
+  /** The latency percentile that triggers a speculative execution. */
+  public static final TypedDriverOption<Double> SPECULATIVE_EXECUTION_PERCENTILE =
+      new TypedDriverOption<>(
+          DefaultDriverOption.SPECULATIVE_EXECUTION_PERCENTILE, GenericType.DOUBLE);
+  /** Whether latencies are tracked per node or for the whole execution profile. */
+  public static final TypedDriverOption<String> SPECULATIVE_EXECUTION_SCOPE =
+      new TypedDriverOption<>(DefaultDriverOption.SPECULATIVE_EXECUTION_SCOPE, GenericType.STRING);
+  /** The time window over which latencies are aggregated. */
+  public static final TypedDriverOption<Duration> SPECULATIVE_EXECUTION_INTERVAL =
+      new TypedDriverOption<>(
+          DefaultDriverOption.SPECULATIVE_EXECUTION_INTERVAL, GenericType.DURATION);
+  /** The largest latency that the latency histograms can record. */
+  public static final TypedDriverOption<Duration> SPECULATIVE_EXECUTION_HIGHEST_LATENCY =
+      new TypedDriverOption<>(
+          DefaultDriverOption.SPECULATIVE_EXECUTION_HIGHEST_LATENCY, GenericType.DURATION);
+  /** The number of significant decimal digits of the latency histograms. */
+  public static final TypedDriverOption<Integer> SPECULATIVE_EXECUTION_SIGNIFICANT_DIGITS =
+      new TypedDriverOption<>(
+          DefaultDriverOption.SPECULATIVE_EXECUTION_SIGNIFICANT_DIGITS, GenericType.INTEGER);
+  /** The minimum number of latencies in a window before speculative executions are triggered. */
+  public static final TypedDriverOption<Integer> SPECULATIVE_EXECUTION_MIN_SAMPLES =
+      new TypedDriverOption<>(
+          DefaultDriverOption.SPECULATIVE_EXECUTION_MIN_SAMPLES, GenericType.INTEGER);
+  /** The maximum fraction of requests that can trigger a speculative execution. */
+  public static final TypedDriverOption<Double> SPECULATIVE_EXECUTION_MAX_RATIO =
+      new TypedDriverOption<>(
+          DefaultDriverOption.SPECULATIVE_EXECUTION_MAX_RATIO, GenericType.DOUBLE);
+  /** Whether the session-wide retry budget is enabled. */
+  public static final TypedDriverOption<Boolean> RETRY_BUDGET_ENABLED =
+      new TypedDriverOption<>(DefaultDriverOption.RETRY_BUDGET_ENABLED, GenericType.BOOLEAN);
+  /** The number of tokens added to the retry budget for each successful request. */
+  public static final TypedDriverOption<Double> RETRY_BUDGET_RATIO =
+      new TypedDriverOption<>(DefaultDriverOption.RETRY_BUDGET_RATIO, GenericType.DOUBLE);
+  /** The number of tokens added to the retry budget every second, regardless of the traffic. */
+  public static final TypedDriverOption<Integer> RETRY_BUDGET_MIN_PER_SECOND =
+      new TypedDriverOption<>(DefaultDriverOption.RETRY_BUDGET_MIN_PER_SECOND, GenericType.INTEGER);
+  /** The maximum number of tokens in the retry budget. */
+  public static final TypedDriverOption<Integer> RETRY_BUDGET_MAX_TOKENS =
+      new TypedDriverOption<>(DefaultDriverOption.RETRY_BUDGET_MAX_TOKENS, GenericType.INTEGER);
   /** The class of the authentication provider. */
   public static final TypedDriverOption<String> AUTH_PROVIDER_CLASS =
       new TypedDriverOption<>(DefaultDriverOption.AUTH_PROVIDER_CLASS, GenericType.STRING);
@@ -300,6 +358,59 @@ public class TypedDriverOption<ValueT> {
   public static final TypedDriverOption<Duration> REQUEST_THROTTLER_DRAIN_INTERVAL =
       new TypedDriverOption<>(
           DefaultDriverOption.REQUEST_THROTTLER_DRAIN_INTERVAL, GenericType.DURATION);
+  /** The lower bound (and initial value) of the adaptive concurrency limit. */
+  public static final TypedDriverOption<Integer>
+      REQUEST_THROTTLER_ADAPTIVE_MIN_CONCURRENT_REQUESTS =
+          new TypedDriverOption<>(
+              DefaultDriverOption.REQUEST_THROTTLER_ADAPTIVE_MIN_CONCURRENT_REQUESTS,
+              GenericType.INTEGER);
+  /** The upper bound of the adaptive concurrency limit. */
+  public static final TypedDriverOption<Integer>
+      REQUEST_THROTTLER_ADAPTIVE_MAX_CONCURRENT_REQUESTS =
+          new TypedDriverOption<>(
+              DefaultDriverOption.REQUEST_THROTTLER_ADAPTIVE_MAX_CONCURRENT_REQUESTS,
+              GenericType.INTEGER);
+  /**
+   * How much latencies can rise, relative to the baseline, before the adaptive throttler backs off.
+   */
+  public static final TypedDriverOption<Double> REQUEST_THROTTLER_ADAPTIVE_LATENCY_TOLERANCE =
+      new TypedDriverOption<>(
+          DefaultDriverOption.REQUEST_THROTTLER_ADAPTIVE_LATENCY_TOLERANCE, GenericType.DOUBLE);
+  /** The factor applied to the adaptive concurrency limit when the throttler backs off. */
+  public static final TypedDriverOption<Double> REQUEST_THROTTLER_ADAPTIVE_BACKOFF_RATIO =
+      new TypedDriverOption<>(
+          DefaultDriverOption.REQUEST_THROTTLER_ADAPTIVE_BACKOFF_RATIO, GenericType.DOUBLE);
+  /** How long the baseline latency of the adaptive throttler takes to adapt to a new normal. */
+  public static final TypedDriverOption<Duration> REQUEST_THROTTLER_ADAPTIVE_BASELINE_WINDOW =
+      new TypedDriverOption<>(
+          DefaultDriverOption.REQUEST_THROTTLER_ADAPTIVE_BASELINE_WINDOW, GenericType.DURATION);
+  /** Whether to enforce per-node rate and concurrency limits when sending requests. */
+  public static final TypedDriverOption<Boolean> REQUEST_THROTTLER_PER_NODE_ENABLED =
+      new TypedDriverOption<>(
+          DefaultDriverOption.REQUEST_THROTTLER_PER_NODE_ENABLED, GenericType.BOOLEAN);
+  /** The maximum rate of requests sent to each node. */
+  public static final TypedDriverOption<Integer>
+      REQUEST_THROTTLER_PER_NODE_MAX_REQUESTS_PER_SECOND =
+          new TypedDriverOption<>(
+              DefaultDriverOption.REQUEST_THROTTLER_PER_NODE_MAX_REQUESTS_PER_SECOND,
+              GenericType.INTEGER);
+  /** The number of requests that can be sent at once to a node that was idle. */
+  public static final TypedDriverOption<Integer> REQUEST_THROTTLER_PER_NODE_MAX_BURST =
+      new TypedDriverOption<>(
+          DefaultDriverOption.REQUEST_THROTTLER_PER_NODE_MAX_BURST, GenericType.INTEGER);
+  /** The maximum number of requests in flight on each node. */
+  public static final TypedDriverOption<Integer>
+      REQUEST_THROTTLER_PER_NODE_MAX_CONCURRENT_REQUESTS =
+          new TypedDriverOption<>(
+              DefaultDriverOption.REQUEST_THROTTLER_PER_NODE_MAX_CONCURRENT_REQUESTS,
+              GenericType.INTEGER);
+  /**
+   * How long a request can wait for a node when all the nodes in its query plan are over their
+   * limits.
+   */
+  public static final TypedDriverOption<Duration> REQUEST_THROTTLER_PER_NODE_MAX_QUEUE_DELAY =
+      new TypedDriverOption<>(
+          DefaultDriverOption.REQUEST_THROTTLER_PER_NODE_MAX_QUEUE_DELAY, GenericType.DURATION);
   /** The class of a session-wide component that listens for node state changes. */
   public static final TypedDriverOption<String> METADATA_NODE_STATE_LISTENER_CLASS =
       new TypedDriverOption<>(
@@ -323,6 +434,73 @@ public class TypedDriverOption<ValueT> {
   /** The maximum length, in bytes, of the frames supported by the driver. */
   public static final TypedDriverOption<Long> PROTOCOL_MAX_FRAME_LENGTH =
       new TypedDriverOption<>(DefaultDriverOption.PROTOCOL_MAX_FRAME_LENGTH, GenericType.LONG);
+  /** Whether the cells of ROWS responses are decoded lazily, when they are accessed. */
+  public static final TypedDriverOption<Boolean> PROTOCOL_LAZY_ROWS =
+      new TypedDriverOption<>(DefaultDriverOption.PROTOCOL_LAZY_ROWS, GenericType.BOOLEAN);
+  /** Whether to switch connections to the segment-based framing format of protocol v5. */
+  public static final TypedDriverOption<Boolean> PROTOCOL_MODERN_FRAMING =
+      new TypedDriverOption<>(DefaultDriverOption.PROTOCOL_MODERN_FRAMING, GenericType.BOOLEAN);
+  /** The compression level used by the zstd compressor. */
+  public static final TypedDriverOption<Integer> PROTOCOL_ZSTD_LEVEL =
+      new TypedDriverOption<>(DefaultDriverOption.PROTOCOL_ZSTD_LEVEL, GenericType.INTEGER);
+  /** The path to a dictionary file used by the zstd compressor. */
+  public static final TypedDriverOption<String> PROTOCOL_ZSTD_DICTIONARY =
+      new TypedDriverOption<>(DefaultDriverOption.PROTOCOL_ZSTD_DICTIONARY, GenericType.STRING);
+  /** The minimum size of a frame body for it to be compressed. */
+  public static final TypedDriverOption<Long> PROTOCOL_COMPRESSION_THRESHOLD =
+      new TypedDriverOption<>(DefaultDriverOption.PROTOCOL_COMPRESSION_THRESHOLD, GenericType.LONG);
+  /** The largest compression time that we expect to record. */
+  public static final TypedDriverOption<Duration> METRICS_NODE_COMPRESSION_TIME_HIGHEST =
+      new TypedDriverOption<>(
+          DefaultDriverOption.METRICS_NODE_COMPRESSION_TIME_HIGHEST, GenericType.DURATION);
+  /**
+   * The number of significant decimal digits to which internal structures will maintain for
+   * compression times.
+   */
+  public static final TypedDriverOption<Integer> METRICS_NODE_COMPRESSION_TIME_DIGITS =
+      new TypedDriverOption<>(
+          DefaultDriverOption.METRICS_NODE_COMPRESSION_TIME_DIGITS, GenericType.INTEGER);
+  /** The interval at which percentile data is refreshed for compression times. */
+  public static final TypedDriverOption<Duration> METRICS_NODE_COMPRESSION_TIME_INTERVAL =
+      new TypedDriverOption<>(
+          DefaultDriverOption.METRICS_NODE_COMPRESSION_TIME_INTERVAL, GenericType.DURATION);
+  /** Whether the driver-side cache of prepared statements uses weak values. */
+  public static final TypedDriverOption<Boolean> PREPARED_CACHE_WEAK_VALUES =
+      new TypedDriverOption<>(DefaultDriverOption.PREPARED_CACHE_WEAK_VALUES, GenericType.BOOLEAN);
+  /** The maximum number of entries in the driver-side cache of prepared statements. */
+  public static final TypedDriverOption<Long> PREPARED_CACHE_MAX_SIZE =
+      new TypedDriverOption<>(DefaultDriverOption.PREPARED_CACHE_MAX_SIZE, GenericType.LONG);
+  /** How long an entry of the prepared statement cache is kept after it was last accessed. */
+  public static final TypedDriverOption<Duration> PREPARED_CACHE_EXPIRE_AFTER_ACCESS =
+      new TypedDriverOption<>(
+          DefaultDriverOption.PREPARED_CACHE_EXPIRE_AFTER_ACCESS, GenericType.DURATION);
+  /** The class of the metrics factory. */
+  public static final TypedDriverOption<String> METRICS_FACTORY_CLASS =
+      new TypedDriverOption<>(DefaultDriverOption.METRICS_FACTORY_CLASS, GenericType.STRING);
+  /** Whether timers publish aggregable histogram buckets, for metrics backends that support it. */
+  public static final TypedDriverOption<Boolean> METRICS_GENERATE_AGGREGABLE_HISTOGRAMS =
+      new TypedDriverOption<>(
+          DefaultDriverOption.METRICS_GENERATE_AGGREGABLE_HISTOGRAMS, GenericType.BOOLEAN);
+  /** Whether the Dropwizard factory records timers into striped, lock-free latency histograms. */
+  public static final TypedDriverOption<Boolean> METRICS_HISTOGRAMS_LOCK_FREE_ENABLED =
+      new TypedDriverOption<>(
+          DefaultDriverOption.METRICS_HISTOGRAMS_LOCK_FREE_ENABLED, GenericType.BOOLEAN);
+  /** The number of recorders in each lock-free latency histogram. */
+  public static final TypedDriverOption<Integer> METRICS_HISTOGRAMS_LOCK_FREE_STRIPES =
+      new TypedDriverOption<>(
+          DefaultDriverOption.METRICS_HISTOGRAMS_LOCK_FREE_STRIPES, GenericType.INTEGER);
+  /** Whether to measure the duration of each phase of CQL requests. */
+  public static final TypedDriverOption<Boolean> REQUEST_TRACKER_LATENCY_BREAKDOWN_ENABLED =
+      new TypedDriverOption<>(
+          DefaultDriverOption.REQUEST_TRACKER_LATENCY_BREAKDOWN_ENABLED, GenericType.BOOLEAN);
+  /** The service-level objectives for requests, for metrics backends that support it. */
+  public static final TypedDriverOption<List<Duration>> METRICS_SESSION_CQL_REQUESTS_SLO =
+      new TypedDriverOption<>(
+          DefaultDriverOption.METRICS_SESSION_CQL_REQUESTS_SLO, GenericType.listOf(Duration.class));
+  /** The service-level objectives for node messages, for metrics backends that support it. */
+  public static final TypedDriverOption<List<Duration>> METRICS_NODE_CQL_MESSAGES_SLO =
+      new TypedDriverOption<>(
+          DefaultDriverOption.METRICS_NODE_CQL_MESSAGES_SLO, GenericType.listOf(Duration.class));
   /**
    * Whether a warning is logged when a request (such as a CQL `USE ...`) changes the active
    * keyspace.
@@ -377,6 +555,23 @@ public class TypedDriverOption<ValueT> {
   public static final TypedDriverOption<Duration> METRICS_SESSION_THROTTLING_INTERVAL =
       new TypedDriverOption<>(
           DefaultDriverOption.METRICS_SESSION_THROTTLING_INTERVAL, GenericType.DURATION);
+  /** The largest flush latency that we expect to record for the write coalescer. */
+  public static final TypedDriverOption<Duration> METRICS_SESSION_COALESCER_FLUSH_LATENCY_HIGHEST =
+      new TypedDriverOption<>(
+          DefaultDriverOption.METRICS_SESSION_COALESCER_FLUSH_LATENCY_HIGHEST,
+          GenericType.DURATION);
+  /**
+   * The number of significant decimal digits to which internal structures will maintain for the
+   * write coalescer flush latency.
+   */
+  public static final TypedDriverOption<Integer> METRICS_SESSION_COALESCER_FLUSH_LATENCY_DIGITS =
+      new TypedDriverOption<>(
+          DefaultDriverOption.METRICS_SESSION_COALESCER_FLUSH_LATENCY_DIGITS, GenericType.INTEGER);
+  /** The interval at which percentile data is refreshed for the write coalescer flush latency. */
+  public static final TypedDriverOption<Duration> METRICS_SESSION_COALESCER_FLUSH_LATENCY_INTERVAL =
+      new TypedDriverOption<>(
+          DefaultDriverOption.METRICS_SESSION_COALESCER_FLUSH_LATENCY_INTERVAL,
+          GenericType.DURATION);
   /** The largest latency that we expect to record for requests. */
   public static final TypedDriverOption<Duration> METRICS_NODE_CQL_MESSAGES_HIGHEST =
       new TypedDriverOption<>(
@@ -410,6 +605,15 @@ public class TypedDriverOption<ValueT> {
   /** Sets a hint to the size of the underlying buffers for outgoing network I/O. */
   public static final TypedDriverOption<Integer> SOCKET_SEND_BUFFER_SIZE =
       new TypedDriverOption<>(DefaultDriverOption.SOCKET_SEND_BUFFER_SIZE, GenericType.INTEGER);
+  /** Whether to enable TCP_QUICKACK (native transports only). */
+  public static final TypedDriverOption<Boolean> SOCKET_TCP_QUICK_ACK =
+      new TypedDriverOption<>(DefaultDriverOption.SOCKET_TCP_QUICK_ACK, GenericType.BOOLEAN);
+  /** The SO_BUSY_POLL timeout in microseconds (epoll transport only). */
+  public static final TypedDriverOption<Integer> SOCKET_BUSY_POLL =
+      new TypedDriverOption<>(DefaultDriverOption.SOCKET_BUSY_POLL, GenericType.INTEGER);
+  /** Whether the epoll transport uses edge-triggered reads. */
+  public static final TypedDriverOption<Boolean> SOCKET_EDGE_TRIGGERED =
+      new TypedDriverOption<>(DefaultDriverOption.SOCKET_EDGE_TRIGGERED, GenericType.BOOLEAN);
   /** The connection heartbeat interval. */
   public static final TypedDriverOption<Duration> HEARTBEAT_INTERVAL =
       new TypedDriverOption<>(DefaultDriverOption.HEARTBEAT_INTERVAL, GenericType.DURATION);
@@ -485,6 +689,9 @@ public class TypedDriverOption<ValueT> {
   /** The number of threads in the I/O group. */
   public static final TypedDriverOption<Integer> NETTY_IO_SIZE =
       new TypedDriverOption<>(DefaultDriverOption.NETTY_IO_SIZE, GenericType.INTEGER);
+  /** The Netty transport used by the I/O event loop group. */
+  public static final TypedDriverOption<String> NETTY_IO_TRANSPORT =
+      new TypedDriverOption<>(DefaultDriverOption.NETTY_IO_TRANSPORT, GenericType.STRING);
   /** Quiet period for I/O group shutdown. */
   public static final TypedDriverOption<Integer> NETTY_IO_SHUTDOWN_QUIET_PERIOD =
       new TypedDriverOption<>(
@@ -516,6 +723,17 @@ public class TypedDriverOption<ValueT> {
   /** The coalescer reschedule interval. */
   public static final TypedDriverOption<Duration> COALESCER_INTERVAL =
       new TypedDriverOption<>(DefaultDriverOption.COALESCER_INTERVAL, GenericType.DURATION);
+  /** The class of the write coalescer. */
+  public static final TypedDriverOption<String> COALESCER_CLASS =
+      new TypedDriverOption<>(DefaultDriverOption.COALESCER_CLASS, GenericType.STRING);
+  /** The number of writes that the adaptive coalescer tries to group in a single flush. */
+  public static final TypedDriverOption<Integer> COALESCER_ADAPTIVE_TARGET_BATCH_SIZE =
+      new TypedDriverOption<>(
+          DefaultDriverOption.COALESCER_ADAPTIVE_TARGET_BATCH_SIZE, GenericType.INTEGER);
+  /** The maximum time that the adaptive coalescer delays a flush to accumulate writes. */
+  public static final TypedDriverOption<Duration> COALESCER_ADAPTIVE_MAX_DELAY =
+      new TypedDriverOption<>(
+          DefaultDriverOption.COALESCER_ADAPTIVE_MAX_DELAY, GenericType.DURATION);
   /** Whether to resolve the addresses passed to `basic.contact-points`. */
   public static final TypedDriverOption<Boolean> RESOLVE_CONTACT_POINTS =
       new TypedDriverOption<>(DefaultDriverOption.RESOLVE_CONTACT_POINTS, GenericType.BOOLEAN);
@@ -528,6 +746,9 @@ public class TypedDriverOption<ValueT> {
   /** Number of ticks in the Timer wheel. */
   public static final TypedDriverOption<Integer> NETTY_TIMER_TICKS_PER_WHEEL =
       new TypedDriverOption<>(DefaultDriverOption.NETTY_TIMER_TICKS_PER_WHEEL, GenericType.INTEGER);
+  /** Whether to schedule timeouts on the I/O event loops instead of a dedicated timer thread. */
+  public static final TypedDriverOption<Boolean> NETTY_TIMER_PER_EVENT_LOOP =
+      new TypedDriverOption<>(DefaultDriverOption.NETTY_TIMER_PER_EVENT_LOOP, GenericType.BOOLEAN);
   /**
    * Whether logging of server warnings generated during query execution should be disabled by the
    * driver.
@@ -547,6 +768,14 @@ public class TypedDriverOption<ValueT> {
   public static final TypedDriverOption<Boolean> LOAD_BALANCING_POLICY_SLOW_AVOIDANCE =
       new TypedDriverOption<>(
           DefaultDriverOption.LOAD_BALANCING_POLICY_SLOW_AVOIDANCE, GenericType.BOOLEAN);
+  /** How fast the latency-aware LBP forgets past response times. */
+  public static final TypedDriverOption<Duration> LOAD_BALANCING_POLICY_LATENCY_DECAY_TIME =
+      new TypedDriverOption<>(
+          DefaultDriverOption.LOAD_BALANCING_POLICY_LATENCY_DECAY_TIME, GenericType.DURATION);
+  /** Whether the built-in LBPs compute query plans lazily from precomputed arrays. */
+  public static final TypedDriverOption<Boolean> LOAD_BALANCING_POLICY_LAZY_QUERY_PLANS =
+      new TypedDriverOption<>(
+          DefaultDriverOption.LOAD_BALANCING_POLICY_LAZY_QUERY_PLANS, GenericType.BOOLEAN);
   /** The timeout to use when establishing driver connections. */
   public static final TypedDriverOption<Duration> CONNECTION_CONNECT_TIMEOUT =
       new TypedDriverOption<>(DefaultDriverOption.CONNECTION_CONNECT_TIMEOUT, GenericType.DURATION);
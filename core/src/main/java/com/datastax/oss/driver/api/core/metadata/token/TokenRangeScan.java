@@ -0,0 +1,98 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.driver.api.core.metadata.token;
+
+import com.datastax.oss.driver.api.core.CqlIdentifier;
+import com.datastax.oss.driver.api.core.CqlSession;
+import com.datastax.oss.driver.api.core.metadata.TokenMap;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.util.List;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * A full scan of a table, split by token range and executed in parallel on the replicas.
+ *
+ * <p>The ring (as described by {@link TokenMap#getTokenRanges()}) is divided into sub-ranges, each
+ * of which is read with a separate query routed to one of its replicas. Queries run concurrently,
+ * with a bounded number of sub-ranges in flight per node, so that the load is spread across the
+ * whole cluster instead of a single coordinator.
+ *
+ * <pre>
+ * TokenRangeScan scan =
+ *     TokenRangeScan.builder(session, "ks", "my_table")
+ *         .withSplitsPerRange(4)
+ *         .withMaxConcurrentRangesPerNode(2)
+ *         .build();
+ * scan.executeAsync(
+ *     new TokenRangeScanListener() {
+ *       public void onRow(Row row, TokenRange range) { ... }
+ *       public void onRangeCompleted(TokenRange range) { checkpoints.save(range); }
+ *     });
+ * </pre>
+ *
+ * <h3>Resuming a scan</h3>
+ *
+ * The listener is notified each time a sub-range has been fully read; if those ranges are saved, an
+ * interrupted scan can be resumed by passing them to {@link
+ * TokenRangeScanBuilder#withCompletedRanges(Iterable)}: any sub-range that is entirely covered by a
+ * completed range is skipped. Note that if the topology changed in the meantime, sub-ranges that
+ * are only partially covered are read again, so some rows might be delivered twice.
+ *
+ * <p>Instances are created with {@link #builder(CqlSession, CqlIdentifier, CqlIdentifier)}. They
+ * are immutable, and can be executed multiple times.
+ */
+public interface TokenRangeScan {
+
+  /** Starts building a scan of the given table. */
+  @NonNull
+  static TokenRangeScanBuilder builder(
+      @NonNull CqlSession session, @NonNull CqlIdentifier keyspace, @NonNull CqlIdentifier table) {
+    return new TokenRangeScanBuilder(session, keyspace, table);
+  }
+
+  /**
+   * Shortcut for {@link #builder(CqlSession, CqlIdentifier, CqlIdentifier) builder(session,
+   * CqlIdentifier.fromCql(keyspaceName), CqlIdentifier.fromCql(tableName))}.
+   */
+  @NonNull
+  static TokenRangeScanBuilder builder(
+      @NonNull CqlSession session, @NonNull String keyspaceName, @NonNull String tableName) {
+    return builder(session, CqlIdentifier.fromCql(keyspaceName), CqlIdentifier.fromCql(tableName));
+  }
+
+  /**
+   * The sub-ranges that will be read when this scan is executed, in ring order.
+   *
+   * <p>This is computed when the scan is built, from the token metadata at that time; completed
+   * ranges are already excluded.
+   */
+  @NonNull
+  List<TokenRange> getRanges();
+
+  /**
+   * Executes the scan.
+   *
+   * <p>A sub-range that fails before any of its rows were delivered is retried on its other
+   * replicas; otherwise it is reported to {@link TokenRangeScanListener#onRangeFailed(TokenRange,
+   * Throwable)}, and the scan proceeds with the remaining sub-ranges.
+   *
+   * @return a stage that completes when all sub-ranges have been processed. It completes
+   *     exceptionally if at least one sub-range failed (with the first error; subsequent ones are
+   *     attached as {@linkplain Throwable#getSuppressed() suppressed} exceptions).
+   */
+  @NonNull
+  CompletionStage<Void> executeAsync(@NonNull TokenRangeScanListener listener);
+}
@@ -0,0 +1,165 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.driver.api.core.metadata.token;
+
+import com.datastax.oss.driver.api.core.CqlIdentifier;
+import com.datastax.oss.driver.api.core.CqlSession;
+import com.datastax.oss.driver.api.core.config.DriverExecutionProfile;
+import com.datastax.oss.driver.internal.core.metadata.token.DefaultTokenRangeScan;
+import com.datastax.oss.driver.shaded.guava.common.base.Preconditions;
+import com.datastax.oss.driver.shaded.guava.common.collect.ImmutableList;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import java.util.concurrent.Executor;
+import net.jcip.annotations.NotThreadSafe;
+
+/** Builds a {@link TokenRangeScan}. */
+@NotThreadSafe
+public class TokenRangeScanBuilder {
+
+  private final CqlSession session;
+  private final CqlIdentifier keyspace;
+  private final CqlIdentifier table;
+  private final ImmutableList.Builder<CqlIdentifier> columns = ImmutableList.builder();
+  private final ImmutableList.Builder<TokenRange> completedRanges = ImmutableList.builder();
+  private int splitsPerRange = 1;
+  private int maxConcurrentRangesPerNode = 1;
+  private String executionProfileName;
+  private DriverExecutionProfile executionProfile;
+  private Executor callbackExecutor;
+
+  protected TokenRangeScanBuilder(
+      @NonNull CqlSession session, @NonNull CqlIdentifier keyspace, @NonNull CqlIdentifier table) {
+    this.session = session;
+    this.keyspace = keyspace;
+    this.table = table;
+  }
+
+  /**
+   * Adds columns to retrieve. If this method is never called, all columns are retrieved ({@code
+   * SELECT *}).
+   */
+  @NonNull
+  public TokenRangeScanBuilder withColumns(@NonNull CqlIdentifier... columnIds) {
+    columns.add(columnIds);
+    return this;
+  }
+
+  /**
+   * Shortcut for {@link #withColumns(CqlIdentifier...)}, where each name is converted with {@link
+   * CqlIdentifier#fromCql(String)}.
+   */
+  @NonNull
+  public TokenRangeScanBuilder withColumns(@NonNull String... columnNames) {
+    for (String columnName : columnNames) {
+      columns.add(CqlIdentifier.fromCql(columnName));
+    }
+    return this;
+  }
+
+  /**
+   * How many sub-ranges each range of {@link
+   * com.datastax.oss.driver.api.core.metadata.TokenMap#getTokenRanges()} is split into (with {@link
+   * TokenRange#splitEvenly(int)}). Defaults to 1.
+   *
+   * <p>Smaller sub-ranges mean shorter queries, and a finer granularity for checkpoints and
+   * retries. With virtual nodes, the ring is already divided into many ranges, so this can usually
+   * stay at 1.
+   */
+  @NonNull
+  public TokenRangeScanBuilder withSplitsPerRange(int splitsPerRange) {
+    Preconditions.checkArgument(
+        splitsPerRange > 0, "splitsPerRange must be strictly positive (got %s)", splitsPerRange);
+    this.splitsPerRange = splitsPerRange;
+    return this;
+  }
+
+  /**
+   * The maximum number of sub-ranges that are read concurrently from the same node. Defaults to 1.
+   *
+   * <p>The overall parallelism of the scan is this value multiplied by the number of nodes.
+   */
+  @NonNull
+  public TokenRangeScanBuilder withMaxConcurrentRangesPerNode(int maxConcurrentRangesPerNode) {
+    Preconditions.checkArgument(
+        maxConcurrentRangesPerNode > 0,
+        "maxConcurrentRangesPerNode must be strictly positive (got %s)",
+        maxConcurrentRangesPerNode);
+    this.maxConcurrentRangesPerNode = maxConcurrentRangesPerNode;
+    return this;
+  }
+
+  /**
+   * Ranges that were already read by a previous execution (as reported by {@link
+   * TokenRangeScanListener#onRangeCompleted(TokenRange)}). Any sub-range that is entirely covered
+   * by one of them will be skipped.
+   */
+  @NonNull
+  public TokenRangeScanBuilder withCompletedRanges(@NonNull Iterable<TokenRange> ranges) {
+    completedRanges.addAll(ranges);
+    return this;
+  }
+
+  /**
+   * The name of the execution profile to use for the scan queries (for example to customize the
+   * page size, consistency level or timeout).
+   */
+  @NonNull
+  public TokenRangeScanBuilder withExecutionProfileName(@Nullable String executionProfileName) {
+    this.executionProfileName = executionProfileName;
+    return this;
+  }
+
+  /** The execution profile to use for the scan queries. */
+  @NonNull
+  public TokenRangeScanBuilder withExecutionProfile(
+      @Nullable DriverExecutionProfile executionProfile) {
+    this.executionProfile = executionProfile;
+    return this;
+  }
+
+  /**
+   * The executor that will invoke the {@link TokenRangeScanListener} methods. If not set, they are
+   * invoked on the driver's I/O threads.
+   */
+  @NonNull
+  public TokenRangeScanBuilder withCallbackExecutor(@Nullable Executor callbackExecutor) {
+    this.callbackExecutor = callbackExecutor;
+    return this;
+  }
+
+  /**
+   * Computes the sub-ranges from the current token metadata, and creates the scan.
+   *
+   * @throws IllegalStateException if token metadata is not available (see {@code
+   *     advanced.metadata.token-map.enabled} in the configuration).
+   * @throws IllegalArgumentException if the table does not exist in the schema metadata.
+   */
+  @NonNull
+  public TokenRangeScan build() {
+    return new DefaultTokenRangeScan(
+        session,
+        keyspace,
+        table,
+        columns.build(),
+        splitsPerRange,
+        maxConcurrentRangesPerNode,
+        completedRanges.build(),
+        executionProfileName,
+        executionProfile,
+        callbackExecutor);
+  }
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.driver.api.core.metadata.token;
+
+import com.datastax.oss.driver.api.core.cql.Row;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.util.concurrent.Executor;
+
+/**
+ * Receives the results of a {@link TokenRangeScan}.
+ *
+ * <p>Sub-ranges are read concurrently, so the methods of this interface can be invoked from
+ * multiple threads at the same time; implementations must be thread-safe. Within a given sub-range
+ * however, invocations are sequential, and rows are delivered in token order.
+ *
+ * <p>By default, the methods are invoked on the driver's I/O threads, and therefore must not block
+ * (the next page of a sub-range is only requested once all the rows of the current page have been
+ * processed, so a slow listener also slows down the scan). If the processing is expensive or
+ * blocking, provide a dedicated executor with {@link
+ * TokenRangeScanBuilder#withCallbackExecutor(Executor)}.
+ */
+public interface TokenRangeScanListener {
+
+  /**
+   * Invoked for each row.
+   *
+   * <p>If this method throws, the sub-range is aborted and reported to {@link
+   * #onRangeFailed(TokenRange, Throwable)}.
+   *
+   * @param range the sub-range that the row belongs to.
+   */
+  void onRow(@NonNull Row row, @NonNull TokenRange range);
+
+  /**
+   * Invoked once all the rows of a sub-range have been delivered. This can be used to save a
+   * checkpoint, see {@link TokenRangeScanBuilder#withCompletedRanges(Iterable)}.
+   */
+  default void onRangeCompleted(@NonNull TokenRange range) {
+    // nothing to do
+  }
+
+  /** Invoked when a sub-range could not be read. */
+  default void onRangeFailed(@NonNull TokenRange range, @NonNull Throwable error) {
+    // nothing to do
+  }
+}
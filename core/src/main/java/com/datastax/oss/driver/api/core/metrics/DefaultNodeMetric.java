@@ -49,6 +49,11 @@ public enum DefaultNodeMetric implements NodeMetric {
   SPECULATIVE_EXECUTIONS("speculative-executions"),
   CONNECTION_INIT_ERRORS("errors.connection.init"),
   AUTHENTICATION_ERRORS("errors.connection.auth"),
+  THROTTLING_SKIPS("throttling.skipped"),
+  THROTTLING_DELAYS("throttling.delayed"),
+  COMPRESSION_TIME("compression.time"),
+  COMPRESSION_RATIO("compression.ratio"),
+  COMPRESSION_SKIPS("compression.skipped"),
   ;
 
   private static final Map<String, DefaultNodeMetric> BY_PATH = sortByPath();
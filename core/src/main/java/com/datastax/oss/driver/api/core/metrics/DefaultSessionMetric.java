@@ -30,6 +30,21 @@ public enum DefaultSessionMetric implements SessionMetric {
   THROTTLING_QUEUE_SIZE("throttling.queue-size"),
   THROTTLING_ERRORS("throttling.errors"),
   CQL_PREPARED_CACHE_SIZE("cql-prepared-cache-size"),
+  COALESCER_WRITES_PER_FLUSH("coalescer.writes-per-flush"),
+  COALESCER_FLUSH_LATENCY("coalescer.flush-latency"),
+  THROTTLING_CONCURRENCY_LIMIT("throttling.concurrency-limit"),
+  CQL_PREPARED_CACHE_HITS("cql-prepared-cache-hits"),
+  CQL_PREPARED_CACHE_MISSES("cql-prepared-cache-misses"),
+  CQL_PREPARED_CACHE_EVICTIONS("cql-prepared-cache-evictions"),
+  CQL_REQUEST_PHASE_THROTTLING("cql-request-phases.throttling"),
+  CQL_REQUEST_PHASE_QUERY_PLAN("cql-request-phases.query-plan"),
+  CQL_REQUEST_PHASE_CHANNEL_ACQUISITION("cql-request-phases.channel-acquisition"),
+  CQL_REQUEST_PHASE_WRITE("cql-request-phases.write"),
+  CQL_REQUEST_PHASE_SERVER_RESPONSE("cql-request-phases.server-response"),
+  CQL_REQUEST_PHASE_DECODE("cql-request-phases.decode"),
+  CQL_REQUEST_PHASE_CALLBACK("cql-request-phases.callback"),
+  RETRY_BUDGET_TOKENS("retry-budget.tokens"),
+  RETRY_BUDGET_REJECTIONS("retry-budget.rejections"),
   ;
 
   private static final Map<String, DefaultSessionMetric> BY_PATH = sortByPath();
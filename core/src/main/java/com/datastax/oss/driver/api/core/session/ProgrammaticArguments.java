@@ -58,6 +58,7 @@ public class ProgrammaticArguments {
   private final UUID startupClientId;
   private final String startupApplicationName;
   private final String startupApplicationVersion;
+  private final Object metricRegistry;
 
   private ProgrammaticArguments(
       @NonNull List<TypeCodec<?>> typeCodecs,
@@ -72,7 +73,8 @@ public class ProgrammaticArguments {
       @Nullable InetSocketAddress cloudProxyAddress,
       @Nullable UUID startupClientId,
       @Nullable String startupApplicationName,
-      @Nullable String startupApplicationVersion) {
+      @Nullable String startupApplicationVersion,
+      @Nullable Object metricRegistry) {
 
     this.typeCodecs = typeCodecs;
     this.nodeStateListener = nodeStateListener;
@@ -87,6 +89,7 @@ public class ProgrammaticArguments {
     this.startupClientId = startupClientId;
     this.startupApplicationName = startupApplicationName;
     this.startupApplicationVersion = startupApplicationVersion;
+    this.metricRegistry = metricRegistry;
   }
 
   @NonNull
@@ -154,6 +157,11 @@ public class ProgrammaticArguments {
     return startupApplicationVersion;
   }
 
+  @Nullable
+  public Object getMetricRegistry() {
+    return metricRegistry;
+  }
+
   public static class Builder {
 
     private ImmutableList.Builder<TypeCodec<?>> typeCodecsBuilder = ImmutableList.builder();
@@ -170,6 +178,7 @@ public class ProgrammaticArguments {
     private UUID startupClientId;
     private String startupApplicationName;
     private String startupApplicationVersion;
+    private Object metricRegistry;
 
     @NonNull
     public Builder addTypeCodecs(@NonNull TypeCodec<?>... typeCodecs) {
@@ -267,6 +276,12 @@ public class ProgrammaticArguments {
       return this;
     }
 
+    @NonNull
+    public Builder withMetricRegistry(@Nullable Object metricRegistry) {
+      this.metricRegistry = metricRegistry;
+      return this;
+    }
+
     @NonNull
     public ProgrammaticArguments build() {
       return new ProgrammaticArguments(
@@ -282,7 +297,8 @@ public class ProgrammaticArguments {
           cloudProxyAddress,
           startupClientId,
           startupApplicationName,
-          startupApplicationVersion);
+          startupApplicationVersion,
+          metricRegistry);
     }
   }
 }
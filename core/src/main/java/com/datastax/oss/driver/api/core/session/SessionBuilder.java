@@ -588,6 +588,24 @@ public abstract class SessionBuilder<SelfT extends SessionBuilder, SessionT> {
     return self;
   }
 
+  /**
+   * The registry that the driver's metrics will be recorded into.
+   *
+   * <p>This is only used by metrics factories that record into an externally provided registry,
+   * such as the Micrometer factory ({@code advanced.metrics.factory.class =
+   * com.datastax.oss.driver.internal.metrics.micrometer.MicrometerMetricsFactory}), which expects
+   * an instance of {@code io.micrometer.core.instrument.MeterRegistry}. The parameter is typed as
+   * {@code Object} so that the core driver doesn't depend on any particular metrics library.
+   *
+   * <p>If this is not set, the Micrometer factory uses Micrometer's global registry. The default
+   * Dropwizard factory ignores it and always creates its own registry.
+   */
+  @NonNull
+  public SelfT withMetricRegistry(@Nullable Object metricRegistry) {
+    this.programmaticArgumentsBuilder.withMetricRegistry(metricRegistry);
+    return self;
+  }
+
   /**
    * Creates the session with the options set by this builder.
    *
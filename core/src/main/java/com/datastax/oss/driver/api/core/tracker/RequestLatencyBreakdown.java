@@ -0,0 +1,38 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.driver.api.core.tracker;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+
+/**
+ * How long each phase of a successful CQL request took.
+ *
+ * <p>The phases describe the execution that produced the result: if the request was retried, or
+ * speculative executions were started, the time spent on previous attempts is not attributed to any
+ * phase (so the sum of all phases can be lower than the overall latency).
+ *
+ * <p>This is only measured if {@code advanced.request-tracker.latency-breakdown.enabled} is true.
+ *
+ * @see RequestTracker#onLatencyBreakdown
+ */
+public interface RequestLatencyBreakdown {
+
+  /**
+   * The duration of the given phase, in nanoseconds; or 0 if that phase didn't happen or was not
+   * measured (for example, if the result was produced by the retry policy without a response).
+   */
+  long getNanos(@NonNull RequestPhase phase);
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.driver.api.core.tracker;
+
+/**
+ * The phases of the execution of a CQL request, as reported in a {@link RequestLatencyBreakdown}.
+ *
+ * <p>The phases are listed in chronological order.
+ */
+public enum RequestPhase {
+
+  /**
+   * From the start of the {@code session.execute()} call, until the request throttler allows the
+   * request to proceed.
+   */
+  THROTTLING,
+
+  /** The computation of the query plan by the load balancing policy. */
+  QUERY_PLAN,
+
+  /**
+   * The selection of a connection to the node that will execute the request (including any time
+   * spent waiting for per-node limits).
+   */
+  CHANNEL_ACQUISITION,
+
+  /**
+   * From the moment the request is handed to the connection, until it has been encoded and flushed
+   * to the socket (this includes the hand-off to the connection's event loop, and any write
+   * coalescing).
+   */
+  WRITE,
+
+  /**
+   * From the moment the request was flushed, until the response has been received and its frame
+   * decoded. This includes network time and server-side processing.
+   */
+  SERVER_RESPONSE,
+
+  /**
+   * The conversion of the response into a result set. For schema-altering queries, this also
+   * includes the refresh of the driver's schema metadata.
+   */
+  DECODE,
+
+  /**
+   * The completion of the future returned to the client. This includes the execution of any
+   * callback that was registered synchronously on the future.
+   */
+  CALLBACK,
+}
@@ -160,6 +160,27 @@ public interface RequestTracker extends AutoCloseable {
     onNodeSuccess(request, latencyNanos, executionProfile, node);
   }
 
+  /**
+   * Invoked each time a CQL request succeeds, with the duration of each phase of its execution.
+   *
+   * <p>This is only invoked if {@code advanced.request-tracker.latency-breakdown.enabled} is true
+   * in the request's execution profile. It is called after {@link #onSuccess(Request, long,
+   * DriverExecutionProfile, Node, String)}.
+   *
+   * <p>The default implementation is empty.
+   *
+   * @param breakdown the duration of each phase.
+   * @param executionProfile the execution profile of this request.
+   * @param node the node that returned the successful response.
+   * @param requestLogPrefix the dedicated log prefix for this request
+   */
+  default void onLatencyBreakdown(
+      @NonNull Request request,
+      @NonNull RequestLatencyBreakdown breakdown,
+      @NonNull DriverExecutionProfile executionProfile,
+      @NonNull Node node,
+      @NonNull String requestLogPrefix) {}
+
   /**
    * Invoked when the session is ready to process user requests.
    *
@@ -39,6 +39,7 @@ import java.util.Set;
 import java.util.TimeZone;
 import java.util.UUID;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -156,6 +157,22 @@ public final class Uuids {
 
   private static final AtomicLong lastTimestamp = new AtomicLong(0L);
 
+  // The state of timeBasedPartitioned(). Each partition has its own clock sequence, so its
+  // timestamps only need to be unique within the partition. The counters are PARTITION_STRIDE longs
+  // apart, so that two partitions never share a cache line.
+  private static final long CLOCK_SEQ_MASK = 0x3FFF000000000000L;
+  private static final int PARTITION_STRIDE = 16;
+  private static final int PARTITION_COUNT = makePartitionCount();
+  private static final AtomicLongArray partitionTimestamps =
+      new AtomicLongArray(PARTITION_COUNT * PARTITION_STRIDE);
+
+  private static int makePartitionCount() {
+    // Twice the number of cores, rounded up to a power of two (so that threads can be mapped with a
+    // mask), and capped well below the 16384 possible values of the clock sequence.
+    int target = Math.max(2, Math.min(Runtime.getRuntime().availableProcessors() * 2, 1024));
+    return Integer.highestOneBit(target - 1) << 1;
+  }
+
   private static long makeEpoch() {
     // UUID v1 timestamps must be in 100-nanoseconds interval since 00:00:00.000 15 Oct 1582.
     Calendar c = Calendar.getInstance(TimeZone.getTimeZone("GMT-0"));
@@ -468,6 +485,38 @@ public final class Uuids {
     return new UUID(makeMsb(getCurrentTimestamp()), CLOCK_SEQ_AND_NODE.get());
   }
 
+  /**
+   * Creates a new time-based (version 1) UUID, with less contention than {@link #timeBased()} when
+   * many threads generate UUIDs concurrently.
+   *
+   * <p>{@link #timeBased()} increments a single, process-wide timestamp: all callers compete to
+   * update it, and it can produce at most 10,000 UUIDs per millisecond. This method partitions the
+   * generation instead: each thread is mapped to one of several partitions (based on its id), and
+   * each partition has its own timestamp counter and its own clock sequence. Threads in different
+   * partitions never contend, and each partition can produce 10,000 UUIDs per millisecond. The
+   * number of partitions is twice the number of available processors, rounded up to a power of two.
+   *
+   * <p>The generated UUIDs are unique (including with respect to the ones generated by {@link
+   * #timeBased()}, which uses a different clock sequence), and suitable for use with the {@code
+   * timeuuid} Cassandra type. However, the ordering guarantees are slightly weaker:
+   *
+   * <ul>
+   *   <li>the UUIDs generated by a given thread have strictly increasing timestamps;
+   *   <li>across threads, the timestamps reflect the generation time at millisecond granularity,
+   *       but two UUIDs generated during the same millisecond by different threads can be in any
+   *       order.
+   * </ul>
+   *
+   * If your application relies on a total order between UUIDs generated concurrently, use {@link
+   * #timeBased()}.
+   */
+  @NonNull
+  public static UUID timeBasedPartitioned() {
+    int partition = (int) Thread.currentThread().getId() & (PARTITION_COUNT - 1);
+    return new UUID(
+        makeMsb(getCurrentTimestamp(partition)), makePartitionClockSeqAndNode(partition));
+  }
+
   /**
    * Creates a "fake" time-based UUID that sorts as the smallest possible version 1 UUID generated
    * at the provided timestamp.
@@ -570,6 +619,39 @@ public final class Uuids {
     }
   }
 
+  // Same algorithm as getCurrentTimestamp(), but on the counter of a single partition.
+  private static long getCurrentTimestamp(int partition) {
+    int index = partition * PARTITION_STRIDE;
+    while (true) {
+      long now = fromUnixTimestamp(System.currentTimeMillis());
+      long last = partitionTimestamps.get(index);
+      if (now > last) {
+        if (partitionTimestamps.compareAndSet(index, last, now)) {
+          return now;
+        }
+      } else {
+        long lastMillis = millisOf(last);
+        // If the clock went back in time, bail out
+        if (millisOf(now) < millisOf(last)) {
+          return partitionTimestamps.incrementAndGet(index);
+        }
+        long candidate = last + 1;
+        if (millisOf(candidate) == lastMillis
+            && partitionTimestamps.compareAndSet(index, last, candidate)) {
+          return candidate;
+        }
+      }
+    }
+  }
+
+  // Partitions use the clock sequences that follow the one of timeBased(), so that they never
+  // collide with it or with each other.
+  private static long makePartitionClockSeqAndNode(int partition) {
+    long clockSeqAndNode = CLOCK_SEQ_AND_NODE.get();
+    long clockSeq = ((clockSeqAndNode & CLOCK_SEQ_MASK) >>> 48) + 1 + partition;
+    return (clockSeqAndNode & ~CLOCK_SEQ_MASK) | ((clockSeq << 48) & CLOCK_SEQ_MASK);
+  }
+
   @VisibleForTesting
   static long fromUnixTimestamp(long tstamp) {
     return (tstamp - START_EPOCH) * 10000;
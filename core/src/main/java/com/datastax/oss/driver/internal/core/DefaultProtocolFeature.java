@@ -56,5 +56,13 @@ public enum DefaultProtocolFeature implements ProtocolFeature {
    * @see <a href="https://issues.apache.org/jira/browse/CASSANDRA-14664">CASSANDRA-14664</a>
    */
   NOW_IN_SECONDS,
+
+  /**
+   * The segment-based framing format: frames are wrapped in checksummed segments, that can hold
+   * multiple small frames or a part of a large frame.
+   *
+   * @see <a href="https://issues.apache.org/jira/browse/CASSANDRA-15299">CASSANDRA-15299</a>
+   */
+  MODERN_FRAMING,
   ;
 }
@@ -0,0 +1,212 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.driver.internal.core.channel;
+
+import com.datastax.oss.driver.api.core.config.DefaultDriverOption;
+import com.datastax.oss.driver.api.core.config.DriverExecutionProfile;
+import com.datastax.oss.driver.api.core.context.DriverContext;
+import com.datastax.oss.driver.api.core.metrics.DefaultSessionMetric;
+import com.datastax.oss.driver.internal.core.context.InternalDriverContext;
+import com.datastax.oss.driver.internal.core.metrics.SessionMetricUpdater;
+import com.datastax.oss.driver.shaded.guava.common.annotations.VisibleForTesting;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelPromise;
+import io.netty.channel.EventLoop;
+import io.netty.util.internal.PlatformDependent;
+import java.util.HashSet;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import net.jcip.annotations.ThreadSafe;
+
+/**
+ * A write coalescer that adapts its flush delay to the observed write rate.
+ *
+ * <p>Like {@link DefaultWriteCoalescer}, it maintains a queue per event loop, and a single task
+ * that drains it, writes to the channels and flushes them. The difference is when that task runs:
+ *
+ * <ul>
+ *   <li>the coalescer keeps an exponentially weighted moving average of the rate of writes on each
+ *       event loop;
+ *   <li>from that rate, it computes how long it would take to accumulate {@code
+ *       advanced.coalescer.adaptive.target-batch-size} writes. If that is less than {@code
+ *       advanced.coalescer.adaptive.max-delay}, the task is delayed by that amount, in order to
+ *       group the writes in fewer flushes (and therefore fewer system calls);
+ *   <li>otherwise, the rate is too low for batching to be worth it: the task runs immediately, so
+ *       that writes don't incur any extra latency.
+ * </ul>
+ *
+ * The queues are multi-producer single-consumer queues, since they are only drained from their
+ * event loop.
+ *
+ * <p>This coalescer updates the {@link DefaultSessionMetric#COALESCER_WRITES_PER_FLUSH} and {@link
+ * DefaultSessionMetric#COALESCER_FLUSH_LATENCY} metrics, if they are enabled.
+ */
+@ThreadSafe
+public class AdaptiveWriteCoalescer implements WriteCoalescer {
+
+  // The weight of the most recent observation in the moving average of the write rate
+  private static final double ALPHA = 0.2;
+
+  private final int targetBatchSize;
+  private final long maxDelayNanos;
+  private final SessionMetricUpdater metricUpdater;
+  private final ConcurrentMap<EventLoop, Flusher> flushers = new ConcurrentHashMap<>();
+
+  public AdaptiveWriteCoalescer(DriverContext context) {
+    DriverExecutionProfile config = context.getConfig().getDefaultProfile();
+    this.targetBatchSize =
+        Math.max(1, config.getInt(DefaultDriverOption.COALESCER_ADAPTIVE_TARGET_BATCH_SIZE));
+    this.maxDelayNanos =
+        config.getDuration(DefaultDriverOption.COALESCER_ADAPTIVE_MAX_DELAY).toNanos();
+    this.metricUpdater = ((InternalDriverContext) context).getMetricsFactory().getSessionUpdater();
+  }
+
+  @Override
+  public ChannelFuture writeAndFlush(Channel channel, Object message) {
+    ChannelPromise writePromise = channel.newPromise();
+    Write write = new Write(channel, message, writePromise);
+    enqueue(write, channel.eventLoop());
+    return writePromise;
+  }
+
+  private void enqueue(Write write, EventLoop eventLoop) {
+    Flusher flusher = flushers.computeIfAbsent(eventLoop, Flusher::new);
+    flusher.enqueue(write);
+  }
+
+  /**
+   * Computes how long a flush should be delayed, given the current write rate.
+   *
+   * @return the delay, or 0 if the flush should happen immediately.
+   */
+  @VisibleForTesting
+  static long computeDelayNanos(double writesPerNano, int targetBatchSize, long maxDelayNanos) {
+    if (writesPerNano <= 0 || targetBatchSize <= 1) {
+      return 0;
+    }
+    // We already have one write when the delay starts
+    double delay = (targetBatchSize - 1) / writesPerNano;
+    return (delay > maxDelayNanos) ? 0 : (long) delay;
+  }
+
+  private class Flusher {
+    private final EventLoop eventLoop;
+
+    // These variables are accessed both from client threads and the event loop
+    private final Queue<Write> writes = PlatformDependent.newMpscQueue();
+    private final AtomicBoolean running = new AtomicBoolean();
+    // Updated by the event loop after each run, read by the thread that schedules the next one
+    private volatile long delayNanos;
+    // Written by the thread that schedules a run (there can only be one at a time), read by the
+    // run itself on the event loop
+    private volatile long scheduledAtNanos;
+
+    // These variables are accessed only from runOnEventLoop, they don't need to be thread-safe
+    private final Set<Channel> channels = new HashSet<>();
+    private double writesPerNano;
+    private long lastRunNanos = System.nanoTime();
+
+    private Flusher(EventLoop eventLoop) {
+      this.eventLoop = eventLoop;
+    }
+
+    private void enqueue(Write write) {
+      boolean added = writes.offer(write);
+      assert added; // always true (unbounded queue)
+      if (running.compareAndSet(false, true)) {
+        schedule();
+      }
+    }
+
+    private void schedule() {
+      scheduledAtNanos = System.nanoTime();
+      long delay = delayNanos;
+      if (delay == 0) {
+        eventLoop.execute(this::runOnEventLoop);
+      } else {
+        eventLoop.schedule(this::runOnEventLoop, delay, TimeUnit.NANOSECONDS);
+      }
+    }
+
+    private void runOnEventLoop() {
+      assert eventLoop.inEventLoop();
+
+      int count = 0;
+      Write write;
+      while ((write = writes.poll()) != null) {
+        Channel channel = write.channel;
+        channels.add(channel);
+        channel.write(write.message, write.writePromise);
+        count += 1;
+      }
+
+      for (Channel channel : channels) {
+        channel.flush();
+      }
+      channels.clear();
+
+      long now = System.nanoTime();
+      updateRate(count, now);
+      if (count > 0) {
+        metricUpdater.updateHistogram(DefaultSessionMetric.COALESCER_WRITES_PER_FLUSH, null, count);
+        metricUpdater.updateTimer(
+            DefaultSessionMetric.COALESCER_FLUSH_LATENCY,
+            null,
+            now - scheduledAtNanos,
+            TimeUnit.NANOSECONDS);
+      }
+
+      // Prepare to stop
+      running.set(false);
+
+      // Same race condition as in DefaultWriteCoalescer: enqueue() might have added an element
+      // after we were done draining, but observed running==true before we flipped it.
+      if (writes.isEmpty()) {
+        return;
+      }
+      boolean shouldRestartMyself = running.compareAndSet(false, true);
+      if (shouldRestartMyself && !eventLoop.isShuttingDown()) {
+        schedule();
+      }
+    }
+
+    private void updateRate(int count, long now) {
+      long elapsed = Math.max(1, now - lastRunNanos);
+      lastRunNanos = now;
+      double observed = (double) count / elapsed;
+      writesPerNano =
+          (writesPerNano == 0) ? observed : ALPHA * observed + (1 - ALPHA) * writesPerNano;
+      delayNanos = computeDelayNanos(writesPerNano, targetBatchSize, maxDelayNanos);
+    }
+  }
+
+  private static class Write {
+    private final Channel channel;
+    private final Object message;
+    private final ChannelPromise writePromise;
+
+    private Write(Channel channel, Object message, ChannelPromise writePromise) {
+      this.channel = channel;
+      this.message = message;
+      this.writePromise = writePromise;
+    }
+  }
+}
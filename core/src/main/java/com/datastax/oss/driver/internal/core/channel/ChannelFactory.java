@@ -267,6 +267,8 @@ public class ChannelFactory {
                   .toMillis();
           int maxFrameLength =
               (int) defaultConfig.getBytes(DefaultDriverOption.PROTOCOL_MAX_FRAME_LENGTH);
+          int compressionThreshold =
+              (int) defaultConfig.getBytes(DefaultDriverOption.PROTOCOL_COMPRESSION_THRESHOLD);
           int maxRequestsPerConnection =
               defaultConfig.getInt(DefaultDriverOption.CONNECTION_MAX_REQUESTS);
           int maxOrphanRequests =
@@ -329,7 +331,14 @@ public class ChannelFactory {
           }
 
           pipeline
-              .addLast("encoder", new FrameEncoder(context.getFrameCodec(), maxFrameLength))
+              .addLast(
+                  "encoder",
+                  new FrameEncoder(
+                      context.getUncompressedFrameCodec(),
+                      context.getCompressor(),
+                      compressionThreshold,
+                      nodeMetricUpdater,
+                      maxFrameLength))
               .addLast("decoder", new FrameDecoder(context.getFrameCodec(), maxFrameLength))
               // Note: HeartbeatHandler is inserted here once init completes
               .addLast("inflight", inFlightHandler)
@@ -26,9 +26,13 @@ import com.datastax.oss.driver.api.core.config.DriverExecutionProfile;
 import com.datastax.oss.driver.api.core.connection.ConnectionInitException;
 import com.datastax.oss.driver.api.core.metadata.EndPoint;
 import com.datastax.oss.driver.api.core.type.codec.TypeCodecs;
+import com.datastax.oss.driver.internal.core.DefaultProtocolFeature;
 import com.datastax.oss.driver.internal.core.context.InternalDriverContext;
+import com.datastax.oss.driver.internal.core.protocol.FrameToSegmentEncoder;
+import com.datastax.oss.driver.internal.core.protocol.SegmentToFrameDecoder;
 import com.datastax.oss.driver.internal.core.util.ProtocolUtils;
 import com.datastax.oss.driver.internal.core.util.concurrent.UncaughtExceptions;
+import com.datastax.oss.protocol.internal.FrameCodec;
 import com.datastax.oss.protocol.internal.Message;
 import com.datastax.oss.protocol.internal.ProtocolConstants;
 import com.datastax.oss.protocol.internal.ProtocolConstants.ErrorCode;
@@ -45,7 +49,9 @@ import com.datastax.oss.protocol.internal.response.Ready;
 import com.datastax.oss.protocol.internal.response.Supported;
 import com.datastax.oss.protocol.internal.response.result.Rows;
 import com.datastax.oss.protocol.internal.response.result.SetKeyspace;
+import io.netty.buffer.ByteBuf;
 import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPipeline;
 import java.nio.ByteBuffer;
 import java.util.List;
 import java.util.Objects;
@@ -65,6 +71,7 @@ class ProtocolInitHandler extends ConnectInitHandler {
 
   private final InternalDriverContext context;
   private final long timeoutMillis;
+  private final int maxFrameLength;
   private final ProtocolVersion initialProtocolVersion;
   private final DriverChannelOptions options;
   // might be null if this is the first channel to this cluster
@@ -96,6 +103,8 @@ class ProtocolInitHandler extends ConnectInitHandler {
 
     this.timeoutMillis =
         defaultConfig.getDuration(DefaultDriverOption.CONNECTION_INIT_QUERY_TIMEOUT).toMillis();
+    this.maxFrameLength =
+        (int) defaultConfig.getBytes(DefaultDriverOption.PROTOCOL_MAX_FRAME_LENGTH);
     this.initialProtocolVersion = protocolVersion;
     this.expectedClusterName = expectedClusterName;
     this.options = options;
@@ -128,6 +137,33 @@ class ProtocolInitHandler extends ConnectInitHandler {
     return result;
   }
 
+  /**
+   * With protocol v5 and above, the server switches to the segment-based framing format right after
+   * its response to STARTUP; we must do the same before sending our next request.
+   */
+  private void maybeSwitchToModernFraming() {
+    if (context
+        .getProtocolVersionRegistry()
+        .supports(initialProtocolVersion, DefaultProtocolFeature.MODERN_FRAMING)) {
+      context
+          .getSegmentCodec()
+          .ifPresent(
+              segmentCodec -> {
+                LOG.debug("[{}] Switching to modern framing", logPrefix);
+                FrameCodec<ByteBuf> frameCodec = context.getUncompressedFrameCodec();
+                ChannelPipeline pipeline = ctx.pipeline();
+                pipeline.replace(
+                    "encoder",
+                    "encoder",
+                    new FrameToSegmentEncoder(frameCodec, segmentCodec, maxFrameLength));
+                pipeline.replace(
+                    "decoder",
+                    "decoder",
+                    new SegmentToFrameDecoder(frameCodec, segmentCodec, maxFrameLength));
+              });
+    }
+  }
+
   private enum Step {
     OPTIONS,
     STARTUP,
@@ -196,10 +232,12 @@ class ProtocolInitHandler extends ConnectInitHandler {
           step = Step.STARTUP;
           send();
         } else if (step == Step.STARTUP && response instanceof Ready) {
+          maybeSwitchToModernFraming();
           context.getAuthProvider().ifPresent(provider -> provider.onMissingChallenge(endPoint));
           step = Step.GET_CLUSTER_NAME;
           send();
         } else if (step == Step.STARTUP && response instanceof Authenticate) {
+          maybeSwitchToModernFraming();
           Authenticate authenticate = (Authenticate) response;
           authenticator = buildAuthenticator(endPoint, authenticate.authenticator);
           authenticator
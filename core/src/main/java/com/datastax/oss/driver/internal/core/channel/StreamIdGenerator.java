@@ -15,7 +15,6 @@
  */
 package com.datastax.oss.driver.internal.core.channel;
 
-import java.util.BitSet;
 import java.util.concurrent.atomic.AtomicInteger;
 import net.jcip.annotations.NotThreadSafe;
 
@@ -27,18 +26,30 @@ import net.jcip.annotations.NotThreadSafe;
  *
  * <p>Other methods are not synchronized, they are only called by {@link InFlightHandler} on the I/O
  * thread.
+ *
+ * <p>Ids are tracked in a two-level bitmap: each bit of {@code freeIds} represents an id, and each
+ * bit of {@code nonEmptyWords} indicates whether the corresponding word of {@code freeIds} has at
+ * least one id available. This way {@link #acquire()} finds the lowest available id in a bounded
+ * number of word operations (at most 8 for 32K ids), instead of scanning all the borrowed ids
+ * before it.
  */
 @NotThreadSafe
 class StreamIdGenerator {
 
   private final int maxAvailableIds;
-  // unset = available, set = borrowed (note that this is the opposite of the 3.x implementation)
-  private final BitSet ids;
+  // set = available, unset = borrowed
+  private final long[] freeIds;
+  // bit i is set if freeIds[i] != 0
+  private final long[] nonEmptyWords;
   private AtomicInteger availableIds;
 
   StreamIdGenerator(int maxAvailableIds) {
     this.maxAvailableIds = maxAvailableIds;
-    this.ids = new BitSet(this.maxAvailableIds);
+    this.freeIds = new long[wordCount(maxAvailableIds)];
+    this.nonEmptyWords = new long[wordCount(freeIds.length)];
+    for (int id = 0; id < maxAvailableIds; id++) {
+      markAvailable(id);
+    }
     this.availableIds = new AtomicInteger(this.maxAvailableIds);
   }
 
@@ -61,19 +72,28 @@ class StreamIdGenerator {
 
   int acquire() {
     assert availableIds.get() < maxAvailableIds;
-    int id = ids.nextClearBit(0);
-    if (id >= maxAvailableIds) {
-      return -1;
+    for (int i = 0; i < nonEmptyWords.length; i++) {
+      long summary = nonEmptyWords[i];
+      if (summary != 0) {
+        int wordIndex = (i << 6) + Long.numberOfTrailingZeros(summary);
+        long word = freeIds[wordIndex];
+        int id = (wordIndex << 6) + Long.numberOfTrailingZeros(word);
+        word &= word - 1; // clear lowest set bit
+        freeIds[wordIndex] = word;
+        if (word == 0) {
+          nonEmptyWords[i] = summary & (summary - 1);
+        }
+        return id;
+      }
     }
-    ids.set(id);
-    return id;
+    return -1;
   }
 
   void release(int id) {
-    if (!ids.get(id)) {
+    if (id < 0 || id >= maxAvailableIds || isAvailable(id)) {
       throw new IllegalStateException("Tried to release id that hadn't been borrowed: " + id);
     }
-    ids.clear(id);
+    markAvailable(id);
     int available = availableIds.incrementAndGet();
     assert available <= maxAvailableIds;
   }
@@ -85,4 +105,18 @@ class StreamIdGenerator {
   int getMaxAvailableIds() {
     return maxAvailableIds;
   }
+
+  private boolean isAvailable(int id) {
+    return (freeIds[id >>> 6] & (1L << id)) != 0;
+  }
+
+  private void markAvailable(int id) {
+    int wordIndex = id >>> 6;
+    freeIds[wordIndex] |= 1L << id;
+    nonEmptyWords[wordIndex >>> 6] |= 1L << wordIndex;
+  }
+
+  private static int wordCount(int bits) {
+    return (bits + 63) >>> 6;
+  }
 }
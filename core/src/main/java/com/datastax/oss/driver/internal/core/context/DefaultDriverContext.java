@@ -57,7 +57,6 @@ import com.datastax.oss.driver.internal.core.DefaultConsistencyLevelRegistry;
 import com.datastax.oss.driver.internal.core.DefaultProtocolVersionRegistry;
 import com.datastax.oss.driver.internal.core.ProtocolVersionRegistry;
 import com.datastax.oss.driver.internal.core.channel.ChannelFactory;
-import com.datastax.oss.driver.internal.core.channel.DefaultWriteCoalescer;
 import com.datastax.oss.driver.internal.core.channel.WriteCoalescer;
 import com.datastax.oss.driver.internal.core.control.ControlConnection;
 import com.datastax.oss.driver.internal.core.cql.CqlPrepareAsyncProcessor;
@@ -77,17 +76,21 @@ import com.datastax.oss.driver.internal.core.metadata.token.DefaultReplicationSt
 import com.datastax.oss.driver.internal.core.metadata.token.DefaultTokenFactoryRegistry;
 import com.datastax.oss.driver.internal.core.metadata.token.ReplicationStrategyFactory;
 import com.datastax.oss.driver.internal.core.metadata.token.TokenFactoryRegistry;
-import com.datastax.oss.driver.internal.core.metrics.DropwizardMetricsFactory;
 import com.datastax.oss.driver.internal.core.metrics.MetricsFactory;
 import com.datastax.oss.driver.internal.core.pool.ChannelPoolFactory;
 import com.datastax.oss.driver.internal.core.protocol.ByteBufPrimitiveCodec;
+import com.datastax.oss.driver.internal.core.protocol.LazyRowsCodecGroup;
 import com.datastax.oss.driver.internal.core.protocol.Lz4Compressor;
+import com.datastax.oss.driver.internal.core.protocol.SegmentCodec;
 import com.datastax.oss.driver.internal.core.protocol.SnappyCompressor;
+import com.datastax.oss.driver.internal.core.protocol.ZstdCompressor;
+import com.datastax.oss.driver.internal.core.retry.RetryBudget;
 import com.datastax.oss.driver.internal.core.servererrors.DefaultWriteTypeRegistry;
 import com.datastax.oss.driver.internal.core.servererrors.WriteTypeRegistry;
 import com.datastax.oss.driver.internal.core.session.PoolManager;
 import com.datastax.oss.driver.internal.core.session.RequestProcessor;
 import com.datastax.oss.driver.internal.core.session.RequestProcessorRegistry;
+import com.datastax.oss.driver.internal.core.session.throttling.NodeRequestLimiter;
 import com.datastax.oss.driver.internal.core.ssl.JdkSslHandlerFactory;
 import com.datastax.oss.driver.internal.core.ssl.SslHandlerFactory;
 import com.datastax.oss.driver.internal.core.tracker.NoopRequestTracker;
@@ -167,6 +170,11 @@ public class DefaultDriverContext implements InternalDriverContext {
       new LazyReference<>("compressor", this::buildCompressor, cycleDetector);
   private final LazyReference<FrameCodec<ByteBuf>> frameCodecRef =
       new LazyReference<>("frameCodec", this::buildFrameCodec, cycleDetector);
+  private final LazyReference<FrameCodec<ByteBuf>> uncompressedFrameCodecRef =
+      new LazyReference<>(
+          "uncompressedFrameCodec", this::buildUncompressedFrameCodec, cycleDetector);
+  private final LazyReference<Optional<SegmentCodec>> segmentCodecRef =
+      new LazyReference<>("segmentCodec", this::buildSegmentCodec, cycleDetector);
   private final LazyReference<ProtocolVersionRegistry> protocolVersionRegistryRef =
       new LazyReference<>(
           "protocolVersionRegistry", this::buildProtocolVersionRegistry, cycleDetector);
@@ -210,6 +218,10 @@ public class DefaultDriverContext implements InternalDriverContext {
       new LazyReference<>("metricsFactory", this::buildMetricsFactory, cycleDetector);
   private final LazyReference<RequestThrottler> requestThrottlerRef =
       new LazyReference<>("requestThrottler", this::buildRequestThrottler, cycleDetector);
+  private final LazyReference<NodeRequestLimiter> nodeRequestLimiterRef =
+      new LazyReference<>("nodeRequestLimiter", this::buildNodeRequestLimiter, cycleDetector);
+  private final LazyReference<RetryBudget> retryBudgetRef =
+      new LazyReference<>("retryBudget", this::buildRetryBudget, cycleDetector);
   private final LazyReference<Map<String, String>> startupOptionsRef =
       new LazyReference<>("startupOptions", this::buildStartupOptions, cycleDetector);
   private final LazyReference<NodeStateListener> nodeStateListenerRef;
@@ -236,6 +248,7 @@ public class DefaultDriverContext implements InternalDriverContext {
   private final UUID startupClientId;
   private final String startupApplicationName;
   private final String startupApplicationVersion;
+  private final Object metricRegistry;
   // A stack trace captured in the constructor. Used to extract information about the client
   // application.
   private final StackTraceElement[] initStackTrace;
@@ -286,6 +299,7 @@ public class DefaultDriverContext implements InternalDriverContext {
     this.startupClientId = programmaticArguments.getStartupClientId();
     this.startupApplicationName = programmaticArguments.getStartupApplicationName();
     this.startupApplicationVersion = programmaticArguments.getStartupApplicationVersion();
+    this.metricRegistry = programmaticArguments.getMetricRegistry();
     StackTraceElement[] stackTrace;
     try {
       stackTrace = Thread.currentThread().getStackTrace();
@@ -429,6 +443,8 @@ public class DefaultDriverContext implements InternalDriverContext {
         return new Lz4Compressor(this);
       case "snappy":
         return new SnappyCompressor(this);
+      case "zstd":
+        return new ZstdCompressor(this);
       case "none":
         return Compressor.none();
       default:
@@ -440,16 +456,52 @@ public class DefaultDriverContext implements InternalDriverContext {
   }
 
   protected FrameCodec<ByteBuf> buildFrameCodec() {
+    return newFrameCodec(getCompressor());
+  }
+
+  protected FrameCodec<ByteBuf> buildUncompressedFrameCodec() {
+    return newFrameCodec(Compressor.none());
+  }
+
+  private FrameCodec<ByteBuf> newFrameCodec(Compressor<ByteBuf> compressor) {
+    FrameCodec.CodecGroup v3Codecs = new ProtocolV3ClientCodecs();
+    FrameCodec.CodecGroup v4Codecs = new ProtocolV4ClientCodecsForDse();
+    FrameCodec.CodecGroup v5Codecs = new ProtocolV5ClientCodecs();
+    if (getConfig().getDefaultProfile().getBoolean(DefaultDriverOption.PROTOCOL_LAZY_ROWS, false)) {
+      v3Codecs = new LazyRowsCodecGroup(v3Codecs);
+      v4Codecs = new LazyRowsCodecGroup(v4Codecs);
+      v5Codecs = new LazyRowsCodecGroup(v5Codecs);
+    }
     return new FrameCodec<>(
         new ByteBufPrimitiveCodec(getNettyOptions().allocator()),
-        getCompressor(),
-        new ProtocolV3ClientCodecs(),
-        new ProtocolV4ClientCodecsForDse(),
-        new ProtocolV5ClientCodecs(),
+        compressor,
+        v3Codecs,
+        v4Codecs,
+        v5Codecs,
         new DseProtocolV1ClientCodecs(),
         new DseProtocolV2ClientCodecs());
   }
 
+  protected Optional<SegmentCodec> buildSegmentCodec() {
+    if (!getConfig()
+        .getDefaultProfile()
+        .getBoolean(DefaultDriverOption.PROTOCOL_MODERN_FRAMING, false)) {
+      return Optional.empty();
+    }
+    Compressor<ByteBuf> compressor = getCompressor();
+    Lz4Compressor segmentCompressor = null;
+    if (compressor instanceof Lz4Compressor) {
+      segmentCompressor = (Lz4Compressor) compressor;
+    } else if (compressor.algorithm() != null) {
+      LOG.warn(
+          "[{}] {} compression is not supported with protocol v5 segments, "
+              + "segments will not be compressed",
+          getSessionName(),
+          compressor.algorithm());
+    }
+    return Optional.of(new SegmentCodec(getNettyOptions().allocator(), segmentCompressor));
+  }
+
   protected ProtocolVersionRegistry buildProtocolVersionRegistry() {
     return new DefaultProtocolVersionRegistry(getSessionName());
   }
@@ -475,7 +527,17 @@ public class DefaultDriverContext implements InternalDriverContext {
   }
 
   protected WriteCoalescer buildWriteCoalescer() {
-    return new DefaultWriteCoalescer(this);
+    return Reflection.buildFromConfig(
+            this,
+            DefaultDriverOption.COALESCER_CLASS,
+            WriteCoalescer.class,
+            "com.datastax.oss.driver.internal.core.channel")
+        .orElseThrow(
+            () ->
+                new IllegalArgumentException(
+                    String.format(
+                        "Missing write coalescer, check your configuration (%s)",
+                        DefaultDriverOption.COALESCER_CLASS)));
   }
 
   protected ChannelFactory buildChannelFactory() {
@@ -514,7 +576,7 @@ public class DefaultDriverContext implements InternalDriverContext {
     processors.add(cqlRequestSyncProcessor);
 
     // prepare requests (sync and async)
-    CqlPrepareAsyncProcessor cqlPrepareAsyncProcessor = new CqlPrepareAsyncProcessor();
+    CqlPrepareAsyncProcessor cqlPrepareAsyncProcessor = new CqlPrepareAsyncProcessor(this);
     CqlPrepareSyncProcessor cqlPrepareSyncProcessor =
         new CqlPrepareSyncProcessor(cqlPrepareAsyncProcessor);
     processors.add(cqlPrepareAsyncProcessor);
@@ -598,7 +660,17 @@ public class DefaultDriverContext implements InternalDriverContext {
   }
 
   protected MetricsFactory buildMetricsFactory() {
-    return new DropwizardMetricsFactory(this);
+    return Reflection.buildFromConfig(
+            this,
+            DefaultDriverOption.METRICS_FACTORY_CLASS,
+            MetricsFactory.class,
+            "com.datastax.oss.driver.internal.core.metrics")
+        .orElseThrow(
+            () ->
+                new IllegalArgumentException(
+                    String.format(
+                        "Missing metrics factory, check your configuration (%s)",
+                        DefaultDriverOption.METRICS_FACTORY_CLASS)));
   }
 
   protected RequestThrottler buildRequestThrottler() {
@@ -615,6 +687,14 @@ public class DefaultDriverContext implements InternalDriverContext {
                         DefaultDriverOption.REQUEST_THROTTLER_CLASS)));
   }
 
+  protected NodeRequestLimiter buildNodeRequestLimiter() {
+    return new NodeRequestLimiter(this);
+  }
+
+  protected RetryBudget buildRetryBudget() {
+    return new RetryBudget(this);
+  }
+
   protected NodeStateListener buildNodeStateListener(
       NodeStateListener nodeStateListenerFromBuilder) {
     return (nodeStateListenerFromBuilder != null)
@@ -785,6 +865,18 @@ public class DefaultDriverContext implements InternalDriverContext {
     return frameCodecRef.get();
   }
 
+  @NonNull
+  @Override
+  public FrameCodec<ByteBuf> getUncompressedFrameCodec() {
+    return uncompressedFrameCodecRef.get();
+  }
+
+  @NonNull
+  @Override
+  public Optional<SegmentCodec> getSegmentCodec() {
+    return segmentCodecRef.get();
+  }
+
   @NonNull
   @Override
   public ProtocolVersionRegistry getProtocolVersionRegistry() {
@@ -905,6 +997,18 @@ public class DefaultDriverContext implements InternalDriverContext {
     return requestThrottlerRef.get();
   }
 
+  @NonNull
+  @Override
+  public NodeRequestLimiter getNodeRequestLimiter() {
+    return nodeRequestLimiterRef.get();
+  }
+
+  @NonNull
+  @Override
+  public RetryBudget getRetryBudget() {
+    return retryBudgetRef.get();
+  }
+
   @NonNull
   @Override
   public NodeStateListener getNodeStateListener() {
@@ -974,4 +1078,10 @@ public class DefaultDriverContext implements InternalDriverContext {
   public List<LifecycleListener> getLifecycleListeners() {
     return lifecycleListenersRef.get();
   }
+
+  @Nullable
+  @Override
+  public Object getMetricRegistry() {
+    return metricRegistry;
+  }
 }
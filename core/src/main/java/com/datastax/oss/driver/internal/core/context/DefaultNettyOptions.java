@@ -18,6 +18,7 @@ package com.datastax.oss.driver.internal.core.context;
 import com.datastax.oss.driver.api.core.config.DefaultDriverOption;
 import com.datastax.oss.driver.api.core.config.DriverExecutionProfile;
 import com.datastax.oss.driver.internal.core.util.concurrent.BlockingOperation;
+import com.datastax.oss.driver.internal.core.util.concurrent.EventLoopTimer;
 import com.datastax.oss.driver.internal.core.util.concurrent.PromiseCombiner;
 import com.datastax.oss.driver.shaded.guava.common.util.concurrent.ThreadFactoryBuilder;
 import io.netty.bootstrap.Bootstrap;
@@ -27,8 +28,6 @@ import io.netty.channel.ChannelOption;
 import io.netty.channel.DefaultEventLoopGroup;
 import io.netty.channel.EventLoopGroup;
 import io.netty.channel.FixedRecvByteBufAllocator;
-import io.netty.channel.nio.NioEventLoopGroup;
-import io.netty.channel.socket.nio.NioSocketChannel;
 import io.netty.util.HashedWheelTimer;
 import io.netty.util.Timer;
 import io.netty.util.concurrent.DefaultPromise;
@@ -49,6 +48,7 @@ public class DefaultNettyOptions implements NettyOptions {
   private static final Logger LOG = LoggerFactory.getLogger(DefaultNettyOptions.class);
 
   private final DriverExecutionProfile config;
+  private final NettyTransport transport;
   private final EventLoopGroup ioEventLoopGroup;
   private final EventLoopGroup adminEventLoopGroup;
   private final int ioShutdownQuietPeriod;
@@ -81,7 +81,22 @@ public class DefaultNettyOptions implements NettyOptions {
             .setNameFormat(context.getSessionName() + "-io-%d")
             .setDaemon(daemon)
             .build();
-    this.ioEventLoopGroup = new NioEventLoopGroup(ioGroupSize, ioThreadFactory);
+    this.transport =
+        NettyTransport.select(
+            config.getString(DefaultDriverOption.NETTY_IO_TRANSPORT), context.getSessionName());
+    this.ioEventLoopGroup = transport.newEventLoopGroup(ioGroupSize, ioThreadFactory);
+    warnIfUnsupported(
+        DefaultDriverOption.SOCKET_TCP_QUICK_ACK,
+        NettyTransport.TCP_QUICKACK,
+        context.getSessionName());
+    warnIfUnsupported(
+        DefaultDriverOption.SOCKET_BUSY_POLL,
+        NettyTransport.SO_BUSY_POLL,
+        context.getSessionName());
+    warnIfUnsupported(
+        DefaultDriverOption.SOCKET_EDGE_TRIGGERED,
+        NettyTransport.EPOLL_MODE,
+        context.getSessionName());
 
     ThreadFactory adminThreadFactory =
         new ThreadFactoryBuilder()
@@ -91,13 +106,6 @@ public class DefaultNettyOptions implements NettyOptions {
             .build();
     this.adminEventLoopGroup = new DefaultEventLoopGroup(adminGroupSize, adminThreadFactory);
     // setup the Timer
-    ThreadFactory timerThreadFactory =
-        new ThreadFactoryBuilder()
-            .setThreadFactory(safeFactory)
-            .setNameFormat(context.getSessionName() + "-timer-%d")
-            .setDaemon(daemon)
-            .build();
-
     Duration tickDuration = config.getDuration(DefaultDriverOption.NETTY_TIMER_TICK_DURATION);
     // JAVA-2264: tick durations on Windows cannot be less than 100 milliseconds,
     // see https://github.com/netty/netty/issues/356.
@@ -108,12 +116,22 @@ public class DefaultNettyOptions implements NettyOptions {
               + "Please set advanced.netty.timer.tick-duration to 100 ms or higher.",
           tickDuration.toMillis());
     }
-    timer =
-        new HashedWheelTimer(
-            timerThreadFactory,
-            tickDuration.toNanos(),
-            TimeUnit.NANOSECONDS,
-            config.getInt(DefaultDriverOption.NETTY_TIMER_TICKS_PER_WHEEL));
+    int ticksPerWheel = config.getInt(DefaultDriverOption.NETTY_TIMER_TICKS_PER_WHEEL);
+    if (config.getBoolean(DefaultDriverOption.NETTY_TIMER_PER_EVENT_LOOP)) {
+      timer =
+          new EventLoopTimer(
+              ioEventLoopGroup, tickDuration.toNanos(), TimeUnit.NANOSECONDS, ticksPerWheel);
+    } else {
+      ThreadFactory timerThreadFactory =
+          new ThreadFactoryBuilder()
+              .setThreadFactory(safeFactory)
+              .setNameFormat(context.getSessionName() + "-timer-%d")
+              .setDaemon(daemon)
+              .build();
+      timer =
+          new HashedWheelTimer(
+              timerThreadFactory, tickDuration.toNanos(), TimeUnit.NANOSECONDS, ticksPerWheel);
+    }
   }
 
   @Override
@@ -128,7 +146,7 @@ public class DefaultNettyOptions implements NettyOptions {
 
   @Override
   public Class<? extends Channel> channelClass() {
-    return NioSocketChannel.class;
+    return transport.getChannelClass();
   }
 
   @Override
@@ -167,6 +185,30 @@ public class DefaultNettyOptions implements NettyOptions {
       bootstrap.option(
           ChannelOption.CONNECT_TIMEOUT_MILLIS, Long.valueOf(connectTimeout.toMillis()).intValue());
     }
+    // Native-only options (unsupported ones were already reported in the constructor)
+    if (config.isDefined(DefaultDriverOption.SOCKET_TCP_QUICK_ACK)) {
+      boolean quickAck = config.getBoolean(DefaultDriverOption.SOCKET_TCP_QUICK_ACK);
+      transport.setNativeOption(bootstrap, NettyTransport.TCP_QUICKACK, quickAck);
+    }
+    if (config.isDefined(DefaultDriverOption.SOCKET_BUSY_POLL)) {
+      int busyPoll = config.getInt(DefaultDriverOption.SOCKET_BUSY_POLL);
+      transport.setNativeOption(bootstrap, NettyTransport.SO_BUSY_POLL, busyPoll);
+    }
+    if (config.isDefined(DefaultDriverOption.SOCKET_EDGE_TRIGGERED)) {
+      boolean edgeTriggered = config.getBoolean(DefaultDriverOption.SOCKET_EDGE_TRIGGERED);
+      transport.setEdgeTriggered(bootstrap, edgeTriggered);
+    }
+  }
+
+  private void warnIfUnsupported(
+      DefaultDriverOption option, String nativeOptionName, String logPrefix) {
+    if (config.isDefined(option) && !transport.supportsNativeOption(nativeOptionName)) {
+      LOG.warn(
+          "[{}] {} is not supported by the {} transport, it will be ignored",
+          logPrefix,
+          option.getPath(),
+          transport);
+    }
   }
 
   @Override
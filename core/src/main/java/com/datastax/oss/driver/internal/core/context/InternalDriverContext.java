@@ -32,9 +32,12 @@ import com.datastax.oss.driver.internal.core.metadata.token.ReplicationStrategyF
 import com.datastax.oss.driver.internal.core.metadata.token.TokenFactoryRegistry;
 import com.datastax.oss.driver.internal.core.metrics.MetricsFactory;
 import com.datastax.oss.driver.internal.core.pool.ChannelPoolFactory;
+import com.datastax.oss.driver.internal.core.protocol.SegmentCodec;
+import com.datastax.oss.driver.internal.core.retry.RetryBudget;
 import com.datastax.oss.driver.internal.core.servererrors.WriteTypeRegistry;
 import com.datastax.oss.driver.internal.core.session.PoolManager;
 import com.datastax.oss.driver.internal.core.session.RequestProcessorRegistry;
+import com.datastax.oss.driver.internal.core.session.throttling.NodeRequestLimiter;
 import com.datastax.oss.driver.internal.core.ssl.SslHandlerFactory;
 import com.datastax.oss.driver.internal.core.tracker.RequestLogFormatter;
 import com.datastax.oss.protocol.internal.Compressor;
@@ -60,6 +63,20 @@ public interface InternalDriverContext extends DriverContext {
   @NonNull
   FrameCodec<ByteBuf> getFrameCodec();
 
+  /**
+   * The codec for the frames that are wrapped in protocol v5 segments. It is the same as {@link
+   * #getFrameCodec()}, except that it never compresses frames: segments are compressed as a whole.
+   */
+  @NonNull
+  FrameCodec<ByteBuf> getUncompressedFrameCodec();
+
+  /**
+   * The codec for protocol v5 segments, or empty if the segment-based framing is disabled (see
+   * {@code advanced.protocol.modern-framing} in the configuration).
+   */
+  @NonNull
+  Optional<SegmentCodec> getSegmentCodec();
+
   @NonNull
   ProtocolVersionRegistry getProtocolVersionRegistry();
 
@@ -117,6 +134,14 @@ public interface InternalDriverContext extends DriverContext {
   @NonNull
   MetricsFactory getMetricsFactory();
 
+  /** The per-node limits that request handlers check before sending to a node. */
+  @NonNull
+  NodeRequestLimiter getNodeRequestLimiter();
+
+  /** The session-wide budget that request handlers check before retrying or speculating. */
+  @NonNull
+  RetryBudget getRetryBudget();
+
   /**
    * The value that was passed to {@link SessionBuilder#withLocalDatacenter(String,String)} for this
    * particular profile. If it was specified through the configuration instead, this method will
@@ -172,4 +197,18 @@ public interface InternalDriverContext extends DriverContext {
    */
   @NonNull
   RequestLogFormatter getRequestLogFormatter();
+
+  /**
+   * The metric registry that was provided with {@code SessionBuilder.withMetricRegistry()}, if any.
+   *
+   * <p>Its actual type depends on the {@link MetricsFactory} in use; for example, the Micrometer
+   * factory expects a {@code MeterRegistry}.
+   *
+   * <p>This method has a default implementation that returns null, for backward compatibility with
+   * custom driver extensions.
+   */
+  @Nullable
+  default Object getMetricRegistry() {
+    return null;
+  }
 }
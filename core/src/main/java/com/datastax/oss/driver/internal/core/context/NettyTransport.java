@@ -0,0 +1,262 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.driver.internal.core.context;
+
+import com.datastax.oss.driver.api.core.config.DefaultDriverOption;
+import com.datastax.oss.driver.internal.core.util.Reflection;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import io.netty.bootstrap.Bootstrap;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import java.lang.reflect.Field;
+import java.util.Locale;
+import java.util.concurrent.ThreadFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The Netty transports that the driver can use for its I/O event loop group.
+ *
+ * <p>NIO is always available. The native transports are only used if their libraries are on the
+ * classpath and can be loaded on the current platform; they are accessed reflectively, so that the
+ * driver doesn't need a compile-time dependency on them:
+ *
+ * <ul>
+ *   <li>epoll: {@code io.netty:netty-transport-native-epoll} (with the {@code linux-x86_64} or
+ *       {@code linux-aarch_64} classifier);
+ *   <li>io_uring: {@code io.netty.incubator:netty-incubator-transport-native-io_uring}, which
+ *       requires a recent Linux kernel.
+ * </ul>
+ *
+ * The transport is selected with {@code advanced.netty.io-group.transport}. {@code AUTO} (the
+ * default) picks epoll if it is available, and NIO otherwise; io_uring is never selected
+ * automatically.
+ */
+public enum NettyTransport {
+  NIO(null, null, null, null),
+  EPOLL(
+      "io.netty.channel.epoll.Epoll",
+      "io.netty.channel.epoll.EpollEventLoopGroup",
+      "io.netty.channel.epoll.EpollSocketChannel",
+      "io.netty.channel.epoll.EpollChannelOption"),
+  IO_URING(
+      "io.netty.incubator.channel.uring.IOUring",
+      "io.netty.incubator.channel.uring.IOUringEventLoopGroup",
+      "io.netty.incubator.channel.uring.IOUringSocketChannel",
+      "io.netty.incubator.channel.uring.IOUringChannelOption"),
+  ;
+
+  private static final Logger LOG = LoggerFactory.getLogger(NettyTransport.class);
+
+  // The names of the native channel options that the driver knows how to configure
+  public static final String TCP_QUICKACK = "TCP_QUICKACK";
+  public static final String SO_BUSY_POLL = "SO_BUSY_POLL";
+  public static final String EPOLL_MODE = "EPOLL_MODE";
+
+  private static final String AUTO = "AUTO";
+  private static final String EPOLL_MODE_CLASS = "io.netty.channel.epoll.EpollMode";
+
+  // All null for NIO
+  private final String availabilityClassName;
+  private final String eventLoopGroupClassName;
+  private final String channelClassName;
+  private final String channelOptionClassName;
+
+  NettyTransport(
+      String availabilityClassName,
+      String eventLoopGroupClassName,
+      String channelClassName,
+      String channelOptionClassName) {
+    this.availabilityClassName = availabilityClassName;
+    this.eventLoopGroupClassName = eventLoopGroupClassName;
+    this.channelClassName = channelClassName;
+    this.channelOptionClassName = channelOptionClassName;
+  }
+
+  /**
+   * Resolves the value of {@code advanced.netty.io-group.transport}.
+   *
+   * <p>If a native transport was requested explicitly but can't be used, this logs a warning and
+   * falls back to NIO.
+   *
+   * @throws IllegalArgumentException if the value is not {@code AUTO} or the name of a transport.
+   */
+  @NonNull
+  public static NettyTransport select(@NonNull String name, @NonNull String logPrefix) {
+    String normalized = name.trim().toUpperCase(Locale.ROOT);
+    if (AUTO.equals(normalized)) {
+      NettyTransport transport = EPOLL.isAvailable() ? EPOLL : NIO;
+      LOG.debug("[{}] Using {} transport", logPrefix, transport);
+      return transport;
+    }
+    NettyTransport transport;
+    try {
+      transport = valueOf(normalized);
+    } catch (IllegalArgumentException e) {
+      throw new IllegalArgumentException(
+          String.format(
+              "Unknown Netty transport '%s' for %s (expected one of AUTO, NIO, EPOLL, IO_URING)",
+              name, DefaultDriverOption.NETTY_IO_TRANSPORT.getPath()));
+    }
+    if (transport.isAvailable()) {
+      LOG.debug("[{}] Using {} transport", logPrefix, transport);
+      return transport;
+    } else {
+      Throwable cause = transport.getUnavailabilityCause();
+      LOG.warn(
+          "[{}] {} transport was requested in the configuration, but it is not available "
+              + "({}). Falling back to NIO.",
+          logPrefix,
+          transport,
+          (cause == null) ? "not found on the classpath" : cause.toString());
+      return NIO;
+    }
+  }
+
+  /** Whether the transport's classes are present, and its native library can be loaded. */
+  public boolean isAvailable() {
+    if (this == NIO) {
+      return true;
+    }
+    Object available = invokeStatic(availabilityClassName, "isAvailable");
+    return Boolean.TRUE.equals(available);
+  }
+
+  /**
+   * Why the transport is not available.
+   *
+   * @return the cause reported by Netty, or null if the transport is available or its classes are
+   *     not on the classpath.
+   */
+  @Nullable
+  public Throwable getUnavailabilityCause() {
+    if (this == NIO) {
+      return null;
+    }
+    Object cause = invokeStatic(availabilityClassName, "unavailabilityCause");
+    return (cause instanceof Throwable) ? (Throwable) cause : null;
+  }
+
+  @NonNull
+  public EventLoopGroup newEventLoopGroup(int size, @NonNull ThreadFactory threadFactory) {
+    if (this == NIO) {
+      return new NioEventLoopGroup(size, threadFactory);
+    }
+    Class<?> groupClass = loadClass(eventLoopGroupClassName);
+    try {
+      return (EventLoopGroup)
+          groupClass
+              .getConstructor(int.class, ThreadFactory.class)
+              .newInstance(size, threadFactory);
+    } catch (Exception e) {
+      throw new IllegalStateException("Could not create " + eventLoopGroupClassName, e);
+    }
+  }
+
+  @NonNull
+  public Class<? extends Channel> getChannelClass() {
+    return (this == NIO)
+        ? NioSocketChannel.class
+        : loadClass(channelClassName).asSubclass(Channel.class);
+  }
+
+  /**
+   * Sets a transport-specific channel option, such as {@code TCP_QUICKACK}.
+   *
+   * @param name the name of the static field that holds the option in the transport's {@code
+   *     ChannelOption} subclass.
+   * @return whether the transport supports the option. If not, the bootstrap is left unchanged.
+   */
+  public boolean setNativeOption(
+      @NonNull Bootstrap bootstrap, @NonNull String name, @NonNull Object value) {
+    ChannelOption<Object> option = getNativeOption(name);
+    if (option == null) {
+      return false;
+    }
+    bootstrap.option(option, value);
+    return true;
+  }
+
+  /** Whether this transport defines the given native channel option. */
+  public boolean supportsNativeOption(@NonNull String name) {
+    return getNativeOption(name) != null;
+  }
+
+  /**
+   * Switches epoll between edge-triggered and level-triggered mode.
+   *
+   * @return whether the transport supports this setting (only epoll does).
+   */
+  public boolean setEdgeTriggered(@NonNull Bootstrap bootstrap, boolean edgeTriggered) {
+    if (this != EPOLL) {
+      return false;
+    }
+    Object mode =
+        enumConstant(EPOLL_MODE_CLASS, edgeTriggered ? "EDGE_TRIGGERED" : "LEVEL_TRIGGERED");
+    return mode != null && setNativeOption(bootstrap, EPOLL_MODE, mode);
+  }
+
+  @Nullable
+  @SuppressWarnings("unchecked")
+  private ChannelOption<Object> getNativeOption(String name) {
+    if (this == NIO) {
+      return null;
+    }
+    try {
+      Field field = loadClass(channelOptionClassName).getField(name);
+      return (ChannelOption<Object>) field.get(null);
+    } catch (NoSuchFieldException e) {
+      return null;
+    } catch (Exception e) {
+      throw new IllegalStateException("Could not read " + channelOptionClassName + "." + name, e);
+    }
+  }
+
+  @Nullable
+  private static Object invokeStatic(String className, String methodName) {
+    Class<?> clazz = Reflection.loadClass(null, className);
+    if (clazz == null) {
+      return null;
+    }
+    try {
+      return clazz.getMethod(methodName).invoke(null);
+    } catch (Exception | LinkageError e) {
+      LOG.debug(String.format("Error invoking %s.%s", className, methodName), e);
+      return null;
+    }
+  }
+
+  @Nullable
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  private static Object enumConstant(String className, String constantName) {
+    Class<?> clazz = Reflection.loadClass(null, className);
+    return (clazz == null || !clazz.isEnum())
+        ? null
+        : Enum.valueOf((Class<? extends Enum>) clazz, constantName);
+  }
+
+  private static Class<?> loadClass(String className) {
+    Class<?> clazz = Reflection.loadClass(null, className);
+    if (clazz == null) {
+      throw new IllegalStateException("Could not load " + className);
+    }
+    return clazz;
+  }
+}
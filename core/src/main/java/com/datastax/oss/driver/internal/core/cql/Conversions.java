@@ -325,17 +325,37 @@ public class Conversions {
     }
   }
 
+  /** Builds a result set that does not prefetch pages, regardless of the configuration. */
   public static AsyncResultSet toResultSet(
       Result result,
       ExecutionInfo executionInfo,
       CqlSession session,
       InternalDriverContext context) {
+    return toResultSet(result, executionInfo, session, context, PagingPrefetch.DISABLED);
+  }
+
+  public static AsyncResultSet toResultSet(
+      Result result,
+      ExecutionInfo executionInfo,
+      CqlSession session,
+      InternalDriverContext context,
+      DriverExecutionProfile executionProfile) {
+    return toResultSet(
+        result, executionInfo, session, context, PagingPrefetch.fromConfig(executionProfile));
+  }
+
+  private static AsyncResultSet toResultSet(
+      Result result,
+      ExecutionInfo executionInfo,
+      CqlSession session,
+      InternalDriverContext context,
+      PagingPrefetch prefetch) {
     if (result instanceof Rows) {
       Rows rows = (Rows) result;
       Statement<?> statement = (Statement<?>) executionInfo.getRequest();
       ColumnDefinitions columnDefinitions = getResultDefinitions(rows, statement, context);
       return new DefaultAsyncResultSet(
-          columnDefinitions, executionInfo, rows.getData(), session, context);
+          columnDefinitions, executionInfo, rows.getData(), session, context, prefetch);
     } else if (result instanceof Prepared) {
       // This should never happen
       throw new IllegalArgumentException("Unexpected PREPARED response to a CQL query");
@@ -15,34 +15,81 @@
  */
 package com.datastax.oss.driver.internal.core.cql;
 
+import com.datastax.oss.driver.api.core.config.DefaultDriverOption;
+import com.datastax.oss.driver.api.core.config.DriverExecutionProfile;
 import com.datastax.oss.driver.api.core.cql.PrepareRequest;
 import com.datastax.oss.driver.api.core.cql.PreparedStatement;
+import com.datastax.oss.driver.api.core.metrics.DefaultSessionMetric;
 import com.datastax.oss.driver.api.core.session.Request;
 import com.datastax.oss.driver.api.core.type.reflect.GenericType;
 import com.datastax.oss.driver.internal.core.context.InternalDriverContext;
+import com.datastax.oss.driver.internal.core.metrics.SessionMetricUpdater;
 import com.datastax.oss.driver.internal.core.session.DefaultSession;
 import com.datastax.oss.driver.internal.core.session.RequestProcessor;
 import com.datastax.oss.driver.internal.core.util.concurrent.CompletableFutures;
 import com.datastax.oss.driver.shaded.guava.common.cache.Cache;
 import com.datastax.oss.driver.shaded.guava.common.cache.CacheBuilder;
+import com.datastax.oss.driver.shaded.guava.common.cache.RemovalListener;
+import com.datastax.oss.driver.shaded.guava.common.cache.RemovalNotification;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 import net.jcip.annotations.ThreadSafe;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+/**
+ * Handles prepare requests, and caches the resulting statements so that preparing the same query
+ * twice returns the same instance.
+ *
+ * <p>When created with a driver context, the cache is configured with the options in {@code
+ * advanced.prepared-statements.prepared-cache}, and the processor updates the {@code
+ * cql-prepared-cache-*} session metrics. Subclasses can react to evictions by overriding {@link
+ * #onRemoval(RemovalNotification)}.
+ */
 @ThreadSafe
 public class CqlPrepareAsyncProcessor
     implements RequestProcessor<PrepareRequest, CompletionStage<PreparedStatement>> {
 
+  private static final Logger LOG = LoggerFactory.getLogger(CqlPrepareAsyncProcessor.class);
+
   protected final Cache<PrepareRequest, CompletableFuture<PreparedStatement>> cache;
+  // Null if the processor was created without a context (no metrics)
+  private final InternalDriverContext context;
 
   public CqlPrepareAsyncProcessor() {
     this(CacheBuilder.newBuilder().weakValues().build());
   }
 
+  public CqlPrepareAsyncProcessor(InternalDriverContext context) {
+    this.context = context;
+    this.cache = buildCache(context.getConfig().getDefaultProfile());
+  }
+
   protected CqlPrepareAsyncProcessor(
       Cache<PrepareRequest, CompletableFuture<PreparedStatement>> cache) {
     this.cache = cache;
+    this.context = null;
+  }
+
+  private Cache<PrepareRequest, CompletableFuture<PreparedStatement>> buildCache(
+      DriverExecutionProfile config) {
+    CacheBuilder<Object, Object> builder = CacheBuilder.newBuilder();
+    if (config.getBoolean(DefaultDriverOption.PREPARED_CACHE_WEAK_VALUES, true)) {
+      builder.weakValues();
+    }
+    if (config.isDefined(DefaultDriverOption.PREPARED_CACHE_MAX_SIZE)) {
+      builder.maximumSize(config.getLong(DefaultDriverOption.PREPARED_CACHE_MAX_SIZE));
+    }
+    if (config.isDefined(DefaultDriverOption.PREPARED_CACHE_EXPIRE_AFTER_ACCESS)) {
+      builder.expireAfterAccess(
+          config.getDuration(DefaultDriverOption.PREPARED_CACHE_EXPIRE_AFTER_ACCESS).toNanos(),
+          TimeUnit.NANOSECONDS);
+    }
+    RemovalListener<PrepareRequest, CompletableFuture<PreparedStatement>> listener =
+        this::onRemoval;
+    return builder.removalListener(listener).build();
   }
 
   @Override
@@ -63,6 +110,7 @@ public class CqlPrepareAsyncProcessor
         CompletableFuture<PreparedStatement> mine = new CompletableFuture<>();
         result = cache.get(request, () -> mine);
         if (result == mine) {
+          incrementCounter(DefaultSessionMetric.CQL_PREPARED_CACHE_MISSES);
           new CqlPrepareHandler(request, session, context, sessionLogPrefix)
               .handle()
               .whenComplete(
@@ -74,7 +122,11 @@ public class CqlPrepareAsyncProcessor
                       mine.complete(preparedStatement);
                     }
                   });
+        } else {
+          incrementCounter(DefaultSessionMetric.CQL_PREPARED_CACHE_HITS);
         }
+      } else {
+        incrementCounter(DefaultSessionMetric.CQL_PREPARED_CACHE_HITS);
       }
       return result;
     } catch (ExecutionException e) {
@@ -90,4 +142,34 @@ public class CqlPrepareAsyncProcessor
   public Cache<PrepareRequest, CompletableFuture<PreparedStatement>> getCache() {
     return cache;
   }
+
+  /**
+   * Invoked when an entry is removed from the cache (only if this processor was created with a
+   * driver context).
+   *
+   * <p>The default implementation updates the {@code cql-prepared-cache-evictions} metric if the
+   * entry was evicted (by the size limit, expiration, or garbage collection), as opposed to
+   * explicitly removed. Note that this runs synchronously, on the thread that happened to perform
+   * the cache's maintenance, so it should be fast.
+   */
+  protected void onRemoval(
+      RemovalNotification<PrepareRequest, CompletableFuture<PreparedStatement>> notification) {
+    if (notification.wasEvicted()) {
+      LOG.debug(
+          "[{}] Evicted prepared statement from the cache ({}): {}",
+          context.getSessionName(),
+          notification.getCause(),
+          notification.getKey().getQuery());
+      incrementCounter(DefaultSessionMetric.CQL_PREPARED_CACHE_EVICTIONS);
+    }
+  }
+
+  private void incrementCounter(DefaultSessionMetric metric) {
+    if (context != null) {
+      // Don't cache the updater: the metrics factory might not be initialized yet when this
+      // processor gets created
+      SessionMetricUpdater metricUpdater = context.getMetricsFactory().getSessionUpdater();
+      metricUpdater.incrementCounter(metric, null);
+    }
+  }
 }
@@ -42,6 +42,8 @@ import com.datastax.oss.driver.api.core.servererrors.WriteTimeoutException;
 import com.datastax.oss.driver.api.core.session.throttling.RequestThrottler;
 import com.datastax.oss.driver.api.core.session.throttling.Throttled;
 import com.datastax.oss.driver.api.core.specex.SpeculativeExecutionPolicy;
+import com.datastax.oss.driver.api.core.tracker.RequestLatencyBreakdown;
+import com.datastax.oss.driver.api.core.tracker.RequestPhase;
 import com.datastax.oss.driver.api.core.tracker.RequestTracker;
 import com.datastax.oss.driver.internal.core.adminrequest.ThrottledAdminRequestHandler;
 import com.datastax.oss.driver.internal.core.adminrequest.UnexpectedResponseException;
@@ -50,9 +52,13 @@ import com.datastax.oss.driver.internal.core.channel.ResponseCallback;
 import com.datastax.oss.driver.internal.core.context.InternalDriverContext;
 import com.datastax.oss.driver.internal.core.metadata.DefaultNode;
 import com.datastax.oss.driver.internal.core.metrics.NodeMetricUpdater;
+import com.datastax.oss.driver.internal.core.metrics.RequestPhaseMetrics;
 import com.datastax.oss.driver.internal.core.metrics.SessionMetricUpdater;
+import com.datastax.oss.driver.internal.core.retry.RetryBudget;
 import com.datastax.oss.driver.internal.core.session.DefaultSession;
 import com.datastax.oss.driver.internal.core.session.RepreparePayload;
+import com.datastax.oss.driver.internal.core.session.throttling.NodeRequestLimiter;
+import com.datastax.oss.driver.internal.core.tracker.DefaultRequestLatencyBreakdown;
 import com.datastax.oss.driver.internal.core.tracker.NoopRequestTracker;
 import com.datastax.oss.driver.internal.core.tracker.RequestLogger;
 import com.datastax.oss.driver.internal.core.util.Loggers;
@@ -78,6 +84,7 @@ import io.netty.util.concurrent.GenericFutureListener;
 import java.nio.ByteBuffer;
 import java.time.Duration;
 import java.util.AbstractMap;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Queue;
@@ -128,8 +135,19 @@ public class CqlRequestHandler implements Throttled {
   private final RetryPolicy retryPolicy;
   private final SpeculativeExecutionPolicy speculativeExecutionPolicy;
   private final RequestThrottler throttler;
+  // null if per-node limits are disabled
+  private final NodeRequestLimiter nodeLimiter;
+  // null if the retry budget is disabled
+  private final RetryBudget retryBudget;
   private final RequestTracker requestTracker;
   private final SessionMetricUpdater sessionMetricUpdater;
+  // Whether to measure the phases of the request (see RequestLatencyBreakdown)
+  private final boolean measurePhases;
+  // Only measured if measurePhases is true. They're written before the request is handed to a
+  // channel, and read after the response was received, so the channel's task queue guarantees
+  // their visibility.
+  private long throttleReadyNanos = NANOTIME_NOT_MEASURED_YET;
+  private long queryPlanReadyNanos = NANOTIME_NOT_MEASURED_YET;
 
   // The errors on the nodes that were already tried (lazily initialized on the first error).
   // We don't use a map because nodes can appear multiple times.
@@ -186,6 +204,14 @@ public class CqlRequestHandler implements Throttled {
 
     this.requestTracker = context.getRequestTracker();
     this.sessionMetricUpdater = session.getMetricUpdater();
+    this.measurePhases =
+        executionProfile.getBoolean(
+            DefaultDriverOption.REQUEST_TRACKER_LATENCY_BREAKDOWN_ENABLED, false);
+
+    NodeRequestLimiter limiter = context.getNodeRequestLimiter();
+    this.nodeLimiter = limiter.isEnabled() ? limiter : null;
+    RetryBudget budget = context.getRetryBudget();
+    this.retryBudget = budget.isEnabled() ? budget : null;
 
     this.throttler = context.getRequestThrottler();
     this.throttler.register(this);
@@ -193,6 +219,9 @@ public class CqlRequestHandler implements Throttled {
 
   @Override
   public void onThrottleReady(boolean wasDelayed) {
+    if (measurePhases) {
+      throttleReadyNanos = System.nanoTime();
+    }
     if (wasDelayed
         // avoid call to nanoTime() if metric is disabled:
         && sessionMetricUpdater.isEnabled(
@@ -209,6 +238,9 @@ public class CqlRequestHandler implements Throttled {
             : context
                 .getLoadBalancingPolicyWrapper()
                 .newQueryPlan(statement, executionProfile.getName(), session);
+    if (measurePhases) {
+      queryPlanReadyNanos = System.nanoTime();
+    }
     sendRequest(null, queryPlan, 0, 0, true);
   }
 
@@ -259,38 +291,164 @@ public class CqlRequestHandler implements Throttled {
     if (result.isDone()) {
       return;
     }
+    long acquisitionStartNanos = measurePhases ? System.nanoTime() : NANOTIME_NOT_MEASURED_YET;
     Node node = retriedNode;
     DriverChannel channel = null;
-    if (node == null || (channel = session.getChannel(node, logPrefix)) == null) {
+    // The nodes that were skipped because of per-node limits (lazily initialized)
+    List<Node> limitedNodes = null;
+    if (node == null
+        || (channel = session.getChannel(node, logPrefix)) == null
+        || !tryAcquireNodePermit(node)) {
+      if (channel != null) {
+        limitedNodes = new ArrayList<>();
+        limitedNodes.add(node);
+        channel = null;
+      }
       while (!result.isDone() && (node = queryPlan.poll()) != null) {
         channel = session.getChannel(node, logPrefix);
         if (channel != null) {
-          break;
+          if (tryAcquireNodePermit(node)) {
+            break;
+          }
+          if (limitedNodes == null) {
+            limitedNodes = new ArrayList<>();
+          }
+          limitedNodes.add(node);
+          channel = null;
         }
       }
     }
     if (channel == null) {
+      if (limitedNodes != null
+          && !result.isDone()
+          && delayOnLimitedNode(
+              limitedNodes,
+              queryPlan,
+              currentExecutionIndex,
+              retryCount,
+              scheduleNextExecution,
+              acquisitionStartNanos)) {
+        return;
+      }
       // We've reached the end of the query plan without finding any node to write to
       if (!result.isDone() && activeExecutionsCount.decrementAndGet() == 0) {
         // We're the last execution so fail the result
         setFinalError(AllNodesFailedException.fromErrors(this.errors), null, -1);
       }
     } else {
-      NodeResponseCallback nodeResponseCallback =
-          new NodeResponseCallback(
-              node,
-              queryPlan,
-              channel,
-              currentExecutionIndex,
-              retryCount,
-              scheduleNextExecution,
-              logPrefix);
-      channel
-          .write(message, statement.isTracing(), statement.getCustomPayload(), nodeResponseCallback)
-          .addListener(nodeResponseCallback);
+      write(
+          node,
+          channel,
+          queryPlan,
+          currentExecutionIndex,
+          retryCount,
+          scheduleNextExecution,
+          acquisitionStartNanos);
     }
   }
 
+  private void write(
+      Node node,
+      DriverChannel channel,
+      Queue<Node> queryPlan,
+      int currentExecutionIndex,
+      int retryCount,
+      boolean scheduleNextExecution,
+      long acquisitionStartNanos) {
+    NodeResponseCallback nodeResponseCallback =
+        new NodeResponseCallback(
+            node,
+            queryPlan,
+            channel,
+            currentExecutionIndex,
+            retryCount,
+            scheduleNextExecution,
+            acquisitionStartNanos,
+            logPrefix);
+    channel
+        .write(message, statement.isTracing(), statement.getCustomPayload(), nodeResponseCallback)
+        .addListener(nodeResponseCallback);
+  }
+
+  private boolean tryAcquireNodePermit(Node node) {
+    if (nodeLimiter == null || nodeLimiter.tryAcquire(node)) {
+      return true;
+    }
+    LOG.trace("[{}] {} is over its per-node limits, skipping", logPrefix, node);
+    ((DefaultNode) node)
+        .getMetricUpdater()
+        .incrementCounter(DefaultNodeMetric.THROTTLING_SKIPS, executionProfile.getName());
+    return false;
+  }
+
+  /**
+   * Handles the case where the query plan is exhausted, but some nodes were skipped only because of
+   * their per-node limits: if one of them can accept the request within the configured delay,
+   * schedule the request on it.
+   *
+   * @return whether the request was scheduled. If not, a throttling error is recorded for each
+   *     node.
+   */
+  private boolean delayOnLimitedNode(
+      List<Node> limitedNodes,
+      Queue<Node> queryPlan,
+      int currentExecutionIndex,
+      int retryCount,
+      boolean scheduleNextExecution,
+      long acquisitionStartNanos) {
+    assert nodeLimiter != null;
+    long maxDelayNanos = nodeLimiter.getMaxQueueDelayNanos();
+    Node delayedNode = null;
+    if (maxDelayNanos > 0) {
+      for (Node node : limitedNodes) {
+        long delayNanos = nodeLimiter.tryReserve(node, maxDelayNanos);
+        if (delayNanos >= 0) {
+          delayedNode = node;
+          LOG.trace("[{}] Waiting {} ns for {}", logPrefix, delayNanos, node);
+          ((DefaultNode) node)
+              .getMetricUpdater()
+              .incrementCounter(DefaultNodeMetric.THROTTLING_DELAYS, executionProfile.getName());
+          try {
+            timer.newTimeout(
+                (Timeout timeout) -> {
+                  if (result.isDone()) {
+                    return;
+                  }
+                  DriverChannel channel = session.getChannel(node, logPrefix);
+                  if (channel == null) {
+                    // The pool went away while we were waiting, move on
+                    sendRequest(
+                        null, queryPlan, currentExecutionIndex, retryCount, scheduleNextExecution);
+                  } else {
+                    write(
+                        node,
+                        channel,
+                        queryPlan,
+                        currentExecutionIndex,
+                        retryCount,
+                        scheduleNextExecution,
+                        acquisitionStartNanos);
+                  }
+                },
+                delayNanos,
+                TimeUnit.NANOSECONDS);
+          } catch (IllegalStateException e) {
+            // The timer is stopped, the session is closing
+            delayedNode = null;
+          }
+          break;
+        }
+      }
+    }
+    for (Node node : limitedNodes) {
+      if (node != delayedNode) {
+        recordError(
+            node, new RequestThrottlingException("The node has reached its per-node limits"));
+      }
+    }
+    return delayedNode != null;
+  }
+
   private void recordError(Node node, Throwable error) {
     // Use a local variable to do only a single single volatile read in the nominal case
     List<Map.Entry<Node, Throwable>> errorsSnapshot = this.errors;
@@ -328,10 +486,15 @@ public class CqlRequestHandler implements Throttled {
       ExecutionInfo executionInfo =
           buildExecutionInfo(callback, resultMessage, responseFrame, schemaInAgreement);
       AsyncResultSet resultSet =
-          Conversions.toResultSet(resultMessage, executionInfo, session, context);
+          Conversions.toResultSet(resultMessage, executionInfo, session, context, executionProfile);
+      long callbackStartNanos = measurePhases ? System.nanoTime() : NANOTIME_NOT_MEASURED_YET;
       if (result.complete(resultSet)) {
+        long callbackEndNanos = measurePhases ? System.nanoTime() : NANOTIME_NOT_MEASURED_YET;
         cancelScheduledTasks();
         throttler.signalSuccess(this);
+        if (retryBudget != null) {
+          retryBudget.onSuccess();
+        }
 
         // Only call nanoTime() if we're actually going to use it
         long completionTimeNanos = NANOTIME_NOT_MEASURED_YET,
@@ -357,6 +520,9 @@ public class CqlRequestHandler implements Throttled {
               totalLatencyNanos,
               TimeUnit.NANOSECONDS);
         }
+        if (measurePhases) {
+          reportLatencyBreakdown(callback, callbackStartNanos, callbackEndNanos);
+        }
       }
       // log the warnings if they have NOT been disabled
       if (!executionInfo.getWarnings().isEmpty()
@@ -369,6 +535,36 @@ public class CqlRequestHandler implements Throttled {
     }
   }
 
+  private void reportLatencyBreakdown(
+      NodeResponseCallback callback, long callbackStartNanos, long callbackEndNanos) {
+    RequestLatencyBreakdown breakdown =
+        DefaultRequestLatencyBreakdown.builder()
+            .withPhase(RequestPhase.THROTTLING, startTimeNanos, throttleReadyNanos)
+            .withPhase(RequestPhase.QUERY_PLAN, throttleReadyNanos, queryPlanReadyNanos)
+            .withPhase(
+                RequestPhase.CHANNEL_ACQUISITION,
+                callback.acquisitionStartNanos,
+                callback.nodeStartTimeNanos)
+            .withPhase(RequestPhase.WRITE, callback.nodeStartTimeNanos, callback.writeCompleteNanos)
+            .withPhase(
+                RequestPhase.SERVER_RESPONSE, callback.writeCompleteNanos, callback.responseNanos)
+            .withPhase(RequestPhase.DECODE, callback.responseNanos, callbackStartNanos)
+            .withPhase(RequestPhase.CALLBACK, callbackStartNanos, callbackEndNanos)
+            .build();
+    if (!(requestTracker instanceof NoopRequestTracker)) {
+      requestTracker.onLatencyBreakdown(
+          statement, breakdown, executionProfile, callback.node, logPrefix);
+    }
+    String profileName = executionProfile.getName();
+    for (RequestPhase phase : RequestPhase.values()) {
+      DefaultSessionMetric metric = RequestPhaseMetrics.forPhase(phase);
+      if (sessionMetricUpdater.isEnabled(metric, profileName)) {
+        sessionMetricUpdater.updateTimer(
+            metric, profileName, breakdown.getNanos(phase), TimeUnit.NANOSECONDS);
+      }
+    }
+  }
+
   private void logServerWarnings(List<String> warnings) {
     // use the RequestLogFormatter to format the query
     StringBuilder statementString = new StringBuilder();
@@ -465,6 +661,11 @@ public class CqlRequestHandler implements Throttled {
       implements ResponseCallback, GenericFutureListener<Future<java.lang.Void>> {
 
     private final long nodeStartTimeNanos = System.nanoTime();
+    private final long acquisitionStartNanos;
+    // Only measured if measurePhases is true. Written and read on the channel's event loop, or
+    // published to other threads through the completion of the result.
+    private long writeCompleteNanos = NANOTIME_NOT_MEASURED_YET;
+    private long responseNanos = NANOTIME_NOT_MEASURED_YET;
     private final Node node;
     private final Queue<Node> queryPlan;
     private final DriverChannel channel;
@@ -484,7 +685,9 @@ public class CqlRequestHandler implements Throttled {
         int execution,
         int retryCount,
         boolean scheduleNextExecution,
+        long acquisitionStartNanos,
         String logPrefix) {
+      this.acquisitionStartNanos = acquisitionStartNanos;
       this.node = node;
       this.queryPlan = queryPlan;
       this.channel = channel;
@@ -518,6 +721,9 @@ public class CqlRequestHandler implements Throttled {
               null, queryPlan, execution, retryCount, scheduleNextExecution); // try next node
         }
       } else {
+        if (measurePhases) {
+          writeCompleteNanos = System.nanoTime();
+        }
         LOG.trace("[{}] Request sent on {}", logPrefix, channel);
         if (result.isDone()) {
           // If the handler completed since the last time we checked, cancel directly because we
@@ -561,6 +767,15 @@ public class CqlRequestHandler implements Throttled {
             timer.newTimeout(
                 (Timeout timeout1) -> {
                   if (!result.isDone()) {
+                    if (retryBudget != null && !retryBudget.tryAcquire()) {
+                      LOG.trace(
+                          "[{}] Retry budget exhausted, not starting speculative execution {}",
+                          CqlRequestHandler.this.logPrefix,
+                          index);
+                      sessionMetricUpdater.incrementCounter(
+                          DefaultSessionMetric.RETRY_BUDGET_REJECTIONS, executionProfile.getName());
+                      return;
+                    }
                     LOG.trace(
                         "[{}] Starting speculative execution {}",
                         CqlRequestHandler.this.logPrefix,
@@ -591,10 +806,15 @@ public class CqlRequestHandler implements Throttled {
     @Override
     public void onResponse(Frame responseFrame) {
       long nodeResponseTimeNanos = NANOTIME_NOT_MEASURED_YET;
+      if (measurePhases) {
+        nodeResponseTimeNanos = responseNanos = System.nanoTime();
+      }
       NodeMetricUpdater nodeMetricUpdater = ((DefaultNode) node).getMetricUpdater();
       if (nodeMetricUpdater.isEnabled(DefaultNodeMetric.CQL_MESSAGES, executionProfile.getName())) {
-        nodeResponseTimeNanos = System.nanoTime();
-        long nodeLatency = System.nanoTime() - nodeStartTimeNanos;
+        if (nodeResponseTimeNanos == NANOTIME_NOT_MEASURED_YET) {
+          nodeResponseTimeNanos = System.nanoTime();
+        }
+        long nodeLatency = nodeResponseTimeNanos - nodeStartTimeNanos;
         nodeMetricUpdater.updateTimer(
             DefaultNodeMetric.CQL_MESSAGES,
             executionProfile.getName(),
@@ -749,13 +969,14 @@ public class CqlRequestHandler implements Throttled {
         if (error instanceof ReadTimeoutException) {
           ReadTimeoutException readTimeout = (ReadTimeoutException) error;
           decision =
-              retryPolicy.onReadTimeout(
-                  statement,
-                  readTimeout.getConsistencyLevel(),
-                  readTimeout.getBlockFor(),
-                  readTimeout.getReceived(),
-                  readTimeout.wasDataPresent(),
-                  retryCount);
+              applyRetryBudget(
+                  retryPolicy.onReadTimeout(
+                      statement,
+                      readTimeout.getConsistencyLevel(),
+                      readTimeout.getBlockFor(),
+                      readTimeout.getReceived(),
+                      readTimeout.wasDataPresent(),
+                      retryCount));
           updateErrorMetrics(
               metricUpdater,
               decision,
@@ -766,13 +987,14 @@ public class CqlRequestHandler implements Throttled {
           WriteTimeoutException writeTimeout = (WriteTimeoutException) error;
           decision =
               isIdempotent
-                  ? retryPolicy.onWriteTimeout(
-                      statement,
-                      writeTimeout.getConsistencyLevel(),
-                      writeTimeout.getWriteType(),
-                      writeTimeout.getBlockFor(),
-                      writeTimeout.getReceived(),
-                      retryCount)
+                  ? applyRetryBudget(
+                      retryPolicy.onWriteTimeout(
+                          statement,
+                          writeTimeout.getConsistencyLevel(),
+                          writeTimeout.getWriteType(),
+                          writeTimeout.getBlockFor(),
+                          writeTimeout.getReceived(),
+                          retryCount))
                   : RetryDecision.RETHROW;
           updateErrorMetrics(
               metricUpdater,
@@ -783,12 +1005,13 @@ public class CqlRequestHandler implements Throttled {
         } else if (error instanceof UnavailableException) {
           UnavailableException unavailable = (UnavailableException) error;
           decision =
-              retryPolicy.onUnavailable(
-                  statement,
-                  unavailable.getConsistencyLevel(),
-                  unavailable.getRequired(),
-                  unavailable.getAlive(),
-                  retryCount);
+              applyRetryBudget(
+                  retryPolicy.onUnavailable(
+                      statement,
+                      unavailable.getConsistencyLevel(),
+                      unavailable.getRequired(),
+                      unavailable.getAlive(),
+                      retryCount));
           updateErrorMetrics(
               metricUpdater,
               decision,
@@ -798,7 +1021,7 @@ public class CqlRequestHandler implements Throttled {
         } else {
           decision =
               isIdempotent
-                  ? retryPolicy.onErrorResponse(statement, error, retryCount)
+                  ? applyRetryBudget(retryPolicy.onErrorResponse(statement, error, retryCount))
                   : RetryDecision.RETHROW;
           updateErrorMetrics(
               metricUpdater,
@@ -811,6 +1034,22 @@ public class CqlRequestHandler implements Throttled {
       }
     }
 
+    /**
+     * Checks a retry decision against the session-wide retry budget: if the budget is exhausted,
+     * the error is rethrown instead.
+     */
+    private RetryDecision applyRetryBudget(RetryDecision decision) {
+      if (retryBudget != null
+          && (decision == RetryDecision.RETRY_SAME || decision == RetryDecision.RETRY_NEXT)
+          && !retryBudget.tryAcquire()) {
+        LOG.trace("[{}] Retry budget exhausted, rethrowing instead of {}", logPrefix, decision);
+        sessionMetricUpdater.incrementCounter(
+            DefaultSessionMetric.RETRY_BUDGET_REJECTIONS, executionProfile.getName());
+        return RetryDecision.RETHROW;
+      }
+      return decision;
+    }
+
     private void processRetryDecision(RetryDecision decision, Throwable error) {
       LOG.trace("[{}] Processing retry decision {}", logPrefix, decision);
       switch (decision) {
@@ -868,7 +1107,7 @@ public class CqlRequestHandler implements Throttled {
         decision = RetryDecision.RETHROW;
       } else {
         try {
-          decision = retryPolicy.onRequestAborted(statement, error, retryCount);
+          decision = applyRetryBudget(retryPolicy.onRequestAborted(statement, error, retryCount));
         } catch (Throwable cause) {
           setFinalError(
               new IllegalStateException("Unexpected error while invoking the retry policy", cause),
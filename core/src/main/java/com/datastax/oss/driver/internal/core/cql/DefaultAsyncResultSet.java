@@ -44,6 +44,10 @@ public class DefaultAsyncResultSet implements AsyncResultSet {
   private final CqlSession session;
   private final CountingIterator<Row> iterator;
   private final Iterable<Row> currentPage;
+  private final PagingPrefetch prefetch;
+  private int rowsBeforePrefetch;
+  // Only used if prefetching is enabled: the next page, once it has been requested
+  private CompletionStage<AsyncResultSet> nextPage;
 
   public DefaultAsyncResultSet(
       ColumnDefinitions definitions,
@@ -51,14 +55,29 @@ public class DefaultAsyncResultSet implements AsyncResultSet {
       Queue<List<ByteBuffer>> data,
       CqlSession session,
       InternalDriverContext context) {
+    this(definitions, executionInfo, data, session, context, PagingPrefetch.DISABLED);
+  }
+
+  public DefaultAsyncResultSet(
+      ColumnDefinitions definitions,
+      ExecutionInfo executionInfo,
+      Queue<List<ByteBuffer>> data,
+      CqlSession session,
+      InternalDriverContext context,
+      PagingPrefetch prefetch) {
     this.definitions = definitions;
     this.executionInfo = executionInfo;
     this.session = session;
+    this.prefetch = prefetch;
+    this.rowsBeforePrefetch = prefetch.rowsBeforePrefetch(data.size());
     this.iterator =
         new CountingIterator<Row>(data.size()) {
           @Override
           protected Row computeNext() {
             List<ByteBuffer> rowData = data.poll();
+            if (prefetch.isEnabled()) {
+              maybePrefetch();
+            }
             return (rowData == null) ? endOfData() : new DefaultRow(definitions, rowData, context);
           }
         };
@@ -96,6 +115,36 @@ public class DefaultAsyncResultSet implements AsyncResultSet {
   @NonNull
   @Override
   public CompletionStage<AsyncResultSet> fetchNextPage() throws IllegalStateException {
+    if (prefetch.isEnabled()) {
+      // Return the same future every time, whether it was prefetched or not
+      if (nextPage == null) {
+        nextPage = doFetchNextPage();
+      }
+      return nextPage;
+    } else {
+      return doFetchNextPage();
+    }
+  }
+
+  @NonNull
+  PagingPrefetch getPrefetch() {
+    return prefetch;
+  }
+
+  /** Whether the next page has already been requested, either by prefetching or explicitly. */
+  boolean isNextPageRequested() {
+    return nextPage != null;
+  }
+
+  private void maybePrefetch() {
+    rowsBeforePrefetch -= 1;
+    if (rowsBeforePrefetch <= 0 && nextPage == null && hasMorePages()) {
+      LOG.trace("Prefetching next page for {}", executionInfo.getRequest());
+      nextPage = doFetchNextPage();
+    }
+  }
+
+  private CompletionStage<AsyncResultSet> doFetchNextPage() {
     ByteBuffer nextState = executionInfo.getPagingState();
     if (nextState == null) {
       throw new IllegalStateException(
@@ -24,9 +24,13 @@ import com.datastax.oss.driver.internal.core.util.CountingIterator;
 import com.datastax.oss.driver.internal.core.util.concurrent.BlockingOperation;
 import com.datastax.oss.driver.internal.core.util.concurrent.CompletableFutures;
 import edu.umd.cs.findbugs.annotations.NonNull;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 import net.jcip.annotations.NotThreadSafe;
 
 @NotThreadSafe
@@ -37,8 +41,16 @@ public class MultiPageResultSet implements ResultSet {
   private ColumnDefinitions columnDefinitions;
 
   public MultiPageResultSet(@NonNull AsyncResultSet firstPage) {
+    this(
+        firstPage,
+        (firstPage instanceof DefaultAsyncResultSet)
+            ? ((DefaultAsyncResultSet) firstPage).getPrefetch()
+            : PagingPrefetch.DISABLED);
+  }
+
+  public MultiPageResultSet(@NonNull AsyncResultSet firstPage, @NonNull PagingPrefetch prefetch) {
     assert firstPage.hasMorePages();
-    this.iterator = new RowIterator(firstPage);
+    this.iterator = new RowIterator(firstPage, prefetch);
     this.executionInfos.add(firstPage.getExecutionInfo());
     this.columnDefinitions = firstPage.getColumnDefinitions();
   }
@@ -77,27 +89,80 @@ public class MultiPageResultSet implements ResultSet {
   }
 
   private class RowIterator extends CountingIterator<Row> {
+    private final PagingPrefetch prefetch;
+    // The pages that were fetched ahead of the current one, in order
+    private final Deque<CompletionStage<AsyncResultSet>> prefetchedPages = new ArrayDeque<>();
     private AsyncResultSet currentPage;
     private Iterator<Row> currentRows;
+    private int rowsBeforePrefetch;
 
-    private RowIterator(AsyncResultSet firstPage) {
+    private RowIterator(AsyncResultSet firstPage, PagingPrefetch prefetch) {
       super(firstPage.remaining());
+      this.prefetch = prefetch;
       this.currentPage = firstPage;
       this.currentRows = firstPage.currentPage().iterator();
+      this.rowsBeforePrefetch = prefetch.rowsBeforePrefetch(firstPage.remaining());
     }
 
     @Override
     protected Row computeNext() {
       maybeMoveToNextPage();
+      if (prefetch.isEnabled()) {
+        maybePrefetch();
+      }
       return currentRows.hasNext() ? currentRows.next() : endOfData();
     }
 
+    /**
+     * Once enough of the current page has been consumed, requests the pages that follow it, as far
+     * as the configured limits allow.
+     *
+     * <p>A page can only be requested once its predecessor has arrived (we need its paging state),
+     * so this is re-evaluated for each row: each call extends the chain as far as possible, without
+     * blocking.
+     */
+    private void maybePrefetch() {
+      rowsBeforePrefetch -= 1;
+      if (rowsBeforePrefetch > 0) {
+        return;
+      }
+      while (prefetchedPages.size() < prefetch.getMaxPages()) {
+        AsyncResultSet lastPage;
+        long bufferedBytes = 0;
+        if (prefetchedPages.isEmpty()) {
+          lastPage = currentPage;
+        } else {
+          lastPage = null;
+          for (CompletionStage<AsyncResultSet> stage : prefetchedPages) {
+            lastPage = getIfCompleted(stage);
+            if (lastPage == null) {
+              // Still in flight (or failed, in which case the error will surface when the
+              // consumer reaches it)
+              return;
+            }
+            bufferedBytes += Math.max(lastPage.getExecutionInfo().getResponseSizeInBytes(), 0);
+          }
+        }
+        if (!lastPage.hasMorePages() || bufferedBytes >= prefetch.getMaxBytes()) {
+          return;
+        }
+        prefetchedPages.add(lastPage.fetchNextPage());
+      }
+    }
+
+    private AsyncResultSet getIfCompleted(CompletionStage<AsyncResultSet> stage) {
+      CompletableFuture<AsyncResultSet> future = stage.toCompletableFuture();
+      return (future.isDone() && !future.isCompletedExceptionally()) ? future.join() : null;
+    }
+
     private void maybeMoveToNextPage() {
       if (!currentRows.hasNext() && currentPage.hasMorePages()) {
         BlockingOperation.checkNotDriverThread();
-        AsyncResultSet nextPage =
-            CompletableFutures.getUninterruptibly(currentPage.fetchNextPage());
+        CompletionStage<AsyncResultSet> nextPageStage =
+            prefetchedPages.isEmpty() ? currentPage.fetchNextPage() : prefetchedPages.poll();
+        AsyncResultSet nextPage = CompletableFutures.getUninterruptibly(nextPageStage);
         currentPage = nextPage;
+        rowsBeforePrefetch = prefetch.rowsBeforePrefetch(nextPage.remaining());
         remaining += nextPage.remaining();
         currentRows = nextPage.currentPage().iterator();
         executionInfos.add(nextPage.getExecutionInfo());
@@ -0,0 +1,84 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.driver.internal.core.cql;
+
+import com.datastax.oss.driver.api.core.config.DefaultDriverOption;
+import com.datastax.oss.driver.api.core.config.DriverExecutionProfile;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import net.jcip.annotations.Immutable;
+
+/**
+ * The settings that control background page prefetching in result sets.
+ *
+ * @see DefaultDriverOption#PAGING_PREFETCH_ENABLED
+ */
+@Immutable
+public class PagingPrefetch {
+
+  public static final PagingPrefetch DISABLED = new PagingPrefetch(false, 1.0, 0, 0);
+
+  @NonNull
+  public static PagingPrefetch fromConfig(@NonNull DriverExecutionProfile profile) {
+    if (!profile.getBoolean(DefaultDriverOption.PAGING_PREFETCH_ENABLED, false)) {
+      return DISABLED;
+    }
+    return new PagingPrefetch(
+        true,
+        profile.getDouble(DefaultDriverOption.PAGING_PREFETCH_THRESHOLD, 0.5),
+        profile.getInt(DefaultDriverOption.PAGING_PREFETCH_MAX_PAGES, 1),
+        profile.getBytes(DefaultDriverOption.PAGING_PREFETCH_MAX_BYTES, 16L * 1024 * 1024));
+  }
+
+  private final boolean enabled;
+  private final double threshold;
+  private final int maxPages;
+  private final long maxBytes;
+
+  public PagingPrefetch(boolean enabled, double threshold, int maxPages, long maxBytes) {
+    this.enabled = enabled;
+    this.threshold = Math.min(Math.max(threshold, 0.0), 1.0);
+    this.maxPages = Math.max(maxPages, 1);
+    this.maxBytes = maxBytes;
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * The number of rows of a page that must be consumed before the next page gets fetched in the
+   * background.
+   */
+  public int rowsBeforePrefetch(int pageSize) {
+    return (int) Math.ceil(pageSize * threshold);
+  }
+
+  /**
+   * How many pages a synchronous result set can fetch ahead of the one that is being consumed.
+   * Asynchronous result sets always fetch at most one page ahead.
+   */
+  public int getMaxPages() {
+    return maxPages;
+  }
+
+  /**
+   * The maximum cumulated size of the pages that have been fetched ahead but not consumed yet. Once
+   * it is reached, no more pages are prefetched until the consumer catches up.
+   */
+  public long getMaxBytes() {
+    return maxBytes;
+  }
+}
@@ -16,6 +16,7 @@
 package com.datastax.oss.driver.internal.core.loadbalancing;
 
 import com.datastax.oss.driver.api.core.CqlIdentifier;
+import com.datastax.oss.driver.api.core.config.DefaultDriverOption;
 import com.datastax.oss.driver.api.core.config.DriverExecutionProfile;
 import com.datastax.oss.driver.api.core.context.DriverContext;
 import com.datastax.oss.driver.api.core.loadbalancing.LoadBalancingPolicy;
@@ -29,7 +30,9 @@ import com.datastax.oss.driver.api.core.session.Session;
 import com.datastax.oss.driver.internal.core.context.InternalDriverContext;
 import com.datastax.oss.driver.internal.core.loadbalancing.helper.DefaultNodeFilterHelper;
 import com.datastax.oss.driver.internal.core.loadbalancing.helper.OptionalLocalDcHelper;
+import com.datastax.oss.driver.internal.core.metadata.token.DefaultTokenMap;
 import com.datastax.oss.driver.internal.core.util.ArrayUtils;
+import com.datastax.oss.driver.internal.core.util.collection.LazyQueryPlan;
 import com.datastax.oss.driver.internal.core.util.collection.QueryPlan;
 import com.datastax.oss.driver.shaded.guava.common.collect.ImmutableSet;
 import edu.umd.cs.findbugs.annotations.NonNull;
@@ -42,6 +45,7 @@ import java.util.Queue;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.IntUnaryOperator;
 import java.util.function.Predicate;
@@ -79,6 +83,11 @@ import org.slf4j.LoggerFactory;
  * will only include local nodes, never remote ones; if it is unspecified however, query plans may
  * contain nodes from different datacenters.
  *
+ * <p>If {@code basic.load-balancing-policy.lazy-query-plans} is enabled, query plans are computed
+ * on the fly from arrays that are precomputed when the topology changes (see {@link
+ * LazyQueryPlan}), instead of copying the live nodes for each request. In that mode, replicas are
+ * rotated from a random starting point instead of shuffled.
+ *
  * <p><b>This class is not recommended for normal users who should always prefer {@link
  * DefaultLoadBalancingPolicy}</b>.
  */
@@ -95,6 +104,10 @@ public class BasicLoadBalancingPolicy implements LoadBalancingPolicy {
 
   protected final AtomicInteger roundRobinAmount = new AtomicInteger();
   protected final CopyOnWriteArraySet<Node> liveNodes = new CopyOnWriteArraySet<>();
+  protected final boolean lazyQueryPlans;
+
+  // Only maintained if lazyQueryPlans is enabled
+  private volatile LiveNodesSnapshot liveNodesSnapshot = LiveNodesSnapshot.EMPTY;
 
   // private because they should be set in init() and never be modified after
   private volatile DistanceReporter distanceReporter;
@@ -105,6 +118,8 @@ public class BasicLoadBalancingPolicy implements LoadBalancingPolicy {
     this.context = (InternalDriverContext) context;
     profile = context.getConfig().getProfile(profileName);
     logPrefix = context.getSessionName() + "|" + profileName;
+    lazyQueryPlans =
+        profile.getBoolean(DefaultDriverOption.LOAD_BALANCING_POLICY_LAZY_QUERY_PLANS, false);
   }
 
   /** @return The local datacenter, if known; empty otherwise. */
@@ -138,6 +153,7 @@ public class BasicLoadBalancingPolicy implements LoadBalancingPolicy {
         distanceReporter.setDistance(node, NodeDistance.IGNORED);
       }
     }
+    updateLiveNodesSnapshot();
   }
 
   /**
@@ -186,6 +202,10 @@ public class BasicLoadBalancingPolicy implements LoadBalancingPolicy {
   @NonNull
   @Override
   public Queue<Node> newQueryPlan(@Nullable Request request, @Nullable Session session) {
+    if (lazyQueryPlans) {
+      return newLazyQueryPlan(request, session);
+    }
+
     // Take a snapshot since the set is concurrent:
     Object[] currentNodes = liveNodes.toArray();
 
@@ -219,15 +239,46 @@ public class BasicLoadBalancingPolicy implements LoadBalancingPolicy {
     return new QueryPlan(currentNodes);
   }
 
+  /**
+   * Builds a query plan that doesn't copy the live nodes. Only used if {@link #lazyQueryPlans} is
+   * enabled.
+   */
+  @NonNull
+  protected Queue<Node> newLazyQueryPlan(@Nullable Request request, @Nullable Session session) {
+    LiveNodesSnapshot snapshot = liveNodesSnapshot;
+    Object[] replicas = getReplicaArray(request, session);
+    int replicaOffset =
+        (replicas.length > 1) ? ThreadLocalRandom.current().nextInt(replicas.length) : 0;
+    int liveNodeCount = snapshot.nodes.length;
+    int roundRobinIndex = roundRobinAmount.getAndUpdate(INCREMENT);
+    int liveNodeOffset = (liveNodeCount == 0) ? 0 : roundRobinIndex % liveNodeCount;
+    return new LazyQueryPlan(replicas, replicaOffset, snapshot.nodes, snapshot.set, liveNodeOffset);
+  }
+
   @NonNull
   protected Set<Node> getReplicas(@Nullable Request request, @Nullable Session session) {
+    return findReplicas(request, session, SET_LOOKUP);
+  }
+
+  /**
+   * Same as {@link #getReplicas(Request, Session)}, but returns an array. If possible, this is a
+   * precomputed array shared with other callers, so it must not be modified.
+   */
+  @NonNull
+  protected Object[] getReplicaArray(@Nullable Request request, @Nullable Session session) {
+    return findReplicas(request, session, ARRAY_LOOKUP);
+  }
+
+  @NonNull
+  private <ReplicasT> ReplicasT findReplicas(
+      @Nullable Request request, @Nullable Session session, ReplicaLookup<ReplicasT> lookup) {
     if (request == null || session == null) {
-      return Collections.emptySet();
+      return lookup.none();
     }
 
     Optional<TokenMap> maybeTokenMap = context.getMetadataManager().getMetadata().getTokenMap();
     if (!maybeTokenMap.isPresent()) {
-      return Collections.emptySet();
+      return lookup.none();
     }
 
     // Note: we're on the hot path and the getXxx methods are potentially more than simple getters,
@@ -245,24 +296,24 @@ public class BasicLoadBalancingPolicy implements LoadBalancingPolicy {
         keyspace = session.getKeyspace().get();
       }
       if (keyspace == null) {
-        return Collections.emptySet();
+        return lookup.none();
       }
 
       token = request.getRoutingToken();
       key = (token == null) ? request.getRoutingKey() : null;
       if (token == null && key == null) {
-        return Collections.emptySet();
+        return lookup.none();
       }
     } catch (Exception e) {
       // Protect against poorly-implemented Request instances
       LOG.error("Unexpected error while trying to compute query plan", e);
-      return Collections.emptySet();
+      return lookup.none();
     }
 
     TokenMap tokenMap = maybeTokenMap.get();
     return token != null
-        ? tokenMap.getReplicas(keyspace, token)
-        : tokenMap.getReplicas(keyspace, key);
+        ? lookup.byToken(tokenMap, keyspace, token)
+        : lookup.byKey(tokenMap, keyspace, key);
   }
 
   /** Exposed as a protected method so that it can be accessed by tests */
@@ -290,6 +341,7 @@ public class BasicLoadBalancingPolicy implements LoadBalancingPolicy {
       distanceReporter.setDistance(node, NodeDistance.LOCAL);
       if (liveNodes.add(node)) {
         LOG.debug("[{}] {} came back UP, added to live set", logPrefix, node);
+        updateLiveNodesSnapshot();
       }
     } else {
       distanceReporter.setDistance(node, NodeDistance.IGNORED);
@@ -300,6 +352,7 @@ public class BasicLoadBalancingPolicy implements LoadBalancingPolicy {
   public void onDown(@NonNull Node node) {
     if (liveNodes.remove(node)) {
       LOG.debug("[{}] {} went DOWN, removed from live set", logPrefix, node);
+      updateLiveNodesSnapshot();
     }
   }
 
@@ -307,6 +360,7 @@ public class BasicLoadBalancingPolicy implements LoadBalancingPolicy {
   public void onRemove(@NonNull Node node) {
     if (liveNodes.remove(node)) {
       LOG.debug("[{}] {} was removed, removed from live set", logPrefix, node);
+      updateLiveNodesSnapshot();
     }
   }
 
@@ -314,4 +368,82 @@ public class BasicLoadBalancingPolicy implements LoadBalancingPolicy {
   public void close() {
     // nothing to do
   }
+
+  /**
+   * Recomputes the snapshot used by lazy query plans. This must be called after each modification
+   * of {@link #liveNodes}.
+   */
+  protected void updateLiveNodesSnapshot() {
+    if (lazyQueryPlans) {
+      liveNodesSnapshot = new LiveNodesSnapshot(liveNodes.toArray());
+    }
+  }
+
+  /** An immutable copy of the live nodes, in a form that can be shared by lazy query plans. */
+  private static class LiveNodesSnapshot {
+    private static final LiveNodesSnapshot EMPTY = new LiveNodesSnapshot(new Object[0]);
+
+    private final Object[] nodes;
+    private final Set<Node> set;
+
+    private LiveNodesSnapshot(Object[] nodes) {
+      this.nodes = nodes;
+      ImmutableSet.Builder<Node> builder = ImmutableSet.builder();
+      for (Object node : nodes) {
+        builder.add((Node) node);
+      }
+      this.set = builder.build();
+    }
+  }
+
+  /** Abstracts the type of result in {@link #findReplicas}. */
+  private interface ReplicaLookup<ReplicasT> {
+    ReplicasT none();
+
+    ReplicasT byToken(TokenMap tokenMap, CqlIdentifier keyspace, Token token);
+
+    ReplicasT byKey(TokenMap tokenMap, CqlIdentifier keyspace, ByteBuffer key);
+  }
+
+  private static final ReplicaLookup<Set<Node>> SET_LOOKUP =
+      new ReplicaLookup<Set<Node>>() {
+        @Override
+        public Set<Node> none() {
+          return Collections.emptySet();
+        }
+
+        @Override
+        public Set<Node> byToken(TokenMap tokenMap, CqlIdentifier keyspace, Token token) {
+          return tokenMap.getReplicas(keyspace, token);
+        }
+
+        @Override
+        public Set<Node> byKey(TokenMap tokenMap, CqlIdentifier keyspace, ByteBuffer key) {
+          return tokenMap.getReplicas(keyspace, key);
+        }
+      };
+
+  private static final ReplicaLookup<Object[]> ARRAY_LOOKUP =
+      new ReplicaLookup<Object[]>() {
+        private final Object[] none = new Object[0];
+
+        @Override
+        public Object[] none() {
+          return none;
+        }
+
+        @Override
+        public Object[] byToken(TokenMap tokenMap, CqlIdentifier keyspace, Token token) {
+          return (tokenMap instanceof DefaultTokenMap)
+              ? ((DefaultTokenMap) tokenMap).getReplicaArray(keyspace, token)
+              : tokenMap.getReplicas(keyspace, token).toArray();
+        }
+
+        @Override
+        public Object[] byKey(TokenMap tokenMap, CqlIdentifier keyspace, ByteBuffer key) {
+          return (tokenMap instanceof DefaultTokenMap)
+              ? ((DefaultTokenMap) tokenMap).getReplicaArray(keyspace, key)
+              : tokenMap.getReplicas(keyspace, key).toArray();
+        }
+      };
 }
@@ -100,8 +100,10 @@ public class DefaultLoadBalancingPolicy extends BasicLoadBalancingPolicy impleme
 
   public DefaultLoadBalancingPolicy(@NonNull DriverContext context, @NonNull String profileName) {
     super(context, profileName);
+    // Lazy query plans can't reorder replicas, so they are incompatible with slow replica avoidance
     this.avoidSlowReplicas =
-        profile.getBoolean(DefaultDriverOption.LOAD_BALANCING_POLICY_SLOW_AVOIDANCE, true);
+        profile.getBoolean(DefaultDriverOption.LOAD_BALANCING_POLICY_SLOW_AVOIDANCE, true)
+            && !lazyQueryPlans;
   }
 
   @Override
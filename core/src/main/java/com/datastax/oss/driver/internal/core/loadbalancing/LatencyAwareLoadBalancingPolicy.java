@@ -0,0 +1,303 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.driver.internal.core.loadbalancing;
+
+import com.datastax.dse.driver.internal.core.tracker.MultiplexingRequestTracker;
+import com.datastax.oss.driver.api.core.config.DefaultDriverOption;
+import com.datastax.oss.driver.api.core.config.DriverExecutionProfile;
+import com.datastax.oss.driver.api.core.context.DriverContext;
+import com.datastax.oss.driver.api.core.metadata.Node;
+import com.datastax.oss.driver.api.core.session.Request;
+import com.datastax.oss.driver.api.core.session.Session;
+import com.datastax.oss.driver.api.core.tracker.RequestTracker;
+import com.datastax.oss.driver.internal.core.loadbalancing.helper.MandatoryLocalDcHelper;
+import com.datastax.oss.driver.internal.core.pool.ChannelPool;
+import com.datastax.oss.driver.internal.core.session.DefaultSession;
+import com.datastax.oss.driver.internal.core.util.ArrayUtils;
+import com.datastax.oss.driver.internal.core.util.collection.QueryPlan;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import net.jcip.annotations.ThreadSafe;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A load balancing policy that orders replicas by their predicted response time.
+ *
+ * <p>To activate this policy, modify the {@code basic.load-balancing-policy} section in the driver
+ * configuration, for example:
+ *
+ * <pre>
+ * datastax-java-driver {
+ *   basic.load-balancing-policy {
+ *     class = LatencyAwareLoadBalancingPolicy
+ *     local-datacenter = datacenter1
+ *     latency-decay-time = 1 second
+ *   }
+ * }
+ * </pre>
+ *
+ * See {@code reference.conf} (in the manual or core driver JAR) for more details.
+ *
+ * <p><b>Local datacenter</b>: like {@link DefaultLoadBalancingPolicy}, this implementation requires
+ * a local datacenter to be defined.
+ *
+ * <p><b>Query plan</b>: This implementation prioritizes replica nodes over non-replica ones. The
+ * replicas are shuffled, and then sorted by a score that estimates how long each of them will take
+ * to respond: the node's recent latency, multiplied by the number of requests it is already
+ * processing, plus one. Since the sort is stable, replicas with the same score remain in random
+ * order. Non-replica nodes are included in a round-robin fashion.
+ *
+ * <p>The latency of each node is tracked with a "peak" exponentially weighted moving average:
+ *
+ * <ul>
+ *   <li>a response that is slower than the current estimate replaces it immediately, so that a
+ *       replica that starts struggling (for example because of a GC pause) is avoided right away;
+ *   <li>faster responses are averaged with the current estimate, with a weight that depends on the
+ *       time elapsed since the previous response (see {@code
+ *       basic.load-balancing-policy.latency-decay-time});
+ *   <li>when a node doesn't receive any response, its estimate decays towards zero, so that it
+ *       eventually gets tried again.
+ * </ul>
+ *
+ * Latencies are fed by the {@link RequestTracker} callbacks. The number of in-flight requests is
+ * read from the node's connection pool; it includes requests that were cancelled or timed out
+ * client-side but that the node is likely still processing.
+ */
+@ThreadSafe
+public class LatencyAwareLoadBalancingPolicy extends BasicLoadBalancingPolicy
+    implements RequestTracker {
+
+  private static final Logger LOG = LoggerFactory.getLogger(LatencyAwareLoadBalancingPolicy.class);
+
+  private static final Duration DEFAULT_DECAY_TIME = Duration.ofSeconds(1);
+
+  protected final Map<Node, NodeLatency> latencies = new ConcurrentHashMap<>();
+  private final double decayTimeNanos;
+
+  public LatencyAwareLoadBalancingPolicy(
+      @NonNull DriverContext context, @NonNull String profileName) {
+    super(context, profileName);
+    Duration decayTime =
+        profile.getDuration(
+            DefaultDriverOption.LOAD_BALANCING_POLICY_LATENCY_DECAY_TIME, DEFAULT_DECAY_TIME);
+    if (decayTime.isNegative() || decayTime.isZero()) {
+      LOG.warn(
+          "[{}] Invalid value for {}: {}, must be strictly positive. Using the default ({}).",
+          logPrefix,
+          DefaultDriverOption.LOAD_BALANCING_POLICY_LATENCY_DECAY_TIME.getPath(),
+          decayTime,
+          DEFAULT_DECAY_TIME);
+      decayTime = DEFAULT_DECAY_TIME;
+    }
+    this.decayTimeNanos = decayTime.toNanos();
+  }
+
+  @Override
+  public void init(@NonNull Map<UUID, Node> nodes, @NonNull DistanceReporter distanceReporter) {
+    super.init(nodes, distanceReporter);
+    ((MultiplexingRequestTracker) context.getRequestTracker()).register(this);
+  }
+
+  @NonNull
+  @Override
+  protected Optional<String> discoverLocalDc(@NonNull Map<UUID, Node> nodes) {
+    return new MandatoryLocalDcHelper(context, profile, logPrefix).discoverLocalDc(nodes);
+  }
+
+  @NonNull
+  @Override
+  public Queue<Node> newQueryPlan(@Nullable Request request, @Nullable Session session) {
+    // Take a snapshot since the set is concurrent:
+    Object[] currentNodes = liveNodes.toArray();
+
+    Set<Node> allReplicas = getReplicas(request, session);
+    int replicaCount = 0; // in currentNodes
+
+    if (!allReplicas.isEmpty()) {
+
+      // Move replicas to the beginning of the plan
+      for (int i = 0; i < currentNodes.length; i++) {
+        Node node = (Node) currentNodes[i];
+        if (allReplicas.contains(node)) {
+          ArrayUtils.bubbleUp(currentNodes, i, replicaCount);
+          replicaCount++;
+        }
+      }
+
+      if (replicaCount > 1) {
+        // Shuffle first, so that ties are broken randomly
+        shuffleHead(currentNodes, replicaCount);
+        // getReplicas never returns replicas without a session
+        assert session != null;
+        sortByScore(currentNodes, replicaCount, session);
+      }
+    }
+
+    LOG.trace("[{}] Prioritizing {} local replicas", logPrefix, replicaCount);
+
+    // Round-robin the remaining nodes
+    ArrayUtils.rotate(
+        currentNodes,
+        replicaCount,
+        currentNodes.length - replicaCount,
+        roundRobinAmount.getAndUpdate(INCREMENT));
+
+    return new QueryPlan(currentNodes);
+  }
+
+  @Override
+  public void onNodeSuccess(
+      @NonNull Request request,
+      long latencyNanos,
+      @NonNull DriverExecutionProfile executionProfile,
+      @NonNull Node node,
+      @NonNull String logPrefix) {
+    latencies.computeIfAbsent(node, n -> new NodeLatency()).update(latencyNanos, nanoTime());
+  }
+
+  @Override
+  public void onNodeError(
+      @NonNull Request request,
+      @NonNull Throwable error,
+      long latencyNanos,
+      @NonNull DriverExecutionProfile executionProfile,
+      @NonNull Node node,
+      @NonNull String logPrefix) {
+    // A fast error (e.g. overloaded) is not a sign that the node is healthy: only use errors to
+    // raise the estimate, never to lower it.
+    latencies.computeIfAbsent(node, n -> new NodeLatency()).penalize(latencyNanos, nanoTime());
+  }
+
+  @Override
+  public void onUp(@NonNull Node node) {
+    // Start over, the node's past latencies are not relevant anymore
+    latencies.remove(node);
+    super.onUp(node);
+  }
+
+  @Override
+  public void onRemove(@NonNull Node node) {
+    latencies.remove(node);
+    super.onRemove(node);
+  }
+
+  /** Exposed as a protected method so that it can be accessed by tests */
+  @Override
+  protected void shuffleHead(Object[] currentNodes, int replicaCount) {
+    super.shuffleHead(currentNodes, replicaCount);
+  }
+
+  /** Exposed as a protected method so that it can be accessed by tests */
+  protected long nanoTime() {
+    return System.nanoTime();
+  }
+
+  /**
+   * Sorts the first {@code replicaCount} elements of {@code currentNodes} by ascending score
+   * (predicted response time).
+   */
+  private void sortByScore(Object[] currentNodes, int replicaCount, @NonNull Session session) {
+    long now = nanoTime();
+    double[] scores = new double[replicaCount];
+
+    // Nodes that have never responded are assumed to be average
+    double totalLatency = 0;
+    int knownCount = 0;
+    for (int i = 0; i < replicaCount; i++) {
+      NodeLatency latency = latencies.get((Node) currentNodes[i]);
+      if (latency == null) {
+        scores[i] = -1;
+      } else {
+        scores[i] = latency.get(now);
+        totalLatency += scores[i];
+        knownCount++;
+      }
+    }
+    double defaultLatency = (knownCount == 0) ? 1 : totalLatency / knownCount;
+
+    for (int i = 0; i < replicaCount; i++) {
+      double latency = (scores[i] < 0) ? defaultLatency : scores[i];
+      scores[i] = latency * (getInFlight((Node) currentNodes[i], session) + 1);
+    }
+
+    // Insertion sort: the array is tiny, and we need the sort to be stable
+    for (int i = 1; i < replicaCount; i++) {
+      Object node = currentNodes[i];
+      double score = scores[i];
+      int j = i - 1;
+      while (j >= 0 && scores[j] > score) {
+        currentNodes[j + 1] = currentNodes[j];
+        scores[j + 1] = scores[j];
+        j--;
+      }
+      currentNodes[j + 1] = node;
+      scores[j + 1] = score;
+    }
+  }
+
+  protected int getInFlight(@NonNull Node node, @NonNull Session session) {
+    // The cast will always succeed because there's no way to replace the internal session impl
+    ChannelPool pool = ((DefaultSession) session).getPools().get(node);
+    // Note: getInFlight() includes orphaned ids, which is what we want as we need to account
+    // for requests that were cancelled or timed out (since the node is likely to still be
+    // processing them).
+    return (pool == null) ? 0 : pool.getInFlight();
+  }
+
+  /** The latency estimate of a node. */
+  @ThreadSafe
+  protected class NodeLatency {
+
+    // Writes are synchronized, but query plans read without locking. They might occasionally
+    // observe a value and a timestamp from different updates, which is fine for an estimate.
+    private volatile double value;
+    private volatile long timestamp;
+
+    synchronized void update(long latencyNanos, long now) {
+      if (latencyNanos > value) {
+        value = latencyNanos;
+      } else {
+        double weight = decayWeight(now - timestamp);
+        value = value * weight + latencyNanos * (1 - weight);
+      }
+      timestamp = now;
+    }
+
+    synchronized void penalize(long latencyNanos, long now) {
+      if (latencyNanos > get(now)) {
+        value = latencyNanos;
+        timestamp = now;
+      }
+    }
+
+    /** Returns the current estimate, decayed by the time elapsed since the last response. */
+    double get(long now) {
+      return value * decayWeight(now - timestamp);
+    }
+  }
+
+  private double decayWeight(long elapsedNanos) {
+    return Math.exp(-Math.max(0, elapsedNanos) / decayTimeNanos);
+  }
+}
@@ -183,6 +183,34 @@ public class DefaultTokenMap implements TokenMap {
     return (keyspaceMap == null) ? Collections.emptySet() : keyspaceMap.getReplicas(token);
   }
 
+  /**
+   * Same as {@link #getReplicas(CqlIdentifier, ByteBuffer)}, but returns a precomputed array
+   * instead of a set.
+   *
+   * <p>This is intended for load balancing policies that want to avoid allocating on the hot path.
+   * For efficiency, there is no defensive copy: the array is shared between all callers, so it must
+   * not be modified.
+   */
+  @NonNull
+  public Node[] getReplicaArray(@NonNull CqlIdentifier keyspace, @NonNull ByteBuffer partitionKey) {
+    KeyspaceTokenMap keyspaceMap = getKeyspaceMap(keyspace);
+    return (keyspaceMap == null)
+        ? KeyspaceTokenMap.EMPTY_NODES
+        : keyspaceMap.getReplicaArray(partitionKey);
+  }
+
+  /**
+   * Same as {@link #getReplicas(CqlIdentifier, Token)}, but returns a precomputed array instead of
+   * a set. See {@link #getReplicaArray(CqlIdentifier, ByteBuffer)} for more explanations.
+   */
+  @NonNull
+  public Node[] getReplicaArray(@NonNull CqlIdentifier keyspace, @NonNull Token token) {
+    KeyspaceTokenMap keyspaceMap = getKeyspaceMap(keyspace);
+    return (keyspaceMap == null)
+        ? KeyspaceTokenMap.EMPTY_NODES
+        : keyspaceMap.getReplicaArray(token);
+  }
+
   @NonNull
   @Override
   public String getPartitionerName() {
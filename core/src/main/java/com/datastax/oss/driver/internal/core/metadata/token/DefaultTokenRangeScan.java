@@ -0,0 +1,475 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.driver.internal.core.metadata.token;
+
+import com.datastax.oss.driver.api.core.CqlIdentifier;
+import com.datastax.oss.driver.api.core.CqlSession;
+import com.datastax.oss.driver.api.core.config.DriverExecutionProfile;
+import com.datastax.oss.driver.api.core.cql.AsyncResultSet;
+import com.datastax.oss.driver.api.core.cql.BoundStatement;
+import com.datastax.oss.driver.api.core.cql.PreparedStatement;
+import com.datastax.oss.driver.api.core.cql.Row;
+import com.datastax.oss.driver.api.core.cql.SimpleStatement;
+import com.datastax.oss.driver.api.core.metadata.Metadata;
+import com.datastax.oss.driver.api.core.metadata.Node;
+import com.datastax.oss.driver.api.core.metadata.NodeState;
+import com.datastax.oss.driver.api.core.metadata.TokenMap;
+import com.datastax.oss.driver.api.core.metadata.schema.ColumnMetadata;
+import com.datastax.oss.driver.api.core.metadata.schema.TableMetadata;
+import com.datastax.oss.driver.api.core.metadata.token.TokenRange;
+import com.datastax.oss.driver.api.core.metadata.token.TokenRangeScan;
+import com.datastax.oss.driver.api.core.metadata.token.TokenRangeScanListener;
+import com.datastax.oss.driver.shaded.guava.common.annotations.VisibleForTesting;
+import com.datastax.oss.driver.shaded.guava.common.collect.ImmutableList;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.stream.Collectors;
+import net.jcip.annotations.GuardedBy;
+import net.jcip.annotations.ThreadSafe;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+@ThreadSafe
+public class DefaultTokenRangeScan implements TokenRangeScan {
+
+  private static final Logger LOG = LoggerFactory.getLogger(DefaultTokenRangeScan.class);
+
+  private final CqlSession session;
+  private final List<ScanRange> scanRanges;
+  private final List<TokenRange> ranges;
+  private final String rangeQuery;
+  private final String openEndedQuery;
+  private final int maxConcurrentRangesPerNode;
+  private final String executionProfileName;
+  private final DriverExecutionProfile executionProfile;
+  private final Executor callbackExecutor;
+  private final String logPrefix;
+
+  public DefaultTokenRangeScan(
+      @NonNull CqlSession session,
+      @NonNull CqlIdentifier keyspace,
+      @NonNull CqlIdentifier table,
+      @NonNull List<CqlIdentifier> columns,
+      int splitsPerRange,
+      int maxConcurrentRangesPerNode,
+      @NonNull List<TokenRange> completedRanges,
+      @Nullable String executionProfileName,
+      @Nullable DriverExecutionProfile executionProfile,
+      @Nullable Executor callbackExecutor) {
+    this.session = session;
+    this.maxConcurrentRangesPerNode = maxConcurrentRangesPerNode;
+    this.executionProfileName = executionProfileName;
+    this.executionProfile = executionProfile;
+    this.callbackExecutor = callbackExecutor;
+    this.logPrefix = session.getName() + "|" + keyspace.asInternal() + "." + table.asInternal();
+
+    Metadata metadata = session.getMetadata();
+    TokenMap tokenMap =
+        metadata
+            .getTokenMap()
+            .orElseThrow(
+                () ->
+                    new IllegalStateException(
+                        "Token metadata is not available, "
+                            + "check that advanced.metadata.token-map.enabled is true"));
+    TableMetadata tableMetadata =
+        metadata
+            .getKeyspace(keyspace)
+            .flatMap(keyspaceMetadata -> keyspaceMetadata.getTable(table))
+            .orElseThrow(
+                () ->
+                    new IllegalArgumentException(
+                        String.format(
+                            "Unknown table %s.%s", keyspace.asCql(true), table.asCql(true))));
+
+    String tokenFunction =
+        tableMetadata.getPartitionKey().stream()
+            .map(ColumnMetadata::getName)
+            .map(name -> name.asCql(true))
+            .collect(Collectors.joining(",", "token(", ")"));
+    String selectors =
+        columns.isEmpty()
+            ? "*"
+            : columns.stream().map(id -> id.asCql(true)).collect(Collectors.joining(","));
+    this.openEndedQuery =
+        String.format(
+            "SELECT %s FROM %s.%s WHERE %s > ?",
+            selectors, keyspace.asCql(true), table.asCql(true), tokenFunction);
+    this.rangeQuery = openEndedQuery + " AND " + tokenFunction + " <= ?";
+
+    List<TokenRange> primaryRanges = new ArrayList<>(tokenMap.getTokenRanges());
+    Collections.sort(primaryRanges);
+    ImmutableList.Builder<ScanRange> scanRangesBuilder = ImmutableList.builder();
+    ImmutableList.Builder<TokenRange> rangesBuilder = ImmutableList.builder();
+    for (TokenRange primaryRange : primaryRanges) {
+      // All the splits of a range have the same replicas
+      Set<Node> replicas = tokenMap.getReplicas(keyspace, primaryRange);
+      List<TokenRange> splits =
+          (splitsPerRange == 1)
+              ? ImmutableList.of(primaryRange)
+              : primaryRange.splitEvenly(splitsPerRange);
+      for (TokenRange split : splits) {
+        // A query can't express a range that wraps around the ring
+        for (TokenRange range : split.unwrap()) {
+          if (!range.isEmpty() && !isCompleted(range, completedRanges)) {
+            scanRangesBuilder.add(new ScanRange(range, replicas));
+            rangesBuilder.add(range);
+          }
+        }
+      }
+    }
+    this.scanRanges = scanRangesBuilder.build();
+    this.ranges = rangesBuilder.build();
+    LOG.debug("[{}] Scan will read {} ranges", logPrefix, ranges.size());
+  }
+
+  @NonNull
+  @Override
+  public List<TokenRange> getRanges() {
+    return ranges;
+  }
+
+  @NonNull
+  @Override
+  public CompletionStage<Void> executeAsync(@NonNull TokenRangeScanListener listener) {
+    CompletionStage<PreparedStatement> rangeStatementFuture = prepare(rangeQuery);
+    CompletionStage<PreparedStatement> openEndedStatementFuture = prepare(openEndedQuery);
+    return rangeStatementFuture
+        .thenCombine(
+            openEndedStatementFuture,
+            (rangeStatement, openEndedStatement) ->
+                new Execution(listener, rangeStatement, openEndedStatement))
+        .thenCompose(Execution::start);
+  }
+
+  @VisibleForTesting
+  String getRangeQuery() {
+    return rangeQuery;
+  }
+
+  @VisibleForTesting
+  String getOpenEndedQuery() {
+    return openEndedQuery;
+  }
+
+  private CompletionStage<PreparedStatement> prepare(String query) {
+    return session.prepareAsync(
+        SimpleStatement.builder(query)
+            .setExecutionProfileName(executionProfileName)
+            .setExecutionProfile(executionProfile)
+            .build());
+  }
+
+  private static boolean isCompleted(TokenRange range, List<TokenRange> completedRanges) {
+    for (TokenRange completedRange : completedRanges) {
+      if (completedRange.intersects(range)) {
+        List<TokenRange> intersection = completedRange.intersectWith(range);
+        if (intersection.size() == 1 && intersection.get(0).equals(range)) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  private static class ScanRange {
+    private final TokenRange range;
+    private final List<Node> candidates;
+    // After unwrapping, the only way that start >= end is if the range ends at the minimum token,
+    // which stands for the end of the ring. It can't be used as an upper bound in a query.
+    private final boolean openEnded;
+
+    private ScanRange(TokenRange range, Set<Node> replicas) {
+      this.range = range;
+      this.openEnded = range.getStart().compareTo(range.getEnd()) >= 0;
+      List<Node> upReplicas = new ArrayList<>();
+      for (Node replica : replicas) {
+        if (replica.getState() != NodeState.DOWN && replica.getState() != NodeState.FORCED_DOWN) {
+          upReplicas.add(replica);
+        }
+      }
+      if (!upReplicas.isEmpty()) {
+        this.candidates = upReplicas;
+      } else if (!replicas.isEmpty()) {
+        // Try anyway, the failures will be reported to the listener
+        this.candidates = new ArrayList<>(replicas);
+      } else {
+        // We don't know the replicas, let the load balancing policy pick a coordinator
+        this.candidates = Collections.singletonList(null);
+      }
+    }
+  }
+
+  private enum TaskState {
+    PENDING,
+    RUNNING,
+    DONE,
+  }
+
+  /** The state of a single execution of the scan. */
+  private class Execution {
+
+    private final TokenRangeScanListener listener;
+    private final PreparedStatement rangeStatement;
+    private final PreparedStatement openEndedStatement;
+    private final CompletableFuture<Void> result = new CompletableFuture<>();
+
+    // A task is queued on each of its candidate nodes, whichever has a free slot first runs it.
+    // The null key is for the tasks that are not routed to a particular node.
+    @GuardedBy("this")
+    private final Map<Node, Queue<Task>> queues = new HashMap<>();
+
+    @GuardedBy("this")
+    private final Map<Node, Integer> inFlight = new HashMap<>();
+
+    @GuardedBy("this")
+    private final Map<Task, TaskState> taskStates = new HashMap<>();
+
+    // The nodes each task was sent to, to avoid retrying on the same replica
+    @GuardedBy("this")
+    private final Map<Task, Set<Node>> triedNodes = new HashMap<>();
+
+    @GuardedBy("this")
+    private int remaining;
+
+    @GuardedBy("this")
+    private Throwable error;
+
+    private Execution(
+        TokenRangeScanListener listener,
+        PreparedStatement rangeStatement,
+        PreparedStatement openEndedStatement) {
+      this.listener = listener;
+      this.rangeStatement = rangeStatement;
+      this.openEndedStatement = openEndedStatement;
+    }
+
+    private CompletionStage<Void> start() {
+      List<Node> nodes;
+      synchronized (this) {
+        for (ScanRange scanRange : scanRanges) {
+          Task task = new Task(scanRange);
+          taskStates.put(task, TaskState.PENDING);
+          triedNodes.put(task, new HashSet<>());
+          for (Node node : scanRange.candidates) {
+            queues.computeIfAbsent(node, n -> new ArrayDeque<>()).add(task);
+          }
+        }
+        remaining = scanRanges.size();
+        nodes = new ArrayList<>(queues.keySet());
+      }
+      if (nodes.isEmpty()) {
+        result.complete(null);
+      } else {
+        for (Node node : nodes) {
+          drain(node);
+        }
+      }
+      return result;
+    }
+
+    /** Starts as many tasks as the node's free slots allow. */
+    private void drain(Node node) {
+      List<Task> toStart = new ArrayList<>();
+      synchronized (this) {
+        Queue<Task> queue = queues.get(node);
+        int count = inFlight.getOrDefault(node, 0);
+        while (queue != null && count < maxConcurrentRangesPerNode) {
+          Task task = queue.poll();
+          if (task == null) {
+            break;
+          }
+          // Skip the tasks that were already picked by another node
+          if (taskStates.get(task) == TaskState.PENDING && triedNodes.get(task).add(node)) {
+            taskStates.put(task, TaskState.RUNNING);
+            count += 1;
+            toStart.add(task);
+          }
+        }
+        inFlight.put(node, count);
+      }
+      for (Task task : toStart) {
+        task.execute(node);
+      }
+    }
+
+    private void onTaskDone(Task task, Node node, Throwable taskError) {
+      boolean done;
+      Throwable finalError;
+      synchronized (this) {
+        taskStates.put(task, TaskState.DONE);
+        inFlight.merge(node, -1, Integer::sum);
+        remaining -= 1;
+        if (taskError != null) {
+          if (error == null) {
+            error = taskError;
+          } else if (error != taskError) {
+            error.addSuppressed(taskError);
+          }
+        }
+        done = (remaining == 0);
+        finalError = error;
+      }
+      if (done) {
+        LOG.debug("[{}] Scan complete", logPrefix);
+        if (finalError == null) {
+          result.complete(null);
+        } else {
+          result.completeExceptionally(finalError);
+        }
+      } else {
+        drain(node);
+      }
+    }
+
+    /** @return whether the task was rescheduled on another replica. */
+    private boolean maybeRetry(Task task, Node node) {
+      List<Node> retryNodes = new ArrayList<>();
+      synchronized (this) {
+        Set<Node> tried = triedNodes.get(task);
+        for (Node candidate : task.scanRange.candidates) {
+          if (!tried.contains(candidate)) {
+            retryNodes.add(candidate);
+          }
+        }
+        if (retryNodes.isEmpty()) {
+          return false;
+        }
+        taskStates.put(task, TaskState.PENDING);
+        inFlight.merge(node, -1, Integer::sum);
+        for (Node retryNode : retryNodes) {
+          queues.get(retryNode).add(task);
+        }
+      }
+      drain(node);
+      for (Node retryNode : retryNodes) {
+        drain(retryNode);
+      }
+      return true;
+    }
+
+    private void dispatch(Runnable callback) {
+      if (callbackExecutor == null) {
+        callback.run();
+      } else {
+        try {
+          callbackExecutor.execute(callback);
+        } catch (RejectedExecutionException e) {
+          LOG.warn(
+              "[{}] Callback executor rejected task, running it on the current thread", logPrefix);
+          callback.run();
+        }
+      }
+    }
+
+    private class Task {
+      private final ScanRange scanRange;
+
+      // Only accessed from the callbacks of the current attempt, which are sequential
+      private boolean rowsDelivered;
+
+      private Task(ScanRange scanRange) {
+        this.scanRange = scanRange;
+      }
+
+      private void execute(Node node) {
+        TokenRange range = scanRange.range;
+        BoundStatement statement =
+            scanRange.openEnded
+                ? openEndedStatement
+                    .boundStatementBuilder()
+                    .setToken(0, range.getStart())
+                    .setNode(node)
+                    .build()
+                : rangeStatement
+                    .boundStatementBuilder()
+                    .setToken(0, range.getStart())
+                    .setToken(1, range.getEnd())
+                    .setNode(node)
+                    .build();
+        LOG.trace("[{}] Reading {} from {}", logPrefix, range, node);
+        rowsDelivered = false;
+        session
+            .executeAsync(statement)
+            .whenComplete((page, pageError) -> onPage(node, page, pageError));
+      }
+
+      private void onPage(Node node, AsyncResultSet page, Throwable pageError) {
+        if (pageError != null) {
+          if (rowsDelivered || !maybeRetry(this, node)) {
+            LOG.debug("[{}] Error while reading {}", logPrefix, scanRange.range, pageError);
+            dispatch(() -> fail(node, pageError));
+          } else {
+            LOG.debug(
+                "[{}] Error while reading {} from {}, retrying on another replica",
+                logPrefix,
+                scanRange.range,
+                node,
+                pageError);
+          }
+        } else {
+          dispatch(() -> processPage(node, page));
+        }
+      }
+
+      private void processPage(Node node, AsyncResultSet page) {
+        try {
+          for (Row row : page.currentPage()) {
+            rowsDelivered = true;
+            listener.onRow(row, scanRange.range);
+          }
+        } catch (Throwable t) {
+          fail(node, t);
+          return;
+        }
+        if (page.hasMorePages()) {
+          page.fetchNextPage()
+              .whenComplete((nextPage, pageError) -> onPage(node, nextPage, pageError));
+        } else {
+          try {
+            listener.onRangeCompleted(scanRange.range);
+          } catch (Throwable t) {
+            fail(node, t);
+            return;
+          }
+          onTaskDone(this, node, null);
+        }
+      }
+
+      private void fail(Node node, Throwable error) {
+        try {
+          listener.onRangeFailed(scanRange.range, error);
+        } catch (Throwable t) {
+          LOG.warn("[{}] Unexpected error while invoking listener", logPrefix, t);
+        }
+        onTaskDone(this, node, error);
+      }
+    }
+  }
+}
@@ -39,6 +39,8 @@ class KeyspaceTokenMap {
 
   private static final Logger LOG = LoggerFactory.getLogger(KeyspaceTokenMap.class);
 
+  static final Node[] EMPTY_NODES = new Node[0];
+
   static KeyspaceTokenMap build(
       Map<String, String> replicationConfig,
       Map<Token, Node> tokenToPrimary,
@@ -80,6 +82,8 @@ class KeyspaceTokenMap {
   private final List<Token> ring;
   private final SetMultimap<Node, TokenRange> tokenRangesByNode;
   private final SetMultimap<Token, Node> replicasByToken;
+  // The same data as replicasByToken, indexed by position in the ring
+  private final Node[][] replicaArrays;
   private final TokenFactory tokenFactory;
 
   private KeyspaceTokenMap(
@@ -90,6 +94,10 @@ class KeyspaceTokenMap {
     this.ring = ring;
     this.tokenRangesByNode = tokenRangesByNode;
     this.replicasByToken = replicasByToken;
+    this.replicaArrays = new Node[ring.size()][];
+    for (int i = 0; i < ring.size(); i++) {
+      replicaArrays[i] = replicasByToken.get(ring.get(i)).toArray(new Node[0]);
+    }
     this.tokenFactory = tokenFactory;
   }
 
@@ -118,6 +126,32 @@ class KeyspaceTokenMap {
     return replicasByToken.get(ring.get(i));
   }
 
+  /**
+   * Same as {@link #getReplicas(ByteBuffer)}, but returns a precomputed array. For efficiency, the
+   * array is shared between all callers, so it must not be modified.
+   */
+  Node[] getReplicaArray(ByteBuffer partitionKey) {
+    return getReplicaArray(tokenFactory.hash(partitionKey));
+  }
+
+  /**
+   * Same as {@link #getReplicas(Token)}, but returns a precomputed array. For efficiency, the array
+   * is shared between all callers, so it must not be modified.
+   */
+  Node[] getReplicaArray(Token token) {
+    if (ring.isEmpty()) {
+      return EMPTY_NODES;
+    }
+    int i = Collections.binarySearch(ring, token);
+    if (i < 0) {
+      i = -i - 1;
+      if (i >= ring.size()) {
+        i = 0;
+      }
+    }
+    return replicaArrays[i];
+  }
+
   private static SetMultimap<Node, TokenRange> buildTokenRangesByNode(
       Set<TokenRange> tokenRanges, SetMultimap<Token, Node> replicasByToken) {
     ImmutableSetMultimap.Builder<Node, TokenRange> result = ImmutableSetMultimap.builder();
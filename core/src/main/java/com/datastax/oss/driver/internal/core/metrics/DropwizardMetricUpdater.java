@@ -18,6 +18,7 @@ package com.datastax.oss.driver.internal.core.metrics;
 import com.codahale.metrics.Metric;
 import com.codahale.metrics.MetricRegistry;
 import com.codahale.metrics.Timer;
+import com.datastax.oss.driver.api.core.config.DefaultDriverOption;
 import com.datastax.oss.driver.api.core.config.DriverExecutionProfile;
 import com.datastax.oss.driver.api.core.config.DriverOption;
 import java.time.Duration;
@@ -114,11 +115,22 @@ public abstract class DropwizardMetricUpdater<MetricT> implements MetricUpdater<
       Duration refreshInterval = config.getDuration(intervalOption);
 
       // Initialize eagerly to use the custom implementation
-      registry.timer(
-          fullName,
-          () ->
-              new Timer(
-                  new HdrReservoir(highestLatency, significantDigits, refreshInterval, fullName)));
+      if (config.getBoolean(DefaultDriverOption.METRICS_HISTOGRAMS_LOCK_FREE_ENABLED, false)) {
+        int stripes = config.getInt(DefaultDriverOption.METRICS_HISTOGRAMS_LOCK_FREE_STRIPES, 4);
+        registry.timer(
+            fullName,
+            () ->
+                new HdrTimer(
+                    new LatencyHistogram(
+                        highestLatency, significantDigits, refreshInterval, stripes, fullName)));
+      } else {
+        registry.timer(
+            fullName,
+            () ->
+                new Timer(
+                    new HdrReservoir(
+                        highestLatency, significantDigits, refreshInterval, fullName)));
+      }
     }
   }
 }
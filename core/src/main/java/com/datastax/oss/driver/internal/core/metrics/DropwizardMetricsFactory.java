@@ -16,20 +16,15 @@
 package com.datastax.oss.driver.internal.core.metrics;
 
 import com.codahale.metrics.MetricRegistry;
-import com.datastax.dse.driver.api.core.metrics.DseNodeMetric;
-import com.datastax.dse.driver.api.core.metrics.DseSessionMetric;
 import com.datastax.oss.driver.api.core.config.DefaultDriverOption;
 import com.datastax.oss.driver.api.core.config.DriverExecutionProfile;
+import com.datastax.oss.driver.api.core.context.DriverContext;
 import com.datastax.oss.driver.api.core.metadata.Node;
-import com.datastax.oss.driver.api.core.metrics.DefaultNodeMetric;
-import com.datastax.oss.driver.api.core.metrics.DefaultSessionMetric;
 import com.datastax.oss.driver.api.core.metrics.Metrics;
 import com.datastax.oss.driver.api.core.metrics.NodeMetric;
 import com.datastax.oss.driver.api.core.metrics.SessionMetric;
 import com.datastax.oss.driver.internal.core.context.InternalDriverContext;
 import edu.umd.cs.findbugs.annotations.Nullable;
-import java.util.Collections;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
@@ -49,9 +44,9 @@ public class DropwizardMetricsFactory implements MetricsFactory {
   @Nullable private final Metrics metrics;
   private final SessionMetricUpdater sessionUpdater;
 
-  public DropwizardMetricsFactory(InternalDriverContext context) {
+  public DropwizardMetricsFactory(DriverContext context) {
     this.logPrefix = context.getSessionName();
-    this.context = context;
+    this.context = (InternalDriverContext) context;
 
     DriverExecutionProfile config = context.getConfig().getDefaultProfile();
     Set<SessionMetric> enabledSessionMetrics =
@@ -67,7 +62,7 @@ public class DropwizardMetricsFactory implements MetricsFactory {
     } else {
       this.registry = new MetricRegistry();
       DropwizardSessionMetricUpdater dropwizardSessionUpdater =
-          new DropwizardSessionMetricUpdater(enabledSessionMetrics, registry, context);
+          new DropwizardSessionMetricUpdater(enabledSessionMetrics, registry, this.context);
       this.sessionUpdater = dropwizardSessionUpdater;
       this.metrics = new DefaultMetrics(registry, dropwizardSessionUpdater);
     }
@@ -91,34 +86,10 @@ public class DropwizardMetricsFactory implements MetricsFactory {
   }
 
   protected Set<SessionMetric> parseSessionMetricPaths(List<String> paths) {
-    Set<SessionMetric> result = new HashSet<>();
-    for (String path : paths) {
-      try {
-        result.add(DefaultSessionMetric.fromPath(path));
-      } catch (IllegalArgumentException e) {
-        try {
-          result.add(DseSessionMetric.fromPath(path));
-        } catch (IllegalArgumentException e1) {
-          LOG.warn("[{}] Unknown session metric {}, skipping", logPrefix, path);
-        }
-      }
-    }
-    return Collections.unmodifiableSet(result);
+    return MetricPaths.parseSessionMetricPaths(paths, logPrefix);
   }
 
   protected Set<NodeMetric> parseNodeMetricPaths(List<String> paths) {
-    Set<NodeMetric> result = new HashSet<>();
-    for (String path : paths) {
-      try {
-        result.add(DefaultNodeMetric.fromPath(path));
-      } catch (IllegalArgumentException e) {
-        try {
-          result.add(DseNodeMetric.fromPath(path));
-        } catch (IllegalArgumentException e1) {
-          LOG.warn("[{}] Unknown node metric {}, skipping", logPrefix, path);
-        }
-      }
-    }
-    return Collections.unmodifiableSet(result);
+    return MetricPaths.parseNodeMetricPaths(paths, logPrefix);
   }
 }
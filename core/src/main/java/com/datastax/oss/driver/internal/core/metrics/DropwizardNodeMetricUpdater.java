@@ -84,6 +84,15 @@ public class DropwizardNodeMetricUpdater extends DropwizardMetricUpdater<NodeMet
     initializeDefaultCounter(DefaultNodeMetric.SPECULATIVE_EXECUTIONS, null);
     initializeDefaultCounter(DefaultNodeMetric.CONNECTION_INIT_ERRORS, null);
     initializeDefaultCounter(DefaultNodeMetric.AUTHENTICATION_ERRORS, null);
+    initializeDefaultCounter(DefaultNodeMetric.THROTTLING_SKIPS, null);
+    initializeDefaultCounter(DefaultNodeMetric.THROTTLING_DELAYS, null);
+    initializeHdrTimer(
+        DefaultNodeMetric.COMPRESSION_TIME,
+        config,
+        DefaultDriverOption.METRICS_NODE_COMPRESSION_TIME_HIGHEST,
+        DefaultDriverOption.METRICS_NODE_COMPRESSION_TIME_DIGITS,
+        DefaultDriverOption.METRICS_NODE_COMPRESSION_TIME_INTERVAL);
+    initializeDefaultCounter(DefaultNodeMetric.COMPRESSION_SKIPS, null);
     initializeHdrTimer(
         DseNodeMetric.GRAPH_MESSAGES,
         context.getConfig().getDefaultProfile(),
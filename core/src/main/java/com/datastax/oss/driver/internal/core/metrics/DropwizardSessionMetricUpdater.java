@@ -27,6 +27,7 @@ import com.datastax.oss.driver.api.core.session.throttling.RequestThrottler;
 import com.datastax.oss.driver.internal.core.context.InternalDriverContext;
 import com.datastax.oss.driver.internal.core.cql.CqlPrepareAsyncProcessor;
 import com.datastax.oss.driver.internal.core.cql.CqlPrepareSyncProcessor;
+import com.datastax.oss.driver.internal.core.retry.RetryBudget;
 import com.datastax.oss.driver.internal.core.session.RequestProcessor;
 import com.datastax.oss.driver.internal.core.session.throttling.ConcurrencyLimitingRequestThrottler;
 import com.datastax.oss.driver.internal.core.session.throttling.RateLimitingRequestThrottler;
@@ -69,6 +70,11 @@ public class DropwizardSessionMetricUpdater extends DropwizardMetricUpdater<Sess
           buildFullName(DefaultSessionMetric.THROTTLING_QUEUE_SIZE, null),
           () -> buildQueueGauge(context.getRequestThrottler(), context.getSessionName()));
     }
+    if (enabledMetrics.contains(DefaultSessionMetric.THROTTLING_CONCURRENCY_LIMIT)) {
+      this.registry.gauge(
+          buildFullName(DefaultSessionMetric.THROTTLING_CONCURRENCY_LIMIT, null),
+          () -> buildLimitGauge(context.getRequestThrottler(), context.getSessionName()));
+    }
     if (enabledMetrics.contains(DefaultSessionMetric.CQL_PREPARED_CACHE_SIZE)) {
       this.registry.gauge(
           buildFullName(DefaultSessionMetric.CQL_PREPARED_CACHE_SIZE, null),
@@ -89,12 +95,33 @@ public class DropwizardSessionMetricUpdater extends DropwizardMetricUpdater<Sess
             return gauge;
           });
     }
+    if (enabledMetrics.contains(DefaultSessionMetric.RETRY_BUDGET_TOKENS)) {
+      this.registry.gauge(
+          buildFullName(DefaultSessionMetric.RETRY_BUDGET_TOKENS, null),
+          () -> {
+            RetryBudget retryBudget = context.getRetryBudget();
+            Gauge<Double> gauge = retryBudget::getAvailableTokens;
+            return gauge;
+          });
+    }
+    initializeDefaultCounter(DefaultSessionMetric.RETRY_BUDGET_REJECTIONS, null);
+    initializeDefaultCounter(DefaultSessionMetric.CQL_PREPARED_CACHE_HITS, null);
+    initializeDefaultCounter(DefaultSessionMetric.CQL_PREPARED_CACHE_MISSES, null);
+    initializeDefaultCounter(DefaultSessionMetric.CQL_PREPARED_CACHE_EVICTIONS, null);
     initializeHdrTimer(
         DefaultSessionMetric.CQL_REQUESTS,
         context.getConfig().getDefaultProfile(),
         DefaultDriverOption.METRICS_SESSION_CQL_REQUESTS_HIGHEST,
         DefaultDriverOption.METRICS_SESSION_CQL_REQUESTS_DIGITS,
         DefaultDriverOption.METRICS_SESSION_CQL_REQUESTS_INTERVAL);
+    for (DefaultSessionMetric phaseMetric : RequestPhaseMetrics.ALL) {
+      initializeHdrTimer(
+          phaseMetric,
+          context.getConfig().getDefaultProfile(),
+          DefaultDriverOption.METRICS_SESSION_CQL_REQUESTS_HIGHEST,
+          DefaultDriverOption.METRICS_SESSION_CQL_REQUESTS_DIGITS,
+          DefaultDriverOption.METRICS_SESSION_CQL_REQUESTS_INTERVAL);
+    }
     initializeDefaultCounter(DefaultSessionMetric.CQL_CLIENT_TIMEOUTS, null);
     initializeHdrTimer(
         DefaultSessionMetric.THROTTLING_DELAY,
@@ -103,6 +130,12 @@ public class DropwizardSessionMetricUpdater extends DropwizardMetricUpdater<Sess
         DefaultDriverOption.METRICS_SESSION_THROTTLING_DIGITS,
         DefaultDriverOption.METRICS_SESSION_THROTTLING_INTERVAL);
     initializeDefaultCounter(DefaultSessionMetric.THROTTLING_ERRORS, null);
+    initializeHdrTimer(
+        DefaultSessionMetric.COALESCER_FLUSH_LATENCY,
+        context.getConfig().getDefaultProfile(),
+        DefaultDriverOption.METRICS_SESSION_COALESCER_FLUSH_LATENCY_HIGHEST,
+        DefaultDriverOption.METRICS_SESSION_COALESCER_FLUSH_LATENCY_DIGITS,
+        DefaultDriverOption.METRICS_SESSION_COALESCER_FLUSH_LATENCY_INTERVAL);
     initializeHdrTimer(
         DseSessionMetric.CONTINUOUS_CQL_REQUESTS,
         context.getConfig().getDefaultProfile(),
@@ -138,6 +171,20 @@ public class DropwizardSessionMetricUpdater extends DropwizardMetricUpdater<Sess
     }
   }
 
+  private Gauge<Integer> buildLimitGauge(RequestThrottler requestThrottler, String logPrefix) {
+    // Also covers AdaptiveConcurrencyLimitingRequestThrottler, which overrides the getter
+    if (requestThrottler instanceof ConcurrencyLimitingRequestThrottler) {
+      return ((ConcurrencyLimitingRequestThrottler) requestThrottler)::getMaxConcurrentRequests;
+    } else {
+      LOG.warn(
+          "[{}] Metric {} does not support {}, it will always return 0",
+          logPrefix,
+          DefaultSessionMetric.THROTTLING_CONCURRENCY_LIMIT.getPath(),
+          requestThrottler.getClass().getName());
+      return () -> 0;
+    }
+  }
+
   @Nullable
   private static Cache<?, ?> getPreparedStatementCache(InternalDriverContext context) {
     // By default, both the sync processor and the async one are registered and they share the same
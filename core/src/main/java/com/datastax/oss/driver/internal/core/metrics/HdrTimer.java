@@ -0,0 +1,176 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.driver.internal.core.metrics;
+
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.Reservoir;
+import com.codahale.metrics.Snapshot;
+import com.codahale.metrics.Timer;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import net.jcip.annotations.ThreadSafe;
+
+/**
+ * A Dropwizard timer backed by a {@link LatencyHistogram}.
+ *
+ * <p>Unlike a regular {@link Timer} with an {@link HdrReservoir}, recording a value only updates
+ * the histogram: the rates are not metered in real time, but derived from the total count when they
+ * are read. The mean rate is exact, and the moving averages are accurate as long as the timer is
+ * read regularly (which is the case with a scheduled reporter).
+ */
+@ThreadSafe
+public class HdrTimer extends Timer {
+
+  private final LatencyHistogram histogram;
+  private final Meter meter = new Meter();
+  private final AtomicLong meteredCount = new AtomicLong();
+
+  public HdrTimer(LatencyHistogram histogram) {
+    // Route the parent's internal recording paths (e.g. time(Callable)) to our histogram as well
+    super(new LatencyHistogramReservoir(histogram));
+    this.histogram = histogram;
+  }
+
+  @Override
+  public void update(long duration, TimeUnit unit) {
+    if (duration >= 0) {
+      histogram.record(duration, unit);
+    }
+  }
+
+  @Override
+  public long getCount() {
+    return histogram.getCount();
+  }
+
+  @Override
+  public double getFifteenMinuteRate() {
+    syncMeter();
+    return meter.getFifteenMinuteRate();
+  }
+
+  @Override
+  public double getFiveMinuteRate() {
+    syncMeter();
+    return meter.getFiveMinuteRate();
+  }
+
+  @Override
+  public double getMeanRate() {
+    syncMeter();
+    return meter.getMeanRate();
+  }
+
+  @Override
+  public double getOneMinuteRate() {
+    syncMeter();
+    return meter.getOneMinuteRate();
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>Note that the snapshots returned from this method do not implement {@link
+   * Snapshot#getValues()} nor {@link Snapshot#dump(OutputStream)}.
+   */
+  @Override
+  public Snapshot getSnapshot() {
+    return new HdrSnapshot(histogram.getSnapshot());
+  }
+
+  private void syncMeter() {
+    long count = histogram.getCount();
+    long previous = meteredCount.getAndSet(count);
+    if (count > previous) {
+      meter.mark(count - previous);
+    }
+  }
+
+  private static class LatencyHistogramReservoir implements Reservoir {
+
+    private final LatencyHistogram histogram;
+
+    private LatencyHistogramReservoir(LatencyHistogram histogram) {
+      this.histogram = histogram;
+    }
+
+    @Override
+    public int size() {
+      return (int) Math.min(histogram.getSnapshot().getCount(), Integer.MAX_VALUE);
+    }
+
+    @Override
+    public void update(long value) {
+      // Dropwizard timers feed nanoseconds
+      histogram.record(value, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public Snapshot getSnapshot() {
+      return new HdrSnapshot(histogram.getSnapshot());
+    }
+  }
+
+  private static class HdrSnapshot extends Snapshot {
+
+    private final LatencySnapshot snapshot;
+
+    private HdrSnapshot(LatencySnapshot snapshot) {
+      this.snapshot = snapshot;
+    }
+
+    @Override
+    public double getValue(double quantile) {
+      return snapshot.getValue(quantile);
+    }
+
+    @Override
+    public long[] getValues() {
+      throw new UnsupportedOperationException("HdrTimer's snapshots do not implement getValues()");
+    }
+
+    @Override
+    public int size() {
+      return (int) Math.min(snapshot.getCount(), Integer.MAX_VALUE);
+    }
+
+    @Override
+    public long getMax() {
+      return snapshot.getMax();
+    }
+
+    @Override
+    public double getMean() {
+      return snapshot.getMean();
+    }
+
+    @Override
+    public long getMin() {
+      return snapshot.getMin();
+    }
+
+    @Override
+    public double getStdDev() {
+      return snapshot.getStdDev();
+    }
+
+    @Override
+    public void dump(OutputStream output) {
+      throw new UnsupportedOperationException("HdrTimer's snapshots do not implement dump()");
+    }
+  }
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.driver.internal.core.metrics;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import net.jcip.annotations.ThreadSafe;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A latency histogram that records into HdrHistogram without any dependency to a particular metrics
+ * library.
+ *
+ * <p>Values are recorded into several {@link Recorder}s ("stripes"), selected by the id of the
+ * calling thread, so that concurrent writers don't contend on the same counters. Recording is
+ * wait-free.
+ *
+ * <p>Readers get an immutable {@link LatencySnapshot} of the last interval, which is refreshed at
+ * most once per refresh interval. No lock is taken: if a snapshot is stale, the first reader that
+ * notices it rebuilds it, and concurrent readers keep getting the previous snapshot meanwhile.
+ * Rebuilding never blocks writers (each stripe's {@link Recorder#getIntervalHistogram(Histogram)}
+ * only waits for the writes that are in progress on that stripe).
+ */
+@ThreadSafe
+public class LatencyHistogram {
+
+  private static final Logger LOG = LoggerFactory.getLogger(LatencyHistogram.class);
+
+  private final String logPrefix;
+  private final Recorder[] stripes;
+  private final int stripeMask;
+  private final long highestTrackableMicros;
+  private final int numberOfSignificantValueDigits;
+  private final long refreshIntervalNanos;
+  private final LongAdder count = new LongAdder();
+
+  // Mutual exclusion for refreshes, without blocking readers: only the thread that flips this flag
+  // from false to true in getSnapshot() can access intervalHistograms, until it resets the flag.
+  private final AtomicBoolean refreshing = new AtomicBoolean();
+  private final Histogram[] intervalHistograms;
+
+  private volatile LatencySnapshot cachedSnapshot;
+  private volatile long cachedSnapshotTimestampNanos;
+
+  /**
+   * @param stripes the number of recorders. It will be rounded up to the next power of two. Note
+   *     that each stripe allocates its own histograms, so memory usage grows linearly with this
+   *     number.
+   */
+  public LatencyHistogram(
+      Duration highestTrackableLatency,
+      int numberOfSignificantValueDigits,
+      Duration refreshInterval,
+      int stripes,
+      String logPrefix) {
+    this.logPrefix = logPrefix;
+    // As in HdrReservoir, microseconds are precise enough and save space
+    this.highestTrackableMicros = highestTrackableLatency.toNanos() / 1000;
+    this.numberOfSignificantValueDigits = numberOfSignificantValueDigits;
+    this.refreshIntervalNanos = refreshInterval.toNanos();
+
+    int stripeCount = stripes <= 1 ? 1 : Integer.highestOneBit(stripes - 1) << 1;
+    this.stripes = new Recorder[stripeCount];
+    for (int i = 0; i < stripeCount; i++) {
+      this.stripes[i] = new Recorder(highestTrackableMicros, numberOfSignificantValueDigits);
+    }
+    this.stripeMask = stripeCount - 1;
+    this.intervalHistograms = new Histogram[stripeCount];
+
+    this.cachedSnapshot = LatencySnapshot.EMPTY;
+    this.cachedSnapshotTimestampNanos = System.nanoTime();
+  }
+
+  public void record(long duration, @NonNull TimeUnit unit) {
+    long micros = unit.toMicros(duration);
+    count.increment();
+    int stripe = (int) Thread.currentThread().getId() & stripeMask;
+    try {
+      stripes[stripe].recordValue(micros);
+    } catch (ArrayIndexOutOfBoundsException e) {
+      LOG.warn(
+          "[{}] Recorded value ({} microseconds) is out of bounds, discarding", logPrefix, micros);
+    }
+  }
+
+  /**
+   * The total number of values recorded since this histogram was created (unlike the snapshot, this
+   * is updated in real time).
+   */
+  public long getCount() {
+    return count.sum();
+  }
+
+  /**
+   * Returns a snapshot of the values recorded during the last refresh interval.
+   *
+   * <p>The snapshot is immutable and can be safely shared between concurrent readers.
+   */
+  @NonNull
+  public LatencySnapshot getSnapshot() {
+    long now = System.nanoTime();
+    if (now - cachedSnapshotTimestampNanos >= refreshIntervalNanos
+        && refreshing.compareAndSet(false, true)) {
+      try {
+        // Might have raced with another refresh => re-check the timestamp
+        if (now - cachedSnapshotTimestampNanos >= refreshIntervalNanos) {
+          LOG.debug("[{}] Cached snapshot is too old, refreshing", logPrefix);
+          cachedSnapshot = new LatencySnapshot(mergeIntervalHistograms());
+          cachedSnapshotTimestampNanos = now;
+        }
+      } finally {
+        refreshing.set(false);
+      }
+    }
+    return cachedSnapshot;
+  }
+
+  // Must only be called by the thread that currently owns the refreshing flag.
+  private Histogram mergeIntervalHistograms() {
+    // The merged histogram is published to readers, so it can't be recycled. The per-stripe
+    // interval histograms never leave this method, so those are.
+    Histogram merged = new Histogram(highestTrackableMicros, numberOfSignificantValueDigits);
+    for (int i = 0; i < stripes.length; i++) {
+      intervalHistograms[i] = stripes[i].getIntervalHistogram(intervalHistograms[i]);
+      merged.add(intervalHistograms[i]);
+    }
+    return merged;
+  }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.driver.internal.core.metrics;
+
+import edu.umd.cs.findbugs.annotations.Nullable;
+import net.jcip.annotations.Immutable;
+import org.HdrHistogram.Histogram;
+
+/**
+ * An immutable view of the values recorded by a {@link LatencyHistogram} during one refresh
+ * interval.
+ *
+ * <p>All durations are expressed in nanoseconds.
+ */
+@Immutable
+public class LatencySnapshot {
+
+  static final LatencySnapshot EMPTY = new LatencySnapshot(null);
+
+  // Never modified after construction. HdrHistogram's percentile lookups are safe for concurrent
+  // readers, but its internal iterators are not, so everything that relies on them is computed
+  // eagerly.
+  @Nullable private final Histogram histogram;
+  private final long count;
+  private final double meanNanos;
+  private final double stdDevNanos;
+
+  LatencySnapshot(@Nullable Histogram histogram) {
+    this.histogram = histogram;
+    if (histogram == null) {
+      this.count = 0;
+      this.meanNanos = 0;
+      this.stdDevNanos = 0;
+    } else {
+      this.count = histogram.getTotalCount();
+      this.meanNanos = histogram.getMean() * 1000;
+      this.stdDevNanos = histogram.getStdDeviation() * 1000;
+    }
+  }
+
+  /** The number of values recorded during the interval. */
+  public long getCount() {
+    return count;
+  }
+
+  /** @param quantile a quantile between 0 and 1 (for example, 0.99 for the 99th percentile). */
+  public long getValue(double quantile) {
+    return (histogram == null) ? 0 : histogram.getValueAtPercentile(quantile * 100) * 1000;
+  }
+
+  public long getMin() {
+    return (histogram == null) ? 0 : histogram.getMinValue() * 1000;
+  }
+
+  public long getMax() {
+    return (histogram == null) ? 0 : histogram.getMaxValue() * 1000;
+  }
+
+  public double getMean() {
+    return meanNanos;
+  }
+
+  public double getStdDev() {
+    return stdDevNanos;
+  }
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.driver.internal.core.metrics;
+
+import com.datastax.oss.driver.api.core.metrics.DefaultSessionMetric;
+import com.datastax.oss.driver.api.core.tracker.RequestPhase;
+import com.datastax.oss.driver.shaded.guava.common.collect.ImmutableList;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/** Maps each {@link RequestPhase} to the session metric that records its duration. */
+public class RequestPhaseMetrics {
+
+  private static final Map<RequestPhase, DefaultSessionMetric> BY_PHASE = buildMap();
+
+  /** All the phase metrics, in the order of the phases. */
+  public static final List<DefaultSessionMetric> ALL = ImmutableList.copyOf(BY_PHASE.values());
+
+  @NonNull
+  public static DefaultSessionMetric forPhase(@NonNull RequestPhase phase) {
+    return BY_PHASE.get(phase);
+  }
+
+  private static Map<RequestPhase, DefaultSessionMetric> buildMap() {
+    Map<RequestPhase, DefaultSessionMetric> map = new EnumMap<>(RequestPhase.class);
+    map.put(RequestPhase.THROTTLING, DefaultSessionMetric.CQL_REQUEST_PHASE_THROTTLING);
+    map.put(RequestPhase.QUERY_PLAN, DefaultSessionMetric.CQL_REQUEST_PHASE_QUERY_PLAN);
+    map.put(
+        RequestPhase.CHANNEL_ACQUISITION,
+        DefaultSessionMetric.CQL_REQUEST_PHASE_CHANNEL_ACQUISITION);
+    map.put(RequestPhase.WRITE, DefaultSessionMetric.CQL_REQUEST_PHASE_WRITE);
+    map.put(RequestPhase.SERVER_RESPONSE, DefaultSessionMetric.CQL_REQUEST_PHASE_SERVER_RESPONSE);
+    map.put(RequestPhase.DECODE, DefaultSessionMetric.CQL_REQUEST_PHASE_DECODE);
+    map.put(RequestPhase.CALLBACK, DefaultSessionMetric.CQL_REQUEST_PHASE_CALLBACK);
+    return map;
+  }
+
+  private RequestPhaseMetrics() {}
+}
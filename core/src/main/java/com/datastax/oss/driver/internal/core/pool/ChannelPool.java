@@ -89,7 +89,7 @@ public class ChannelPool implements AsyncAutoCloseable {
   }
 
   // This is read concurrently, but only mutated on adminExecutor (by methods in SingleThreaded)
-  @VisibleForTesting final ChannelSet channels = new ChannelSet();
+  @VisibleForTesting final ChannelSet channels;
 
   private final Node node;
   private final CqlIdentifier initialKeyspaceName;
@@ -110,6 +110,15 @@ public class ChannelPool implements AsyncAutoCloseable {
     this.adminExecutor = context.getNettyOptions().adminEventExecutorGroup().next();
     this.sessionLogPrefix = sessionLogPrefix;
     this.logPrefix = sessionLogPrefix + "|" + node.getEndPoint();
+    this.channels =
+        new ChannelSet(
+            ChannelSelection.fromConfig(
+                context
+                    .getConfig()
+                    .getDefaultProfile()
+                    .getString(
+                        DefaultDriverOption.CONNECTION_POOL_CHANNEL_SELECTION,
+                        ChannelSelection.MOST_AVAILABLE.name())));
     this.singleThreaded = new SingleThreaded(keyspaceName, distance, context);
   }
 
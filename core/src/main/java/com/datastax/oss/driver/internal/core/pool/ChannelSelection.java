@@ -0,0 +1,61 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.driver.internal.core.pool;
+
+import com.datastax.oss.driver.api.core.config.DefaultDriverOption;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.util.Locale;
+
+/**
+ * How {@link ChannelSet#next()} picks a channel among the connections of a pool.
+ *
+ * @see DefaultDriverOption#CONNECTION_POOL_CHANNEL_SELECTION
+ */
+enum ChannelSelection {
+
+  /**
+   * Scan all the channels, and pick the one that has the most available stream ids.
+   *
+   * <p>This is the most accurate, but the cost grows with the size of the pool; and concurrent
+   * callers tend to pick the same channel until its count changes.
+   */
+  MOST_AVAILABLE,
+
+  /**
+   * Pick two channels at random, and keep the one that has the most available stream ids (in other
+   * words, the fewest in-flight requests).
+   *
+   * <p>The cost is constant regardless of the size of the pool, and the randomization spreads
+   * concurrent callers across channels, while still avoiding the busiest ones.
+   */
+  POWER_OF_TWO_CHOICES,
+  ;
+
+  @NonNull
+  static ChannelSelection fromConfig(@NonNull String name) {
+    try {
+      return valueOf(name.trim().toUpperCase(Locale.ROOT));
+    } catch (IllegalArgumentException e) {
+      throw new IllegalArgumentException(
+          String.format(
+              "Unknown channel selection '%s' for %s (expected one of %s, %s)",
+              name,
+              DefaultDriverOption.CONNECTION_POOL_CHANNEL_SELECTION.getPath(),
+              MOST_AVAILABLE,
+              POWER_OF_TWO_CHOICES));
+    }
+  }
+}
@@ -21,7 +21,8 @@ import com.datastax.oss.driver.shaded.guava.common.collect.Iterators;
 import edu.umd.cs.findbugs.annotations.NonNull;
 import java.util.Arrays;
 import java.util.Iterator;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 import net.jcip.annotations.ThreadSafe;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -30,60 +31,67 @@ import org.slf4j.LoggerFactory;
  * Concurrent structure used to store the channels of a pool.
  *
  * <p>Its write semantics are similar to "copy-on-write" JDK collections, selection operations are
- * expected to vastly outnumber mutations.
+ * expected to vastly outnumber mutations. Mutations are lock-free: they build a new array and
+ * compare-and-set it; readers always work on an immutable snapshot.
  */
 @ThreadSafe
 class ChannelSet implements Iterable<DriverChannel> {
 
   private static final Logger LOG = LoggerFactory.getLogger(ChannelSet.class);
   /**
-   * The maximum number of iterations in the busy wait loop in {@link #next()} when there are
+   * The maximum number of iterations in the busy wait loops in {@link #next()} when there are
    * multiple channels. This is a backstop to protect against thread starvation, in practice we've
    * never observed more than 3 iterations in tests.
    */
   private static final int MAX_ITERATIONS = 50;
 
+  private static final AtomicReferenceFieldUpdater<ChannelSet, DriverChannel[]> CHANNELS_UPDATER =
+      AtomicReferenceFieldUpdater.newUpdater(ChannelSet.class, DriverChannel[].class, "channels");
+
   private volatile DriverChannel[] channels;
-  private final ReentrantLock lock = new ReentrantLock(); // must be held when mutating the array
+  private final ChannelSelection selection;
 
   ChannelSet() {
+    this(ChannelSelection.MOST_AVAILABLE);
+  }
+
+  ChannelSet(ChannelSelection selection) {
     this.channels = new DriverChannel[] {};
+    this.selection = selection;
   }
 
   void add(DriverChannel toAdd) {
     Preconditions.checkNotNull(toAdd);
-    lock.lock();
-    try {
-      assert indexOf(channels, toAdd) < 0;
-      DriverChannel[] newChannels = Arrays.copyOf(channels, channels.length + 1);
+    while (true) {
+      DriverChannel[] current = channels;
+      assert indexOf(current, toAdd) < 0;
+      DriverChannel[] newChannels = Arrays.copyOf(current, current.length + 1);
       newChannels[newChannels.length - 1] = toAdd;
-      channels = newChannels;
-    } finally {
-      lock.unlock();
+      if (CHANNELS_UPDATER.compareAndSet(this, current, newChannels)) {
+        return;
+      }
     }
   }
 
   boolean remove(DriverChannel toRemove) {
     Preconditions.checkNotNull(toRemove);
-    lock.lock();
-    try {
-      int index = indexOf(channels, toRemove);
+    while (true) {
+      DriverChannel[] current = channels;
+      int index = indexOf(current, toRemove);
       if (index < 0) {
         return false;
-      } else {
-        DriverChannel[] newChannels = new DriverChannel[channels.length - 1];
-        int newI = 0;
-        for (int i = 0; i < channels.length; i++) {
-          if (i != index) {
-            newChannels[newI] = channels[i];
-            newI += 1;
-          }
+      }
+      DriverChannel[] newChannels = new DriverChannel[current.length - 1];
+      int newI = 0;
+      for (int i = 0; i < current.length; i++) {
+        if (i != index) {
+          newChannels[newI] = current[i];
+          newI += 1;
         }
-        channels = newChannels;
+      }
+      if (CHANNELS_UPDATER.compareAndSet(this, current, newChannels)) {
         return true;
       }
-    } finally {
-      lock.unlock();
     }
   }
 
@@ -97,25 +105,58 @@ class ChannelSet implements Iterable<DriverChannel> {
         DriverChannel onlyChannel = snapshot[0];
         return onlyChannel.preAcquireId() ? onlyChannel : null;
       default:
-        for (int i = 0; i < MAX_ITERATIONS; i++) {
-          DriverChannel best = null;
-          int bestScore = 0;
-          for (DriverChannel channel : snapshot) {
-            int score = channel.getAvailableIds();
-            if (score > bestScore) {
-              bestScore = score;
-              best = channel;
-            }
-          }
-          if (best == null) {
-            return null;
-          } else if (best.preAcquireId()) {
-            return best;
-          }
+        return (selection == ChannelSelection.POWER_OF_TWO_CHOICES)
+            ? nextPowerOfTwoChoices(snapshot)
+            : nextMostAvailable(snapshot);
+    }
+  }
+
+  private DriverChannel nextMostAvailable(DriverChannel[] snapshot) {
+    for (int i = 0; i < MAX_ITERATIONS; i++) {
+      DriverChannel best = null;
+      int bestScore = 0;
+      for (DriverChannel channel : snapshot) {
+        int score = channel.getAvailableIds();
+        if (score > bestScore) {
+          bestScore = score;
+          best = channel;
         }
-        LOG.trace("Could not select a channel after {} iterations", MAX_ITERATIONS);
+      }
+      if (best == null) {
         return null;
+      } else if (best.preAcquireId()) {
+        return best;
+      }
+    }
+    LOG.trace("Could not select a channel after {} iterations", MAX_ITERATIONS);
+    return null;
+  }
+
+  private DriverChannel nextPowerOfTwoChoices(DriverChannel[] snapshot) {
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    for (int i = 0; i < MAX_ITERATIONS; i++) {
+      // Pick two distinct channels
+      int first = random.nextInt(snapshot.length);
+      int second = random.nextInt(snapshot.length - 1);
+      if (second >= first) {
+        second += 1;
+      }
+      DriverChannel firstChannel = snapshot[first];
+      DriverChannel secondChannel = snapshot[second];
+      int firstScore = firstChannel.getAvailableIds();
+      int secondScore = secondChannel.getAvailableIds();
+      if (firstScore <= 0 && secondScore <= 0) {
+        // Both candidates are full, the other channels might not be: do a full scan (this is
+        // also how we detect that all channels are full)
+        return nextMostAvailable(snapshot);
+      }
+      DriverChannel best = (firstScore >= secondScore) ? firstChannel : secondChannel;
+      if (best.preAcquireId()) {
+        return best;
+      }
     }
+    LOG.trace("Could not select a channel after {} iterations", MAX_ITERATIONS);
+    return null;
   }
 
   /** @return the number of available stream ids on all channels in this channel set. */
@@ -0,0 +1,89 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.driver.internal.core.protocol;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.util.concurrent.FastThreadLocal;
+import java.nio.ByteBuffer;
+import java.util.zip.CRC32;
+
+/**
+ * The checksums used by protocol v5 segments. They must produce the exact same results as the
+ * server-side implementation ({@code org.apache.cassandra.net.Crc}).
+ */
+public class Crc {
+
+  private static final int CRC24_INIT = 0x875060;
+  // Polynomial chosen from https://users.ece.cmu.edu/~koopman/crc/index.html, by Philip Koopman
+  // This webpage claims a copyright to Philip Koopman, which he licenses under the
+  // Creative Commons Attribution 4.0 International License
+  // (https://creativecommons.org/licenses/by/4.0)
+  private static final int CRC24_POLY = 0x1974F0B;
+
+  // CRC32 of the payloads is salted with these bytes, so that an all-zero payload does not have a
+  // zero checksum.
+  private static final byte[] CRC32_INITIAL_BYTES =
+      new byte[] {(byte) 0xFA, (byte) 0x2D, (byte) 0x55, (byte) 0xCA};
+
+  private static final FastThreadLocal<CRC32> CRC32_INSTANCES =
+      new FastThreadLocal<CRC32>() {
+        @Override
+        protected CRC32 initialValue() {
+          return new CRC32();
+        }
+      };
+
+  /**
+   * Computes the CRC24 of the {@code length} least significant bytes of {@code bytes}, in little
+   * endian order.
+   */
+  public static int computeCrc24(long bytes, int length) {
+    int crc = CRC24_INIT;
+    while (length-- > 0) {
+      crc ^= (int) (bytes & 0xff) << 16;
+      bytes >>= 8;
+
+      for (int i = 0; i < 8; i++) {
+        crc <<= 1;
+        if ((crc & 0x1000000) != 0) {
+          crc ^= CRC24_POLY;
+        }
+      }
+    }
+    return crc;
+  }
+
+  /**
+   * Computes the CRC32 of the readable bytes of the buffer. This does not modify the buffer's
+   * indices.
+   */
+  public static int computeCrc32(ByteBuf buffer) {
+    CRC32 crc = CRC32_INSTANCES.get();
+    crc.reset();
+    crc.update(CRC32_INITIAL_BYTES);
+    if (buffer.hasArray()) {
+      crc.update(
+          buffer.array(), buffer.arrayOffset() + buffer.readerIndex(), buffer.readableBytes());
+    } else {
+      for (ByteBuffer nioBuffer : buffer.nioBuffers()) {
+        crc.update(nioBuffer);
+      }
+    }
+    return (int) crc.getValue();
+  }
+
+  private Crc() {}
+}
@@ -16,37 +16,150 @@
 package com.datastax.oss.driver.internal.core.protocol;
 
 import com.datastax.oss.driver.api.core.connection.FrameTooLongException;
+import com.datastax.oss.driver.api.core.metrics.DefaultNodeMetric;
+import com.datastax.oss.driver.internal.core.metrics.NodeMetricUpdater;
+import com.datastax.oss.protocol.internal.Compressor;
 import com.datastax.oss.protocol.internal.Frame;
 import com.datastax.oss.protocol.internal.FrameCodec;
+import com.datastax.oss.protocol.internal.ProtocolConstants;
+import edu.umd.cs.findbugs.annotations.Nullable;
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
 import io.netty.channel.ChannelHandler;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.codec.MessageToMessageEncoder;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 import net.jcip.annotations.ThreadSafe;
 
+/**
+ * Encodes outgoing frames.
+ *
+ * <p>If a compressor is provided, this handler compresses frame bodies itself, instead of letting
+ * the frame codec do it: this allows it to skip compression for frames that would not benefit from
+ * it, namely:
+ *
+ * <ul>
+ *   <li>frames whose body is smaller than a threshold, because the compressor's framing overhead
+ *       would outweigh the savings;
+ *   <li>frames whose body does not shrink when compressed (for example if it contains blobs that
+ *       are already compressed).
+ * </ul>
+ *
+ * Those frames are sent without the {@link ProtocolConstants.FrameFlag#COMPRESSED COMPRESSED} flag,
+ * which the protocol allows on a per-frame basis.
+ */
 @ChannelHandler.Sharable
 @ThreadSafe
 public class FrameEncoder extends MessageToMessageEncoder<Frame> {
 
+  private static final int HEADER_LENGTH = FrameCodec.headerEncodedSize();
+  // Offsets of the header fields that we rewrite after compression
+  private static final int FLAGS_OFFSET = 1;
+  private static final int LENGTH_OFFSET = 5;
+
   private final FrameCodec<ByteBuf> frameCodec;
+  private final Compressor<ByteBuf> compressor;
+  private final int compressionThreshold;
+  private final NodeMetricUpdater metricUpdater;
+  private final boolean timeCompression;
   private final int maxFrameLength;
 
+  /** Creates an instance that delegates compression (if any) to the frame codec. */
   public FrameEncoder(FrameCodec<ByteBuf> frameCodec, int maxFrameLength) {
+    this(frameCodec, null, 0, null, maxFrameLength);
+  }
+
+  /**
+   * Creates an instance that handles compression itself.
+   *
+   * @param frameCodec a codec that does not compress frames.
+   * @param compressor the compressor to apply to frame bodies, or {@code null} to disable
+   *     compression.
+   * @param compressionThreshold the minimum body size for a frame to be compressed.
+   * @param metricUpdater the updater for the {@code compression.*} node metrics.
+   */
+  public FrameEncoder(
+      FrameCodec<ByteBuf> frameCodec,
+      @Nullable Compressor<ByteBuf> compressor,
+      int compressionThreshold,
+      @Nullable NodeMetricUpdater metricUpdater,
+      int maxFrameLength) {
     super(Frame.class);
     this.frameCodec = frameCodec;
+    this.compressor = (compressor == null || compressor.algorithm() == null) ? null : compressor;
+    this.compressionThreshold = compressionThreshold;
+    this.metricUpdater = metricUpdater;
+    this.timeCompression =
+        metricUpdater != null && metricUpdater.isEnabled(DefaultNodeMetric.COMPRESSION_TIME, null);
     this.maxFrameLength = maxFrameLength;
   }
 
   @Override
   protected void encode(ChannelHandlerContext ctx, Frame frame, List<Object> out) throws Exception {
     ByteBuf buffer = frameCodec.encode(frame);
+    if (compressor != null && isCompressible(frame)) {
+      buffer = maybeCompress(buffer);
+    }
     int actualLength = buffer.readableBytes();
     if (actualLength > maxFrameLength) {
+      buffer.release();
       throw new FrameTooLongException(
           ctx.channel().remoteAddress(),
           String.format("Outgoing frame length exceeds %d: %d", maxFrameLength, actualLength));
     }
     out.add(buffer);
   }
+
+  private static boolean isCompressible(Frame frame) {
+    // Compression is negotiated with STARTUP, and OPTIONS may be sent before
+    int opcode = frame.message.opcode;
+    return opcode != ProtocolConstants.Opcode.STARTUP && opcode != ProtocolConstants.Opcode.OPTIONS;
+  }
+
+  private ByteBuf maybeCompress(ByteBuf frame) {
+    int bodyLength = frame.readableBytes() - HEADER_LENGTH;
+    if (bodyLength < compressionThreshold) {
+      recordSkip();
+      return frame;
+    }
+
+    ByteBuf body = frame.slice(frame.readerIndex() + HEADER_LENGTH, bodyLength);
+    long start = timeCompression ? System.nanoTime() : 0;
+    ByteBuf compressedBody = compressor.compress(body);
+    if (timeCompression) {
+      metricUpdater.updateTimer(
+          DefaultNodeMetric.COMPRESSION_TIME,
+          null,
+          System.nanoTime() - start,
+          TimeUnit.NANOSECONDS);
+    }
+
+    int compressedLength = compressedBody.readableBytes();
+    if (compressedLength >= bodyLength) {
+      // Incompressible: the original frame is smaller, and spares the server a decompression
+      compressedBody.release();
+      recordSkip();
+      return frame;
+    }
+    if (metricUpdater != null) {
+      metricUpdater.updateHistogram(
+          DefaultNodeMetric.COMPRESSION_RATIO, null, compressedLength * 100L / bodyLength);
+    }
+
+    ByteBufAllocator allocator = frame.alloc();
+    ByteBuf header = allocator.buffer(HEADER_LENGTH);
+    header.writeBytes(frame, frame.readerIndex(), HEADER_LENGTH);
+    frame.release();
+    header.setByte(
+        FLAGS_OFFSET, header.getByte(FLAGS_OFFSET) | ProtocolConstants.FrameFlag.COMPRESSED);
+    header.setInt(LENGTH_OFFSET, compressedLength);
+    return allocator.compositeBuffer(2).addComponents(true, header, compressedBody);
+  }
+
+  private void recordSkip() {
+    if (metricUpdater != null) {
+      metricUpdater.incrementCounter(DefaultNodeMetric.COMPRESSION_SKIPS, null);
+    }
+  }
 }
@@ -0,0 +1,166 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.driver.internal.core.protocol;
+
+import com.datastax.oss.driver.api.core.connection.FrameTooLongException;
+import com.datastax.oss.driver.internal.core.util.concurrent.PromiseCombiner;
+import com.datastax.oss.protocol.internal.Frame;
+import com.datastax.oss.protocol.internal.FrameCodec;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelOutboundHandlerAdapter;
+import io.netty.channel.ChannelPromise;
+import io.netty.util.concurrent.Future;
+import java.util.ArrayList;
+import java.util.List;
+import net.jcip.annotations.NotThreadSafe;
+
+/**
+ * Encodes outgoing frames into protocol v5 segments.
+ *
+ * <p>Frames that are written between two flushes are packed together into self-contained segments,
+ * as long as they fit (this works hand in hand with the write coalescer, which flushes batches of
+ * writes). A frame that is larger than the maximum segment payload is split into multiple
+ * non-self-contained segments.
+ *
+ * <p>This replaces {@link FrameEncoder} once the connection has switched to the v5 framing format.
+ */
+@NotThreadSafe // one instance per channel, only accessed from its event loop
+public class FrameToSegmentEncoder extends ChannelOutboundHandlerAdapter {
+
+  private final FrameCodec<ByteBuf> frameCodec;
+  private final SegmentCodec segmentCodec;
+  private final int maxFrameLength;
+
+  // The frames of the self-contained segment that is being built
+  private final List<ByteBuf> currentFrames = new ArrayList<>();
+  private final List<ChannelPromise> currentPromises = new ArrayList<>();
+  private int currentLength;
+
+  /**
+   * @param frameCodec the codec used to encode individual frames. It should not compress them,
+   *     since compression happens at the segment level.
+   */
+  public FrameToSegmentEncoder(
+      FrameCodec<ByteBuf> frameCodec, SegmentCodec segmentCodec, int maxFrameLength) {
+    this.frameCodec = frameCodec;
+    this.segmentCodec = segmentCodec;
+    this.maxFrameLength = maxFrameLength;
+  }
+
+  @Override
+  public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) {
+    if (!(msg instanceof Frame)) {
+      ctx.write(msg, promise);
+      return;
+    }
+    ByteBuf frame;
+    try {
+      frame = frameCodec.encode((Frame) msg);
+    } catch (Throwable t) {
+      promise.setFailure(t);
+      return;
+    }
+    int length = frame.readableBytes();
+    if (length > maxFrameLength) {
+      frame.release();
+      promise.setFailure(
+          new FrameTooLongException(
+              ctx.channel().remoteAddress(),
+              String.format("Outgoing frame length exceeds %d: %d", maxFrameLength, length)));
+    } else if (length <= SegmentCodec.MAX_PAYLOAD_LENGTH) {
+      if (currentLength + length > SegmentCodec.MAX_PAYLOAD_LENGTH) {
+        writeCurrentSegment(ctx);
+      }
+      currentFrames.add(frame);
+      currentPromises.add(promise);
+      currentLength += length;
+    } else {
+      // Preserve the order of frames
+      writeCurrentSegment(ctx);
+      writeLargeFrame(ctx, frame, promise);
+    }
+  }
+
+  @Override
+  public void flush(ChannelHandlerContext ctx) {
+    writeCurrentSegment(ctx);
+    ctx.flush();
+  }
+
+  @Override
+  public void close(ChannelHandlerContext ctx, ChannelPromise promise) throws Exception {
+    writeCurrentSegment(ctx);
+    super.close(ctx, promise);
+  }
+
+  @Override
+  public void handlerRemoved(ChannelHandlerContext ctx) {
+    // Don't lose any frame if the pipeline is reconfigured
+    writeCurrentSegment(ctx);
+  }
+
+  private void writeCurrentSegment(ChannelHandlerContext ctx) {
+    if (currentFrames.isEmpty()) {
+      return;
+    }
+    ByteBuf payload;
+    ChannelPromise segmentPromise;
+    if (currentFrames.size() == 1) {
+      payload = currentFrames.get(0);
+      segmentPromise = currentPromises.get(0);
+    } else {
+      payload = ctx.alloc().ioBuffer(currentLength);
+      for (ByteBuf frame : currentFrames) {
+        payload.writeBytes(frame);
+        frame.release();
+      }
+      ChannelPromise[] framePromises = currentPromises.toArray(new ChannelPromise[0]);
+      segmentPromise = ctx.newPromise();
+      segmentPromise.addListener(
+          future -> {
+            for (ChannelPromise framePromise : framePromises) {
+              if (future.isSuccess()) {
+                framePromise.trySuccess();
+              } else {
+                framePromise.tryFailure(future.cause());
+              }
+            }
+          });
+    }
+    currentFrames.clear();
+    currentPromises.clear();
+    currentLength = 0;
+    ctx.write(segmentCodec.encode(payload, true), segmentPromise);
+  }
+
+  private void writeLargeFrame(ChannelHandlerContext ctx, ByteBuf frame, ChannelPromise promise) {
+    int length = frame.readableBytes();
+    int segmentCount =
+        (length + SegmentCodec.MAX_PAYLOAD_LENGTH - 1) / SegmentCodec.MAX_PAYLOAD_LENGTH;
+    Future<?>[] segmentFutures = new Future<?>[segmentCount];
+    try {
+      for (int i = 0; i < segmentCount; i++) {
+        int sliceLength = Math.min(SegmentCodec.MAX_PAYLOAD_LENGTH, frame.readableBytes());
+        ByteBuf slice = frame.readRetainedSlice(sliceLength);
+        segmentFutures[i] = ctx.write(segmentCodec.encode(slice, false));
+      }
+    } finally {
+      frame.release();
+    }
+    PromiseCombiner.combine(promise, segmentFutures);
+  }
+}
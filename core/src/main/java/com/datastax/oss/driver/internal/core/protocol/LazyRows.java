@@ -0,0 +1,228 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.driver.internal.core.protocol;
+
+import com.datastax.oss.protocol.internal.response.result.Rows;
+import com.datastax.oss.protocol.internal.response.result.RowsMetadata;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import io.netty.buffer.ByteBuf;
+import java.nio.ByteBuffer;
+import java.util.AbstractList;
+import java.util.AbstractQueue;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Queue;
+import java.util.RandomAccess;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import net.jcip.annotations.NotThreadSafe;
+
+/**
+ * A ROWS response that defers the decoding of its cells until they are read.
+ *
+ * <p>The row data of the whole page is copied into a single buffer, along with a table of the
+ * offsets of each cell. {@link #getData()} still honors the contract of {@link Rows}, but the rows
+ * it returns are lightweight views over the page: their cells are only sliced out of the buffer
+ * when they are first accessed. This avoids allocating a {@link ByteBuffer} (and its backing array)
+ * for every cell upfront, which matters for large pages that are only partially read. Reading a
+ * whole row allocates one buffer per cell (and none on subsequent reads), which is still less than
+ * eager decoding.
+ *
+ * @see LazyRowsCodecGroup
+ */
+@NotThreadSafe // wraps a mutable queue
+public class LazyRows extends Rows {
+
+  /**
+   * Decodes the rows from the given buffer.
+   *
+   * @param source the body of the response, positioned after the result kind and the metadata. This
+   *     method reads it entirely.
+   */
+  public static LazyRows decode(ByteBuf source, RowsMetadata metadata) {
+    int rowCount = source.readInt();
+    int columnCount = metadata.columnCount;
+    int[] offsets = new int[rowCount * columnCount];
+    int start = source.readerIndex();
+    int position = start;
+    for (int i = 0; i < offsets.length; i++) {
+      offsets[i] = position - start;
+      int length = source.getInt(position);
+      // A negative length means a null value, without any following bytes
+      position += 4 + Math.max(length, 0);
+    }
+    byte[] page = new byte[position - start];
+    source.readBytes(page);
+    return new LazyRows(metadata, page, rowCount, offsets);
+  }
+
+  private final RowsMetadata metadata;
+  private final byte[] page;
+  private final int columnCount;
+  private final int[] offsets;
+  private final RowQueue data;
+  // Used to slice the cells; guarded by itself, because slicing requires moving its position.
+  private final ByteBuffer pageBuffer;
+  // The cells that were already sliced
+  private final AtomicReferenceArray<ByteBuffer> cells;
+
+  private LazyRows(RowsMetadata metadata, byte[] page, int rowCount, int[] offsets) {
+    this.metadata = metadata;
+    this.page = page;
+    this.columnCount = metadata.columnCount;
+    this.offsets = offsets;
+    this.data = new RowQueue(rowCount);
+    this.pageBuffer = ByteBuffer.wrap(page);
+    this.cells = new AtomicReferenceArray<>(offsets.length);
+  }
+
+  @Override
+  public RowsMetadata getMetadata() {
+    return metadata;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>The elements of the queue are read-only views, their cells are decoded on the first call to
+   * {@link List#get(int)}. Like with eager decoding, subsequent calls return the same buffer.
+   */
+  @Override
+  public Queue<List<ByteBuffer>> getData() {
+    return data;
+  }
+
+  private ByteBuffer getCell(int row, int column) {
+    int index = row * columnCount + column;
+    int offset = offsets[index];
+    int length =
+        (page[offset] & 0xFF) << 24
+            | (page[offset + 1] & 0xFF) << 16
+            | (page[offset + 2] & 0xFF) << 8
+            | (page[offset + 3] & 0xFF);
+    if (length < 0) {
+      return null;
+    }
+    ByteBuffer cell = cells.get(index);
+    if (cell == null) {
+      synchronized (pageBuffer) {
+        cell = cells.get(index);
+        if (cell == null) {
+          // Set the limit first, the new position might be past the current one
+          pageBuffer.limit(offset + 4 + length).position(offset + 4);
+          cell = pageBuffer.slice();
+          cells.set(index, cell);
+        }
+      }
+    }
+    return cell;
+  }
+
+  @Override
+  public String toString() {
+    return "ROWS(" + data.size() + " x " + columnCount + " columns, lazy)";
+  }
+
+  private class RowQueue extends AbstractQueue<List<ByteBuffer>> {
+
+    private final int rowCount;
+    private int next;
+    // The view returned by the last call to peek(), so that poll() can return it
+    private RowView peeked;
+
+    private RowQueue(int rowCount) {
+      this.rowCount = rowCount;
+    }
+
+    @Override
+    public List<ByteBuffer> poll() {
+      List<ByteBuffer> row = peek();
+      if (row != null) {
+        next += 1;
+        peeked = null;
+      }
+      return row;
+    }
+
+    @Override
+    public List<ByteBuffer> peek() {
+      if (next >= rowCount) {
+        return null;
+      }
+      if (peeked == null) {
+        peeked = new RowView(next);
+      }
+      return peeked;
+    }
+
+    @Override
+    public int size() {
+      return rowCount - next;
+    }
+
+    @Override
+    public boolean offer(List<ByteBuffer> row) {
+      throw new UnsupportedOperationException("Not implemented");
+    }
+
+    @NonNull
+    @Override
+    public Iterator<List<ByteBuffer>> iterator() {
+      return new Iterator<List<ByteBuffer>>() {
+        private int current = next;
+
+        @Override
+        public boolean hasNext() {
+          return current < rowCount;
+        }
+
+        @Override
+        public List<ByteBuffer> next() {
+          if (current >= rowCount) {
+            throw new NoSuchElementException();
+          }
+          // The head of the queue might already have a view
+          List<ByteBuffer> row = (current == next) ? peek() : new RowView(current);
+          current += 1;
+          return row;
+        }
+      };
+    }
+  }
+
+  private class RowView extends AbstractList<ByteBuffer> implements RandomAccess {
+
+    private final int row;
+
+    private RowView(int row) {
+      this.row = row;
+    }
+
+    @Override
+    public ByteBuffer get(int column) {
+      if (column < 0 || column >= columnCount) {
+        throw new IndexOutOfBoundsException(
+            String.format("Index: %d, size: %d", column, columnCount));
+      }
+      return getCell(row, column);
+    }
+
+    @Override
+    public int size() {
+      return columnCount;
+    }
+  }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.driver.internal.core.protocol;
+
+import com.datastax.oss.protocol.internal.FrameCodec;
+import com.datastax.oss.protocol.internal.Message;
+import com.datastax.oss.protocol.internal.PrimitiveCodec;
+import com.datastax.oss.protocol.internal.ProtocolConstants;
+import com.datastax.oss.protocol.internal.response.result.RowsMetadata;
+import io.netty.buffer.ByteBuf;
+import net.jcip.annotations.ThreadSafe;
+
+/**
+ * Decorates a group of client codecs, in order to decode ROWS responses as {@link LazyRows}.
+ *
+ * <p>Only the RESULT decoders of the OSS protocol versions are replaced, the DSE versions use a
+ * different metadata format and are left unchanged. Other kinds of results are still decoded by the
+ * original codec.
+ */
+@ThreadSafe
+public class LazyRowsCodecGroup implements FrameCodec.CodecGroup {
+
+  private final FrameCodec.CodecGroup delegate;
+
+  public LazyRowsCodecGroup(FrameCodec.CodecGroup delegate) {
+    this.delegate = delegate;
+  }
+
+  @Override
+  public void registerCodecs(Registry registry) {
+    delegate.registerCodecs(
+        new Registry() {
+          @Override
+          public Registry addCodec(Message.Codec codec) {
+            addEncoder(codec);
+            return addDecoder(codec);
+          }
+
+          @Override
+          public Registry addEncoder(Message.Codec codec) {
+            registry.addEncoder(codec);
+            return this;
+          }
+
+          @Override
+          public Registry addDecoder(Message.Codec codec) {
+            registry.addDecoder(
+                (codec.opcode == ProtocolConstants.Opcode.RESULT
+                        && codec.protocolVersion <= ProtocolConstants.Version.V5)
+                    ? new LazyResultCodec(codec)
+                    : codec);
+            return this;
+          }
+        });
+  }
+
+  private static class LazyResultCodec extends Message.Codec {
+
+    private final Message.Codec delegate;
+
+    private LazyResultCodec(Message.Codec delegate) {
+      super(delegate.opcode, delegate.protocolVersion);
+      this.delegate = delegate;
+    }
+
+    @Override
+    public <B> void encode(B dest, Message message, PrimitiveCodec<B> encoder) {
+      delegate.encode(dest, message, encoder);
+    }
+
+    @Override
+    public int encodedSize(Message message) {
+      return delegate.encodedSize(message);
+    }
+
+    @Override
+    public <B> Message decode(B source, PrimitiveCodec<B> decoder) {
+      // The driver always decodes Netty buffers (see DefaultDriverContext.buildFrameCodec)
+      ByteBuf buffer = (ByteBuf) source;
+      if (buffer.getInt(buffer.readerIndex()) != ProtocolConstants.ResultKind.ROWS) {
+        return delegate.decode(source, decoder);
+      }
+      buffer.skipBytes(4);
+      RowsMetadata metadata = RowsMetadata.decode(source, decoder, false, protocolVersion);
+      return LazyRows.decode(buffer, metadata);
+    }
+  }
+}
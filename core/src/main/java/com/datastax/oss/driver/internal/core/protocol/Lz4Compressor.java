@@ -55,16 +55,63 @@ public class Lz4Compressor extends ByteBufCompressor {
 
   @Override
   protected ByteBuf compressDirect(ByteBuf input) {
+    return compressDirect(input, true);
+  }
+
+  @Override
+  protected ByteBuf compressHeap(ByteBuf input) {
+    return compressHeap(input, true);
+  }
+
+  @Override
+  protected ByteBuf decompressDirect(ByteBuf input) {
+    int compressedLength = input.readableBytes() - 4;
+    int uncompressedLength = input.readInt();
+    return decompressDirect(input, compressedLength, uncompressedLength);
+  }
+
+  @Override
+  protected ByteBuf decompressHeap(ByteBuf input) {
+    int compressedLength = input.readableBytes() - 4;
+    int uncompressedLength = input.readInt();
+    return decompressHeap(input, compressedLength, uncompressedLength);
+  }
+
+  /**
+   * Compresses the input as a raw LZ4 block, without prepending the uncompressed length.
+   *
+   * <p>This is used by protocol v5 segments, which store the uncompressed length in their header.
+   */
+  public ByteBuf compressBlock(ByteBuf input) {
+    // Segment payloads can be composite buffers: only use the heap path if we can access the array
+    return input.hasArray() ? compressHeap(input, false) : compressDirect(input, false);
+  }
+
+  /**
+   * Decompresses a raw LZ4 block, when the uncompressed length is known from elsewhere.
+   *
+   * @see #compressBlock(ByteBuf)
+   */
+  public ByteBuf decompressBlock(ByteBuf input, int uncompressedLength) {
+    int compressedLength = input.readableBytes();
+    return input.hasArray()
+        ? decompressHeap(input, compressedLength, uncompressedLength)
+        : decompressDirect(input, compressedLength, uncompressedLength);
+  }
+
+  private ByteBuf compressDirect(ByteBuf input, boolean prependLength) {
     int maxCompressedLength = compressor.maxCompressedLength(input.readableBytes());
     // If the input is direct we will allocate a direct output buffer as well as this will allow us
     // to use LZ4Compressor.compress and so eliminate memory copies.
-    ByteBuf output = input.alloc().directBuffer(4 + maxCompressedLength);
+    ByteBuf output = input.alloc().directBuffer((prependLength ? 4 : 0) + maxCompressedLength);
     try {
       ByteBuffer in = inputNioBuffer(input);
       // Increase reader index.
       input.readerIndex(input.writerIndex());
 
-      output.writeInt(in.remaining());
+      if (prependLength) {
+        output.writeInt(in.remaining());
+      }
 
       ByteBuffer out = outputNioBuffer(output);
       int written =
@@ -80,8 +127,7 @@ public class Lz4Compressor extends ByteBufCompressor {
     return output;
   }
 
-  @Override
-  protected ByteBuf compressHeap(ByteBuf input) {
+  private ByteBuf compressHeap(ByteBuf input, boolean prependLength) {
     int maxCompressedLength = compressor.maxCompressedLength(input.readableBytes());
 
     // Not a direct buffer so use byte arrays...
@@ -93,9 +139,11 @@ public class Lz4Compressor extends ByteBufCompressor {
 
     // Allocate a heap buffer from the ByteBufAllocator as we may use a PooledByteBufAllocator and
     // so can eliminate the overhead of allocate a new byte[].
-    ByteBuf output = input.alloc().heapBuffer(4 + maxCompressedLength);
+    ByteBuf output = input.alloc().heapBuffer((prependLength ? 4 : 0) + maxCompressedLength);
     try {
-      output.writeInt(len);
+      if (prependLength) {
+        output.writeInt(len);
+      }
       // calculate the correct offset.
       int offset = output.arrayOffset() + output.writerIndex();
       byte[] out = output.array();
@@ -111,12 +159,9 @@ public class Lz4Compressor extends ByteBufCompressor {
     return output;
   }
 
-  @Override
-  protected ByteBuf decompressDirect(ByteBuf input) {
+  private ByteBuf decompressDirect(ByteBuf input, int compressedLength, int uncompressedLength) {
     // If the input is direct we will allocate a direct output buffer as well as this will allow us
     // to use LZ4Compressor.decompress and so eliminate memory copies.
-    int readable = input.readableBytes();
-    int uncompressedLength = input.readInt();
     ByteBuffer in = inputNioBuffer(input);
     // Increase reader index.
     input.readerIndex(input.writerIndex());
@@ -124,7 +169,7 @@ public class Lz4Compressor extends ByteBufCompressor {
     try {
       ByteBuffer out = outputNioBuffer(output);
       int read = decompressor.decompress(in, in.position(), out, out.position(), out.remaining());
-      if (read != readable - 4) {
+      if (read != compressedLength) {
         throw new IllegalArgumentException("Compressed lengths mismatch");
       }
 
@@ -138,12 +183,9 @@ public class Lz4Compressor extends ByteBufCompressor {
     return output;
   }
 
-  @Override
-  protected ByteBuf decompressHeap(ByteBuf input) {
+  private ByteBuf decompressHeap(ByteBuf input, int compressedLength, int uncompressedLength) {
     // Not a direct buffer so use byte arrays...
     byte[] in = input.array();
-    int len = input.readableBytes();
-    int uncompressedLength = input.readInt();
     int inOffset = input.arrayOffset() + input.readerIndex();
     // Increase reader index.
     input.readerIndex(input.writerIndex());
@@ -153,9 +195,9 @@ public class Lz4Compressor extends ByteBufCompressor {
     ByteBuf output = input.alloc().heapBuffer(uncompressedLength);
     try {
       int offset = output.arrayOffset() + output.writerIndex();
-      byte out[] = output.array();
+      byte[] out = output.array();
       int read = decompressor.decompress(in, inOffset, out, offset, uncompressedLength);
-      if (read != len - 4) {
+      if (read != compressedLength) {
         throw new IllegalArgumentException("Compressed lengths mismatch");
       }
 
@@ -0,0 +1,201 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.driver.internal.core.protocol;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.handler.codec.CorruptedFrameException;
+import net.jcip.annotations.ThreadSafe;
+
+/**
+ * Encodes and decodes the segments that wrap frames in protocol v5 and above (see the "Framing"
+ * section of {@code native_protocol_v5.spec}).
+ *
+ * <p>A segment is made of:
+ *
+ * <ul>
+ *   <li>a header: the payload length (17 bits) and a "self-contained" flag, followed by a CRC24 of
+ *       those bytes. If compression is enabled, the header also contains the uncompressed length of
+ *       the payload (17 bits, 0 if the payload was not compressed because it would not have been
+ *       smaller);
+ *   <li>the payload: either one or more complete frames (self-contained segment), or a part of a
+ *       frame that was too large to fit in a single segment;
+ *   <li>a CRC32 of the payload.
+ * </ul>
+ *
+ * All header and trailer fields are little-endian. The only compression algorithm supported at this
+ * level is LZ4.
+ */
+@ThreadSafe
+public class SegmentCodec {
+
+  /** The maximum length of a segment's payload (before compression). */
+  public static final int MAX_PAYLOAD_LENGTH = 128 * 1024 - 1;
+
+  private static final int CRC24_LENGTH = 3;
+  private static final int CRC32_LENGTH = 4;
+  private static final int UNCOMPRESSED_HEADER_LENGTH = 3;
+  private static final int COMPRESSED_HEADER_LENGTH = 5;
+
+  private final ByteBufAllocator allocator;
+  private final Lz4Compressor compressor;
+  private final int headerLength;
+
+  /** @param compressor the compressor, or {@code null} if segments are not compressed. */
+  public SegmentCodec(@NonNull ByteBufAllocator allocator, @Nullable Lz4Compressor compressor) {
+    this.allocator = allocator;
+    this.compressor = compressor;
+    this.headerLength = compressor == null ? UNCOMPRESSED_HEADER_LENGTH : COMPRESSED_HEADER_LENGTH;
+  }
+
+  /** The total length of an encoded header, including its CRC. */
+  public int headerLength() {
+    return headerLength + CRC24_LENGTH;
+  }
+
+  /**
+   * Encodes a segment.
+   *
+   * @param payload the payload, it must not be larger than {@link #MAX_PAYLOAD_LENGTH}. It is
+   *     released by this method.
+   */
+  @NonNull
+  public ByteBuf encode(@NonNull ByteBuf payload, boolean isSelfContained) {
+    int uncompressedLength = payload.readableBytes();
+    if (uncompressedLength > MAX_PAYLOAD_LENGTH) {
+      payload.release();
+      throw new IllegalArgumentException(
+          String.format(
+              "Segment payload can't be larger than %d bytes (got %d)",
+              MAX_PAYLOAD_LENGTH, uncompressedLength));
+    }
+
+    ByteBuf body = payload;
+    long header;
+    if (compressor == null) {
+      header = uncompressedLength | (isSelfContained ? 1L << 17 : 0);
+    } else {
+      int startIndex = payload.readerIndex();
+      ByteBuf compressed = compressor.compressBlock(payload);
+      boolean worthIt = compressed.readableBytes() < uncompressedLength;
+      if (worthIt) {
+        payload.release();
+        body = compressed;
+      } else {
+        compressed.release();
+        payload.readerIndex(startIndex);
+      }
+      header =
+          body.readableBytes()
+              | (worthIt ? (long) uncompressedLength << 17 : 0)
+              | (isSelfContained ? 1L << 34 : 0);
+    }
+
+    ByteBuf headerBuffer = allocator.ioBuffer(headerLength + CRC24_LENGTH);
+    writeLittleEndian(headerBuffer, header, headerLength);
+    writeLittleEndian(headerBuffer, Crc.computeCrc24(header, headerLength), CRC24_LENGTH);
+
+    ByteBuf trailerBuffer = allocator.ioBuffer(CRC32_LENGTH);
+    trailerBuffer.writeIntLE(Crc.computeCrc32(body));
+
+    return allocator.compositeBuffer(3).addComponents(true, headerBuffer, body, trailerBuffer);
+  }
+
+  /**
+   * Decodes a segment header.
+   *
+   * @param in a buffer with at least {@link #headerLength()} readable bytes. They will be consumed.
+   * @throws CorruptedFrameException if the header's CRC does not match.
+   */
+  @NonNull
+  public Header decodeHeader(@NonNull ByteBuf in) {
+    long header = readLittleEndian(in, headerLength);
+    int expectedCrc = (int) readLittleEndian(in, CRC24_LENGTH);
+    int actualCrc = Crc.computeCrc24(header, headerLength);
+    if (actualCrc != expectedCrc) {
+      throw new CorruptedFrameException(
+          String.format(
+              "CRC mismatch on segment header (expected 0x%06x, got 0x%06x)",
+              expectedCrc, actualCrc));
+    }
+    int payloadLength = (int) header & MAX_PAYLOAD_LENGTH;
+    if (compressor == null) {
+      return new Header(payloadLength, 0, (header & (1L << 17)) != 0);
+    } else {
+      int uncompressedLength = (int) (header >> 17) & MAX_PAYLOAD_LENGTH;
+      return new Header(payloadLength, uncompressedLength, (header & (1L << 34)) != 0);
+    }
+  }
+
+  /** The number of bytes that follow the header of the given segment. */
+  public int encodedPayloadLength(@NonNull Header header) {
+    return header.payloadLength + CRC32_LENGTH;
+  }
+
+  /**
+   * Decodes a segment payload.
+   *
+   * @param in a buffer with at least {@link #encodedPayloadLength(Header)} readable bytes. They
+   *     will be consumed.
+   * @return the uncompressed payload. The caller is responsible for releasing it.
+   * @throws CorruptedFrameException if the payload's CRC does not match.
+   */
+  @NonNull
+  public ByteBuf decodePayload(@NonNull Header header, @NonNull ByteBuf in) {
+    ByteBuf body = in.readSlice(header.payloadLength);
+    int expectedCrc = in.readIntLE();
+    int actualCrc = Crc.computeCrc32(body);
+    if (actualCrc != expectedCrc) {
+      throw new CorruptedFrameException(
+          String.format(
+              "CRC mismatch on segment payload (expected 0x%08x, got 0x%08x)",
+              expectedCrc, actualCrc));
+    }
+    return (header.uncompressedLength == 0)
+        ? body.retain()
+        : compressor.decompressBlock(body, header.uncompressedLength);
+  }
+
+  private static void writeLittleEndian(ByteBuf out, long value, int length) {
+    for (int i = 0; i < length; i++) {
+      out.writeByte((int) (value >>> (8 * i)) & 0xFF);
+    }
+  }
+
+  private static long readLittleEndian(ByteBuf in, int length) {
+    long value = 0;
+    for (int i = 0; i < length; i++) {
+      value |= (in.readByte() & 0xFFL) << (8 * i);
+    }
+    return value;
+  }
+
+  public static class Header {
+    public final int payloadLength;
+    /** 0 if the payload is not compressed. */
+    public final int uncompressedLength;
+
+    public final boolean isSelfContained;
+
+    public Header(int payloadLength, int uncompressedLength, boolean isSelfContained) {
+      this.payloadLength = payloadLength;
+      this.uncompressedLength = uncompressedLength;
+      this.isSelfContained = isSelfContained;
+    }
+  }
+}
@@ -0,0 +1,187 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.driver.internal.core.protocol;
+
+import com.datastax.oss.driver.api.core.connection.FrameTooLongException;
+import com.datastax.oss.protocol.internal.Frame;
+import com.datastax.oss.protocol.internal.FrameCodec;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.CompositeByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.ByteToMessageDecoder;
+import io.netty.handler.codec.CorruptedFrameException;
+import java.util.List;
+import net.jcip.annotations.NotThreadSafe;
+
+/**
+ * Decodes incoming protocol v5 segments into frames.
+ *
+ * <p>A self-contained segment holds one or more complete frames. Otherwise, the segment holds a
+ * part of a large frame: we accumulate the parts until the frame is complete.
+ *
+ * <p>This replaces {@link FrameDecoder} once the connection has switched to the v5 framing format.
+ * A CRC mismatch means that the stream is corrupted, and is reported as a {@link
+ * CorruptedFrameException}; on the other hand, errors that only affect a single frame are wrapped
+ * in a {@link FrameDecodingException}, like with {@link FrameDecoder}.
+ */
+@NotThreadSafe // one instance per channel, only accessed from its event loop
+public class SegmentToFrameDecoder extends ByteToMessageDecoder {
+
+  private static final int FRAME_HEADER_LENGTH = 9;
+  // Where the length of the frame is located in the frame header
+  private static final int LENGTH_FIELD_OFFSET = 5;
+  private static final int STREAM_ID_OFFSET = 2;
+
+  private final FrameCodec<ByteBuf> frameCodec;
+  private final SegmentCodec segmentCodec;
+  private final int maxFrameLength;
+
+  // The header of the current segment, if we've read it but not the payload yet
+  private SegmentCodec.Header header;
+  // The parts of the current large frame (spread over non-self-contained segments)
+  private CompositeByteBuf largeFrame;
+  // If the current large frame was too long, how many bytes we still need to skip
+  private int largeFrameBytesToDiscard;
+
+  /**
+   * @param frameCodec the codec used to decode individual frames. It should not decompress them,
+   *     since compression happens at the segment level.
+   */
+  public SegmentToFrameDecoder(
+      FrameCodec<ByteBuf> frameCodec, SegmentCodec segmentCodec, int maxFrameLength) {
+    this.frameCodec = frameCodec;
+    this.segmentCodec = segmentCodec;
+    this.maxFrameLength = maxFrameLength;
+  }
+
+  @Override
+  protected void decode(ChannelHandlerContext ctx, ByteBuf in, List<Object> out) {
+    if (header == null) {
+      if (in.readableBytes() < segmentCodec.headerLength()) {
+        return;
+      }
+      header = segmentCodec.decodeHeader(in);
+    }
+    if (in.readableBytes() < segmentCodec.encodedPayloadLength(header)) {
+      return;
+    }
+    ByteBuf payload = segmentCodec.decodePayload(header, in);
+    boolean isSelfContained = header.isSelfContained;
+    header = null;
+    try {
+      if (isSelfContained) {
+        decodeSelfContained(payload, out);
+      } else {
+        decodePart(ctx, payload, out);
+      }
+    } finally {
+      payload.release();
+    }
+  }
+
+  private void decodeSelfContained(ByteBuf payload, List<Object> out) {
+    if (largeFrame != null || largeFrameBytesToDiscard > 0) {
+      throw new CorruptedFrameException(
+          "Received a self-contained segment while a large frame was incomplete");
+    }
+    // If a frame fails to decode, keep going with the others, and only report the error at the end
+    FrameDecodingException error = null;
+    while (payload.isReadable()) {
+      if (payload.readableBytes() < FRAME_HEADER_LENGTH) {
+        throw new CorruptedFrameException("Self-contained segment ends with a truncated frame");
+      }
+      int frameLength =
+          FRAME_HEADER_LENGTH + payload.getInt(payload.readerIndex() + LENGTH_FIELD_OFFSET);
+      if (frameLength < FRAME_HEADER_LENGTH || frameLength > payload.readableBytes()) {
+        throw new CorruptedFrameException("Self-contained segment ends with a truncated frame");
+      }
+      try {
+        out.add(decodeFrame(payload.readSlice(frameLength)));
+      } catch (FrameDecodingException e) {
+        if (error == null) {
+          error = e;
+        }
+      }
+    }
+    if (error != null) {
+      throw error;
+    }
+  }
+
+  private void decodePart(ChannelHandlerContext ctx, ByteBuf payload, List<Object> out) {
+    if (largeFrameBytesToDiscard > 0) {
+      largeFrameBytesToDiscard -= payload.readableBytes();
+      if (largeFrameBytesToDiscard < 0) {
+        throw new CorruptedFrameException("Segment spans multiple frames");
+      }
+      return;
+    }
+    if (largeFrame == null) {
+      largeFrame = ctx.alloc().compositeBuffer(Integer.MAX_VALUE);
+    }
+    largeFrame.addComponent(true, payload.retain());
+    if (largeFrame.readableBytes() < FRAME_HEADER_LENGTH) {
+      return;
+    }
+    int startIndex = largeFrame.readerIndex();
+    long frameLength =
+        FRAME_HEADER_LENGTH + (largeFrame.getInt(startIndex + LENGTH_FIELD_OFFSET) & 0xFFFFFFFFL);
+    if (frameLength > maxFrameLength) {
+      int streamId = largeFrame.getShort(startIndex + STREAM_ID_OFFSET);
+      largeFrameBytesToDiscard = (int) (frameLength - largeFrame.readableBytes());
+      releaseLargeFrame();
+      throw new FrameDecodingException(
+          streamId,
+          new FrameTooLongException(
+              ctx.channel().remoteAddress(),
+              String.format(
+                  "Adjusted frame length exceeds %d: %d - discarded",
+                  maxFrameLength, frameLength)));
+    }
+    if (largeFrame.readableBytes() > frameLength) {
+      releaseLargeFrame();
+      throw new CorruptedFrameException("Segment spans multiple frames");
+    } else if (largeFrame.readableBytes() == frameLength) {
+      try {
+        out.add(decodeFrame(largeFrame));
+      } finally {
+        releaseLargeFrame();
+      }
+    }
+  }
+
+  private Frame decodeFrame(ByteBuf buffer) {
+    int startIndex = buffer.readerIndex();
+    try {
+      return frameCodec.decode(buffer);
+    } catch (Exception e) {
+      // Propagate the error to the client request matching the stream id (see FrameDecoder)
+      throw new FrameDecodingException(buffer.getShort(startIndex + STREAM_ID_OFFSET), e);
+    }
+  }
+
+  private void releaseLargeFrame() {
+    if (largeFrame != null) {
+      largeFrame.release();
+      largeFrame = null;
+    }
+  }
+
+  @Override
+  protected void handlerRemoved0(ChannelHandlerContext ctx) {
+    releaseLargeFrame();
+  }
+}
@@ -0,0 +1,282 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.driver.internal.core.protocol;
+
+import com.datastax.oss.driver.api.core.config.DefaultDriverOption;
+import com.datastax.oss.driver.api.core.config.DriverExecutionProfile;
+import com.datastax.oss.driver.api.core.context.DriverContext;
+import com.datastax.oss.driver.internal.core.util.DependencyCheck;
+import com.datastax.oss.driver.shaded.guava.common.annotations.VisibleForTesting;
+import com.github.luben.zstd.Zstd;
+import com.github.luben.zstd.ZstdDictCompress;
+import com.github.luben.zstd.ZstdDictDecompress;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import io.netty.buffer.ByteBuf;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import net.jcip.annotations.ThreadSafe;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Compresses frames with <a href="https://facebook.github.io/zstd/">Zstandard</a>, using the
+ * zstd-jni library.
+ *
+ * <p>Like {@link Lz4Compressor}, the compressed body is prefixed with the uncompressed length (4
+ * bytes). Direct buffers are compressed and decompressed in place through their native addresses;
+ * heap buffers through their backing arrays.
+ *
+ * <p>Optionally, a dictionary trained on typical payloads (with {@code zstd --train}) can improve
+ * the compression ratio of small frames significantly. The other side of the connection must use
+ * the same dictionary.
+ *
+ * <p>zstd-jni is an optional dependency: this class must only be loaded once we've checked that the
+ * library is present.
+ */
+@ThreadSafe
+public class ZstdCompressor extends ByteBufCompressor {
+
+  private static final Logger LOG = LoggerFactory.getLogger(ZstdCompressor.class);
+
+  public static final int DEFAULT_LEVEL = 3;
+
+  private final int level;
+  // null if there is no dictionary
+  private final ZstdDictCompress compressionDictionary;
+  private final ZstdDictDecompress decompressionDictionary;
+
+  public ZstdCompressor(DriverContext context) {
+    this(
+        context
+            .getConfig()
+            .getDefaultProfile()
+            .getInt(DefaultDriverOption.PROTOCOL_ZSTD_LEVEL, DEFAULT_LEVEL),
+        readDictionary(context));
+    LOG.info(
+        "[{}] Using zstd compression (level {}{})",
+        context.getSessionName(),
+        level,
+        compressionDictionary == null ? "" : ", with dictionary");
+  }
+
+  @VisibleForTesting
+  ZstdCompressor(int level, @Nullable byte[] dictionary) {
+    if (!DependencyCheck.ZSTD.isPresent()) {
+      throw new IllegalStateException(
+          "Could not find the zstd-jni library on the classpath "
+              + "(the driver declares it as an optional dependency, "
+              + "so you need to declare it explicitly)");
+    }
+    this.level = level;
+    if (dictionary == null) {
+      this.compressionDictionary = null;
+      this.decompressionDictionary = null;
+    } else {
+      this.compressionDictionary = new ZstdDictCompress(dictionary, level);
+      this.decompressionDictionary = new ZstdDictDecompress(dictionary);
+    }
+  }
+
+  private static byte[] readDictionary(DriverContext context) {
+    DriverExecutionProfile config = context.getConfig().getDefaultProfile();
+    if (!config.isDefined(DefaultDriverOption.PROTOCOL_ZSTD_DICTIONARY)) {
+      return null;
+    }
+    String path = config.getString(DefaultDriverOption.PROTOCOL_ZSTD_DICTIONARY);
+    try {
+      return Files.readAllBytes(Paths.get(path));
+    } catch (IOException e) {
+      throw new IllegalArgumentException(
+          String.format(
+              "Could not read zstd dictionary '%s' (from configuration option %s)",
+              path, DefaultDriverOption.PROTOCOL_ZSTD_DICTIONARY.getPath()),
+          e);
+    }
+  }
+
+  @Override
+  public String algorithm() {
+    return "zstd";
+  }
+
+  @Override
+  protected ByteBuf compressDirect(ByteBuf input) {
+    ByteBuffer in = inputNioBuffer(input);
+    if (!in.isDirect()) {
+      // Composite buffer whose components could not be exposed as a single direct buffer
+      return compressHeap(input);
+    }
+    int length = in.remaining();
+    ByteBuf output = input.alloc().directBuffer(4 + (int) Zstd.compressBound(length));
+    try {
+      output.writeInt(length);
+      ByteBuffer out = outputNioBuffer(output);
+      long written =
+          (compressionDictionary == null)
+              ? Zstd.compressDirectByteBuffer(
+                  out, out.position(), out.remaining(), in, in.position(), length, level)
+              : Zstd.compressDirectByteBufferFastDict(
+                  out,
+                  out.position(),
+                  out.remaining(),
+                  in,
+                  in.position(),
+                  length,
+                  compressionDictionary);
+      checkError(written);
+      // Increase reader index.
+      input.readerIndex(input.writerIndex());
+      // Set the writer index so the amount of written bytes is reflected
+      output.writerIndex(output.writerIndex() + (int) written);
+    } catch (Exception e) {
+      // release output buffer so we not leak and rethrow exception.
+      output.release();
+      throw e;
+    }
+    return output;
+  }
+
+  @Override
+  protected ByteBuf compressHeap(ByteBuf input) {
+    byte[] in;
+    int inOffset;
+    int length = input.readableBytes();
+    if (input.hasArray()) {
+      in = input.array();
+      inOffset = input.arrayOffset() + input.readerIndex();
+    } else {
+      in = new byte[length];
+      input.getBytes(input.readerIndex(), in);
+      inOffset = 0;
+    }
+
+    // Allocate a heap buffer from the ByteBufAllocator as we may use a PooledByteBufAllocator and
+    // so can eliminate the overhead of allocate a new byte[].
+    ByteBuf output = input.alloc().heapBuffer(4 + (int) Zstd.compressBound(length));
+    try {
+      output.writeInt(length);
+      int outOffset = output.arrayOffset() + output.writerIndex();
+      long written =
+          (compressionDictionary == null)
+              ? Zstd.compressByteArray(
+                  output.array(), outOffset, output.writableBytes(), in, inOffset, length, level)
+              : Zstd.compressFastDict(
+                  output.array(), outOffset, in, inOffset, length, compressionDictionary);
+      checkError(written);
+      // Increase reader index.
+      input.readerIndex(input.writerIndex());
+      // Set the writer index so the amount of written bytes is reflected
+      output.writerIndex(output.writerIndex() + (int) written);
+    } catch (Exception e) {
+      // release output buffer so we not leak and rethrow exception.
+      output.release();
+      throw e;
+    }
+    return output;
+  }
+
+  @Override
+  protected ByteBuf decompressDirect(ByteBuf input) {
+    int uncompressedLength = input.readInt();
+    ByteBuffer in = inputNioBuffer(input);
+    if (!in.isDirect()) {
+      input.readerIndex(input.readerIndex() - 4);
+      return decompressHeap(input);
+    }
+    ByteBuf output = input.alloc().directBuffer(uncompressedLength);
+    try {
+      ByteBuffer out = outputNioBuffer(output);
+      long read =
+          (decompressionDictionary == null)
+              ? Zstd.decompressDirectByteBuffer(
+                  out, out.position(), uncompressedLength, in, in.position(), in.remaining())
+              : Zstd.decompressDirectByteBufferFastDict(
+                  out,
+                  out.position(),
+                  uncompressedLength,
+                  in,
+                  in.position(),
+                  in.remaining(),
+                  decompressionDictionary);
+      checkError(read);
+      checkUncompressedLength(read, uncompressedLength);
+      // Increase reader index.
+      input.readerIndex(input.writerIndex());
+      // Set the writer index so the amount of written bytes is reflected
+      output.writerIndex(output.writerIndex() + uncompressedLength);
+    } catch (Exception e) {
+      // release output buffer so we not leak and rethrow exception.
+      output.release();
+      throw e;
+    }
+    return output;
+  }
+
+  @Override
+  protected ByteBuf decompressHeap(ByteBuf input) {
+    int uncompressedLength = input.readInt();
+    byte[] in;
+    int inOffset;
+    int length = input.readableBytes();
+    if (input.hasArray()) {
+      in = input.array();
+      inOffset = input.arrayOffset() + input.readerIndex();
+    } else {
+      in = new byte[length];
+      input.getBytes(input.readerIndex(), in);
+      inOffset = 0;
+    }
+
+    // Allocate a heap buffer from the ByteBufAllocator as we may use a PooledByteBufAllocator and
+    // so can eliminate the overhead of allocate a new byte[].
+    ByteBuf output = input.alloc().heapBuffer(uncompressedLength);
+    try {
+      int outOffset = output.arrayOffset() + output.writerIndex();
+      long read =
+          (decompressionDictionary == null)
+              ? Zstd.decompressByteArray(
+                  output.array(), outOffset, uncompressedLength, in, inOffset, length)
+              : Zstd.decompressFastDict(
+                  output.array(), outOffset, in, inOffset, length, decompressionDictionary);
+      checkError(read);
+      checkUncompressedLength(read, uncompressedLength);
+      // Increase reader index.
+      input.readerIndex(input.writerIndex());
+      // Set the writer index so the amount of written bytes is reflected
+      output.writerIndex(output.writerIndex() + uncompressedLength);
+    } catch (Exception e) {
+      // release output buffer so we not leak and rethrow exception.
+      output.release();
+      throw e;
+    }
+    return output;
+  }
+
+  private static void checkUncompressedLength(long read, int expected) {
+    if (read != expected) {
+      throw new IllegalArgumentException(
+          String.format("Uncompressed lengths mismatch: expected %d, got %d", expected, read));
+    }
+  }
+
+  private static void checkError(long result) {
+    if (Zstd.isError(result)) {
+      throw new IllegalArgumentException("zstd error: " + Zstd.getErrorName(result));
+    }
+  }
+}
@@ -0,0 +1,178 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.driver.internal.core.retry;
+
+import com.datastax.oss.driver.api.core.config.DefaultDriverOption;
+import com.datastax.oss.driver.api.core.config.DriverExecutionProfile;
+import com.datastax.oss.driver.internal.core.context.InternalDriverContext;
+import com.datastax.oss.driver.internal.core.session.throttling.NanoClock;
+import com.datastax.oss.driver.shaded.guava.common.annotations.VisibleForTesting;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import net.jcip.annotations.ThreadSafe;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Limits the number of retries and speculative executions across the whole session.
+ *
+ * <p>Retry and speculative execution policies make their decisions for one request at a time. When
+ * a node slows down, all the in-flight requests hit the same conditions at the same time, and the
+ * policies tell every one of them to try again, which adds load to a cluster that is already
+ * struggling. This component gives the request handler a global view: it is a token bucket that is
+ * refilled by a fraction of a token for each successful request (plus a small constant rate, so
+ * that a session with little traffic can still retry), and each retry or speculative execution must
+ * withdraw a whole token. When the bucket is empty, retries are turned into errors, and speculative
+ * executions are not started.
+ *
+ * <p>Since the budget is checked by the request handler after the policy has made its decision, it
+ * applies to all the retry and speculative execution policies, built-in or custom.
+ *
+ * <p>This component is configured in the {@code advanced.retry-budget} section, and disabled by
+ * default.
+ */
+@ThreadSafe
+public class RetryBudget {
+
+  private static final Logger LOG = LoggerFactory.getLogger(RetryBudget.class);
+
+  // The balance is stored in thousandths of a token, so that fractional deposits add up exactly
+  private static final long TOKEN = 1000;
+
+  private final NanoClock clock;
+  private final boolean enabled;
+  private final long depositPerSuccess;
+  private final long maxBalance;
+  // How long it takes to earn a thousandth of a token with the time-based refill. 0 if disabled.
+  private final long nanosPerUnit;
+
+  private final AtomicLong balance;
+  private final AtomicLong lastRefillNanos;
+
+  public RetryBudget(InternalDriverContext context) {
+    this(context, System::nanoTime);
+  }
+
+  @VisibleForTesting
+  RetryBudget(InternalDriverContext context, NanoClock clock) {
+    this.clock = clock;
+    DriverExecutionProfile config = context.getConfig().getDefaultProfile();
+    this.enabled = config.getBoolean(DefaultDriverOption.RETRY_BUDGET_ENABLED, false);
+    if (enabled) {
+      double ratio = config.getDouble(DefaultDriverOption.RETRY_BUDGET_RATIO, 0.1);
+      if (ratio < 0) {
+        throw new IllegalArgumentException(
+            String.format(
+                "%s must be positive or 0, got %s",
+                DefaultDriverOption.RETRY_BUDGET_RATIO.getPath(), ratio));
+      }
+      this.depositPerSuccess = Math.round(ratio * TOKEN);
+      int minPerSecond = config.getInt(DefaultDriverOption.RETRY_BUDGET_MIN_PER_SECOND, 10);
+      this.nanosPerUnit =
+          (minPerSecond <= 0)
+              ? 0
+              : Math.max(1, TimeUnit.SECONDS.toNanos(1) / (minPerSecond * TOKEN));
+      int maxTokens = config.getInt(DefaultDriverOption.RETRY_BUDGET_MAX_TOKENS, 100);
+      if (maxTokens < 1) {
+        throw new IllegalArgumentException(
+            String.format(
+                "%s must be at least 1, got %d",
+                DefaultDriverOption.RETRY_BUDGET_MAX_TOKENS.getPath(), maxTokens));
+      }
+      this.maxBalance = maxTokens * TOKEN;
+      LOG.debug(
+          "[{}] Retry budget: ratio = {}, minRetriesPerSecond = {}, maxTokens = {}",
+          context.getSessionName(),
+          ratio,
+          minPerSecond,
+          maxTokens);
+    } else {
+      this.depositPerSuccess = 0;
+      this.nanosPerUnit = 0;
+      this.maxBalance = 0;
+    }
+    // Start full, so that a new session can retry right away
+    this.balance = new AtomicLong(maxBalance);
+    this.lastRefillNanos = new AtomicLong(clock.nanoTime());
+  }
+
+  /**
+   * Whether the budget is enabled. If not, {@link #tryAcquire()} always succeeds, and callers can
+   * skip the budget altogether.
+   */
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /** Notifies the budget that a request completed successfully. */
+  public void onSuccess() {
+    if (enabled) {
+      deposit(depositPerSuccess);
+    }
+  }
+
+  /**
+   * Tries to withdraw a token for a retry or a speculative execution.
+   *
+   * @return whether the retry or speculative execution can proceed.
+   */
+  public boolean tryAcquire() {
+    if (!enabled) {
+      return true;
+    }
+    refill();
+    while (true) {
+      long current = balance.get();
+      if (current < TOKEN) {
+        return false;
+      } else if (balance.compareAndSet(current, current - TOKEN)) {
+        return true;
+      }
+    }
+  }
+
+  /** The number of tokens currently available (exposed by the retry-budget.tokens metric). */
+  public double getAvailableTokens() {
+    if (!enabled) {
+      return 0;
+    }
+    refill();
+    return (double) balance.get() / TOKEN;
+  }
+
+  private void refill() {
+    if (nanosPerUnit == 0) {
+      return;
+    }
+    long now = clock.nanoTime();
+    long last = lastRefillNanos.get();
+    long units = (now - last) / nanosPerUnit;
+    // Only advance by the time that was converted into tokens, to avoid losing the remainder
+    if (units > 0 && lastRefillNanos.compareAndSet(last, last + units * nanosPerUnit)) {
+      deposit(units);
+    }
+  }
+
+  private void deposit(long amount) {
+    while (true) {
+      long current = balance.get();
+      long next = Math.min(maxBalance, current + amount);
+      if (next == current || balance.compareAndSet(current, next)) {
+        return;
+      }
+    }
+  }
+}
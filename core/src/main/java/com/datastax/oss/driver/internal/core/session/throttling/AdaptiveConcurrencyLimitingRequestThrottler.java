@@ -0,0 +1,354 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.driver.internal.core.session.throttling;
+
+import com.datastax.oss.driver.api.core.AllNodesFailedException;
+import com.datastax.oss.driver.api.core.config.DefaultDriverOption;
+import com.datastax.oss.driver.api.core.config.DriverExecutionProfile;
+import com.datastax.oss.driver.api.core.context.DriverContext;
+import com.datastax.oss.driver.api.core.metrics.DefaultSessionMetric;
+import com.datastax.oss.driver.api.core.servererrors.OverloadedException;
+import com.datastax.oss.driver.api.core.servererrors.ReadTimeoutException;
+import com.datastax.oss.driver.api.core.servererrors.WriteTimeoutException;
+import com.datastax.oss.driver.api.core.session.throttling.Throttled;
+import com.datastax.oss.driver.shaded.guava.common.annotations.VisibleForTesting;
+import com.datastax.oss.driver.shaded.guava.common.base.Preconditions;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import net.jcip.annotations.ThreadSafe;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A request throttler that limits the number of concurrent requests, and adjusts that limit based
+ * on observed latencies.
+ *
+ * <p>To activate this throttler, modify the {@code advanced.throttler} section in the driver
+ * configuration, for example:
+ *
+ * <pre>
+ * datastax-java-driver {
+ *   advanced.throttler {
+ *     class = AdaptiveConcurrencyLimitingRequestThrottler
+ *     max-queue-size = 10000
+ *     adaptive {
+ *       min-concurrent-requests = 16
+ *       max-concurrent-requests = 10000
+ *       latency-tolerance = 2.0
+ *       backoff-ratio = 0.9
+ *       baseline-window = 1 minute
+ *     }
+ *   }
+ * }
+ * </pre>
+ *
+ * See {@code reference.conf} (in the manual or core driver JAR) for more details.
+ *
+ * <p>Queuing works exactly like {@link ConcurrencyLimitingRequestThrottler}; the difference is how
+ * the limit is chosen. The throttler measures the latency of each request, from the moment it
+ * becomes active until it completes (the time spent in the queue is excluded, otherwise throttling
+ * would feed back into itself). It maintains two moving averages of those latencies: a short-term
+ * one that reflects the current state of the cluster, and a baseline that moves slowly, and
+ * approximates the latency under normal load. At most once per round trip (as estimated by the
+ * short-term average), it adjusts the limit:
+ *
+ * <ul>
+ *   <li>if the short-term average exceeds the baseline by more than {@code latency-tolerance}, or
+ *       if an active request timed out, or failed with an overloaded or server-side timeout error
+ *       since the last adjustment, requests are queuing up on the server side: the limit is
+ *       multiplied by {@code backoff-ratio};
+ *   <li>otherwise, if at least half of the current limit is in use, the limit grows by its square
+ *       root (so that it increases quickly when it's small, and cautiously when it's large);
+ *   <li>otherwise, there is no evidence that more concurrency would be used, and the limit stays
+ *       the same.
+ * </ul>
+ *
+ * The limit always stays between {@code min-concurrent-requests} (which is also its initial value)
+ * and {@code max-concurrent-requests}.
+ *
+ * <p>Only successful requests are used as latency samples: errors are often returned faster than
+ * regular responses, precisely when the cluster is struggling, so they would make the latency look
+ * better than it is.
+ *
+ * <p>To keep the overhead low under high concurrency, at most 128 requests are sampled at the same
+ * time; the others are only counted. Statistics are updated without blocking: if a thread is
+ * already updating them when a request completes, that request's sample is discarded. Both only
+ * happen under heavy load, where there are plenty of other samples.
+ *
+ * <p>The current limit is exposed by the {@link DefaultSessionMetric#THROTTLING_CONCURRENCY_LIMIT}
+ * metric.
+ */
+@ThreadSafe
+public class AdaptiveConcurrencyLimitingRequestThrottler
+    extends ConcurrencyLimitingRequestThrottler {
+
+  private static final Logger LOG =
+      LoggerFactory.getLogger(AdaptiveConcurrencyLimitingRequestThrottler.class);
+
+  // The weight of the most recent sample in the short-term latency average
+  private static final double ALPHA = 0.1;
+
+  private static final int MAX_SAMPLED_REQUESTS = 128;
+
+  private final String logPrefix;
+  private final NanoClock clock;
+  private final int minConcurrentRequests;
+  private final int maxConcurrentRequests;
+  private final double latencyTolerance;
+  private final double backoffRatio;
+  private final long baselineWindowNanos;
+
+  // The start times of the requests that are currently sampled
+  private final ConcurrentMap<Throttled, Long> startTimes = new ConcurrentHashMap<>();
+  private final AtomicInteger sampledRequests = new AtomicInteger();
+  private volatile int limit;
+  private volatile boolean backoffRequested;
+
+  // The statistics are only accessed by the thread that holds this flag
+  private final AtomicBoolean updating = new AtomicBoolean();
+  private double shortLatencyNanos;
+  private double baselineLatencyNanos;
+  private long lastSampleNanos;
+  private long nextAdjustmentNanos;
+
+  @SuppressWarnings("unused")
+  public AdaptiveConcurrencyLimitingRequestThrottler(DriverContext context) {
+    this(context, System::nanoTime);
+  }
+
+  @VisibleForTesting
+  AdaptiveConcurrencyLimitingRequestThrottler(DriverContext context, NanoClock clock) {
+    this(context, context.getConfig().getDefaultProfile(), clock);
+  }
+
+  private AdaptiveConcurrencyLimitingRequestThrottler(
+      DriverContext context, DriverExecutionProfile config, NanoClock clock) {
+    super(
+        context,
+        config.getInt(DefaultDriverOption.REQUEST_THROTTLER_ADAPTIVE_MIN_CONCURRENT_REQUESTS),
+        config.getInt(DefaultDriverOption.REQUEST_THROTTLER_MAX_QUEUE_SIZE));
+    this.logPrefix = context.getSessionName();
+    this.clock = clock;
+    this.minConcurrentRequests =
+        config.getInt(DefaultDriverOption.REQUEST_THROTTLER_ADAPTIVE_MIN_CONCURRENT_REQUESTS);
+    this.maxConcurrentRequests =
+        config.getInt(DefaultDriverOption.REQUEST_THROTTLER_ADAPTIVE_MAX_CONCURRENT_REQUESTS);
+    this.latencyTolerance =
+        config.getDouble(DefaultDriverOption.REQUEST_THROTTLER_ADAPTIVE_LATENCY_TOLERANCE);
+    this.backoffRatio =
+        config.getDouble(DefaultDriverOption.REQUEST_THROTTLER_ADAPTIVE_BACKOFF_RATIO);
+    this.baselineWindowNanos =
+        config
+            .getDuration(DefaultDriverOption.REQUEST_THROTTLER_ADAPTIVE_BASELINE_WINDOW)
+            .toNanos();
+
+    Preconditions.checkArgument(
+        minConcurrentRequests > 0,
+        "%s must be strictly positive (got %s)",
+        DefaultDriverOption.REQUEST_THROTTLER_ADAPTIVE_MIN_CONCURRENT_REQUESTS.getPath(),
+        minConcurrentRequests);
+    Preconditions.checkArgument(
+        maxConcurrentRequests >= minConcurrentRequests,
+        "%s must be greater than or equal to %s (got %s and %s)",
+        DefaultDriverOption.REQUEST_THROTTLER_ADAPTIVE_MAX_CONCURRENT_REQUESTS.getPath(),
+        DefaultDriverOption.REQUEST_THROTTLER_ADAPTIVE_MIN_CONCURRENT_REQUESTS.getPath(),
+        maxConcurrentRequests,
+        minConcurrentRequests);
+    Preconditions.checkArgument(
+        latencyTolerance > 1,
+        "%s must be greater than 1 (got %s)",
+        DefaultDriverOption.REQUEST_THROTTLER_ADAPTIVE_LATENCY_TOLERANCE.getPath(),
+        latencyTolerance);
+    Preconditions.checkArgument(
+        backoffRatio > 0 && backoffRatio < 1,
+        "%s must be strictly between 0 and 1 (got %s)",
+        DefaultDriverOption.REQUEST_THROTTLER_ADAPTIVE_BACKOFF_RATIO.getPath(),
+        backoffRatio);
+    Preconditions.checkArgument(
+        baselineWindowNanos > 0,
+        "%s must be strictly positive",
+        DefaultDriverOption.REQUEST_THROTTLER_ADAPTIVE_BASELINE_WINDOW.getPath());
+
+    this.limit = minConcurrentRequests;
+    this.lastSampleNanos = clock.nanoTime();
+    LOG.debug(
+        "[{}] Adaptive limit between {} and {}, latency tolerance = {}, backoff ratio = {}",
+        logPrefix,
+        minConcurrentRequests,
+        maxConcurrentRequests,
+        latencyTolerance,
+        backoffRatio);
+  }
+
+  @Override
+  public int getMaxConcurrentRequests() {
+    return limit;
+  }
+
+  @Override
+  protected void startRequest(@NonNull Throttled request, boolean wasDelayed) {
+    // Racy check, the bound can be exceeded slightly but that's not an issue
+    if (sampledRequests.get() < MAX_SAMPLED_REQUESTS) {
+      sampledRequests.incrementAndGet();
+      startTimes.put(request, clock.nanoTime());
+    }
+    super.startRequest(request, wasDelayed);
+  }
+
+  @Override
+  public void signalSuccess(@NonNull Throttled request) {
+    Long start = removeStartTime(request);
+    super.signalSuccess(request);
+    if (start != null) {
+      long now = clock.nanoTime();
+      update(now - start, now);
+    }
+  }
+
+  @Override
+  public void signalError(@NonNull Throttled request, @NonNull Throwable error) {
+    boolean wasSampled = removeStartTime(request) != null;
+    super.signalError(request, error);
+    // Not a latency sample, but some errors indicate that we should back off
+    if (wasSampled && isBackoffError(error)) {
+      backoffRequested = true;
+      update(-1, clock.nanoTime());
+    }
+  }
+
+  @Override
+  public void signalTimeout(@NonNull Throttled request) {
+    // A request that timed out in the queue was never sent, it says nothing about the cluster
+    boolean wasActive = removeStartTime(request) != null;
+    super.signalTimeout(request);
+    if (wasActive) {
+      backoffRequested = true;
+      update(-1, clock.nanoTime());
+    }
+  }
+
+  private Long removeStartTime(Throttled request) {
+    Long start = startTimes.remove(request);
+    if (start != null) {
+      sampledRequests.decrementAndGet();
+    }
+    return start;
+  }
+
+  private static boolean isBackoffError(Throwable error) {
+    if (error instanceof AllNodesFailedException) {
+      // The retry policy tried other nodes, check what happened on each of them
+      for (List<Throwable> nodeErrors : ((AllNodesFailedException) error).getAllErrors().values()) {
+        for (Throwable nodeError : nodeErrors) {
+          if (isBackoffError(nodeError)) {
+            return true;
+          }
+        }
+      }
+      return false;
+    }
+    return error instanceof OverloadedException
+        || error instanceof ReadTimeoutException
+        || error instanceof WriteTimeoutException;
+  }
+
+  @Override
+  public void close() {
+    super.close();
+    startTimes.clear();
+    sampledRequests.set(0);
+  }
+
+  /**
+   * Records a new latency sample (if it is positive), and adjusts the limit if a round trip has
+   * elapsed since the previous adjustment.
+   */
+  private void update(long latencyNanos, long now) {
+    if (!updating.compareAndSet(false, true)) {
+      return;
+    }
+    try {
+      if (latencyNanos >= 0) {
+        recordLatency(latencyNanos, now);
+      }
+      if (shortLatencyNanos == 0 || now - nextAdjustmentNanos < 0) {
+        return;
+      }
+      nextAdjustmentNanos = now + (long) shortLatencyNanos;
+
+      int current = limit;
+      int next;
+      if (backoffRequested || shortLatencyNanos > baselineLatencyNanos * latencyTolerance) {
+        backoffRequested = false;
+        next = Math.max(minConcurrentRequests, (int) (current * backoffRatio));
+      } else if (getConcurrentRequests() * 2 >= current) {
+        int increment = Math.max(1, (int) Math.sqrt(current));
+        next = (int) Math.min(maxConcurrentRequests, (long) current + increment);
+      } else {
+        next = current;
+      }
+      if (next != current) {
+        LOG.trace(
+            "[{}] Adjusting concurrency limit from {} to {} "
+                + "(short-term latency = {} ns, baseline = {} ns)",
+            logPrefix,
+            current,
+            next,
+            (long) shortLatencyNanos,
+            (long) baselineLatencyNanos);
+        limit = next;
+        if (next > current) {
+          drain();
+        }
+      }
+    } finally {
+      updating.set(false);
+    }
+  }
+
+  private void recordLatency(long latencyNanos, long now) {
+    if (shortLatencyNanos == 0) {
+      shortLatencyNanos = latencyNanos;
+      baselineLatencyNanos = latencyNanos;
+      nextAdjustmentNanos = now;
+    } else {
+      shortLatencyNanos += ALPHA * (latencyNanos - shortLatencyNanos);
+      if (shortLatencyNanos <= baselineLatencyNanos) {
+        // The baseline follows improvements immediately, but degradations only slowly
+        baselineLatencyNanos = shortLatencyNanos;
+      } else {
+        long elapsed = Math.max(0, now - lastSampleNanos);
+        double weight = 1 - Math.exp(-(double) elapsed / baselineWindowNanos);
+        baselineLatencyNanos += weight * (shortLatencyNanos - baselineLatencyNanos);
+      }
+    }
+    lastSampleNanos = now;
+  }
+
+  @VisibleForTesting
+  double getShortLatencyNanos() {
+    return shortLatencyNanos;
+  }
+
+  @VisibleForTesting
+  double getBaselineLatencyNanos() {
+    return baselineLatencyNanos;
+  }
+}
@@ -17,16 +17,14 @@ package com.datastax.oss.driver.internal.core.session.throttling;
 
 import com.datastax.oss.driver.api.core.RequestThrottlingException;
 import com.datastax.oss.driver.api.core.config.DefaultDriverOption;
-import com.datastax.oss.driver.api.core.config.DriverExecutionProfile;
 import com.datastax.oss.driver.api.core.context.DriverContext;
 import com.datastax.oss.driver.api.core.session.throttling.RequestThrottler;
 import com.datastax.oss.driver.api.core.session.throttling.Throttled;
 import com.datastax.oss.driver.shaded.guava.common.annotations.VisibleForTesting;
 import edu.umd.cs.findbugs.annotations.NonNull;
-import java.util.ArrayDeque;
 import java.util.Deque;
-import java.util.concurrent.locks.ReentrantLock;
-import net.jcip.annotations.GuardedBy;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicInteger;
 import net.jcip.annotations.ThreadSafe;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -48,6 +46,13 @@ import org.slf4j.LoggerFactory;
  * </pre>
  *
  * See {@code reference.conf} (in the manual or core driver JAR) for more details.
+ *
+ * <p>This implementation is lock-free: the counters are updated with CAS operations, and queued
+ * requests are held in a concurrent deque. Whenever a request is enqueued or completes, the current
+ * thread tries to start queued requests, as long as there is capacity; this guarantees that a
+ * request can't remain in the queue while the concurrency limit is not reached. The only difference
+ * with a lock-based implementation is that a newly registered request might occasionally start
+ * ahead of a request that is being enqueued concurrently.
  */
 @ThreadSafe
 public class ConcurrencyLimitingRequestThrottler implements RequestThrottler {
@@ -59,23 +64,36 @@ public class ConcurrencyLimitingRequestThrottler implements RequestThrottler {
   private final int maxConcurrentRequests;
   private final int maxQueueSize;
 
-  private final ReentrantLock lock = new ReentrantLock();
-
-  @GuardedBy("lock")
-  private int concurrentRequests;
-
-  @GuardedBy("lock")
-  private Deque<Throttled> queue = new ArrayDeque<>();
-
-  @GuardedBy("lock")
-  private boolean closed;
+  private final AtomicInteger concurrentRequests = new AtomicInteger();
+  // Tracked separately because ConcurrentLinkedDeque.size() is not a constant-time operation
+  private final AtomicInteger queueSize = new AtomicInteger();
+  private final Deque<Throttled> queue = new ConcurrentLinkedDeque<>();
+  private volatile boolean closed;
 
   public ConcurrencyLimitingRequestThrottler(DriverContext context) {
+    this(
+        context,
+        context
+            .getConfig()
+            .getDefaultProfile()
+            .getInt(DefaultDriverOption.REQUEST_THROTTLER_MAX_CONCURRENT_REQUESTS),
+        context
+            .getConfig()
+            .getDefaultProfile()
+            .getInt(DefaultDriverOption.REQUEST_THROTTLER_MAX_QUEUE_SIZE));
+  }
+
+  /**
+   * Constructor for subclasses that compute the limits differently.
+   *
+   * @param maxConcurrentRequests the value returned by {@link #getMaxConcurrentRequests()}, unless
+   *     it is overridden.
+   */
+  protected ConcurrencyLimitingRequestThrottler(
+      DriverContext context, int maxConcurrentRequests, int maxQueueSize) {
     this.logPrefix = context.getSessionName();
-    DriverExecutionProfile config = context.getConfig().getDefaultProfile();
-    this.maxConcurrentRequests =
-        config.getInt(DefaultDriverOption.REQUEST_THROTTLER_MAX_CONCURRENT_REQUESTS);
-    this.maxQueueSize = config.getInt(DefaultDriverOption.REQUEST_THROTTLER_MAX_QUEUE_SIZE);
+    this.maxConcurrentRequests = maxConcurrentRequests;
+    this.maxQueueSize = maxQueueSize;
     LOG.debug(
         "[{}] Initializing with maxConcurrentRequests = {}, maxQueueSize = {}",
         logPrefix,
@@ -85,119 +103,149 @@ public class ConcurrencyLimitingRequestThrottler implements RequestThrottler {
 
   @Override
   public void register(@NonNull Throttled request) {
-    lock.lock();
-    try {
-      if (closed) {
-        LOG.trace("[{}] Rejecting request after shutdown", logPrefix);
+    if (closed) {
+      LOG.trace("[{}] Rejecting request after shutdown", logPrefix);
+      fail(request, "The session is shutting down");
+    } else if (queue.isEmpty() && tryAcquire()) {
+      // We have capacity for one more concurrent request
+      LOG.trace("[{}] Starting newly registered request", logPrefix);
+      startRequest(request, false);
+    } else if (tryReserveQueueSlot()) {
+      LOG.trace("[{}] Enqueuing request", logPrefix);
+      queue.add(request);
+      if (closed && queue.remove(request)) {
+        // close() was called concurrently, and might have missed this request
+        queueSize.decrementAndGet();
         fail(request, "The session is shutting down");
-      } else if (queue.isEmpty() && concurrentRequests < maxConcurrentRequests) {
-        // We have capacity for one more concurrent request
-        LOG.trace("[{}] Starting newly registered request", logPrefix);
-        concurrentRequests += 1;
-        request.onThrottleReady(false);
-      } else if (queue.size() < maxQueueSize) {
-        LOG.trace("[{}] Enqueuing request", logPrefix);
-        queue.add(request);
       } else {
-        LOG.trace("[{}] Rejecting request because of full queue", logPrefix);
-        fail(
-            request,
-            String.format(
-                "The session has reached its maximum capacity "
-                    + "(concurrent requests: %d, queue size: %d)",
-                maxConcurrentRequests, maxQueueSize));
+        // Capacity might have been released between tryAcquire() and add()
+        drain();
       }
-    } finally {
-      lock.unlock();
+    } else {
+      LOG.trace("[{}] Rejecting request because of full queue", logPrefix);
+      fail(
+          request,
+          String.format(
+              "The session has reached its maximum capacity "
+                  + "(concurrent requests: %d, queue size: %d)",
+              getMaxConcurrentRequests(), maxQueueSize));
     }
   }
 
   @Override
   public void signalSuccess(@NonNull Throttled request) {
-    lock.lock();
-    try {
-      onRequestDone();
-    } finally {
-      lock.unlock();
-    }
+    onRequestDone();
   }
 
   @Override
   public void signalError(@NonNull Throttled request, @NonNull Throwable error) {
-    signalSuccess(request); // not treated differently
+    onRequestDone(); // not treated differently
   }
 
   @Override
   public void signalTimeout(@NonNull Throttled request) {
-    lock.lock();
-    try {
-      if (!closed) {
-        if (queue.remove(request)) { // The request timed out before it was active
-          LOG.trace("[{}] Removing timed out request from the queue", logPrefix);
-        } else {
-          onRequestDone();
-        }
+    if (!closed) {
+      if (queue.remove(request)) { // The request timed out before it was active
+        LOG.trace("[{}] Removing timed out request from the queue", logPrefix);
+        queueSize.decrementAndGet();
+      } else {
+        onRequestDone();
       }
-    } finally {
-      lock.unlock();
     }
   }
 
-  @SuppressWarnings("GuardedBy") // this method is only called with the lock held
   private void onRequestDone() {
-    assert lock.isHeldByCurrentThread();
     if (!closed) {
-      if (queue.isEmpty()) {
-        concurrentRequests -= 1;
+      concurrentRequests.decrementAndGet();
+      drain();
+    }
+  }
+
+  private boolean tryAcquire() {
+    while (true) {
+      int current = concurrentRequests.get();
+      if (current >= getMaxConcurrentRequests()) {
+        return false;
+      } else if (concurrentRequests.compareAndSet(current, current + 1)) {
+        return true;
+      }
+    }
+  }
+
+  private boolean tryReserveQueueSlot() {
+    while (true) {
+      int current = queueSize.get();
+      if (current >= maxQueueSize) {
+        return false;
+      } else if (queueSize.compareAndSet(current, current + 1)) {
+        return true;
+      }
+    }
+  }
+
+  /**
+   * Starts queued requests, as long as there is capacity.
+   *
+   * <p>This is invoked automatically when a request is enqueued or completes. Subclasses that raise
+   * {@link #getMaxConcurrentRequests()} must call it as well.
+   */
+  protected void drain() {
+    while (!closed && !queue.isEmpty() && tryAcquire()) {
+      Throttled request = queue.poll();
+      if (request == null) {
+        // Another thread emptied the queue in the meantime. Give back the slot; the loop condition
+        // re-checks the queue, in case a request was added after our poll.
+        concurrentRequests.decrementAndGet();
       } else {
+        queueSize.decrementAndGet();
         LOG.trace("[{}] Starting dequeued request", logPrefix);
-        queue.poll().onThrottleReady(true);
-        // don't touch concurrentRequests since we finished one but started another
+        startRequest(request, true);
       }
     }
   }
 
+  /**
+   * Lets a request proceed, once it has acquired a slot. Subclasses can override this to observe
+   * the moment when requests become active, but they must call the parent implementation.
+   */
+  protected void startRequest(@NonNull Throttled request, boolean wasDelayed) {
+    request.onThrottleReady(wasDelayed);
+  }
+
   @Override
   public void close() {
-    lock.lock();
-    try {
-      closed = true;
-      LOG.debug("[{}] Rejecting {} queued requests after shutdown", logPrefix, queue.size());
-      for (Throttled request : queue) {
-        fail(request, "The session is shutting down");
-      }
-    } finally {
-      lock.unlock();
+    closed = true;
+    LOG.debug("[{}] Rejecting {} queued requests after shutdown", logPrefix, queueSize.get());
+    Throttled request;
+    while ((request = queue.poll()) != null) {
+      queueSize.decrementAndGet();
+      fail(request, "The session is shutting down");
     }
   }
 
+  /**
+   * The maximum number of requests that are allowed to execute in parallel.
+   *
+   * <p>This is read every time a request tries to start, so subclasses can override it to adjust
+   * the limit dynamically. If the limit goes down, active requests are not interrupted, but no new
+   * request will start until the active count drops below the new value.
+   */
+  public int getMaxConcurrentRequests() {
+    return maxConcurrentRequests;
+  }
+
   public int getQueueSize() {
-    lock.lock();
-    try {
-      return queue.size();
-    } finally {
-      lock.unlock();
-    }
+    return queueSize.get();
   }
 
-  @VisibleForTesting
-  int getConcurrentRequests() {
-    lock.lock();
-    try {
-      return concurrentRequests;
-    } finally {
-      lock.unlock();
-    }
+  /** The number of requests that are currently executing. */
+  protected int getConcurrentRequests() {
+    return concurrentRequests.get();
   }
 
   @VisibleForTesting
   Deque<Throttled> getQueue() {
-    lock.lock();
-    try {
-      return queue;
-    } finally {
-      lock.unlock();
-    }
+    return queue;
   }
 
   private static void fail(Throttled request, String message) {
@@ -16,6 +16,6 @@
 package com.datastax.oss.driver.internal.core.session.throttling;
 
 /** A thin wrapper around {@link System#nanoTime()}, to simplify testing. */
-interface NanoClock {
+public interface NanoClock {
   long nanoTime();
 }
@@ -0,0 +1,179 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.driver.internal.core.session.throttling;
+
+import com.datastax.oss.driver.api.core.config.DefaultDriverOption;
+import com.datastax.oss.driver.api.core.config.DriverExecutionProfile;
+import com.datastax.oss.driver.api.core.metadata.Node;
+import com.datastax.oss.driver.internal.core.context.InternalDriverContext;
+import com.datastax.oss.driver.internal.core.metadata.NodeStateEvent;
+import com.datastax.oss.driver.internal.core.pool.ChannelPool;
+import com.datastax.oss.driver.shaded.guava.common.annotations.VisibleForTesting;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import net.jcip.annotations.ThreadSafe;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Limits the rate and concurrency of the requests sent to each individual node.
+ *
+ * <p>Unlike {@link com.datastax.oss.driver.api.core.session.throttling.RequestThrottler}, which
+ * acts on the session as a whole before a request starts, this is checked by the request handler
+ * each time it picks a node from the query plan. If the node is over its limits, the handler moves
+ * on to the next node; if all the nodes in the plan are over their limits, it may wait for one of
+ * them for a short time (see {@link #tryReserve(Node, long)}).
+ *
+ * <p>The rate is enforced with a token bucket, implemented as a <a
+ * href="https://en.wikipedia.org/wiki/Generic_cell_rate_algorithm">generic cell rate algorithm</a>:
+ * each node has a single "theoretical arrival time", that is advanced by a fixed interval for every
+ * request, and updated with a CAS. The concurrency limit is checked against the number of in-flight
+ * requests on the node's connection pool, so it doesn't need any extra bookkeeping when requests
+ * complete.
+ *
+ * <p>This component is configured in the {@code advanced.throttler.per-node} section, and disabled
+ * by default.
+ */
+@ThreadSafe
+public class NodeRequestLimiter {
+
+  private static final Logger LOG = LoggerFactory.getLogger(NodeRequestLimiter.class);
+
+  private final InternalDriverContext context;
+  private final NanoClock clock;
+  private final boolean enabled;
+  // 0 if the rate is not limited
+  private final long intervalNanos;
+  private final long burstNanos;
+  // 0 if the concurrency is not limited
+  private final int maxConcurrentRequests;
+  private final long maxQueueDelayNanos;
+
+  private final ConcurrentMap<Node, AtomicLong> arrivalTimes = new ConcurrentHashMap<>();
+
+  public NodeRequestLimiter(InternalDriverContext context) {
+    this(context, System::nanoTime);
+  }
+
+  @VisibleForTesting
+  NodeRequestLimiter(InternalDriverContext context, NanoClock clock) {
+    this.context = context;
+    this.clock = clock;
+    DriverExecutionProfile config = context.getConfig().getDefaultProfile();
+    this.enabled = config.getBoolean(DefaultDriverOption.REQUEST_THROTTLER_PER_NODE_ENABLED);
+    if (enabled) {
+      int maxRequestsPerSecond =
+          config.getInt(DefaultDriverOption.REQUEST_THROTTLER_PER_NODE_MAX_REQUESTS_PER_SECOND);
+      this.intervalNanos =
+          (maxRequestsPerSecond <= 0) ? 0 : TimeUnit.SECONDS.toNanos(1) / maxRequestsPerSecond;
+      int maxBurst =
+          Math.max(1, config.getInt(DefaultDriverOption.REQUEST_THROTTLER_PER_NODE_MAX_BURST));
+      this.burstNanos = intervalNanos * maxBurst;
+      this.maxConcurrentRequests =
+          config.getInt(DefaultDriverOption.REQUEST_THROTTLER_PER_NODE_MAX_CONCURRENT_REQUESTS);
+      this.maxQueueDelayNanos =
+          config
+              .getDuration(DefaultDriverOption.REQUEST_THROTTLER_PER_NODE_MAX_QUEUE_DELAY)
+              .toNanos();
+      LOG.debug(
+          "[{}] Per-node limits: maxRequestsPerSecond = {}, maxBurst = {}, "
+              + "maxConcurrentRequests = {}, maxQueueDelay = {} ns",
+          context.getSessionName(),
+          maxRequestsPerSecond,
+          maxBurst,
+          maxConcurrentRequests,
+          maxQueueDelayNanos);
+      context.getEventBus().register(NodeStateEvent.class, this::onNodeStateEvent);
+    } else {
+      this.intervalNanos = 0;
+      this.burstNanos = 0;
+      this.maxConcurrentRequests = 0;
+      this.maxQueueDelayNanos = 0;
+    }
+  }
+
+  /**
+   * Whether per-node limits are enabled. If not, the other methods always allow requests
+   * immediately, and callers can skip them altogether.
+   */
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /** How long a request can wait for a node, once all the nodes in its query plan were skipped. */
+  public long getMaxQueueDelayNanos() {
+    return maxQueueDelayNanos;
+  }
+
+  /**
+   * Tries to send a request to the given node right now.
+   *
+   * @return whether the request can proceed. If so, the permit is consumed.
+   */
+  public boolean tryAcquire(@NonNull Node node) {
+    return tryReserve(node, 0) == 0;
+  }
+
+  /**
+   * Tries to reserve a permit to send a request to the given node within the given delay.
+   *
+   * <p>If this succeeds, the caller must send the request after the returned delay, without
+   * checking the limits again. Note that only the rate can be waited for: if the node is over its
+   * concurrency limit, there is no way to predict when it will have capacity again, so this method
+   * fails immediately.
+   *
+   * @return the delay (in nanoseconds) after which the request can proceed, or a negative value if
+   *     that would exceed {@code maxDelayNanos}.
+   */
+  public long tryReserve(@NonNull Node node, long maxDelayNanos) {
+    if (!enabled) {
+      return 0;
+    }
+    if (maxConcurrentRequests > 0 && getInFlight(node) >= maxConcurrentRequests) {
+      return -1;
+    }
+    if (intervalNanos == 0) {
+      return 0;
+    }
+    AtomicLong arrivalTime =
+        arrivalTimes.computeIfAbsent(node, n -> new AtomicLong(clock.nanoTime()));
+    while (true) {
+      long now = clock.nanoTime();
+      long current = arrivalTime.get();
+      long next = ((current - now < 0) ? now : current) + intervalNanos;
+      long delay = next - now - burstNanos;
+      if (delay > maxDelayNanos) {
+        return -1;
+      } else if (arrivalTime.compareAndSet(current, next)) {
+        return Math.max(0, delay);
+      }
+    }
+  }
+
+  private void onNodeStateEvent(NodeStateEvent event) {
+    if (event.newState == null) { // the node was removed from the cluster
+      arrivalTimes.remove(event.node);
+    }
+  }
+
+  private int getInFlight(Node node) {
+    ChannelPool pool = context.getPoolManager().getPools().get(node);
+    return (pool == null) ? 0 : pool.getInFlight();
+  }
+}
@@ -0,0 +1,302 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.driver.internal.core.specex;
+
+import com.datastax.dse.driver.internal.core.tracker.MultiplexingRequestTracker;
+import com.datastax.oss.driver.api.core.CqlIdentifier;
+import com.datastax.oss.driver.api.core.config.DefaultDriverOption;
+import com.datastax.oss.driver.api.core.config.DriverExecutionProfile;
+import com.datastax.oss.driver.api.core.context.DriverContext;
+import com.datastax.oss.driver.api.core.metadata.Node;
+import com.datastax.oss.driver.api.core.session.Request;
+import com.datastax.oss.driver.api.core.specex.SpeculativeExecutionPolicy;
+import com.datastax.oss.driver.api.core.tracker.RequestTracker;
+import com.datastax.oss.driver.internal.core.context.InternalDriverContext;
+import com.datastax.oss.driver.internal.core.metadata.NodeStateEvent;
+import com.datastax.oss.driver.internal.core.metrics.LatencyHistogram;
+import com.datastax.oss.driver.internal.core.metrics.LatencySnapshot;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import net.jcip.annotations.Immutable;
+import net.jcip.annotations.ThreadSafe;
+
+/**
+ * A policy that schedules speculative executions when a request has been running for longer than a
+ * given percentile of the recently observed latencies.
+ *
+ * <p>To activate this policy, modify the {@code advanced.speculative-execution-policy} section in
+ * the driver configuration, for example:
+ *
+ * <pre>
+ * datastax-java-driver {
+ *   advanced.speculative-execution-policy {
+ *     class = PercentileSpeculativeExecutionPolicy
+ *     max-executions = 2
+ *     percentile = 99.0
+ *   }
+ * }
+ * </pre>
+ *
+ * See {@code reference.conf} (in the manual or core driver JAR) for more details.
+ *
+ * <p>Latencies are collected by registering this policy as a {@link RequestTracker}; only the
+ * successful responses of the requests that use this policy are recorded. They are aggregated in
+ * {@link LatencyHistogram}s (either one per node, or one for the whole profile), and the delay is
+ * the configured percentile of the last complete interval. As long as an interval contains fewer
+ * than {@code min-samples} latencies, no speculative executions are scheduled.
+ *
+ * <p>In addition, the fraction of requests that start a speculative execution is capped by {@code
+ * max-ratio}: when a node slows down, the percentile only catches up at the end of the interval,
+ * and this prevents the policy from doubling the load on the cluster in the meantime.
+ */
+@ThreadSafe
+public class PercentileSpeculativeExecutionPolicy
+    implements SpeculativeExecutionPolicy, RequestTracker {
+
+  private final DriverContext context;
+  private final String logPrefix;
+  private final int maxExecutions;
+  private final double quantile;
+  private final boolean perNode;
+  private final Duration interval;
+  private final Duration highestLatency;
+  private final int significantDigits;
+  private final int stripes;
+  private final long minSamples;
+  private final double maxRatio;
+
+  private final LatencyStats profileStats;
+  private final ConcurrentMap<Node, LatencyStats> nodeStats = new ConcurrentHashMap<>();
+  private final SpeculationRatio ratio;
+  private final Object stateListenerKey;
+
+  public PercentileSpeculativeExecutionPolicy(
+      @NonNull DriverContext context, @NonNull String profileName) {
+    this.context = context;
+    this.logPrefix = context.getSessionName() + "|" + profileName;
+    DriverExecutionProfile config = context.getConfig().getProfile(profileName);
+
+    this.maxExecutions = config.getInt(DefaultDriverOption.SPECULATIVE_EXECUTION_MAX);
+    if (this.maxExecutions < 1) {
+      throw new IllegalArgumentException("Max must be at least 1");
+    }
+    double percentile =
+        config.getDouble(DefaultDriverOption.SPECULATIVE_EXECUTION_PERCENTILE, 99.0);
+    if (percentile <= 0 || percentile >= 100) {
+      throw new IllegalArgumentException("Percentile must be strictly between 0 and 100");
+    }
+    this.quantile = percentile / 100;
+    String scope = config.getString(DefaultDriverOption.SPECULATIVE_EXECUTION_SCOPE, "NODE");
+    switch (scope.trim().toUpperCase(Locale.ROOT)) {
+      case "NODE":
+        this.perNode = true;
+        break;
+      case "PROFILE":
+        this.perNode = false;
+        break;
+      default:
+        throw new IllegalArgumentException(
+            String.format(
+                "Unknown value for %s: %s (expected NODE or PROFILE)",
+                DefaultDriverOption.SPECULATIVE_EXECUTION_SCOPE.getPath(), scope));
+    }
+    this.interval =
+        config.getDuration(
+            DefaultDriverOption.SPECULATIVE_EXECUTION_INTERVAL, Duration.ofSeconds(30));
+    this.highestLatency =
+        config.getDuration(
+            DefaultDriverOption.SPECULATIVE_EXECUTION_HIGHEST_LATENCY, Duration.ofSeconds(3));
+    this.significantDigits =
+        config.getInt(DefaultDriverOption.SPECULATIVE_EXECUTION_SIGNIFICANT_DIGITS, 3);
+    this.minSamples = config.getInt(DefaultDriverOption.SPECULATIVE_EXECUTION_MIN_SAMPLES, 100);
+    this.maxRatio = config.getDouble(DefaultDriverOption.SPECULATIVE_EXECUTION_MAX_RATIO, 0.1);
+    if (this.maxRatio < 0) {
+      throw new IllegalArgumentException("Max ratio must be positive or 0");
+    }
+    this.stripes =
+        context
+            .getConfig()
+            .getDefaultProfile()
+            .getInt(DefaultDriverOption.METRICS_HISTOGRAMS_LOCK_FREE_STRIPES, 4);
+
+    this.profileStats = perNode ? null : new LatencyStats(logPrefix);
+    this.ratio = new SpeculationRatio(interval.toNanos());
+    this.stateListenerKey =
+        perNode
+            ? ((InternalDriverContext) context)
+                .getEventBus()
+                .register(NodeStateEvent.class, this::onNodeStateEvent)
+            : null;
+
+    // Must come last, the tracker might invoke us as soon as we're registered
+    ((MultiplexingRequestTracker) context.getRequestTracker()).register(this);
+  }
+
+  @Override
+  public long nextExecution(
+      @NonNull Node node,
+      @Nullable @SuppressWarnings("unused") CqlIdentifier keyspace,
+      @NonNull @SuppressWarnings("unused") Request request,
+      int runningExecutions) {
+    assert runningExecutions >= 1;
+    if (runningExecutions == 1) {
+      ratio.onRequest();
+    } else if (runningExecutions == 2) {
+      // The first speculative execution was just started
+      ratio.onSpeculation();
+    }
+    if (runningExecutions >= maxExecutions) {
+      return -1;
+    }
+    LatencyStats stats = perNode ? nodeStats.get(node) : profileStats;
+    if (stats == null) {
+      return -1;
+    }
+    long delayMillis = stats.getDelayMillis();
+    if (delayMillis >= 0 && runningExecutions == 1 && ratio.isAbove(maxRatio)) {
+      return -1;
+    }
+    return delayMillis;
+  }
+
+  @Override
+  public void onNodeSuccess(
+      @NonNull Request request,
+      long latencyNanos,
+      @NonNull DriverExecutionProfile executionProfile,
+      @NonNull Node node,
+      @NonNull String logPrefix) {
+    // The tracker is shared by the whole session, ignore the requests of other profiles
+    if (context.getSpeculativeExecutionPolicy(executionProfile.getName()) != this) {
+      return;
+    }
+    LatencyStats stats =
+        perNode
+            ? nodeStats.computeIfAbsent(node, n -> new LatencyStats(this.logPrefix + "|" + n))
+            : profileStats;
+    stats.histogram.record(latencyNanos, TimeUnit.NANOSECONDS);
+  }
+
+  @Override
+  public void close() {
+    if (stateListenerKey != null) {
+      ((InternalDriverContext) context)
+          .getEventBus()
+          .unregister(stateListenerKey, NodeStateEvent.class);
+    }
+  }
+
+  private void onNodeStateEvent(NodeStateEvent event) {
+    if (event.newState == null) { // the node was removed from the cluster
+      nodeStats.remove(event.node);
+    }
+  }
+
+  private class LatencyStats {
+
+    private final LatencyHistogram histogram;
+    // Computing a percentile walks the histogram's buckets, so only do it once per snapshot
+    private volatile CachedDelay cachedDelay;
+
+    private LatencyStats(String logPrefix) {
+      this.histogram =
+          new LatencyHistogram(highestLatency, significantDigits, interval, stripes, logPrefix);
+    }
+
+    private long getDelayMillis() {
+      LatencySnapshot snapshot = histogram.getSnapshot();
+      CachedDelay current = cachedDelay;
+      if (current == null || current.snapshot != snapshot) {
+        long delayMillis;
+        if (snapshot.getCount() < minSamples) {
+          delayMillis = -1;
+        } else {
+          // Round up: speculating slightly too late is better than slightly too early
+          long nanos = snapshot.getValue(quantile);
+          delayMillis = (nanos + 999_999) / 1_000_000;
+        }
+        current = new CachedDelay(snapshot, delayMillis);
+        cachedDelay = current;
+      }
+      return current.delayMillis;
+    }
+  }
+
+  @Immutable
+  private static class CachedDelay {
+    private final LatencySnapshot snapshot;
+    private final long delayMillis;
+
+    private CachedDelay(LatencySnapshot snapshot, long delayMillis) {
+      this.snapshot = snapshot;
+      this.delayMillis = delayMillis;
+    }
+  }
+
+  /**
+   * Counts requests and speculative executions over the current and previous intervals. The
+   * counters are not reset atomically, so the ratio is approximate, which is enough for a cap.
+   */
+  @ThreadSafe
+  private static class SpeculationRatio {
+
+    private final long intervalNanos;
+    private final AtomicLong intervalStart = new AtomicLong(System.nanoTime());
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder speculations = new LongAdder();
+    private volatile long previousRequests;
+    private volatile long previousSpeculations;
+
+    private SpeculationRatio(long intervalNanos) {
+      this.intervalNanos = intervalNanos;
+    }
+
+    private void onRequest() {
+      maybeRotate();
+      requests.increment();
+    }
+
+    private void onSpeculation() {
+      maybeRotate();
+      speculations.increment();
+    }
+
+    private boolean isAbove(double maxRatio) {
+      if (maxRatio >= 1) {
+        return false;
+      }
+      long requestCount = previousRequests + requests.sum();
+      long speculationCount = previousSpeculations + speculations.sum();
+      return speculationCount >= maxRatio * requestCount;
+    }
+
+    private void maybeRotate() {
+      long now = System.nanoTime();
+      long start = intervalStart.get();
+      if (now - start >= intervalNanos && intervalStart.compareAndSet(start, now)) {
+        previousRequests = requests.sumThenReset();
+        previousSpeculations = speculations.sumThenReset();
+      }
+    }
+  }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.driver.internal.core.tracker;
+
+import com.datastax.oss.driver.api.core.tracker.RequestLatencyBreakdown;
+import com.datastax.oss.driver.api.core.tracker.RequestPhase;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import net.jcip.annotations.Immutable;
+import net.jcip.annotations.NotThreadSafe;
+
+@Immutable
+public class DefaultRequestLatencyBreakdown implements RequestLatencyBreakdown {
+
+  /** The value that indicates that a timestamp was not measured. */
+  public static final long NOT_MEASURED = -1;
+
+  private static final RequestPhase[] PHASES = RequestPhase.values();
+
+  @NonNull
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  private final long[] nanos;
+
+  private DefaultRequestLatencyBreakdown(long[] nanos) {
+    this.nanos = nanos;
+  }
+
+  @Override
+  public long getNanos(@NonNull RequestPhase phase) {
+    return nanos[phase.ordinal()];
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder builder = new StringBuilder("RequestLatencyBreakdown(");
+    for (int i = 0; i < PHASES.length; i++) {
+      if (i > 0) {
+        builder.append(", ");
+      }
+      builder.append(PHASES[i]).append('=').append(nanos[i]).append("ns");
+    }
+    return builder.append(')').toString();
+  }
+
+  @NotThreadSafe
+  public static class Builder {
+
+    private final long[] nanos = new long[PHASES.length];
+
+    /**
+     * Records a phase from its start and end timestamps (as returned by {@link System#nanoTime()}).
+     * If either timestamp is {@link #NOT_MEASURED}, the phase is reported as 0.
+     */
+    @NonNull
+    public Builder withPhase(@NonNull RequestPhase phase, long startNanos, long endNanos) {
+      nanos[phase.ordinal()] =
+          (startNanos == NOT_MEASURED || endNanos == NOT_MEASURED)
+              ? 0
+              // Guard against phases that overlap (e.g. a response that is processed before the
+              // write listener was notified)
+              : Math.max(0, endNanos - startNanos);
+      return this;
+    }
+
+    @NonNull
+    public DefaultRequestLatencyBreakdown build() {
+      return new DefaultRequestLatencyBreakdown(nanos.clone());
+    }
+  }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.driver.internal.core.type.codec;
+
+import com.datastax.oss.driver.api.core.type.DataType;
+import com.datastax.oss.driver.api.core.type.codec.TypeCodecs;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.nio.ByteBuffer;
+import net.jcip.annotations.ThreadSafe;
+
+/** Maps a CQL {@code list<double>} or {@code set<double>} to a Java {@code double[]}. */
+@ThreadSafe
+public class DoubleArrayCodec extends PrimitiveArrayCodec<double[]> {
+
+  public DoubleArrayCodec(@NonNull DataType cqlType) {
+    super(cqlType, double[].class, TypeCodecs.DOUBLE, 8);
+  }
+
+  @Override
+  protected int length(@NonNull double[] array) {
+    return array.length;
+  }
+
+  @NonNull
+  @Override
+  protected double[] newArray(int length) {
+    return new double[length];
+  }
+
+  @Override
+  protected void writeElement(@NonNull ByteBuffer target, @NonNull double[] array, int i) {
+    target.putDouble(array[i]);
+  }
+
+  @Override
+  protected void readElement(
+      @NonNull ByteBuffer source, int position, @NonNull double[] array, int i) {
+    array[i] = source.getDouble(position);
+  }
+
+  @Override
+  protected void formatElement(@NonNull StringBuilder sb, @NonNull double[] array, int i) {
+    sb.append(array[i]);
+  }
+
+  @Override
+  protected void setElement(@NonNull double[] array, int i, @NonNull Object boxed) {
+    array[i] = (Double) boxed;
+  }
+}
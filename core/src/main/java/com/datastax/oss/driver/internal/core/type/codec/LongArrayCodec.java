@@ -0,0 +1,63 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.driver.internal.core.type.codec;
+
+import com.datastax.oss.driver.api.core.type.DataType;
+import com.datastax.oss.driver.api.core.type.codec.TypeCodecs;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.nio.ByteBuffer;
+import net.jcip.annotations.ThreadSafe;
+
+/** Maps a CQL {@code list<bigint>} or {@code set<bigint>} to a Java {@code long[]}. */
+@ThreadSafe
+public class LongArrayCodec extends PrimitiveArrayCodec<long[]> {
+
+  public LongArrayCodec(@NonNull DataType cqlType) {
+    super(cqlType, long[].class, TypeCodecs.BIGINT, 8);
+  }
+
+  @Override
+  protected int length(@NonNull long[] array) {
+    return array.length;
+  }
+
+  @NonNull
+  @Override
+  protected long[] newArray(int length) {
+    return new long[length];
+  }
+
+  @Override
+  protected void writeElement(@NonNull ByteBuffer target, @NonNull long[] array, int i) {
+    target.putLong(array[i]);
+  }
+
+  @Override
+  protected void readElement(
+      @NonNull ByteBuffer source, int position, @NonNull long[] array, int i) {
+    array[i] = source.getLong(position);
+  }
+
+  @Override
+  protected void formatElement(@NonNull StringBuilder sb, @NonNull long[] array, int i) {
+    sb.append(array[i]);
+  }
+
+  @Override
+  protected void setElement(@NonNull long[] array, int i, @NonNull Object boxed) {
+    array[i] = (Long) boxed;
+  }
+}
@@ -0,0 +1,200 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.driver.internal.core.type.codec;
+
+import com.datastax.oss.driver.api.core.ProtocolVersion;
+import com.datastax.oss.driver.api.core.type.DataType;
+import com.datastax.oss.driver.api.core.type.ListType;
+import com.datastax.oss.driver.api.core.type.SetType;
+import com.datastax.oss.driver.api.core.type.codec.TypeCodec;
+import com.datastax.oss.driver.api.core.type.codec.TypeCodecs;
+import com.datastax.oss.driver.api.core.type.reflect.GenericType;
+import com.datastax.oss.driver.shaded.guava.common.base.Preconditions;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import java.nio.ByteBuffer;
+import java.util.List;
+import net.jcip.annotations.ThreadSafe;
+
+/**
+ * Base class for codecs that map a CQL list or set of fixed-size numbers to a Java primitive array,
+ * for example {@code list<int>} to {@code int[]}.
+ *
+ * <p>Unlike {@link ListCodec} and {@link SetCodec}, these codecs read and write the elements
+ * directly, without boxing them or allocating a buffer for each of them. Lists and sets have the
+ * same binary representation, so the same codec handles both.
+ *
+ * <p>Since Java primitives can't be null, decoding a collection that contains a null element fails.
+ */
+@ThreadSafe
+public abstract class PrimitiveArrayCodec<ArrayT> implements TypeCodec<ArrayT> {
+
+  private final DataType cqlType;
+  private final GenericType<ArrayT> javaType;
+  private final int elementSize;
+  // Only used for parse, which is not performance-sensitive
+  private final TypeCodec<? extends List<?>> boxedCodec;
+
+  protected PrimitiveArrayCodec(
+      @NonNull DataType cqlType,
+      @NonNull Class<ArrayT> javaClass,
+      @NonNull TypeCodec<?> elementCodec,
+      int elementSize) {
+    Preconditions.checkArgument(
+        (cqlType instanceof ListType
+                && ((ListType) cqlType).getElementType().equals(elementCodec.getCqlType()))
+            || (cqlType instanceof SetType
+                && ((SetType) cqlType).getElementType().equals(elementCodec.getCqlType())),
+        "Expected list<%s> or set<%s>, got %s",
+        elementCodec.getCqlType(),
+        elementCodec.getCqlType(),
+        cqlType);
+    this.cqlType = cqlType;
+    this.javaType = GenericType.of(javaClass);
+    this.elementSize = elementSize;
+    this.boxedCodec = TypeCodecs.listOf(elementCodec);
+  }
+
+  @NonNull
+  @Override
+  public GenericType<ArrayT> getJavaType() {
+    return javaType;
+  }
+
+  @NonNull
+  @Override
+  public DataType getCqlType() {
+    return cqlType;
+  }
+
+  @Override
+  public boolean accepts(@NonNull Class<?> javaClass) {
+    return javaClass == javaType.getRawType();
+  }
+
+  @Override
+  public boolean accepts(@NonNull Object value) {
+    return value.getClass() == javaType.getRawType();
+  }
+
+  @Nullable
+  @Override
+  public ByteBuffer encode(@Nullable ArrayT value, @NonNull ProtocolVersion protocolVersion) {
+    if (value == null) {
+      return null;
+    }
+    int length = length(value);
+    ByteBuffer result = ByteBuffer.allocate(4 + length * (4 + elementSize));
+    result.putInt(length);
+    for (int i = 0; i < length; i++) {
+      result.putInt(elementSize);
+      writeElement(result, value, i);
+    }
+    result.flip();
+    return result;
+  }
+
+  @Nullable
+  @Override
+  public ArrayT decode(@Nullable ByteBuffer bytes, @NonNull ProtocolVersion protocolVersion) {
+    if (bytes == null || bytes.remaining() == 0) {
+      return newArray(0);
+    }
+    // Use absolute reads, to leave the input buffer untouched
+    int position = bytes.position();
+    int length = bytes.getInt(position);
+    position += 4;
+    ArrayT result = newArray(length);
+    for (int i = 0; i < length; i++) {
+      int size = bytes.getInt(position);
+      position += 4;
+      if (size < 0) {
+        throw new IllegalArgumentException(
+            String.format(
+                "Can't decode null element at index %d into %s", i, javaType.getRawType()));
+      } else if (size != elementSize) {
+        throw new IllegalArgumentException(
+            String.format(
+                "Invalid element size at index %d, expecting %d bytes but got %d",
+                i, elementSize, size));
+      }
+      readElement(bytes, position, result, i);
+      position += elementSize;
+    }
+    return result;
+  }
+
+  @NonNull
+  @Override
+  public String format(@Nullable ArrayT value) {
+    if (value == null) {
+      return "NULL";
+    }
+    boolean isSet = cqlType instanceof SetType;
+    StringBuilder sb = new StringBuilder(isSet ? "{" : "[");
+    int length = length(value);
+    for (int i = 0; i < length; i++) {
+      if (i > 0) {
+        sb.append(",");
+      }
+      formatElement(sb, value, i);
+    }
+    sb.append(isSet ? "}" : "]");
+    return sb.toString();
+  }
+
+  @Nullable
+  @Override
+  public ArrayT parse(@Nullable String value) {
+    if (value == null || value.isEmpty() || value.equalsIgnoreCase("NULL")) {
+      return null;
+    }
+    // ListCodec expects brackets, set literals use braces
+    String trimmed = value.trim();
+    if (trimmed.startsWith("{") && trimmed.endsWith("}")) {
+      trimmed = "[" + trimmed.substring(1, trimmed.length() - 1) + "]";
+    }
+    List<?> elements = boxedCodec.parse(trimmed);
+    assert elements != null;
+    ArrayT result = newArray(elements.size());
+    for (int i = 0; i < elements.size(); i++) {
+      Object element = elements.get(i);
+      if (element == null) {
+        throw new IllegalArgumentException(
+            String.format("Can't parse null element at index %d in \"%s\"", i, value));
+      }
+      setElement(result, i, element);
+    }
+    return result;
+  }
+
+  protected abstract int length(@NonNull ArrayT array);
+
+  @NonNull
+  protected abstract ArrayT newArray(int length);
+
+  /** Writes the element at index {@code i} at the current position of {@code target}. */
+  protected abstract void writeElement(@NonNull ByteBuffer target, @NonNull ArrayT array, int i);
+
+  /** Reads the element at the absolute {@code position} of {@code source} into index {@code i}. */
+  protected abstract void readElement(
+      @NonNull ByteBuffer source, int position, @NonNull ArrayT array, int i);
+
+  protected abstract void formatElement(@NonNull StringBuilder sb, @NonNull ArrayT array, int i);
+
+  /** Sets index {@code i} from a boxed value produced by the element codec. */
+  protected abstract void setElement(@NonNull ArrayT array, int i, @NonNull Object boxed);
+}
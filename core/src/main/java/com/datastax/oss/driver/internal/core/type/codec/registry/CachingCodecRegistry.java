@@ -31,6 +31,9 @@ import com.datastax.oss.driver.api.core.type.codec.TypeCodec;
 import com.datastax.oss.driver.api.core.type.codec.TypeCodecs;
 import com.datastax.oss.driver.api.core.type.codec.registry.MutableCodecRegistry;
 import com.datastax.oss.driver.api.core.type.reflect.GenericType;
+import com.datastax.oss.driver.internal.core.type.codec.DoubleArrayCodec;
+import com.datastax.oss.driver.internal.core.type.codec.IntArrayCodec;
+import com.datastax.oss.driver.internal.core.type.codec.LongArrayCodec;
 import com.datastax.oss.driver.shaded.guava.common.base.Preconditions;
 import com.datastax.oss.driver.shaded.guava.common.reflect.TypeToken;
 import com.datastax.oss.protocol.internal.ProtocolConstants;
@@ -501,7 +504,10 @@ public abstract class CachingCodecRegistry implements MutableCodecRegistry {
       return DataTypes.mapOf(keyType, valueType);
     }
     Class<?> javaClass = value.getClass();
-    if (ByteBuffer.class.isAssignableFrom(javaClass)) {
+    DataType arrayCqlType = inferCqlTypeFromPrimitiveArray(javaClass);
+    if (arrayCqlType != null) {
+      return arrayCqlType;
+    } else if (ByteBuffer.class.isAssignableFrom(javaClass)) {
       return DataTypes.BLOB;
     } else if (String.class.equals(javaClass)) {
       return DataTypes.TEXT;
@@ -558,6 +564,12 @@ public abstract class CachingCodecRegistry implements MutableCodecRegistry {
       return createCodec(javaType, isJavaCovariant);
     } else { // Both non-null
       TypeToken<?> token = javaType.__getToken();
+      if (token.getRawType().isArray()) {
+        TypeCodec<?> arrayCodec = createPrimitiveArrayCodec(cqlType, token.getRawType());
+        if (arrayCodec != null) {
+          return arrayCodec;
+        }
+      }
       if (cqlType instanceof ListType && List.class.isAssignableFrom(token.getRawType())) {
         DataType elementCqlType = ((ListType) cqlType).getElementType();
         TypeCodec<Object> elementCodec;
@@ -615,6 +627,10 @@ public abstract class CachingCodecRegistry implements MutableCodecRegistry {
   @NonNull
   protected TypeCodec<?> createCodec(@NonNull GenericType<?> javaType, boolean isJavaCovariant) {
     TypeToken<?> token = javaType.__getToken();
+    DataType arrayCqlType = inferCqlTypeFromPrimitiveArray(token.getRawType());
+    if (arrayCqlType != null) {
+      return createPrimitiveArrayCodec(arrayCqlType, token.getRawType());
+    }
     if (List.class.isAssignableFrom(token.getRawType())
         && token.getType() instanceof ParameterizedType) {
       Type[] typeArguments = ((ParameterizedType) token.getType()).getActualTypeArguments();
@@ -667,6 +683,42 @@ public abstract class CachingCodecRegistry implements MutableCodecRegistry {
     throw new CodecNotFoundException(cqlType, null);
   }
 
+  // Primitive arrays are an allocation-free alternative to collections of boxed numbers. Lists and
+  // sets are encoded the same way, so both can be mapped to arrays; when the CQL type is unknown,
+  // we default to a list.
+  @Nullable
+  protected TypeCodec<?> createPrimitiveArrayCodec(
+      @NonNull DataType cqlType, @NonNull Class<?> javaClass) {
+    DataType elementType;
+    if (cqlType instanceof ListType) {
+      elementType = ((ListType) cqlType).getElementType();
+    } else if (cqlType instanceof SetType) {
+      elementType = ((SetType) cqlType).getElementType();
+    } else {
+      return null;
+    }
+    if (javaClass == int[].class && elementType.equals(DataTypes.INT)) {
+      return new IntArrayCodec(cqlType);
+    } else if (javaClass == long[].class && elementType.equals(DataTypes.BIGINT)) {
+      return new LongArrayCodec(cqlType);
+    } else if (javaClass == double[].class && elementType.equals(DataTypes.DOUBLE)) {
+      return new DoubleArrayCodec(cqlType);
+    }
+    return null;
+  }
+
+  @Nullable
+  protected DataType inferCqlTypeFromPrimitiveArray(@NonNull Class<?> javaClass) {
+    if (javaClass == int[].class) {
+      return DataTypes.listOf(DataTypes.INT);
+    } else if (javaClass == long[].class) {
+      return DataTypes.listOf(DataTypes.BIGINT);
+    } else if (javaClass == double[].class) {
+      return DataTypes.listOf(DataTypes.DOUBLE);
+    }
+    return null;
+  }
+
   private static IntMap<TypeCodec<?>> sortByProtocolCode(TypeCodec<?>[] codecs) {
     IntMap.Builder<TypeCodec<?>> builder = IntMap.builder();
     for (TypeCodec<?> codec : codecs) {
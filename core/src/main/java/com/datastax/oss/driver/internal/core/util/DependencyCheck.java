@@ -24,6 +24,7 @@ import com.datastax.oss.driver.shaded.guava.common.collect.ImmutableSet;
 public enum DependencyCheck {
   SNAPPY("org.xerial.snappy.Snappy"),
   LZ4("net.jpountz.lz4.LZ4Compressor"),
+  ZSTD("com.github.luben.zstd.Zstd"),
   ESRI("com.esri.core.geometry.ogc.OGCGeometry"),
   TINKERPOP(
       // gremlin-core
@@ -0,0 +1,204 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.driver.internal.core.util.collection;
+
+import com.datastax.oss.driver.api.core.loadbalancing.LoadBalancingPolicy;
+import com.datastax.oss.driver.api.core.metadata.Node;
+import com.datastax.oss.driver.api.core.session.Request;
+import com.datastax.oss.driver.api.core.session.Session;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import java.util.AbstractCollection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import net.jcip.annotations.ThreadSafe;
+
+/**
+ * A query plan that computes its nodes on the fly from arrays that are shared with other plans.
+ *
+ * <p>The plan returns the replicas first, starting at a given offset and wrapping around, then the
+ * rest of the live nodes, also starting at a given offset. Replicas that are not live are skipped,
+ * and so are replicas when they are encountered again in the live nodes.
+ *
+ * <p>Unlike {@link QueryPlan}, this doesn't require a per-request copy of the nodes: the only state
+ * is the two offsets and a cursor. In exchange, the arrays must be precomputed by the caller (see
+ * {@link
+ * com.datastax.oss.driver.internal.core.metadata.token.DefaultTokenMap#getReplicaArray(com.datastax.oss.driver.api.core.CqlIdentifier,
+ * java.nio.ByteBuffer) DefaultTokenMap.getReplicaArray}), and must not be modified as long as a
+ * plan references them.
+ *
+ * <p>Like {@link QueryPlan}, this is not a general-purpose implementation: the only valid mutation
+ * operation is {@link #poll()}, other methods throw.
+ *
+ * @see LoadBalancingPolicy#newQueryPlan(Request, Session)
+ */
+@ThreadSafe
+public class LazyQueryPlan extends AbstractCollection<Node> implements Queue<Node> {
+
+  private static final AtomicIntegerFieldUpdater<LazyQueryPlan> NEXT_INDEX_UPDATER =
+      AtomicIntegerFieldUpdater.newUpdater(LazyQueryPlan.class, "nextIndex");
+
+  // Returned by candidate() for an index that must be skipped
+  private static final Object SKIP = new Object();
+
+  private final Object[] replicas;
+  private final int replicaOffset;
+  private final Object[] liveNodes;
+  private final Set<Node> liveNodeSet;
+  private final int liveNodeOffset;
+
+  @SuppressWarnings("unused")
+  private volatile int nextIndex;
+
+  /**
+   * @param replicas the replicas, that should be tried first. The array is used directly, it must
+   *     not be modified afterwards.
+   * @param replicaOffset the index of the first replica to try.
+   * @param liveNodes the live nodes, that will be tried after the replicas. The array is used
+   *     directly, it must not be modified afterwards. The declared type is {@code Object[]} for
+   *     consistency with {@link QueryPlan}, but all elements must be instances of {@link Node}.
+   * @param liveNodeSet the same nodes as {@code liveNodes}, used to skip replicas that are not
+   *     live.
+   * @param liveNodeOffset the index of the first live node to try.
+   */
+  public LazyQueryPlan(
+      @NonNull Object[] replicas,
+      int replicaOffset,
+      @NonNull Object[] liveNodes,
+      @NonNull Set<Node> liveNodeSet,
+      int liveNodeOffset) {
+    this.replicas = replicas;
+    this.replicaOffset = replicaOffset;
+    this.liveNodes = liveNodes;
+    this.liveNodeSet = liveNodeSet;
+    this.liveNodeOffset = liveNodeOffset;
+  }
+
+  @Nullable
+  @Override
+  public Node poll() {
+    // We don't handle overflow. In practice it won't be an issue, since the driver stops polling
+    // once the query plan is empty.
+    while (true) {
+      Object candidate = candidate(NEXT_INDEX_UPDATER.getAndIncrement(this));
+      if (candidate != SKIP) {
+        return (Node) candidate;
+      }
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>The returned iterator starts at the current state of the queue, and is not affected by
+   * further modifications.
+   */
+  @NonNull
+  @Override
+  public Iterator<Node> iterator() {
+    return new CandidateIterator(nextIndex);
+  }
+
+  @Override
+  public int size() {
+    int size = 0;
+    for (Iterator<Node> iterator = iterator(); iterator.hasNext(); iterator.next()) {
+      size += 1;
+    }
+    return size;
+  }
+
+  @Override
+  public boolean offer(Node node) {
+    throw new UnsupportedOperationException("Not implemented");
+  }
+
+  @Override
+  public Node remove() {
+    throw new UnsupportedOperationException("Not implemented");
+  }
+
+  @Override
+  public Node element() {
+    throw new UnsupportedOperationException("Not implemented");
+  }
+
+  @Override
+  public Node peek() {
+    throw new UnsupportedOperationException("Not implemented");
+  }
+
+  /**
+   * Returns the node at the given position in the plan, {@link #SKIP} if that position must be
+   * skipped, or null if the plan is exhausted.
+   */
+  private Object candidate(int i) {
+    if (i < replicas.length) {
+      Object replica = replicas[(replicaOffset + i) % replicas.length];
+      return liveNodeSet.contains(replica) ? replica : SKIP;
+    }
+    i -= replicas.length;
+    if (i < liveNodes.length) {
+      Object node = liveNodes[(liveNodeOffset + i) % liveNodes.length];
+      return isReplica(node) ? SKIP : node;
+    }
+    return null;
+  }
+
+  private boolean isReplica(Object node) {
+    // Replica arrays are small, a linear scan is fine
+    for (Object replica : replicas) {
+      if (replica == node) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private class CandidateIterator implements Iterator<Node> {
+    private int index;
+    private Object next;
+
+    private CandidateIterator(int index) {
+      this.index = index;
+      advance();
+    }
+
+    @Override
+    public boolean hasNext() {
+      return next != null;
+    }
+
+    @Override
+    public Node next() {
+      if (next == null) {
+        throw new NoSuchElementException();
+      }
+      Node result = (Node) next;
+      advance();
+      return result;
+    }
+
+    private void advance() {
+      do {
+        next = candidate(index++);
+      } while (next == SKIP);
+    }
+  }
+}
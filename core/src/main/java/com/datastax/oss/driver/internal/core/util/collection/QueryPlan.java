@@ -20,7 +20,6 @@ import com.datastax.oss.driver.api.core.metadata.Node;
 import com.datastax.oss.driver.api.core.session.Request;
 import com.datastax.oss.driver.api.core.session.Session;
 import com.datastax.oss.driver.internal.core.loadbalancing.DefaultLoadBalancingPolicy;
-import com.datastax.oss.driver.shaded.guava.common.collect.Iterators;
 import edu.umd.cs.findbugs.annotations.NonNull;
 import edu.umd.cs.findbugs.annotations.Nullable;
 import java.util.AbstractCollection;
@@ -76,12 +75,16 @@ public class QueryPlan extends AbstractCollection<Node> implements Queue<Node> {
    */
   @NonNull
   @Override
+  @SuppressWarnings("unchecked")
   public Iterator<Node> iterator() {
     int i = nextIndex.get();
     if (i >= nodes.length) {
       return Collections.<Node>emptyList().iterator();
     } else {
-      return Iterators.forArray(Arrays.copyOfRange(nodes, i, nodes.length, Node[].class));
+      // No need to copy: the array is never modified, only the index moves. The list returned by
+      // asList is fixed-size, so the iterator doesn't support removal.
+      return (Iterator<Node>)
+          (Iterator<?>) Arrays.asList(nodes).subList(i, nodes.length).iterator();
     }
   }
 
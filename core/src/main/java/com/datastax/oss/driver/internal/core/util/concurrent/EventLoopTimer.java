@@ -0,0 +1,337 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.driver.internal.core.util.concurrent;
+
+import com.datastax.oss.driver.shaded.guava.common.base.Preconditions;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import io.netty.util.Timeout;
+import io.netty.util.Timer;
+import io.netty.util.TimerTask;
+import io.netty.util.concurrent.EventExecutor;
+import io.netty.util.concurrent.EventExecutorGroup;
+import io.netty.util.concurrent.FastThreadLocal;
+import io.netty.util.concurrent.ScheduledFuture;
+import io.netty.util.internal.PlatformDependent;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import net.jcip.annotations.NotThreadSafe;
+import net.jcip.annotations.ThreadSafe;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A {@link Timer} that runs a separate timing wheel on each executor of an event loop group,
+ * instead of a single dedicated thread like Netty's {@link io.netty.util.HashedWheelTimer}.
+ *
+ * <p>A timeout created from one of the executors of the group is registered directly in that
+ * executor's wheel, and its task will run on that executor (for example, speculative executions
+ * that are scheduled from a write listener). Timeouts created from other threads, such as the
+ * global timeout of a request that is started from a client thread, are handed over to a wheel
+ * (chosen in a round-robin fashion) through a multi-producer single-consumer queue; there is one
+ * queue per executor, so they are less contended than the single registration queue of a global
+ * timer.
+ *
+ * <p>Cancellation is O(1): the timeout is flagged as cancelled, and releases its task right away.
+ * If the current thread owns the wheel, the timeout is immediately unlinked from its bucket;
+ * otherwise it is handed over to the wheel through another MPSC queue, and unlinked at the
+ * beginning of the next tick. Either way, a cancelled timeout does not retain anything until its
+ * deadline.
+ *
+ * <p>Timer tasks run on the event loop, they must not block.
+ */
+@ThreadSafe
+public class EventLoopTimer implements Timer {
+
+  private static final Logger LOG = LoggerFactory.getLogger(EventLoopTimer.class);
+
+  private final Wheel[] wheels;
+  private final FastThreadLocal<Wheel> currentWheel = new FastThreadLocal<>();
+  private final AtomicInteger nextWheel = new AtomicInteger();
+  private volatile boolean stopped;
+
+  public EventLoopTimer(
+      @NonNull EventExecutorGroup group, long tickDuration, TimeUnit unit, int ticksPerWheel) {
+    Preconditions.checkArgument(
+        tickDuration > 0, "tickDuration must be strictly positive (got %s)", tickDuration);
+    Preconditions.checkArgument(
+        ticksPerWheel > 0 && ticksPerWheel <= 1 << 30,
+        "ticksPerWheel must be between 1 and 2^30 (got %s)",
+        ticksPerWheel);
+    long tickNanos = unit.toNanos(tickDuration);
+    // Round up to a power of two, so that bucket indices can be computed with a mask
+    int wheelSize = Integer.highestOneBit(ticksPerWheel - 1) << 1;
+    if (wheelSize == 0) {
+      wheelSize = 1;
+    }
+    List<Wheel> wheelList = new ArrayList<>();
+    for (EventExecutor executor : group) {
+      Wheel wheel = new Wheel(executor, tickNanos, wheelSize);
+      wheelList.add(wheel);
+      executor.execute(wheel::start);
+    }
+    Preconditions.checkArgument(!wheelList.isEmpty(), "The executor group can't be empty");
+    this.wheels = wheelList.toArray(new Wheel[0]);
+  }
+
+  @Override
+  public Timeout newTimeout(@NonNull TimerTask task, long delay, @NonNull TimeUnit unit) {
+    if (stopped) {
+      throw new IllegalStateException("cannot be started once stopped");
+    }
+    long deadlineNanos = System.nanoTime() + Math.max(0, unit.toNanos(delay));
+    Wheel wheel = currentWheel.get();
+    if (wheel != null && wheel.executor.inEventLoop()) {
+      WheelTimeout timeout = new WheelTimeout(wheel, task, deadlineNanos);
+      wheel.schedule(timeout);
+      return timeout;
+    } else {
+      wheel = wheels[(nextWheel.getAndIncrement() & Integer.MAX_VALUE) % wheels.length];
+      WheelTimeout timeout = new WheelTimeout(wheel, task, deadlineNanos);
+      wheel.pending.offer(timeout);
+      return timeout;
+    }
+  }
+
+  /**
+   * Stops all the wheels.
+   *
+   * <p>This should be called once the executors have terminated (or are about to), since the
+   * unprocessed timeouts can only be collected reliably from wheels that are not ticking anymore.
+   */
+  @Override
+  public Set<Timeout> stop() {
+    stopped = true;
+    Set<Timeout> unprocessed = new HashSet<>();
+    for (Wheel wheel : wheels) {
+      wheel.stop(unprocessed);
+    }
+    return unprocessed;
+  }
+
+  @NotThreadSafe // confined to its executor, except for the pending queue
+  private class Wheel {
+    private final EventExecutor executor;
+    private final long tickNanos;
+    private final WheelTimeout[] buckets;
+    private final int mask;
+    private final Queue<WheelTimeout> pending = PlatformDependent.newMpscQueue();
+    private final Queue<WheelTimeout> cancelled = PlatformDependent.newMpscQueue();
+
+    private long startNanos;
+    private long tick;
+    private volatile ScheduledFuture<?> tickFuture;
+
+    private Wheel(EventExecutor executor, long tickNanos, int wheelSize) {
+      this.executor = executor;
+      this.tickNanos = tickNanos;
+      this.buckets = new WheelTimeout[wheelSize];
+      this.mask = wheelSize - 1;
+    }
+
+    private void start() {
+      assert executor.inEventLoop();
+      currentWheel.set(this);
+      startNanos = System.nanoTime();
+      tickFuture =
+          executor.scheduleAtFixedRate(this::onTick, tickNanos, tickNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private void stop(Set<Timeout> unprocessed) {
+      ScheduledFuture<?> future = tickFuture;
+      if (future != null) {
+        future.cancel(false);
+      }
+      WheelTimeout timeout;
+      while ((timeout = pending.poll()) != null) {
+        if (!timeout.isCancelled()) {
+          unprocessed.add(timeout);
+        }
+      }
+      cancelled.clear();
+      if (executor.isTerminated() || executor.inEventLoop()) {
+        for (WheelTimeout head : buckets) {
+          for (timeout = head; timeout != null; timeout = timeout.next) {
+            if (!timeout.isCancelled()) {
+              unprocessed.add(timeout);
+            }
+          }
+        }
+      }
+    }
+
+    private void onTick() {
+      WheelTimeout timeout;
+      while ((timeout = pending.poll()) != null) {
+        if (!timeout.isCancelled()) {
+          schedule(timeout);
+        }
+      }
+      // Timeouts that were cancelled from another thread since the last tick
+      while ((timeout = cancelled.poll()) != null) {
+        unlink(timeout);
+      }
+      long now = System.nanoTime();
+      // If the executor was busy, we might be late by more than one tick: catch up
+      long currentTick = (now - startNanos) / tickNanos;
+      while (tick < currentTick) {
+        int index = (int) (tick & mask);
+        // Increment first, so that tasks that schedule new timeouts don't target this bucket
+        tick += 1;
+        expire(index);
+      }
+    }
+
+    private void schedule(WheelTimeout timeout) {
+      assert executor.inEventLoop();
+      // The (absolute) tick at the end of which the timeout expires
+      long expirationTick = (timeout.deadlineNanos - startNanos + tickNanos - 1) / tickNanos - 1;
+      expirationTick = Math.max(expirationTick, tick);
+      timeout.remainingRounds = (expirationTick - tick) / buckets.length;
+      int index = (int) (expirationTick & mask);
+      timeout.bucket = index;
+      WheelTimeout head = buckets[index];
+      timeout.next = head;
+      if (head != null) {
+        head.previous = timeout;
+      }
+      buckets[index] = timeout;
+    }
+
+    private void expire(int index) {
+      // First collect the expired timeouts, and only then run their tasks: a task might cancel
+      // or schedule other timeouts, we don't want that to happen while we iterate the bucket.
+      WheelTimeout expired = null;
+      WheelTimeout timeout = buckets[index];
+      while (timeout != null) {
+        WheelTimeout next = timeout.next;
+        if (timeout.isCancelled()) {
+          unlink(timeout);
+        } else if (timeout.remainingRounds <= 0) {
+          unlink(timeout);
+          timeout.next = expired;
+          expired = timeout;
+        } else {
+          timeout.remainingRounds -= 1;
+        }
+        timeout = next;
+      }
+      while (expired != null) {
+        WheelTimeout next = expired.next;
+        expired.next = null;
+        expired.expire();
+        expired = next;
+      }
+    }
+
+    private void unlink(WheelTimeout timeout) {
+      assert executor.inEventLoop();
+      if (timeout.bucket < 0) {
+        return; // already unlinked
+      }
+      if (timeout.previous == null) {
+        buckets[timeout.bucket] = timeout.next;
+      } else {
+        timeout.previous.next = timeout.next;
+      }
+      if (timeout.next != null) {
+        timeout.next.previous = timeout.previous;
+      }
+      timeout.previous = null;
+      timeout.next = null;
+      timeout.bucket = -1;
+    }
+  }
+
+  private class WheelTimeout implements Timeout {
+
+    private static final int INIT = 0;
+    private static final int CANCELLED = 1;
+    private static final int EXPIRED = 2;
+
+    private final Wheel wheel;
+    private final long deadlineNanos;
+    // Cleared on cancellation, so that the timeout doesn't retain the task's state
+    private volatile TimerTask task;
+    // Not private because of the field updater
+    volatile int state = INIT;
+
+    // Only accessed from the wheel's executor
+    private long remainingRounds;
+    private int bucket = -1;
+    private WheelTimeout previous;
+    private WheelTimeout next;
+
+    private WheelTimeout(Wheel wheel, TimerTask task, long deadlineNanos) {
+      this.wheel = wheel;
+      this.deadlineNanos = deadlineNanos;
+      this.task = task;
+    }
+
+    @Override
+    public Timer timer() {
+      return EventLoopTimer.this;
+    }
+
+    @Override
+    public TimerTask task() {
+      return task;
+    }
+
+    @Override
+    public boolean isExpired() {
+      return state == EXPIRED;
+    }
+
+    @Override
+    public boolean isCancelled() {
+      return state == CANCELLED;
+    }
+
+    @Override
+    public boolean cancel() {
+      if (!STATE_UPDATER.compareAndSet(this, INIT, CANCELLED)) {
+        return false;
+      }
+      task = null;
+      if (wheel.executor.inEventLoop()) {
+        wheel.unlink(this);
+      } else {
+        wheel.cancelled.offer(this);
+      }
+      return true;
+    }
+
+    private void expire() {
+      if (STATE_UPDATER.compareAndSet(this, INIT, EXPIRED)) {
+        TimerTask task = this.task;
+        try {
+          task.run(this);
+        } catch (Throwable t) {
+          LOG.warn("Error while running timer task {}", task, t);
+        }
+      }
+    }
+  }
+
+  private static final AtomicIntegerFieldUpdater<WheelTimeout> STATE_UPDATER =
+      AtomicIntegerFieldUpdater.newUpdater(WheelTimeout.class, "state");
+}
@@ -244,6 +244,50 @@ public class UuidsTest {
     }
   }
 
+  @Test
+  public void should_generate_partitioned_uuids_within_10_ms() {
+    Uuids.random();
+
+    long start = System.currentTimeMillis();
+    UUID uuid = Uuids.timeBasedPartitioned();
+
+    assertThat(uuid.version()).isEqualTo(1);
+    assertThat(uuid.variant()).isEqualTo(2);
+    assertThat(Uuids.unixTimestamp(uuid)).isBetween(start, start + 10);
+    // Never the same clock sequence as timeBased(), so the two methods can't collide
+    assertThat(uuid.clockSequence()).isNotEqualTo(Uuids.timeBased().clockSequence());
+    assertThat(uuid.node()).isEqualTo(Uuids.timeBased().node());
+  }
+
+  @Test
+  public void should_generate_unique_partitioned_uuids_across_threads() throws Exception {
+    int threadCount = 10;
+    int uuidsPerThread = 10_000;
+    Set<UUID> generated = new ConcurrentSkipListSet<>();
+
+    Thread[] threads = new Thread[threadCount];
+    for (int i = 0; i < threadCount; i++) {
+      threads[i] =
+          new Thread(
+              () -> {
+                long previous = 0;
+                for (int j = 0; j < uuidsPerThread; j++) {
+                  UUID uuid = Uuids.timeBasedPartitioned();
+                  // Timestamps are strictly increasing within a thread
+                  assertThat(uuid.timestamp()).isGreaterThan(previous);
+                  previous = uuid.timestamp();
+                  generated.add(uuid);
+                }
+              });
+      threads[i].start();
+    }
+    for (int i = 0; i < threadCount; i++) {
+      threads[i].join();
+    }
+
+    assertThat(generated).hasSize(threadCount * uuidsPerThread);
+  }
+
   @Test
   public void should_generate_within_bounds_for_given_timestamp() {
 
@@ -21,6 +21,7 @@ import static com.datastax.oss.driver.api.core.ProtocolVersion.V3;
 import static com.datastax.oss.driver.api.core.ProtocolVersion.V4;
 import static com.datastax.oss.driver.api.core.ProtocolVersion.V5;
 import static com.datastax.oss.driver.internal.core.DefaultProtocolFeature.DATE_TYPE;
+import static com.datastax.oss.driver.internal.core.DefaultProtocolFeature.MODERN_FRAMING;
 import static com.datastax.oss.driver.internal.core.DefaultProtocolFeature.SMALLINT_AND_TINYINT_TYPES;
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -137,6 +138,15 @@ public class DefaultProtocolVersionRegistryTest {
     assertThat(registry.supports(DSE_V2, SMALLINT_AND_TINYINT_TYPES)).isTrue();
   }
 
+  @Test
+  public void should_support_modern_framing_on_oss_v5_and_later() {
+    assertThat(registry.supports(V3, MODERN_FRAMING)).isFalse();
+    assertThat(registry.supports(V4, MODERN_FRAMING)).isFalse();
+    assertThat(registry.supports(V5, MODERN_FRAMING)).isTrue();
+    assertThat(registry.supports(DSE_V1, MODERN_FRAMING)).isFalse();
+    assertThat(registry.supports(DSE_V2, MODERN_FRAMING)).isFalse();
+  }
+
   private Node mockCassandraNode(String rawVersion) {
     Node node = Mockito.mock(Node.class);
     if (rawVersion != null) {
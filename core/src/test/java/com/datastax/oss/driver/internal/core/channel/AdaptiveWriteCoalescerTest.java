@@ -0,0 +1,123 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.driver.internal.core.channel;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.datastax.oss.driver.api.core.config.DefaultDriverOption;
+import com.datastax.oss.driver.api.core.config.DriverConfig;
+import com.datastax.oss.driver.api.core.config.DriverExecutionProfile;
+import com.datastax.oss.driver.api.core.metrics.DefaultSessionMetric;
+import com.datastax.oss.driver.internal.core.context.InternalDriverContext;
+import com.datastax.oss.driver.internal.core.metrics.MetricsFactory;
+import com.datastax.oss.driver.internal.core.metrics.SessionMetricUpdater;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.embedded.EmbeddedChannel;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+public class AdaptiveWriteCoalescerTest {
+
+  @Mock private InternalDriverContext context;
+  @Mock private DriverConfig config;
+  @Mock private DriverExecutionProfile defaultProfile;
+  @Mock private MetricsFactory metricsFactory;
+  @Mock private SessionMetricUpdater sessionMetricUpdater;
+
+  private AdaptiveWriteCoalescer coalescer;
+
+  @Before
+  public void setup() {
+    MockitoAnnotations.initMocks(this);
+    when(context.getConfig()).thenReturn(config);
+    when(config.getDefaultProfile()).thenReturn(defaultProfile);
+    when(defaultProfile.getInt(DefaultDriverOption.COALESCER_ADAPTIVE_TARGET_BATCH_SIZE))
+        .thenReturn(16);
+    when(defaultProfile.getDuration(DefaultDriverOption.COALESCER_ADAPTIVE_MAX_DELAY))
+        .thenReturn(Duration.ofNanos(100_000));
+    when(context.getMetricsFactory()).thenReturn(metricsFactory);
+    when(metricsFactory.getSessionUpdater()).thenReturn(sessionMetricUpdater);
+
+    coalescer = new AdaptiveWriteCoalescer(context);
+  }
+
+  @Test
+  public void should_write_and_flush_in_order() {
+    EmbeddedChannel channel = new EmbeddedChannel();
+
+    ChannelFuture future1 = coalescer.writeAndFlush(channel, "1");
+    ChannelFuture future2 = coalescer.writeAndFlush(channel, "2");
+    ChannelFuture future3 = coalescer.writeAndFlush(channel, "3");
+    assertThat(channel.outboundMessages()).isEmpty();
+
+    channel.runPendingTasks();
+
+    assertThat(channel.<String>readOutbound()).isEqualTo("1");
+    assertThat(channel.<String>readOutbound()).isEqualTo("2");
+    assertThat(channel.<String>readOutbound()).isEqualTo("3");
+    assertThat(future1.isSuccess()).isTrue();
+    assertThat(future2.isSuccess()).isTrue();
+    assertThat(future3.isSuccess()).isTrue();
+  }
+
+  @Test
+  public void should_update_metrics() {
+    EmbeddedChannel channel = new EmbeddedChannel();
+
+    coalescer.writeAndFlush(channel, "1");
+    coalescer.writeAndFlush(channel, "2");
+    channel.runPendingTasks();
+
+    verify(sessionMetricUpdater)
+        .updateHistogram(DefaultSessionMetric.COALESCER_WRITES_PER_FLUSH, null, 2);
+    verify(sessionMetricUpdater)
+        .updateTimer(
+            eq(DefaultSessionMetric.COALESCER_FLUSH_LATENCY),
+            isNull(),
+            anyLong(),
+            eq(TimeUnit.NANOSECONDS));
+  }
+
+  @Test
+  public void should_flush_immediately_when_rate_is_low() {
+    // 1 write per millisecond: it would take 15 ms to reach the target, more than the max delay
+    double writesPerNano = 1.0 / 1_000_000;
+    assertThat(AdaptiveWriteCoalescer.computeDelayNanos(writesPerNano, 16, 100_000)).isZero();
+  }
+
+  @Test
+  public void should_delay_flush_when_rate_is_high() {
+    // 1 write per microsecond: it takes 15 microseconds to reach the target
+    double writesPerNano = 1.0 / 1_000;
+    assertThat(AdaptiveWriteCoalescer.computeDelayNanos(writesPerNano, 16, 100_000))
+        .isEqualTo(15_000);
+  }
+
+  @Test
+  public void should_not_delay_flush_if_no_batching() {
+    assertThat(AdaptiveWriteCoalescer.computeDelayNanos(1.0, 1, 100_000)).isZero();
+    assertThat(AdaptiveWriteCoalescer.computeDelayNanos(0, 16, 100_000)).isZero();
+  }
+}
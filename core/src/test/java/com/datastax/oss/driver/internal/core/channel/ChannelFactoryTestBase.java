@@ -131,10 +131,11 @@ public abstract class ChannelFactoryTestBase {
     when(nettyOptions.ioEventLoopGroup()).thenReturn(clientGroup);
     when(nettyOptions.channelClass()).thenAnswer((Answer<Object>) i -> LocalChannel.class);
     when(nettyOptions.allocator()).thenReturn(ByteBufAllocator.DEFAULT);
-    when(context.getFrameCodec())
-        .thenReturn(
-            FrameCodec.defaultClient(
-                new ByteBufPrimitiveCodec(ByteBufAllocator.DEFAULT), Compressor.none()));
+    FrameCodec<ByteBuf> frameCodec =
+        FrameCodec.defaultClient(
+            new ByteBufPrimitiveCodec(ByteBufAllocator.DEFAULT), Compressor.none());
+    when(context.getFrameCodec()).thenReturn(frameCodec);
+    when(context.getUncompressedFrameCodec()).thenReturn(frameCodec);
     when(context.getSslHandlerFactory()).thenReturn(Optional.empty());
     when(context.getEventBus()).thenReturn(eventBus);
     when(context.getWriteCoalescer()).thenReturn(new PassThroughWriteCoalescer(null));
@@ -34,8 +34,14 @@ import com.datastax.oss.driver.internal.core.ProtocolVersionRegistry;
 import com.datastax.oss.driver.internal.core.TestResponses;
 import com.datastax.oss.driver.internal.core.context.InternalDriverContext;
 import com.datastax.oss.driver.internal.core.metadata.TestNodeFactory;
+import com.datastax.oss.driver.internal.core.protocol.ByteBufPrimitiveCodec;
+import com.datastax.oss.driver.internal.core.protocol.FrameToSegmentEncoder;
+import com.datastax.oss.driver.internal.core.protocol.SegmentCodec;
+import com.datastax.oss.driver.internal.core.protocol.SegmentToFrameDecoder;
 import com.datastax.oss.driver.shaded.guava.common.collect.ImmutableList;
+import com.datastax.oss.protocol.internal.Compressor;
 import com.datastax.oss.protocol.internal.Frame;
+import com.datastax.oss.protocol.internal.FrameCodec;
 import com.datastax.oss.protocol.internal.ProtocolConstants;
 import com.datastax.oss.protocol.internal.request.AuthResponse;
 import com.datastax.oss.protocol.internal.request.Options;
@@ -49,6 +55,8 @@ import com.datastax.oss.protocol.internal.response.Error;
 import com.datastax.oss.protocol.internal.response.Ready;
 import com.datastax.oss.protocol.internal.response.result.SetKeyspace;
 import com.datastax.oss.protocol.internal.util.Bytes;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.channel.ChannelDuplexHandler;
 import io.netty.channel.ChannelFuture;
 import java.net.InetSocketAddress;
 import java.time.Duration;
@@ -139,6 +147,43 @@ public class ProtocolInitHandlerTest extends ChannelHandlerTestBase {
     assertThat(connectFuture).isSuccess();
   }
 
+  @Test
+  public void should_switch_to_modern_framing_after_startup_response() {
+    when(defaultProfile.getBytes(DefaultDriverOption.PROTOCOL_MAX_FRAME_LENGTH))
+        .thenReturn(1024L * 1024);
+    when(internalDriverContext.getSegmentCodec())
+        .thenReturn(Optional.of(new SegmentCodec(ByteBufAllocator.DEFAULT, null)));
+    when(internalDriverContext.getUncompressedFrameCodec())
+        .thenReturn(
+            FrameCodec.defaultClient(
+                new ByteBufPrimitiveCodec(ByteBufAllocator.DEFAULT), Compressor.none()));
+    // Placeholders for the legacy handlers that are normally installed by ChannelFactory
+    channel.pipeline().addBefore("inflight", "encoder", new ChannelDuplexHandler());
+    channel.pipeline().addBefore("inflight", "decoder", new ChannelDuplexHandler());
+    channel
+        .pipeline()
+        .addLast(
+            "init",
+            new ProtocolInitHandler(
+                internalDriverContext,
+                DefaultProtocolVersion.V5,
+                null,
+                END_POINT,
+                DriverChannelOptions.DEFAULT,
+                heartbeatHandler,
+                false));
+
+    channel.connect(new InetSocketAddress("localhost", 9042));
+    Frame requestFrame = readOutboundFrame();
+    assertThat(requestFrame.message).isInstanceOf(Startup.class);
+    assertThat(channel.pipeline().get("encoder")).isNotInstanceOf(FrameToSegmentEncoder.class);
+
+    writeInboundFrame(buildInboundFrame(requestFrame, new Ready()));
+
+    assertThat(channel.pipeline().get("encoder")).isInstanceOf(FrameToSegmentEncoder.class);
+    assertThat(channel.pipeline().get("decoder")).isInstanceOf(SegmentToFrameDecoder.class);
+  }
+
   @Test
   public void should_query_supported_options() {
     channel
@@ -64,4 +64,38 @@ public class StreamIdGeneratorTest {
     assertThat(generator.acquire()).isEqualTo(7);
     assertThat(generator.preAcquire()).isFalse();
   }
+
+  @Test
+  public void should_return_lowest_available_id_across_words() {
+    // Large enough to span several words of the bitmap, and several bits of the summary
+    int max = 32 * 1024 + 7;
+    StreamIdGenerator generator = new StreamIdGenerator(max);
+    for (int i = 0; i < max; i++) {
+      assertThat(generator.preAcquire()).isTrue();
+      assertThat(generator.acquire()).isEqualTo(i);
+    }
+    assertThat(generator.preAcquire()).isFalse();
+
+    generator.release(max - 1);
+    generator.release(20000);
+    generator.release(64);
+    generator.release(63);
+    for (int expected : new int[] {63, 64, 20000, max - 1}) {
+      assertThat(generator.preAcquire()).isTrue();
+      assertThat(generator.acquire()).isEqualTo(expected);
+    }
+    assertThat(generator.preAcquire()).isFalse();
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void should_fail_to_release_id_that_was_not_borrowed() {
+    StreamIdGenerator generator = new StreamIdGenerator(8);
+    generator.release(3);
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void should_fail_to_release_id_out_of_range() {
+    StreamIdGenerator generator = new StreamIdGenerator(8);
+    generator.release(8);
+  }
 }
@@ -45,6 +45,10 @@ public class MockedDriverContextFactory {
               DriverExecutionProfile blankProfile = mock(DriverExecutionProfile.class);
               when(blankProfile.getString(DefaultDriverOption.PROTOCOL_COMPRESSION, "none"))
                   .thenReturn("none");
+              when(blankProfile.isDefined(DefaultDriverOption.METRICS_FACTORY_CLASS))
+                  .thenReturn(true);
+              when(blankProfile.getString(DefaultDriverOption.METRICS_FACTORY_CLASS))
+                  .thenReturn("DropwizardMetricsFactory");
               return blankProfile;
             });
 
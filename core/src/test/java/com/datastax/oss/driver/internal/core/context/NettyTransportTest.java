@@ -0,0 +1,84 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.driver.internal.core.context;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+
+// Note: the native transports are not on the test classpath, so these tests only cover the
+// fallback behavior.
+public class NettyTransportTest {
+
+  @Test
+  public void should_always_have_nio() {
+    assertThat(NettyTransport.NIO.isAvailable()).isTrue();
+    assertThat(NettyTransport.NIO.getUnavailabilityCause()).isNull();
+    assertThat(NettyTransport.NIO.getChannelClass()).isEqualTo(NioSocketChannel.class);
+
+    EventLoopGroup group =
+        NettyTransport.NIO.newEventLoopGroup(1, Executors.defaultThreadFactory());
+    try {
+      assertThat(group).isInstanceOf(NioEventLoopGroup.class);
+    } finally {
+      group.shutdownGracefully(0, 0, TimeUnit.SECONDS);
+    }
+  }
+
+  @Test
+  public void should_report_native_transports_unavailable_when_not_on_classpath() {
+    assertThat(NettyTransport.EPOLL.isAvailable()).isFalse();
+    assertThat(NettyTransport.IO_URING.isAvailable()).isFalse();
+  }
+
+  @Test
+  public void should_select_nio_in_auto_mode_if_epoll_unavailable() {
+    assertThat(NettyTransport.select("AUTO", "test")).isEqualTo(NettyTransport.NIO);
+    assertThat(NettyTransport.select("auto", "test")).isEqualTo(NettyTransport.NIO);
+  }
+
+  @Test
+  public void should_fall_back_to_nio_if_requested_transport_unavailable() {
+    assertThat(NettyTransport.select("EPOLL", "test")).isEqualTo(NettyTransport.NIO);
+    assertThat(NettyTransport.select("io_uring", "test")).isEqualTo(NettyTransport.NIO);
+    assertThat(NettyTransport.select("NIO", "test")).isEqualTo(NettyTransport.NIO);
+  }
+
+  @Test
+  public void should_fail_if_transport_unknown() {
+    assertThatThrownBy(() -> NettyTransport.select("kqueue", "test"))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining("advanced.netty.io-group.transport");
+  }
+
+  @Test
+  public void should_ignore_native_options_with_nio() {
+    Bootstrap bootstrap = new Bootstrap();
+
+    assertThat(NettyTransport.NIO.supportsNativeOption(NettyTransport.TCP_QUICKACK)).isFalse();
+    assertThat(NettyTransport.NIO.setNativeOption(bootstrap, NettyTransport.TCP_QUICKACK, true))
+        .isFalse();
+    assertThat(NettyTransport.NIO.setEdgeTriggered(bootstrap, true)).isFalse();
+    assertThat(bootstrap.config().options()).isEmpty();
+  }
+}
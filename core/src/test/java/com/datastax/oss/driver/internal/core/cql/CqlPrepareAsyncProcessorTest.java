@@ -0,0 +1,107 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.driver.internal.core.cql;
+
+import static com.datastax.oss.driver.Assertions.assertThatStage;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.datastax.oss.driver.api.core.config.DefaultDriverOption;
+import com.datastax.oss.driver.api.core.config.DriverConfig;
+import com.datastax.oss.driver.api.core.config.DriverExecutionProfile;
+import com.datastax.oss.driver.api.core.cql.PrepareRequest;
+import com.datastax.oss.driver.api.core.cql.PreparedStatement;
+import com.datastax.oss.driver.api.core.metrics.DefaultSessionMetric;
+import com.datastax.oss.driver.internal.core.context.InternalDriverContext;
+import com.datastax.oss.driver.internal.core.metrics.MetricsFactory;
+import com.datastax.oss.driver.internal.core.metrics.SessionMetricUpdater;
+import com.datastax.oss.driver.internal.core.session.DefaultSession;
+import java.util.concurrent.CompletableFuture;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+public class CqlPrepareAsyncProcessorTest {
+
+  @Mock private InternalDriverContext context;
+  @Mock private DriverConfig config;
+  @Mock private DriverExecutionProfile defaultProfile;
+  @Mock private MetricsFactory metricsFactory;
+  @Mock private SessionMetricUpdater metricUpdater;
+  @Mock private DefaultSession session;
+  @Mock private PreparedStatement preparedStatement;
+
+  @Before
+  public void setup() {
+    MockitoAnnotations.initMocks(this);
+    when(context.getSessionName()).thenReturn("test");
+    when(context.getConfig()).thenReturn(config);
+    when(config.getDefaultProfile()).thenReturn(defaultProfile);
+    when(defaultProfile.getBoolean(DefaultDriverOption.PREPARED_CACHE_WEAK_VALUES, true))
+        .thenReturn(false);
+    when(context.getMetricsFactory()).thenReturn(metricsFactory);
+    when(metricsFactory.getSessionUpdater()).thenReturn(metricUpdater);
+  }
+
+  @Test
+  public void should_count_hit_when_statement_already_cached() {
+    CqlPrepareAsyncProcessor processor = new CqlPrepareAsyncProcessor(context);
+    PrepareRequest request = new DefaultPrepareRequest("SELECT * FROM t");
+    processor.getCache().put(request, CompletableFuture.completedFuture(preparedStatement));
+
+    assertThatStage(processor.process(request, session, context, "test"))
+        .isSuccess(statement -> assertThat(statement).isSameAs(preparedStatement));
+    verify(metricUpdater).incrementCounter(DefaultSessionMetric.CQL_PREPARED_CACHE_HITS, null);
+    verify(metricUpdater, never())
+        .incrementCounter(DefaultSessionMetric.CQL_PREPARED_CACHE_MISSES, null);
+  }
+
+  @Test
+  public void should_evict_beyond_max_size_and_count_evictions() {
+    when(defaultProfile.isDefined(DefaultDriverOption.PREPARED_CACHE_MAX_SIZE)).thenReturn(true);
+    when(defaultProfile.getLong(DefaultDriverOption.PREPARED_CACHE_MAX_SIZE)).thenReturn(2L);
+    CqlPrepareAsyncProcessor processor = new CqlPrepareAsyncProcessor(context);
+
+    for (int i = 0; i < 5; i++) {
+      processor
+          .getCache()
+          .put(
+              new DefaultPrepareRequest("SELECT * FROM t" + i),
+              CompletableFuture.completedFuture(preparedStatement));
+    }
+
+    assertThat(processor.getCache().size()).isEqualTo(2);
+    verify(metricUpdater, times(3))
+        .incrementCounter(DefaultSessionMetric.CQL_PREPARED_CACHE_EVICTIONS, null);
+  }
+
+  @Test
+  public void should_not_count_explicit_removal_as_eviction() {
+    CqlPrepareAsyncProcessor processor = new CqlPrepareAsyncProcessor(context);
+    PrepareRequest request = new DefaultPrepareRequest("SELECT * FROM t");
+    processor.getCache().put(request, CompletableFuture.completedFuture(preparedStatement));
+
+    processor.getCache().invalidate(request);
+
+    assertThat(processor.getCache().size()).isEqualTo(0);
+    verify(metricUpdater, never())
+        .incrementCounter(DefaultSessionMetric.CQL_PREPARED_CACHE_EVICTIONS, null);
+  }
+}
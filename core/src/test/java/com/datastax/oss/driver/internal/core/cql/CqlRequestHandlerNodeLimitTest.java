@@ -0,0 +1,162 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.driver.internal.core.cql;
+
+import static com.datastax.oss.driver.Assertions.assertThat;
+import static com.datastax.oss.driver.Assertions.assertThatStage;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.datastax.oss.driver.api.core.AllNodesFailedException;
+import com.datastax.oss.driver.api.core.RequestThrottlingException;
+import com.datastax.oss.driver.api.core.config.DriverExecutionProfile;
+import com.datastax.oss.driver.api.core.cql.AsyncResultSet;
+import com.datastax.oss.driver.api.core.metadata.Node;
+import com.datastax.oss.driver.api.core.metrics.DefaultNodeMetric;
+import com.datastax.oss.driver.internal.core.session.throttling.NodeRequestLimiter;
+import com.datastax.oss.driver.internal.core.util.concurrent.CapturingTimer.CapturedTimeout;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+
+public class CqlRequestHandlerNodeLimitTest extends CqlRequestHandlerTestBase {
+
+  private static final long MAX_DELAY_NANOS = TimeUnit.MILLISECONDS.toNanos(5);
+
+  @Test
+  public void should_skip_node_over_its_limits() {
+    NodeRequestLimiter limiter = mockLimiter();
+    when(limiter.tryAcquire(node1)).thenReturn(false);
+    when(limiter.tryAcquire(node2)).thenReturn(true);
+
+    try (RequestHandlerTestHarness harness =
+        RequestHandlerTestHarness.builder()
+            .withNodeRequestLimiter(limiter)
+            .withResponse(node1, defaultFrameOf(singleRow()))
+            .withResponse(node2, defaultFrameOf(singleRow()))
+            .build()) {
+
+      CompletionStage<AsyncResultSet> resultSetFuture =
+          new CqlRequestHandler(
+                  UNDEFINED_IDEMPOTENCE_STATEMENT,
+                  harness.getSession(),
+                  harness.getContext(),
+                  "test")
+              .handle();
+
+      assertThatStage(resultSetFuture)
+          .isSuccess(
+              resultSet -> {
+                assertThat(resultSet.getExecutionInfo().getCoordinator()).isEqualTo(node2);
+                assertThat(resultSet.getExecutionInfo().getErrors()).isEmpty();
+              });
+      verify(nodeMetricUpdater1)
+          .incrementCounter(
+              DefaultNodeMetric.THROTTLING_SKIPS, DriverExecutionProfile.DEFAULT_NAME);
+      verify(limiter, never()).tryReserve(any(Node.class), anyLong());
+    }
+  }
+
+  @Test
+  public void should_wait_for_node_if_all_nodes_over_their_limits() throws Exception {
+    NodeRequestLimiter limiter = mockLimiter();
+    when(limiter.tryAcquire(any(Node.class))).thenReturn(false);
+    when(limiter.tryReserve(node1, MAX_DELAY_NANOS)).thenReturn(-1L);
+    when(limiter.tryReserve(node2, MAX_DELAY_NANOS)).thenReturn(1000L);
+
+    try (RequestHandlerTestHarness harness =
+        RequestHandlerTestHarness.builder()
+            .withNodeRequestLimiter(limiter)
+            .withResponse(node1, defaultFrameOf(singleRow()))
+            .withResponse(node2, defaultFrameOf(singleRow()))
+            .build()) {
+
+      CompletionStage<AsyncResultSet> resultSetFuture =
+          new CqlRequestHandler(
+                  UNDEFINED_IDEMPOTENCE_STATEMENT,
+                  harness.getSession(),
+                  harness.getContext(),
+                  "test")
+              .handle();
+
+      // First scheduled task is the timeout, second is the delayed send
+      harness.nextScheduledTimeout();
+      CapturedTimeout delayedSend = harness.nextScheduledTimeout();
+      assertThat(delayedSend.getDelay(TimeUnit.NANOSECONDS)).isEqualTo(1000L);
+      assertThatStage(resultSetFuture).isNotDone();
+      delayedSend.task().run(delayedSend);
+
+      assertThatStage(resultSetFuture)
+          .isSuccess(
+              resultSet -> {
+                assertThat(resultSet.getExecutionInfo().getCoordinator()).isEqualTo(node2);
+                List<Map.Entry<Node, Throwable>> errors = resultSet.getExecutionInfo().getErrors();
+                assertThat(errors).hasSize(1);
+                assertThat(errors.get(0).getKey()).isEqualTo(node1);
+                assertThat(errors.get(0).getValue()).isInstanceOf(RequestThrottlingException.class);
+              });
+      verify(nodeMetricUpdater2)
+          .incrementCounter(
+              DefaultNodeMetric.THROTTLING_DELAYS, DriverExecutionProfile.DEFAULT_NAME);
+    }
+  }
+
+  @Test
+  public void should_fail_if_no_node_can_accept_request() {
+    NodeRequestLimiter limiter = mockLimiter();
+    when(limiter.tryAcquire(any(Node.class))).thenReturn(false);
+    when(limiter.tryReserve(any(Node.class), anyLong())).thenReturn(-1L);
+
+    try (RequestHandlerTestHarness harness =
+        RequestHandlerTestHarness.builder()
+            .withNodeRequestLimiter(limiter)
+            .withResponse(node1, defaultFrameOf(singleRow()))
+            .withResponse(node2, defaultFrameOf(singleRow()))
+            .build()) {
+
+      CompletionStage<AsyncResultSet> resultSetFuture =
+          new CqlRequestHandler(
+                  UNDEFINED_IDEMPOTENCE_STATEMENT,
+                  harness.getSession(),
+                  harness.getContext(),
+                  "test")
+              .handle();
+
+      assertThatStage(resultSetFuture)
+          .isFailed(
+              error -> {
+                assertThat(error).isInstanceOf(AllNodesFailedException.class);
+                Map<Node, Throwable> errors = ((AllNodesFailedException) error).getErrors();
+                assertThat(errors).containsOnlyKeys(node1, node2);
+                assertThat(errors.get(node1)).isInstanceOf(RequestThrottlingException.class);
+                assertThat(errors.get(node2)).isInstanceOf(RequestThrottlingException.class);
+              });
+    }
+  }
+
+  private static NodeRequestLimiter mockLimiter() {
+    NodeRequestLimiter limiter = mock(NodeRequestLimiter.class);
+    when(limiter.isEnabled()).thenReturn(true);
+    when(limiter.getMaxQueueDelayNanos()).thenReturn(MAX_DELAY_NANOS);
+    return limiter;
+  }
+}
@@ -0,0 +1,167 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.driver.internal.core.cql;
+
+import static com.datastax.oss.driver.Assertions.assertThat;
+import static com.datastax.oss.driver.Assertions.assertThatStage;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.datastax.oss.driver.api.core.DefaultConsistencyLevel;
+import com.datastax.oss.driver.api.core.config.DriverExecutionProfile;
+import com.datastax.oss.driver.api.core.cql.AsyncResultSet;
+import com.datastax.oss.driver.api.core.cql.Statement;
+import com.datastax.oss.driver.api.core.metadata.Node;
+import com.datastax.oss.driver.api.core.metrics.DefaultSessionMetric;
+import com.datastax.oss.driver.api.core.retry.RetryDecision;
+import com.datastax.oss.driver.api.core.retry.RetryPolicy;
+import com.datastax.oss.driver.api.core.servererrors.ReadTimeoutException;
+import com.datastax.oss.driver.api.core.specex.SpeculativeExecutionPolicy;
+import com.datastax.oss.driver.internal.core.retry.RetryBudget;
+import com.datastax.oss.driver.internal.core.util.concurrent.CapturingTimer.CapturedTimeout;
+import com.datastax.oss.protocol.internal.ProtocolConstants;
+import com.datastax.oss.protocol.internal.response.error.ReadTimeout;
+import com.tngtech.java.junit.dataprovider.UseDataProvider;
+import java.util.concurrent.CompletionStage;
+import org.junit.Test;
+
+public class CqlRequestHandlerRetryBudgetTest extends CqlRequestHandlerTestBase {
+
+  @Test
+  @UseDataProvider("idempotentConfig")
+  public void should_rethrow_if_retry_budget_exhausted(
+      boolean defaultIdempotence, Statement<?> statement) {
+    RetryBudget budget = mockBudget(false);
+
+    try (RequestHandlerTestHarness harness =
+        RequestHandlerTestHarness.builder()
+            .withDefaultIdempotence(defaultIdempotence)
+            .withRetryBudget(budget)
+            .withResponse(
+                node1,
+                defaultFrameOf(
+                    new ReadTimeout(
+                        "mock message", ProtocolConstants.ConsistencyLevel.LOCAL_ONE, 1, 2, true)))
+            .withResponse(node2, defaultFrameOf(singleRow()))
+            .build()) {
+      RetryPolicy retryPolicy = harness.getContext().getRetryPolicy(anyString());
+      when(retryPolicy.onReadTimeout(
+              any(Statement.class),
+              eq(DefaultConsistencyLevel.LOCAL_ONE),
+              eq(2),
+              eq(1),
+              eq(true),
+              eq(0)))
+          .thenReturn(RetryDecision.RETRY_NEXT);
+
+      CompletionStage<AsyncResultSet> resultSetFuture =
+          new CqlRequestHandler(statement, harness.getSession(), harness.getContext(), "test")
+              .handle();
+
+      assertThatStage(resultSetFuture)
+          .isFailed(error -> assertThat(error).isInstanceOf(ReadTimeoutException.class));
+      verify(harness.getSession().getMetricUpdater())
+          .incrementCounter(
+              DefaultSessionMetric.RETRY_BUDGET_REJECTIONS, DriverExecutionProfile.DEFAULT_NAME);
+    }
+  }
+
+  @Test
+  @UseDataProvider("idempotentConfig")
+  public void should_retry_and_replenish_budget_if_tokens_available(
+      boolean defaultIdempotence, Statement<?> statement) {
+    RetryBudget budget = mockBudget(true);
+
+    try (RequestHandlerTestHarness harness =
+        RequestHandlerTestHarness.builder()
+            .withDefaultIdempotence(defaultIdempotence)
+            .withRetryBudget(budget)
+            .withResponse(
+                node1,
+                defaultFrameOf(
+                    new ReadTimeout(
+                        "mock message", ProtocolConstants.ConsistencyLevel.LOCAL_ONE, 1, 2, true)))
+            .withResponse(node2, defaultFrameOf(singleRow()))
+            .build()) {
+      RetryPolicy retryPolicy = harness.getContext().getRetryPolicy(anyString());
+      when(retryPolicy.onReadTimeout(
+              any(Statement.class),
+              eq(DefaultConsistencyLevel.LOCAL_ONE),
+              eq(2),
+              eq(1),
+              eq(true),
+              eq(0)))
+          .thenReturn(RetryDecision.RETRY_NEXT);
+
+      CompletionStage<AsyncResultSet> resultSetFuture =
+          new CqlRequestHandler(statement, harness.getSession(), harness.getContext(), "test")
+              .handle();
+
+      assertThatStage(resultSetFuture)
+          .isSuccess(
+              resultSet ->
+                  assertThat(resultSet.getExecutionInfo().getCoordinator()).isEqualTo(node2));
+      verify(budget).tryAcquire();
+      verify(budget).onSuccess();
+    }
+  }
+
+  @Test
+  @UseDataProvider("idempotentConfig")
+  public void should_not_start_speculative_execution_if_retry_budget_exhausted(
+      boolean defaultIdempotence, Statement<?> statement) throws Exception {
+    RetryBudget budget = mockBudget(false);
+    RequestHandlerTestHarness.Builder harnessBuilder =
+        RequestHandlerTestHarness.builder()
+            .withDefaultIdempotence(defaultIdempotence)
+            .withRetryBudget(budget);
+    PoolBehavior node1Behavior = harnessBuilder.customBehavior(node1);
+    PoolBehavior node2Behavior = harnessBuilder.customBehavior(node2);
+
+    try (RequestHandlerTestHarness harness = harnessBuilder.build()) {
+      SpeculativeExecutionPolicy speculativeExecutionPolicy =
+          harness.getContext().getSpeculativeExecutionPolicy(DriverExecutionProfile.DEFAULT_NAME);
+      when(speculativeExecutionPolicy.nextExecution(
+              any(Node.class), eq(null), eq(statement), eq(1)))
+          .thenReturn(100L);
+
+      new CqlRequestHandler(statement, harness.getSession(), harness.getContext(), "test").handle();
+
+      node1Behavior.verifyWrite();
+      node1Behavior.setWriteSuccess();
+
+      harness.nextScheduledTimeout(); // Discard the timeout task
+      CapturedTimeout speculativeExecution1 = harness.nextScheduledTimeout();
+      speculativeExecution1.task().run(speculativeExecution1);
+
+      node2Behavior.verifyNoWrite();
+      verify(harness.getSession().getMetricUpdater())
+          .incrementCounter(
+              DefaultSessionMetric.RETRY_BUDGET_REJECTIONS, DriverExecutionProfile.DEFAULT_NAME);
+    }
+  }
+
+  private static RetryBudget mockBudget(boolean hasTokens) {
+    RetryBudget budget = mock(RetryBudget.class);
+    when(budget.isEnabled()).thenReturn(true);
+    when(budget.tryAcquire()).thenReturn(hasTokens);
+    return budget;
+  }
+}
@@ -15,6 +15,7 @@
  */
 package com.datastax.oss.driver.internal.core.cql;
 
+import static com.datastax.oss.driver.Assertions.assertThat;
 import static com.datastax.oss.driver.Assertions.assertThatStage;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
@@ -25,15 +26,19 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 
+import com.datastax.oss.driver.api.core.config.DefaultDriverOption;
 import com.datastax.oss.driver.api.core.config.DriverExecutionProfile;
 import com.datastax.oss.driver.api.core.cql.AsyncResultSet;
 import com.datastax.oss.driver.api.core.servererrors.BootstrappingException;
+import com.datastax.oss.driver.api.core.tracker.RequestLatencyBreakdown;
+import com.datastax.oss.driver.api.core.tracker.RequestPhase;
 import com.datastax.oss.driver.api.core.tracker.RequestTracker;
 import com.datastax.oss.driver.internal.core.tracker.NoopRequestTracker;
 import com.datastax.oss.protocol.internal.ProtocolConstants;
 import com.datastax.oss.protocol.internal.response.Error;
 import java.util.concurrent.CompletionStage;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 
 public class CqlRequestHandlerTrackerTest extends CqlRequestHandlerTestBase {
 
@@ -90,6 +95,47 @@ public class CqlRequestHandlerTrackerTest extends CqlRequestHandlerTestBase {
     }
   }
 
+  @Test
+  public void should_invoke_request_tracker_with_latency_breakdown_if_enabled() {
+    try (RequestHandlerTestHarness harness =
+        RequestHandlerTestHarness.builder()
+            .withResponse(node1, defaultFrameOf(singleRow()))
+            .build()) {
+
+      DriverExecutionProfile profile = harness.getContext().getConfig().getDefaultProfile();
+      when(profile.getBoolean(DefaultDriverOption.REQUEST_TRACKER_LATENCY_BREAKDOWN_ENABLED, false))
+          .thenReturn(true);
+      RequestTracker requestTracker = mock(RequestTracker.class);
+      when(harness.getContext().getRequestTracker()).thenReturn(requestTracker);
+
+      CompletionStage<AsyncResultSet> resultSetFuture =
+          new CqlRequestHandler(
+                  UNDEFINED_IDEMPOTENCE_STATEMENT,
+                  harness.getSession(),
+                  harness.getContext(),
+                  "test")
+              .handle();
+
+      assertThatStage(resultSetFuture)
+          .isSuccess(
+              resultSet -> {
+                ArgumentCaptor<RequestLatencyBreakdown> breakdownCaptor =
+                    ArgumentCaptor.forClass(RequestLatencyBreakdown.class);
+                verify(requestTracker)
+                    .onLatencyBreakdown(
+                        eq(UNDEFINED_IDEMPOTENCE_STATEMENT),
+                        breakdownCaptor.capture(),
+                        any(DriverExecutionProfile.class),
+                        eq(node1),
+                        any(String.class));
+                RequestLatencyBreakdown breakdown = breakdownCaptor.getValue();
+                for (RequestPhase phase : RequestPhase.values()) {
+                  assertThat(breakdown.getNanos(phase)).isGreaterThanOrEqualTo(0);
+                }
+              });
+    }
+  }
+
   @Test
   public void should_not_invoke_noop_request_tracker() {
     try (RequestHandlerTestHarness harness =
@@ -19,6 +19,8 @@ import static com.datastax.oss.driver.Assertions.assertThat;
 import static com.datastax.oss.driver.Assertions.assertThatStage;
 import static org.mockito.Mockito.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -28,6 +30,7 @@ import com.datastax.oss.driver.api.core.cql.AsyncResultSet;
 import com.datastax.oss.driver.api.core.cql.ColumnDefinition;
 import com.datastax.oss.driver.api.core.cql.ColumnDefinitions;
 import com.datastax.oss.driver.api.core.cql.ExecutionInfo;
+import com.datastax.oss.driver.api.core.cql.Row;
 import com.datastax.oss.driver.api.core.cql.Statement;
 import com.datastax.oss.driver.api.core.type.DataTypes;
 import com.datastax.oss.driver.api.core.type.codec.TypeCodecs;
@@ -37,6 +40,7 @@ import com.datastax.oss.driver.shaded.guava.common.collect.Lists;
 import com.datastax.oss.protocol.internal.util.Bytes;
 import java.nio.ByteBuffer;
 import java.util.ArrayDeque;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Queue;
 import java.util.concurrent.CompletableFuture;
@@ -190,4 +194,54 @@ public class DefaultAsyncResultSetTest {
     // Then
     resultSet.wasApplied();
   }
+
+  @Test
+  public void should_prefetch_next_page_once_threshold_reached() {
+    // Given
+    ByteBuffer mockPagingState = ByteBuffer.allocate(0);
+    when(executionInfo.getPagingState()).thenReturn(mockPagingState);
+    Statement<?> mockNextStatement = mock(Statement.class);
+    when(((Statement) statement).copy(mockPagingState)).thenReturn(mockNextStatement);
+    CompletableFuture<AsyncResultSet> mockResultFuture = new CompletableFuture<>();
+    when(session.executeAsync(any(Statement.class))).thenAnswer(invocation -> mockResultFuture);
+
+    Queue<List<ByteBuffer>> data = new ArrayDeque<>();
+    for (int i = 0; i < 4; i++) {
+      data.add(Lists.newArrayList(Bytes.fromHexString("0xffff")));
+    }
+    DefaultAsyncResultSet resultSet =
+        new DefaultAsyncResultSet(
+            columnDefinitions,
+            executionInfo,
+            data,
+            session,
+            context,
+            new PagingPrefetch(true, 0.5, 1, Long.MAX_VALUE));
+    Iterator<Row> rows = resultSet.currentPage().iterator();
+
+    // When
+    rows.next();
+
+    // Then
+    verify(session, never()).executeAsync(any(Statement.class));
+    assertThat(resultSet.isNextPageRequested()).isFalse();
+
+    // When
+    rows.next();
+
+    // Then
+    verify(session).executeAsync(mockNextStatement);
+    assertThat(resultSet.isNextPageRequested()).isTrue();
+
+    // When
+    rows.next();
+    rows.next();
+    CompletionStage<AsyncResultSet> nextPageFuture = resultSet.fetchNextPage();
+
+    // Then
+    // The prefetched page is returned, and not requested again
+    assertThatStage(nextPageFuture).isEqualTo(mockResultFuture);
+    assertThat(resultSet.fetchNextPage()).isSameAs(nextPageFuture);
+    verify(session, times(1)).executeAsync(any(Statement.class));
+  }
 }
@@ -46,8 +46,10 @@ import com.datastax.oss.driver.internal.core.metadata.DefaultMetadata;
 import com.datastax.oss.driver.internal.core.metadata.LoadBalancingPolicyWrapper;
 import com.datastax.oss.driver.internal.core.metrics.SessionMetricUpdater;
 import com.datastax.oss.driver.internal.core.pool.ChannelPool;
+import com.datastax.oss.driver.internal.core.retry.RetryBudget;
 import com.datastax.oss.driver.internal.core.servererrors.DefaultWriteTypeRegistry;
 import com.datastax.oss.driver.internal.core.session.DefaultSession;
+import com.datastax.oss.driver.internal.core.session.throttling.NodeRequestLimiter;
 import com.datastax.oss.driver.internal.core.session.throttling.PassThroughRequestThrottler;
 import com.datastax.oss.driver.internal.core.tracker.NoopRequestTracker;
 import com.datastax.oss.driver.internal.core.util.concurrent.CapturingTimer;
@@ -165,6 +167,20 @@ public class RequestHandlerTestHarness implements AutoCloseable {
 
     when(context.getRequestThrottler()).thenReturn(new PassThroughRequestThrottler(context));
 
+    NodeRequestLimiter nodeRequestLimiter =
+        (builder.nodeRequestLimiter == null)
+            // Disabled, since per-node limits are not enabled in the mock config
+            ? new NodeRequestLimiter(context)
+            : builder.nodeRequestLimiter;
+    when(context.getNodeRequestLimiter()).thenReturn(nodeRequestLimiter);
+
+    RetryBudget retryBudget =
+        (builder.retryBudget == null)
+            // Disabled, since the retry budget is not enabled in the mock config
+            ? new RetryBudget(context)
+            : builder.retryBudget;
+    when(context.getRetryBudget()).thenReturn(retryBudget);
+
     when(context.getRequestTracker()).thenReturn(new NoopRequestTracker(context));
   }
 
@@ -198,6 +214,8 @@ public class RequestHandlerTestHarness implements AutoCloseable {
     private final List<PoolBehavior> poolBehaviors = new ArrayList<>();
     private boolean defaultIdempotence;
     private ProtocolVersion protocolVersion;
+    private NodeRequestLimiter nodeRequestLimiter;
+    private RetryBudget retryBudget;
 
     /**
      * Sets the given node as the next one in the query plan; an empty pool will be simulated when
@@ -253,6 +271,16 @@ public class RequestHandlerTestHarness implements AutoCloseable {
       return this;
     }
 
+    public Builder withNodeRequestLimiter(NodeRequestLimiter nodeRequestLimiter) {
+      this.nodeRequestLimiter = nodeRequestLimiter;
+      return this;
+    }
+
+    public Builder withRetryBudget(RetryBudget retryBudget) {
+      this.retryBudget = retryBudget;
+      return this;
+    }
+
     /**
      * Sets the given node as the next one in the query plan; the test code is responsible of
      * calling the methods on the returned object to complete the write and the query.
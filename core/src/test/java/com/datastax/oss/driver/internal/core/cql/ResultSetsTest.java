@@ -16,11 +16,16 @@
 package com.datastax.oss.driver.internal.core.cql;
 
 import static com.datastax.oss.driver.Assertions.assertThat;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 import com.datastax.oss.driver.api.core.cql.AsyncResultSet;
 import com.datastax.oss.driver.api.core.cql.ResultSet;
 import com.datastax.oss.driver.api.core.cql.Row;
 import java.util.Iterator;
+import java.util.concurrent.CompletionStage;
 import org.junit.Test;
 
 public class ResultSetsTest extends ResultSetTestBase {
@@ -94,4 +99,95 @@ public class ResultSetsTest extends ResultSetTestBase {
     assertNextRow(iterator, 7);
     assertNextRow(iterator, 8);
   }
+
+  @Test
+  public void should_prefetch_pages_ahead_up_to_max_pages() {
+    // Given
+    AsyncResultSet page1 = mockPage(true, 0, 1, 2, 3);
+    AsyncResultSet page2 = mockPage(true, 4, 5, 6, 7);
+    AsyncResultSet page3 = mockPage(true, 8, 9, 10, 11);
+    AsyncResultSet page4 = mockPage(false, 12, 13, 14, 15);
+    CompletionStage<AsyncResultSet> page2Future = page1.fetchNextPage();
+    CompletionStage<AsyncResultSet> page3Future = page2.fetchNextPage();
+    clearInvocations(page1, page2);
+
+    // When
+    ResultSet resultSet =
+        new MultiPageResultSet(page1, new PagingPrefetch(true, 0.5, 2, Long.MAX_VALUE));
+    Iterator<Row> iterator = resultSet.iterator();
+    assertNextRow(iterator, 0);
+
+    // Then
+    verify(page1, never()).fetchNextPage();
+
+    // When
+    assertNextRow(iterator, 1);
+
+    // Then
+    verify(page1).fetchNextPage();
+    verify(page2, never()).fetchNextPage();
+
+    // When
+    complete(page2Future, page2);
+    assertNextRow(iterator, 2);
+
+    // Then
+    // page3 can be requested now that page2 has arrived
+    verify(page2).fetchNextPage();
+
+    // When
+    complete(page3Future, page3);
+    assertNextRow(iterator, 3);
+
+    // Then
+    // page2 and page3 are buffered, so page4 is not requested yet
+    verify(page3, never()).fetchNextPage();
+
+    // When
+    assertNextRow(iterator, 4);
+    assertNextRow(iterator, 5);
+
+    // Then
+    // The consumer moved to page2, which freed a slot
+    verify(page3).fetchNextPage();
+    assertThat(resultSet.getExecutionInfo()).isEqualTo(page2.getExecutionInfo());
+    complete(page3.fetchNextPage(), page4);
+    for (int i = 6; i < 16; i++) {
+      assertNextRow(iterator, i);
+    }
+    assertThat(iterator.hasNext()).isFalse();
+  }
+
+  @Test
+  public void should_stop_prefetching_when_max_bytes_reached() {
+    // Given
+    AsyncResultSet page1 = mockPage(true, 0, 1);
+    AsyncResultSet page2 = mockPage(true, 2, 3);
+    AsyncResultSet page3 = mockPage(false, 4, 5);
+    when(page2.getExecutionInfo().getResponseSizeInBytes()).thenReturn(1024);
+    complete(page1.fetchNextPage(), page2);
+    complete(page2.fetchNextPage(), page3);
+    clearInvocations(page1, page2);
+
+    // When
+    ResultSet resultSet = new MultiPageResultSet(page1, new PagingPrefetch(true, 0, 5, 1024));
+    Iterator<Row> iterator = resultSet.iterator();
+    assertNextRow(iterator, 0);
+    assertNextRow(iterator, 1);
+
+    // Then
+    // page2 is always prefetched, but it fills the budget so page3 is not
+    verify(page1).fetchNextPage();
+    verify(page2, never()).fetchNextPage();
+
+    // When
+    assertNextRow(iterator, 2);
+
+    // Then
+    verify(page2).fetchNextPage();
+    assertNextRow(iterator, 3);
+    assertNextRow(iterator, 4);
+    assertNextRow(iterator, 5);
+    assertThat(iterator.hasNext()).isFalse();
+  }
 }
@@ -0,0 +1,121 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.driver.internal.core.loadbalancing;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+
+import com.datastax.oss.driver.api.core.CqlIdentifier;
+import com.datastax.oss.driver.api.core.config.DefaultDriverOption;
+import com.datastax.oss.driver.api.core.config.DriverExecutionProfile;
+import com.datastax.oss.driver.api.core.metadata.Metadata;
+import com.datastax.oss.driver.api.core.metadata.Node;
+import com.datastax.oss.driver.api.core.metadata.TokenMap;
+import com.datastax.oss.driver.api.core.session.Request;
+import com.datastax.oss.driver.internal.core.session.DefaultSession;
+import com.datastax.oss.driver.internal.core.util.collection.LazyQueryPlan;
+import com.datastax.oss.driver.shaded.guava.common.collect.ImmutableMap;
+import com.datastax.oss.driver.shaded.guava.common.collect.ImmutableSet;
+import com.datastax.oss.protocol.internal.util.Bytes;
+import java.nio.ByteBuffer;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.UUID;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+// The parent class stubs options that the basic policy doesn't read
+@RunWith(MockitoJUnitRunner.Silent.class)
+public class BasicLoadBalancingPolicyLazyQueryPlanTest extends DefaultLoadBalancingPolicyTestBase {
+
+  private static final CqlIdentifier KEYSPACE = CqlIdentifier.fromInternal("ks");
+  private static final ByteBuffer ROUTING_KEY = Bytes.fromHexString("0xdeadbeef");
+
+  @Mock private Request request;
+  @Mock private DefaultSession session;
+  @Mock private Metadata metadata;
+  @Mock private TokenMap tokenMap;
+
+  private BasicLoadBalancingPolicy policy;
+
+  @Before
+  @Override
+  public void setup() {
+    super.setup();
+    given(
+            defaultProfile.getBoolean(
+                DefaultDriverOption.LOAD_BALANCING_POLICY_LAZY_QUERY_PLANS, false))
+        .willReturn(true);
+    given(metadataManager.getMetadata()).willReturn(metadata);
+    given(metadata.getTokenMap()).willAnswer(invocation -> Optional.of(tokenMap));
+
+    policy = new BasicLoadBalancingPolicy(context, DriverExecutionProfile.DEFAULT_NAME);
+    policy.init(
+        ImmutableMap.of(
+            UUID.randomUUID(), node1,
+            UUID.randomUUID(), node2,
+            UUID.randomUUID(), node3,
+            UUID.randomUUID(), node4,
+            UUID.randomUUID(), node5),
+        distanceReporter);
+  }
+
+  @Test
+  public void should_use_round_robin_when_no_routing_information() {
+    Queue<Node> plan1 = policy.newQueryPlan(request, session);
+    Queue<Node> plan2 = policy.newQueryPlan(request, session);
+    Queue<Node> plan3 = policy.newQueryPlan(null, null);
+
+    assertThat(plan1).isInstanceOf(LazyQueryPlan.class);
+    assertThat(plan1).containsExactly(node1, node2, node3, node4, node5);
+    assertThat(plan2).containsExactly(node2, node3, node4, node5, node1);
+    assertThat(plan3).containsExactly(node3, node4, node5, node1, node2);
+  }
+
+  @Test
+  public void should_prioritize_replicas() {
+    given(request.getRoutingKeyspace()).willReturn(KEYSPACE);
+    given(request.getRoutingKey()).willReturn(ROUTING_KEY);
+    given(tokenMap.getReplicas(KEYSPACE, ROUTING_KEY)).willReturn(ImmutableSet.of(node3, node5));
+
+    for (int i = 0; i < 10; i++) {
+      Queue<Node> plan = policy.newQueryPlan(request, session);
+      assertThat(plan).hasSize(5);
+      assertThat(plan.poll()).isIn(node3, node5);
+      assertThat(plan.poll()).isIn(node3, node5);
+      assertThat(plan).containsOnly(node1, node2, node4);
+    }
+  }
+
+  @Test
+  public void should_exclude_down_nodes() {
+    given(request.getRoutingKeyspace()).willReturn(KEYSPACE);
+    given(request.getRoutingKey()).willReturn(ROUTING_KEY);
+    given(tokenMap.getReplicas(KEYSPACE, ROUTING_KEY)).willReturn(ImmutableSet.of(node3, node5));
+
+    policy.onDown(node3);
+    policy.onRemove(node1);
+
+    assertThat(policy.newQueryPlan(request, session)).containsExactly(node5, node2, node4);
+
+    policy.onUp(node3);
+
+    assertThat(policy.newQueryPlan(request, session)).hasSize(4).contains(node3);
+  }
+}
@@ -0,0 +1,264 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.driver.internal.core.loadbalancing;
+
+import static com.datastax.oss.driver.api.core.config.DriverExecutionProfile.DEFAULT_NAME;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+
+import com.datastax.dse.driver.internal.core.tracker.MultiplexingRequestTracker;
+import com.datastax.oss.driver.api.core.config.DefaultDriverOption;
+import com.datastax.oss.driver.api.core.config.DriverExecutionProfile;
+import com.datastax.oss.driver.api.core.metadata.Node;
+import com.datastax.oss.driver.internal.core.pool.ChannelPool;
+import com.datastax.oss.driver.shaded.guava.common.collect.ImmutableMap;
+import com.datastax.oss.driver.shaded.guava.common.collect.ImmutableSet;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+
+public class LatencyAwareLoadBalancingPolicyQueryPlanTest
+    extends BasicLoadBalancingPolicyQueryPlanTest {
+
+  private static final long DECAY_TIME = TimeUnit.SECONDS.toNanos(1);
+  private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+
+  @Mock protected ChannelPool pool1;
+  @Mock protected ChannelPool pool2;
+  @Mock protected ChannelPool pool3;
+  @Mock protected ChannelPool pool4;
+  @Mock protected ChannelPool pool5;
+  @Mock protected DriverExecutionProfile executionProfile;
+
+  long nanoTime;
+
+  private LatencyAwareLoadBalancingPolicy latencyPolicy;
+
+  @Before
+  @Override
+  public void setup() {
+    given(context.getRequestTracker()).willReturn(new MultiplexingRequestTracker());
+    given(
+            defaultProfile.getDuration(
+                eq(DefaultDriverOption.LOAD_BALANCING_POLICY_LATENCY_DECAY_TIME), any()))
+        .willReturn(Duration.ofNanos(DECAY_TIME));
+    nanoTime = 0;
+    given(session.getPools())
+        .willReturn(
+            ImmutableMap.of(
+                node1, pool1,
+                node2, pool2,
+                node3, pool3,
+                node4, pool4,
+                node5, pool5));
+    given(context.getMetadataManager()).willReturn(metadataManager);
+    given(metadataManager.getMetadata()).willReturn(metadata);
+    given(metadataManager.getContactPoints()).willReturn(ImmutableSet.of(node1));
+    given(metadata.getTokenMap()).willAnswer(invocation -> Optional.of(tokenMap));
+    super.setup();
+    latencyPolicy = (LatencyAwareLoadBalancingPolicy) policy;
+  }
+
+  @Test
+  @Override
+  public void should_prioritize_and_shuffle_replicas() {
+    givenReplicas(node3, node5);
+
+    // No latency information, no in-flight requests: the shuffled order is preserved
+    assertThat(policy.newQueryPlan(request, session))
+        .containsExactly(node3, node5, node1, node2, node4);
+    assertThat(policy.newQueryPlan(request, session))
+        .containsExactly(node3, node5, node2, node4, node1);
+    assertThat(policy.newQueryPlan(request, session))
+        .containsExactly(node3, node5, node4, node1, node2);
+
+    then(policy).should(times(3)).shuffleHead(any(), eq(2));
+  }
+
+  @Test
+  public void should_order_replicas_by_latency() {
+    // Given
+    givenReplicas(node1, node3, node5);
+    respond(node1, 30 * MS);
+    respond(node3, 10 * MS);
+    respond(node5, 20 * MS);
+
+    // When / Then
+    assertThat(policy.newQueryPlan(request, session))
+        .containsExactly(node3, node5, node1, node2, node4);
+  }
+
+  @Test
+  public void should_take_in_flight_requests_into_account() {
+    // Given
+    givenReplicas(node1, node3, node5);
+    respond(node1, 30 * MS);
+    respond(node3, 10 * MS);
+    respond(node5, 20 * MS);
+    // 10ms * 4 = 40ms > 30ms * 1 > 20ms * 1
+    given(pool3.getInFlight()).willReturn(3);
+
+    // When / Then
+    assertThat(policy.newQueryPlan(request, session))
+        .containsExactly(node5, node1, node3, node2, node4);
+  }
+
+  @Test
+  public void should_assume_average_latency_for_unknown_replicas() {
+    // Given
+    givenReplicas(node1, node3, node5);
+    respond(node1, 30 * MS);
+    respond(node5, 10 * MS);
+
+    // When / Then
+    // node3 is assumed to be at 20ms
+    assertThat(policy.newQueryPlan(request, session))
+        .containsExactly(node5, node3, node1, node2, node4);
+  }
+
+  @Test
+  public void should_react_immediately_to_slower_response() {
+    // Given
+    givenReplicas(node1, node3);
+    respond(node1, MS);
+    respond(node3, 2 * MS);
+    assertThat(policy.newQueryPlan(request, session)).startsWith(node1, node3);
+
+    // When
+    respond(node1, 100 * MS);
+
+    // Then
+    assertThat(policy.newQueryPlan(request, session)).startsWith(node3, node1);
+  }
+
+  @Test
+  public void should_recover_after_slow_node_stops_responding() {
+    // Given
+    givenReplicas(node1, node3);
+    respond(node1, 100 * MS);
+    respond(node3, 2 * MS);
+    assertThat(policy.newQueryPlan(request, session)).startsWith(node3, node1);
+
+    // When
+    nanoTime += 10 * DECAY_TIME;
+    respond(node3, 2 * MS);
+
+    // Then
+    // node1's estimate has decayed to ~4.5µs
+    assertThat(policy.newQueryPlan(request, session)).startsWith(node1, node3);
+  }
+
+  @Test
+  public void should_compute_peak_ewma() {
+    // First sample is taken as is
+    respond(node1, 10 * MS);
+    assertThat(estimate(node1)).isEqualTo(10.0 * MS);
+
+    // Lower samples are averaged, weighted by the elapsed time
+    nanoTime += DECAY_TIME;
+    respond(node1, 5 * MS);
+    double weight = Math.exp(-1);
+    double expected = 10 * MS * weight + 5 * MS * (1 - weight);
+    assertThat(estimate(node1)).isCloseTo(expected, within(1.0));
+
+    // Higher samples are taken as is
+    respond(node1, 50 * MS);
+    assertThat(estimate(node1)).isEqualTo(50.0 * MS);
+
+    // The estimate decays over time
+    nanoTime += DECAY_TIME;
+    assertThat(estimate(node1)).isCloseTo(50 * MS * weight, within(1.0));
+  }
+
+  @Test
+  public void should_only_raise_estimate_on_error() {
+    // Given
+    respond(node1, 10 * MS);
+
+    // When
+    latencyPolicy.onNodeError(request, new RuntimeException(), MS, executionProfile, node1, "test");
+
+    // Then
+    assertThat(estimate(node1)).isEqualTo(10.0 * MS);
+
+    // When
+    latencyPolicy.onNodeError(
+        request, new RuntimeException(), 20 * MS, executionProfile, node1, "test");
+
+    // Then
+    assertThat(estimate(node1)).isEqualTo(20.0 * MS);
+  }
+
+  @Test
+  public void should_reset_estimate_when_node_comes_back_up() {
+    // Given
+    respond(node1, 10 * MS);
+
+    // When
+    latencyPolicy.onUp(node1);
+
+    // Then
+    assertThat(latencyPolicy.latencies).doesNotContainKey(node1);
+  }
+
+  private void givenReplicas(Node... replicas) {
+    given(request.getRoutingKeyspace()).willReturn(KEYSPACE);
+    given(request.getRoutingKey()).willReturn(ROUTING_KEY);
+    given(tokenMap.getReplicas(KEYSPACE, ROUTING_KEY)).willReturn(ImmutableSet.copyOf(replicas));
+  }
+
+  private void respond(Node node, long latencyNanos) {
+    latencyPolicy.onNodeSuccess(request, latencyNanos, executionProfile, node, "test");
+  }
+
+  private double estimate(Node node) {
+    return latencyPolicy.latencies.get(node).get(nanoTime);
+  }
+
+  @Override
+  protected LatencyAwareLoadBalancingPolicy createAndInitPolicy() {
+    LatencyAwareLoadBalancingPolicy policy =
+        spy(
+            new LatencyAwareLoadBalancingPolicy(context, DEFAULT_NAME) {
+              @Override
+              protected void shuffleHead(Object[] array, int n) {}
+
+              @Override
+              protected long nanoTime() {
+                return nanoTime;
+              }
+            });
+    policy.init(
+        ImmutableMap.of(
+            UUID.randomUUID(), node1,
+            UUID.randomUUID(), node2,
+            UUID.randomUUID(), node3,
+            UUID.randomUUID(), node4,
+            UUID.randomUUID(), node5),
+        distanceReporter);
+    return policy;
+  }
+}
@@ -138,6 +138,42 @@ public class DefaultTokenMapTest {
     assertThat(tokenMap.getReplicas(KS2, ROUTING_KEY41)).containsOnly(node1);
   }
 
+  @Test
+  public void should_return_same_replicas_as_array() {
+    // Given
+    Node node1 = mockNode(DC1, RACK1, ImmutableSet.of(TOKEN1));
+    Node node2 = mockNode(DC2, RACK2, ImmutableSet.of(TOKEN2));
+    Node node3 = mockNode(DC1, RACK1, ImmutableSet.of(TOKEN3));
+    Node node4 = mockNode(DC2, RACK2, ImmutableSet.of(TOKEN4));
+    List<Node> nodes = ImmutableList.of(node1, node2, node3, node4);
+    List<KeyspaceMetadata> keyspaces =
+        ImmutableList.of(
+            mockKeyspace(KS1, REPLICATE_ON_BOTH_DCS), mockKeyspace(KS2, REPLICATE_ON_DC1));
+
+    // When
+    DefaultTokenMap tokenMap =
+        DefaultTokenMap.build(nodes, keyspaces, TOKEN_FACTORY, replicationStrategyFactory, "test");
+
+    // Then
+    for (CqlIdentifier keyspace : ImmutableList.of(KS1, KS2)) {
+      for (ByteBuffer key :
+          ImmutableList.of(ROUTING_KEY12, ROUTING_KEY23, ROUTING_KEY34, ROUTING_KEY41)) {
+        assertThat(tokenMap.getReplicaArray(keyspace, key))
+            .containsExactlyElementsOf(tokenMap.getReplicas(keyspace, key));
+      }
+      for (String token : ImmutableList.of(TOKEN1, TOKEN2, TOKEN3, TOKEN4)) {
+        Token t = TOKEN_FACTORY.parse(token);
+        assertThat(tokenMap.getReplicaArray(keyspace, t))
+            .containsExactlyElementsOf(tokenMap.getReplicas(keyspace, t));
+      }
+    }
+    // Arrays are precomputed
+    assertThat(tokenMap.getReplicaArray(KS1, ROUTING_KEY12))
+        .isSameAs(tokenMap.getReplicaArray(KS1, ROUTING_KEY12));
+    assertThat(tokenMap.getReplicaArray(CqlIdentifier.fromInternal("unknown"), ROUTING_KEY12))
+        .isEmpty();
+  }
+
   @Test
   public void should_build_token_map_with_single_node() {
     // Given
@@ -0,0 +1,237 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.driver.internal.core.metadata.token;
+
+import static com.datastax.oss.driver.Assertions.assertThat;
+import static com.datastax.oss.driver.Assertions.assertThatStage;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.RETURNS_SELF;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.datastax.oss.driver.api.core.CqlIdentifier;
+import com.datastax.oss.driver.api.core.CqlSession;
+import com.datastax.oss.driver.api.core.cql.AsyncResultSet;
+import com.datastax.oss.driver.api.core.cql.BoundStatement;
+import com.datastax.oss.driver.api.core.cql.BoundStatementBuilder;
+import com.datastax.oss.driver.api.core.cql.PreparedStatement;
+import com.datastax.oss.driver.api.core.cql.Row;
+import com.datastax.oss.driver.api.core.cql.SimpleStatement;
+import com.datastax.oss.driver.api.core.cql.Statement;
+import com.datastax.oss.driver.api.core.metadata.Metadata;
+import com.datastax.oss.driver.api.core.metadata.Node;
+import com.datastax.oss.driver.api.core.metadata.NodeState;
+import com.datastax.oss.driver.api.core.metadata.TokenMap;
+import com.datastax.oss.driver.api.core.metadata.schema.ColumnMetadata;
+import com.datastax.oss.driver.api.core.metadata.schema.KeyspaceMetadata;
+import com.datastax.oss.driver.api.core.metadata.schema.TableMetadata;
+import com.datastax.oss.driver.api.core.metadata.token.TokenRange;
+import com.datastax.oss.driver.api.core.metadata.token.TokenRangeScan;
+import com.datastax.oss.driver.api.core.metadata.token.TokenRangeScanBuilder;
+import com.datastax.oss.driver.api.core.metadata.token.TokenRangeScanListener;
+import com.datastax.oss.driver.shaded.guava.common.collect.ImmutableList;
+import com.datastax.oss.driver.shaded.guava.common.collect.ImmutableSet;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+public class DefaultTokenRangeScanTest {
+
+  private static final CqlIdentifier KEYSPACE = CqlIdentifier.fromInternal("ks");
+  private static final CqlIdentifier TABLE = CqlIdentifier.fromInternal("t");
+  private static final Murmur3Token MIN = Murmur3TokenFactory.MIN_TOKEN;
+
+  private static final TokenRange RANGE1 = range(-100, 0);
+  private static final TokenRange RANGE2 = range(0, 100);
+  private static final TokenRange RANGE3 = range(100, -100);
+
+  @Mock private CqlSession session;
+  @Mock private Metadata metadata;
+  @Mock private TokenMap tokenMap;
+  @Mock private KeyspaceMetadata keyspaceMetadata;
+  @Mock private TableMetadata tableMetadata;
+  @Mock private ColumnMetadata partitionKey1;
+  @Mock private ColumnMetadata partitionKey2;
+  @Mock private Node node1;
+  @Mock private Node node2;
+
+  @Before
+  public void setup() {
+    MockitoAnnotations.initMocks(this);
+
+    when(session.getName()).thenReturn("s0");
+    when(session.getMetadata()).thenReturn(metadata);
+    when(metadata.getTokenMap()).thenReturn(Optional.of(tokenMap));
+    when(metadata.getKeyspace(KEYSPACE)).thenReturn(Optional.of(keyspaceMetadata));
+    when(keyspaceMetadata.getTable(TABLE)).thenReturn(Optional.of(tableMetadata));
+    when(partitionKey1.getName()).thenReturn(CqlIdentifier.fromInternal("k1"));
+    when(partitionKey2.getName()).thenReturn(CqlIdentifier.fromInternal("K2"));
+    when(tableMetadata.getPartitionKey())
+        .thenReturn(ImmutableList.of(partitionKey1, partitionKey2));
+
+    when(node1.getState()).thenReturn(NodeState.UP);
+    when(node2.getState()).thenReturn(NodeState.UP);
+    when(tokenMap.getTokenRanges()).thenReturn(ImmutableSet.of(RANGE3, RANGE2, RANGE1));
+    when(tokenMap.getReplicas(KEYSPACE, RANGE1)).thenReturn(ImmutableSet.of(node1));
+    when(tokenMap.getReplicas(KEYSPACE, RANGE2)).thenReturn(ImmutableSet.of(node1));
+    when(tokenMap.getReplicas(KEYSPACE, RANGE3)).thenReturn(ImmutableSet.of(node2));
+  }
+
+  @Test
+  public void should_generate_queries() {
+    // When
+    DefaultTokenRangeScan scan = (DefaultTokenRangeScan) builder().withColumns("c1").build();
+
+    // Then
+    assertThat(scan.getOpenEndedQuery())
+        .isEqualTo("SELECT c1 FROM ks.t WHERE token(k1,\"K2\") > ?");
+    assertThat(scan.getRangeQuery())
+        .isEqualTo("SELECT c1 FROM ks.t WHERE token(k1,\"K2\") > ? AND token(k1,\"K2\") <= ?");
+  }
+
+  @Test
+  public void should_unwrap_ranges_in_ring_order() {
+    // When
+    TokenRangeScan scan = builder().build();
+
+    // Then
+    assertThat(scan.getRanges())
+        .containsExactly(RANGE1, RANGE2, new Murmur3TokenRange(token(100), MIN), range(MIN, -100));
+  }
+
+  @Test
+  public void should_split_ranges() {
+    // When
+    TokenRangeScan scan = builder().withSplitsPerRange(2).build();
+
+    // Then
+    assertThat(scan.getRanges().subList(0, 4))
+        .containsExactly(range(-100, -50), range(-50, 0), range(0, 50), range(50, 100));
+  }
+
+  @Test
+  public void should_skip_completed_ranges() {
+    // When
+    TokenRangeScan scan =
+        builder()
+            .withSplitsPerRange(2)
+            // Covers (-100,-50] and (-50,0], but only part of (0,50]
+            .withCompletedRanges(ImmutableList.of(range(-200, 10)))
+            .build();
+
+    // Then
+    assertThat(scan.getRanges().subList(0, 2)).containsExactly(range(0, 50), range(50, 100));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void should_fail_if_table_does_not_exist() {
+    when(keyspaceMetadata.getTable(TABLE)).thenReturn(Optional.empty());
+    builder().build();
+  }
+
+  @Test
+  public void should_read_ranges_with_bounded_parallelism_per_node() {
+    // Given
+    PreparedStatement preparedStatement = mock(PreparedStatement.class);
+    when(session.prepareAsync(any(SimpleStatement.class)))
+        .thenReturn(CompletableFuture.completedFuture(preparedStatement));
+    BoundStatementBuilder statementBuilder = mock(BoundStatementBuilder.class, RETURNS_SELF);
+    when(statementBuilder.build()).thenReturn(mock(BoundStatement.class));
+    when(preparedStatement.boundStatementBuilder()).thenReturn(statementBuilder);
+
+    List<CompletableFuture<AsyncResultSet>> responses = new ArrayList<>();
+    when(session.executeAsync(any(Statement.class)))
+        .thenAnswer(
+            invocation -> {
+              CompletableFuture<AsyncResultSet> response = new CompletableFuture<>();
+              responses.add(response);
+              return response;
+            });
+
+    List<TokenRange> completedRanges = new ArrayList<>();
+    List<Row> rows = new ArrayList<>();
+    TokenRangeScanListener listener =
+        new TokenRangeScanListener() {
+          @Override
+          public void onRow(Row row, TokenRange range) {
+            rows.add(row);
+          }
+
+          @Override
+          public void onRangeCompleted(TokenRange range) {
+            completedRanges.add(range);
+          }
+        };
+
+    // When
+    // node1 owns 2 ranges, node2 owns 2 ranges (the wrapped range is unwrapped)
+    CompletionStage<Void> done = builder().build().executeAsync(listener);
+
+    // Then
+    // Only one query per node
+    verify(session, times(2)).executeAsync(any(Statement.class));
+
+    // When
+    responses.get(0).complete(page(mock(Row.class)));
+    responses.get(1).complete(page(mock(Row.class)));
+
+    // Then
+    verify(session, times(4)).executeAsync(any(Statement.class));
+    assertThatStage(done).isNotDone();
+
+    // When
+    responses.get(2).complete(page(mock(Row.class)));
+    responses.get(3).complete(page(mock(Row.class)));
+
+    // Then
+    assertThatStage(done).isSuccess();
+    assertThat(rows).hasSize(4);
+    assertThat(completedRanges)
+        .containsExactlyInAnyOrder(
+            RANGE1, RANGE2, new Murmur3TokenRange(token(100), MIN), range(MIN, -100));
+  }
+
+  private TokenRangeScanBuilder builder() {
+    return TokenRangeScan.builder(session, KEYSPACE, TABLE);
+  }
+
+  private static AsyncResultSet page(Row... rows) {
+    AsyncResultSet page = mock(AsyncResultSet.class);
+    when(page.currentPage()).thenReturn(ImmutableList.copyOf(rows));
+    when(page.hasMorePages()).thenReturn(false);
+    return page;
+  }
+
+  private static Murmur3Token token(long value) {
+    return new Murmur3Token(value);
+  }
+
+  private static TokenRange range(long start, long end) {
+    return new Murmur3TokenRange(token(start), token(end));
+  }
+
+  private static TokenRange range(Murmur3Token start, long end) {
+    return new Murmur3TokenRange(start, token(end));
+  }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.driver.internal.core.metrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import com.codahale.metrics.Snapshot;
+import com.codahale.metrics.Timer;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+
+public class LatencyHistogramTest {
+
+  @Test
+  public void should_return_empty_snapshot_before_first_refresh() {
+    LatencyHistogram histogram =
+        new LatencyHistogram(Duration.ofSeconds(1), 3, Duration.ofMinutes(5), 4, "test");
+    histogram.record(10, TimeUnit.MILLISECONDS);
+
+    assertThat(histogram.getCount()).isEqualTo(1);
+    assertThat(histogram.getSnapshot().getCount()).isEqualTo(0);
+  }
+
+  @Test
+  public void should_merge_values_recorded_from_multiple_threads() throws InterruptedException {
+    LatencyHistogram histogram =
+        new LatencyHistogram(Duration.ofSeconds(1), 3, Duration.ZERO, 4, "test");
+    int threads = 8;
+    CountDownLatch done = new CountDownLatch(threads);
+    for (int i = 0; i < threads; i++) {
+      new Thread(
+              () -> {
+                for (int j = 1; j <= 100; j++) {
+                  histogram.record(j, TimeUnit.MILLISECONDS);
+                }
+                done.countDown();
+              })
+          .start();
+    }
+    assertThat(done.await(10, TimeUnit.SECONDS)).isTrue();
+
+    LatencySnapshot snapshot = histogram.getSnapshot();
+    assertThat(snapshot.getCount()).isEqualTo(800);
+    assertThat(snapshot.getMin()).isEqualTo(TimeUnit.MILLISECONDS.toNanos(1));
+    assertThat((double) snapshot.getMax())
+        .isCloseTo(TimeUnit.MILLISECONDS.toNanos(100), within(100_000.0));
+    assertThat((double) snapshot.getValue(0.5))
+        .isCloseTo(TimeUnit.MILLISECONDS.toNanos(50), within(100_000.0));
+
+    // The next snapshot only covers the values recorded since the previous one
+    histogram.record(5, TimeUnit.MILLISECONDS);
+    assertThat(histogram.getSnapshot().getCount()).isEqualTo(1);
+    assertThat(histogram.getCount()).isEqualTo(801);
+  }
+
+  @Test
+  public void should_discard_out_of_bounds_values() {
+    LatencyHistogram histogram =
+        new LatencyHistogram(Duration.ofSeconds(1), 3, Duration.ZERO, 1, "test");
+    histogram.record(1, TimeUnit.HOURS);
+
+    assertThat(histogram.getSnapshot().getCount()).isEqualTo(0);
+  }
+
+  @Test
+  public void should_expose_histogram_as_dropwizard_timer() {
+    LatencyHistogram histogram =
+        new LatencyHistogram(Duration.ofSeconds(1), 3, Duration.ZERO, 2, "test");
+    Timer timer = new HdrTimer(histogram);
+    timer.update(10, TimeUnit.MILLISECONDS);
+    timer.update(20, TimeUnit.MILLISECONDS);
+
+    assertThat(timer.getCount()).isEqualTo(2);
+    assertThat(timer.getMeanRate()).isGreaterThan(0);
+    Snapshot snapshot = timer.getSnapshot();
+    assertThat(snapshot.size()).isEqualTo(2);
+    assertThat((double) snapshot.getMax())
+        .isCloseTo(TimeUnit.MILLISECONDS.toNanos(20), within(100_000.0));
+  }
+}
@@ -16,12 +16,15 @@
 package com.datastax.oss.driver.internal.core.pool;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.timeout;
 import static org.mockito.Mockito.when;
 
 import com.datastax.oss.driver.api.core.CqlIdentifier;
+import com.datastax.oss.driver.api.core.config.DefaultDriverOption;
 import com.datastax.oss.driver.api.core.config.DriverConfig;
 import com.datastax.oss.driver.api.core.config.DriverExecutionProfile;
 import com.datastax.oss.driver.api.core.connection.ReconnectionPolicy;
@@ -75,6 +78,9 @@ abstract class ChannelPoolTestBase {
     when(nettyOptions.adminEventExecutorGroup()).thenReturn(adminEventLoopGroup);
     when(context.getConfig()).thenReturn(config);
     when(config.getDefaultProfile()).thenReturn(defaultProfile);
+    when(defaultProfile.getString(
+            eq(DefaultDriverOption.CONNECTION_POOL_CHANNEL_SELECTION), anyString()))
+        .thenReturn("MOST_AVAILABLE");
     this.eventBus = spy(new EventBus("test"));
     when(context.getEventBus()).thenReturn(eventBus);
     when(context.getChannelFactory()).thenReturn(channelFactory);
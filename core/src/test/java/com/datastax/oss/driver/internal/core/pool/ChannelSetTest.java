@@ -174,4 +174,91 @@ public class ChannelSetTest {
     // Then
     assertThat(set.next()).isNull();
   }
+
+  @Test
+  public void should_never_pick_least_available_with_power_of_two_choices() {
+    // Given
+    set = new ChannelSet(ChannelSelection.POWER_OF_TWO_CHOICES);
+    when(channel1.getAvailableIds()).thenReturn(2);
+    when(channel2.getAvailableIds()).thenReturn(12);
+    when(channel3.getAvailableIds()).thenReturn(8);
+    when(channel1.preAcquireId()).thenReturn(true);
+    when(channel2.preAcquireId()).thenReturn(true);
+    when(channel3.preAcquireId()).thenReturn(true);
+
+    // When
+    set.add(channel1);
+    set.add(channel2);
+    set.add(channel3);
+
+    // Then
+    // Whatever the random candidates, channel1 always loses the comparison
+    for (int i = 0; i < 100; i++) {
+      assertThat(set.next()).isIn(channel2, channel3);
+    }
+    verify(channel1, never()).preAcquireId();
+  }
+
+  @Test
+  public void should_pick_most_available_of_two_with_power_of_two_choices() {
+    // Given
+    set = new ChannelSet(ChannelSelection.POWER_OF_TWO_CHOICES);
+    when(channel1.getAvailableIds()).thenReturn(2);
+    when(channel2.getAvailableIds()).thenReturn(12);
+    when(channel2.preAcquireId()).thenReturn(true);
+
+    // When
+    set.add(channel1);
+    set.add(channel2);
+
+    // Then
+    for (int i = 0; i < 10; i++) {
+      assertThat(set.next()).isEqualTo(channel2);
+    }
+  }
+
+  @Test
+  public void should_fall_back_to_full_scan_when_candidates_full_with_power_of_two_choices() {
+    // Given
+    set = new ChannelSet(ChannelSelection.POWER_OF_TWO_CHOICES);
+    when(channel1.getAvailableIds()).thenReturn(0);
+    when(channel2.getAvailableIds()).thenReturn(0);
+    when(channel3.getAvailableIds()).thenReturn(1);
+    when(channel3.preAcquireId()).thenReturn(true);
+
+    // When
+    set.add(channel1);
+    set.add(channel2);
+    set.add(channel3);
+
+    // Then
+    for (int i = 0; i < 10; i++) {
+      assertThat(set.next()).isEqualTo(channel3);
+    }
+  }
+
+  @Test
+  public void should_return_null_when_all_full_with_power_of_two_choices() {
+    // Given
+    set = new ChannelSet(ChannelSelection.POWER_OF_TWO_CHOICES);
+    when(channel1.getAvailableIds()).thenReturn(0);
+    when(channel2.getAvailableIds()).thenReturn(0);
+    when(channel3.getAvailableIds()).thenReturn(0);
+
+    // When
+    set.add(channel1);
+    set.add(channel2);
+    set.add(channel3);
+
+    // Then
+    assertThat(set.next()).isNull();
+  }
+
+  @Test
+  public void should_parse_channel_selection_from_config() {
+    assertThat(ChannelSelection.fromConfig("power_of_two_choices"))
+        .isEqualTo(ChannelSelection.POWER_OF_TWO_CHOICES);
+    assertThat(ChannelSelection.fromConfig(" MOST_AVAILABLE "))
+        .isEqualTo(ChannelSelection.MOST_AVAILABLE);
+  }
 }
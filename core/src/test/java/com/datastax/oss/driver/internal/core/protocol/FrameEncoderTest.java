@@ -0,0 +1,145 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.driver.internal.core.protocol;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.datastax.oss.driver.api.core.metrics.DefaultNodeMetric;
+import com.datastax.oss.driver.internal.core.channel.ChannelHandlerTestBase;
+import com.datastax.oss.driver.internal.core.metrics.NodeMetricUpdater;
+import com.datastax.oss.driver.shaded.guava.common.base.Strings;
+import com.datastax.oss.driver.shaded.guava.common.collect.ImmutableMap;
+import com.datastax.oss.protocol.internal.Compressor;
+import com.datastax.oss.protocol.internal.Frame;
+import com.datastax.oss.protocol.internal.FrameCodec;
+import com.datastax.oss.protocol.internal.Message;
+import com.datastax.oss.protocol.internal.ProtocolConstants;
+import com.datastax.oss.protocol.internal.request.Query;
+import com.datastax.oss.protocol.internal.request.Startup;
+import com.datastax.oss.protocol.internal.util.Flags;
+import io.netty.buffer.ByteBuf;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.junit.Before;
+import org.junit.Test;
+
+public class FrameEncoderTest extends ChannelHandlerTestBase {
+
+  private static final int THRESHOLD = 64;
+
+  private NodeMetricUpdater metricUpdater;
+  private FrameCodec<ByteBuf> serverCodec;
+
+  @Before
+  @Override
+  public void setup() {
+    super.setup();
+    Lz4Compressor compressor = SegmentCodecTest.newLz4Compressor();
+    metricUpdater = mock(NodeMetricUpdater.class);
+    when(metricUpdater.isEnabled(DefaultNodeMetric.COMPRESSION_TIME, null)).thenReturn(true);
+    FrameCodec<ByteBuf> clientCodec =
+        FrameCodec.defaultClient(new ByteBufPrimitiveCodec(channel.alloc()), Compressor.none());
+    serverCodec = FrameCodec.defaultServer(new ByteBufPrimitiveCodec(channel.alloc()), compressor);
+    channel
+        .pipeline()
+        .addLast(new FrameEncoder(clientCodec, compressor, THRESHOLD, metricUpdater, 1024 * 1024));
+  }
+
+  @Test
+  public void should_not_compress_frame_below_threshold() {
+    Query query = new Query("SELECT * FROM t");
+
+    Frame frame = writeAndDecode(query, false);
+
+    assertThat(((Query) frame.message).query).isEqualTo(query.query);
+    verify(metricUpdater).incrementCounter(DefaultNodeMetric.COMPRESSION_SKIPS, null);
+    verify(metricUpdater, never())
+        .updateTimer(eq(DefaultNodeMetric.COMPRESSION_TIME), any(), anyLong(), any());
+  }
+
+  @Test
+  public void should_compress_frame_above_threshold() {
+    Query query = new Query("SELECT * FROM t WHERE " + Strings.repeat("c = 1 AND ", 100) + "d = 1");
+
+    Frame frame = writeAndDecode(query, true);
+
+    assertThat(((Query) frame.message).query).isEqualTo(query.query);
+    verify(metricUpdater)
+        .updateTimer(
+            eq(DefaultNodeMetric.COMPRESSION_TIME), eq(null), anyLong(), eq(TimeUnit.NANOSECONDS));
+    verify(metricUpdater)
+        .updateHistogram(eq(DefaultNodeMetric.COMPRESSION_RATIO), eq(null), anyLong());
+    verify(metricUpdater, never()).incrementCounter(DefaultNodeMetric.COMPRESSION_SKIPS, null);
+  }
+
+  @Test
+  public void should_not_compress_frame_that_does_not_shrink() {
+    // Random characters: LZ4 won't find any matches, and adds its own overhead
+    Random random = new Random(1);
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < 200; i++) {
+      sb.append((char) (33 + random.nextInt(94)));
+    }
+    Query query = new Query(sb.toString());
+
+    Frame frame = writeAndDecode(query, false);
+
+    assertThat(((Query) frame.message).query).isEqualTo(query.query);
+    verify(metricUpdater)
+        .updateTimer(
+            eq(DefaultNodeMetric.COMPRESSION_TIME), eq(null), anyLong(), eq(TimeUnit.NANOSECONDS));
+    verify(metricUpdater).incrementCounter(DefaultNodeMetric.COMPRESSION_SKIPS, null);
+  }
+
+  @Test
+  public void should_never_compress_startup() {
+    Startup startup =
+        new Startup(
+            ImmutableMap.of(
+                Startup.CQL_VERSION_KEY,
+                "3.0.0",
+                Startup.COMPRESSION_KEY,
+                "lz4",
+                "PADDING",
+                Strings.repeat("x", 200)));
+
+    Frame frame = writeAndDecode(startup, false);
+
+    assertThat(frame.message).isInstanceOf(Startup.class);
+    verify(metricUpdater, never()).incrementCounter(DefaultNodeMetric.COMPRESSION_SKIPS, null);
+  }
+
+  private Frame writeAndDecode(Message message, boolean expectCompressed) {
+    channel.writeOutbound(
+        Frame.forRequest(ProtocolConstants.Version.V4, 1, false, Frame.NO_PAYLOAD, message));
+    ByteBuf encoded = channel.readOutbound();
+    int flags = encoded.getByte(encoded.readerIndex() + 1);
+    assertThat(Flags.contains(flags, ProtocolConstants.FrameFlag.COMPRESSED))
+        .isEqualTo(expectCompressed);
+    assertThat(encoded.getInt(encoded.readerIndex() + 5))
+        .isEqualTo(encoded.readableBytes() - FrameCodec.headerEncodedSize());
+    Frame frame = serverCodec.decode(encoded);
+    encoded.release();
+    return frame;
+  }
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.driver.internal.core.protocol;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.datastax.oss.driver.shaded.guava.common.collect.ImmutableList;
+import com.datastax.oss.protocol.internal.Compressor;
+import com.datastax.oss.protocol.internal.Frame;
+import com.datastax.oss.protocol.internal.FrameCodec;
+import com.datastax.oss.protocol.internal.Message;
+import com.datastax.oss.protocol.internal.ProtocolConstants;
+import com.datastax.oss.protocol.internal.ProtocolV4ClientCodecs;
+import com.datastax.oss.protocol.internal.response.result.ColumnSpec;
+import com.datastax.oss.protocol.internal.response.result.DefaultRows;
+import com.datastax.oss.protocol.internal.response.result.RawType;
+import com.datastax.oss.protocol.internal.response.result.Rows;
+import com.datastax.oss.protocol.internal.response.result.RowsMetadata;
+import com.datastax.oss.protocol.internal.response.result.SetKeyspace;
+import com.datastax.oss.protocol.internal.util.Bytes;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import org.junit.Test;
+
+public class LazyRowsTest {
+
+  private static final List<ColumnSpec> COLUMNS =
+      ImmutableList.of(
+          new ColumnSpec(
+              "ks", "table", "c1", 0, RawType.PRIMITIVES.get(ProtocolConstants.DataType.VARCHAR)),
+          new ColumnSpec(
+              "ks", "table", "c2", 1, RawType.PRIMITIVES.get(ProtocolConstants.DataType.INT)));
+
+  private final FrameCodec<ByteBuf> serverCodec =
+      FrameCodec.defaultServer(
+          new ByteBufPrimitiveCodec(ByteBufAllocator.DEFAULT), Compressor.none());
+  private final FrameCodec<ByteBuf> clientCodec =
+      new FrameCodec<>(
+          new ByteBufPrimitiveCodec(ByteBufAllocator.DEFAULT),
+          Compressor.none(),
+          new LazyRowsCodecGroup(new ProtocolV4ClientCodecs()));
+
+  @Test
+  public void should_decode_rows_lazily() {
+    // Given
+    Queue<List<ByteBuffer>> data = new ArrayDeque<>();
+    data.add(Arrays.asList(Bytes.fromHexString("0x6162"), Bytes.fromHexString("0x00000001")));
+    data.add(Arrays.asList(null, Bytes.fromHexString("0x00000002")));
+    data.add(Arrays.asList(Bytes.fromHexString("0x"), null));
+
+    // When
+    Rows rows = roundTrip(new DefaultRows(new RowsMetadata(COLUMNS, null, null, null), data));
+
+    // Then
+    assertThat(rows).isInstanceOf(LazyRows.class);
+    assertThat(rows.getMetadata().columnSpecs).isEqualTo(COLUMNS);
+    Queue<List<ByteBuffer>> decoded = rows.getData();
+    assertThat(decoded).hasSize(3);
+    assertThat(decoded.poll())
+        .containsExactly(Bytes.fromHexString("0x6162"), Bytes.fromHexString("0x00000001"));
+    assertThat(decoded.poll()).containsExactly(null, Bytes.fromHexString("0x00000002"));
+    assertThat(decoded.peek()).containsExactly(Bytes.fromHexString("0x"), null);
+    assertThat(decoded).hasSize(1);
+    assertThat(decoded.poll()).containsExactly(Bytes.fromHexString("0x"), null);
+    assertThat(decoded).isEmpty();
+    assertThat(decoded.poll()).isNull();
+  }
+
+  @Test
+  public void should_decode_empty_page() {
+    Rows rows =
+        roundTrip(new DefaultRows(new RowsMetadata(COLUMNS, null, null, null), new ArrayDeque<>()));
+
+    assertThat(rows.getData()).isEmpty();
+  }
+
+  @Test
+  public void should_not_consume_rows_when_iterating() {
+    Queue<List<ByteBuffer>> data = new ArrayDeque<>();
+    data.add(Arrays.asList(Bytes.fromHexString("0x01"), Bytes.fromHexString("0x00000001")));
+    data.add(Arrays.asList(Bytes.fromHexString("0x02"), Bytes.fromHexString("0x00000002")));
+
+    Rows rows = roundTrip(new DefaultRows(new RowsMetadata(COLUMNS, null, null, null), data));
+
+    assertThat(rows.getData()).hasSize(2);
+    assertThat(rows.getData().iterator().next().get(0)).isEqualTo(Bytes.fromHexString("0x01"));
+    assertThat(rows.getData()).hasSize(2);
+  }
+
+  @Test
+  public void should_return_same_buffer_on_repeated_reads() {
+    Queue<List<ByteBuffer>> data = new ArrayDeque<>();
+    data.add(Arrays.asList(Bytes.fromHexString("0x0102"), Bytes.fromHexString("0x00000001")));
+    data.add(Arrays.asList(Bytes.fromHexString("0x0304"), Bytes.fromHexString("0x00000002")));
+
+    Rows rows = roundTrip(new DefaultRows(new RowsMetadata(COLUMNS, null, null, null), data));
+    Queue<List<ByteBuffer>> queue = rows.getData();
+
+    // The same view is returned until the row is consumed
+    List<ByteBuffer> row = queue.peek();
+    assertThat(queue.iterator().next()).isSameAs(row);
+    assertThat(queue.poll()).isSameAs(row);
+    assertThat(queue.peek()).isNotSameAs(row);
+
+    // Each cell is sliced once, independently of the others
+    ByteBuffer cell = row.get(0);
+    assertThat(cell).isEqualTo(Bytes.fromHexString("0x0102"));
+    assertThat(cell.position()).isEqualTo(0);
+    assertThat(cell.remaining()).isEqualTo(2);
+    assertThat(row.get(0)).isSameAs(cell);
+    assertThat(row.get(1)).isEqualTo(Bytes.fromHexString("0x00000001"));
+    assertThat(queue.poll().get(0)).isEqualTo(Bytes.fromHexString("0x0304"));
+  }
+
+  @Test
+  public void should_delegate_other_result_kinds() {
+    Frame frame = clientCodec.decode(serverCodec.encode(response(new SetKeyspace("ks"))));
+
+    assertThat(frame.message).isInstanceOf(SetKeyspace.class);
+    assertThat(((SetKeyspace) frame.message).keyspace).isEqualTo("ks");
+  }
+
+  private Rows roundTrip(Rows rows) {
+    Frame frame = clientCodec.decode(serverCodec.encode(response(rows)));
+    return (Rows) frame.message;
+  }
+
+  private static Frame response(Message message) {
+    return Frame.forResponse(
+        ProtocolConstants.Version.V4, 0, null, Frame.NO_PAYLOAD, Collections.emptyList(), message);
+  }
+}
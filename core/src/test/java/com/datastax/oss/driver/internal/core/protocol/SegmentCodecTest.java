@@ -0,0 +1,146 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.driver.internal.core.protocol;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.datastax.oss.driver.api.core.context.DriverContext;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.Unpooled;
+import io.netty.handler.codec.CorruptedFrameException;
+import java.util.Random;
+import org.junit.Test;
+
+public class SegmentCodecTest {
+
+  private static final ByteBufAllocator ALLOCATOR = ByteBufAllocator.DEFAULT;
+
+  @Test
+  public void should_encode_and_decode_uncompressed_segment() {
+    SegmentCodec codec = new SegmentCodec(ALLOCATOR, null);
+    byte[] bytes = randomBytes(1000);
+
+    ByteBuf encoded = codec.encode(Unpooled.wrappedBuffer(bytes), true);
+
+    assertThat(encoded.readableBytes()).isEqualTo(6 + 1000 + 4);
+    SegmentCodec.Header header = codec.decodeHeader(encoded);
+    assertThat(header.payloadLength).isEqualTo(1000);
+    assertThat(header.uncompressedLength).isZero();
+    assertThat(header.isSelfContained).isTrue();
+    assertThat(codec.encodedPayloadLength(header)).isEqualTo(encoded.readableBytes());
+    assertPayload(codec.decodePayload(header, encoded), bytes);
+    encoded.release();
+  }
+
+  @Test
+  public void should_encode_and_decode_compressed_segment() {
+    SegmentCodec codec = new SegmentCodec(ALLOCATOR, newLz4Compressor());
+    // Very compressible
+    byte[] bytes = new byte[10_000];
+
+    ByteBuf encoded = codec.encode(Unpooled.wrappedBuffer(bytes), false);
+
+    assertThat(encoded.readableBytes()).isLessThan(bytes.length);
+    SegmentCodec.Header header = codec.decodeHeader(encoded);
+    assertThat(header.payloadLength).isLessThan(bytes.length);
+    assertThat(header.uncompressedLength).isEqualTo(bytes.length);
+    assertThat(header.isSelfContained).isFalse();
+    assertPayload(codec.decodePayload(header, encoded), bytes);
+    encoded.release();
+  }
+
+  @Test
+  public void should_not_compress_segment_if_not_worth_it() {
+    SegmentCodec codec = new SegmentCodec(ALLOCATOR, newLz4Compressor());
+    // Random data can't be compressed
+    byte[] bytes = randomBytes(100);
+
+    ByteBuf encoded = codec.encode(Unpooled.wrappedBuffer(bytes), true);
+
+    assertThat(encoded.readableBytes()).isEqualTo(8 + 100 + 4);
+    SegmentCodec.Header header = codec.decodeHeader(encoded);
+    assertThat(header.payloadLength).isEqualTo(100);
+    assertThat(header.uncompressedLength).isZero();
+    assertPayload(codec.decodePayload(header, encoded), bytes);
+    encoded.release();
+  }
+
+  @Test
+  public void should_fail_if_header_is_corrupted() {
+    SegmentCodec codec = new SegmentCodec(ALLOCATOR, null);
+    ByteBuf encoded = codec.encode(Unpooled.wrappedBuffer(randomBytes(10)), true);
+    // Flip a bit in the payload length
+    encoded.setByte(0, encoded.getByte(0) ^ 0x02);
+
+    assertThatThrownBy(() -> codec.decodeHeader(encoded))
+        .isInstanceOf(CorruptedFrameException.class)
+        .hasMessageContaining("segment header");
+    encoded.release();
+  }
+
+  @Test
+  public void should_fail_if_payload_is_corrupted() {
+    SegmentCodec codec = new SegmentCodec(ALLOCATOR, null);
+    ByteBuf encoded = codec.encode(Unpooled.wrappedBuffer(randomBytes(10)), true);
+    encoded.setByte(7, encoded.getByte(7) ^ 0x01);
+
+    SegmentCodec.Header header = codec.decodeHeader(encoded);
+    assertThatThrownBy(() -> codec.decodePayload(header, encoded))
+        .isInstanceOf(CorruptedFrameException.class)
+        .hasMessageContaining("segment payload");
+    encoded.release();
+  }
+
+  @Test
+  public void should_reject_payload_larger_than_max() {
+    SegmentCodec codec = new SegmentCodec(ALLOCATOR, null);
+
+    assertThatThrownBy(
+            () ->
+                codec.encode(
+                    Unpooled.wrappedBuffer(new byte[SegmentCodec.MAX_PAYLOAD_LENGTH + 1]), true))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  public void should_compute_different_crc24_for_different_headers() {
+    assertThat(Crc.computeCrc24(0x20000L | 1000, 3)).isNotEqualTo(Crc.computeCrc24(1000, 3));
+    assertThat(Crc.computeCrc24(1000, 3)).isBetween(0, 0xFFFFFF);
+  }
+
+  static Lz4Compressor newLz4Compressor() {
+    DriverContext context = mock(DriverContext.class);
+    when(context.getSessionName()).thenReturn("test");
+    return new Lz4Compressor(context);
+  }
+
+  private static byte[] randomBytes(int length) {
+    byte[] bytes = new byte[length];
+    new Random(1).nextBytes(bytes);
+    return bytes;
+  }
+
+  private static void assertPayload(ByteBuf payload, byte[] expected) {
+    byte[] actual = new byte[payload.readableBytes()];
+    payload.readBytes(actual);
+    payload.release();
+    assertThat(actual).isEqualTo(expected);
+  }
+}
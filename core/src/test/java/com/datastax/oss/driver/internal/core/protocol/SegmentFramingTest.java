@@ -0,0 +1,185 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.driver.internal.core.protocol;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.datastax.oss.driver.internal.core.util.ByteBufs;
+import com.datastax.oss.driver.shaded.guava.common.base.Strings;
+import com.datastax.oss.protocol.internal.Compressor;
+import com.datastax.oss.protocol.internal.Frame;
+import com.datastax.oss.protocol.internal.FrameCodec;
+import com.datastax.oss.protocol.internal.ProtocolConstants;
+import com.datastax.oss.protocol.internal.request.Query;
+import com.datastax.oss.protocol.internal.response.AuthSuccess;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.CorruptedFrameException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Test;
+
+/**
+ * Checks that the segment handlers work together: the client-side encoder produces segments that
+ * can be read back by a decoder configured with a server-side frame codec.
+ */
+public class SegmentFramingTest {
+
+  private static final int MAX_FRAME_LENGTH = 1024 * 1024;
+
+  @Test
+  public void should_pack_small_frames_in_a_single_segment() {
+    EmbeddedChannel client = newClientChannel(new SegmentCodec(ByteBufAllocator.DEFAULT, null));
+
+    ChannelFuture write1 = client.write(request(1, "SELECT * FROM foo"));
+    ChannelFuture write2 = client.write(request(2, "SELECT * FROM bar"));
+    assertThat((Object) client.readOutbound()).isNull();
+    client.flush();
+
+    List<ByteBuf> segments = readSegments(client);
+    assertThat(segments).hasSize(1);
+    assertThat(write1.isSuccess()).isTrue();
+    assertThat(write2.isSuccess()).isTrue();
+
+    List<Frame> frames = decodeOnServer(segments, new SegmentCodec(ByteBufAllocator.DEFAULT, null));
+    assertThat(frames).hasSize(2);
+    assertThat(frames.get(0).streamId).isEqualTo(1);
+    assertThat(((Query) frames.get(0).message).query).isEqualTo("SELECT * FROM foo");
+    assertThat(frames.get(1).streamId).isEqualTo(2);
+    assertThat(((Query) frames.get(1).message).query).isEqualTo("SELECT * FROM bar");
+  }
+
+  @Test
+  public void should_split_large_frame_across_segments() {
+    EmbeddedChannel client = newClientChannel(new SegmentCodec(ByteBufAllocator.DEFAULT, null));
+    String largeQuery = "SELECT * FROM foo WHERE k = '" + Strings.repeat("a", 300_000) + "'";
+
+    client.write(request(1, "SELECT * FROM bar"));
+    ChannelFuture largeWrite = client.write(request(2, largeQuery));
+    client.write(request(3, "SELECT * FROM baz"));
+    client.flush();
+
+    List<ByteBuf> segments = readSegments(client);
+    // 1 self-contained, 3 parts for the large frame, 1 self-contained
+    assertThat(segments).hasSize(5);
+    assertThat(largeWrite.isSuccess()).isTrue();
+
+    List<Frame> frames = decodeOnServer(segments, new SegmentCodec(ByteBufAllocator.DEFAULT, null));
+    assertThat(frames).hasSize(3);
+    assertThat(frames.get(0).streamId).isEqualTo(1);
+    assertThat(frames.get(1).streamId).isEqualTo(2);
+    assertThat(((Query) frames.get(1).message).query).isEqualTo(largeQuery);
+    assertThat(frames.get(2).streamId).isEqualTo(3);
+  }
+
+  @Test
+  public void should_compress_segments() {
+    Lz4Compressor compressor = SegmentCodecTest.newLz4Compressor();
+    EmbeddedChannel client =
+        newClientChannel(new SegmentCodec(ByteBufAllocator.DEFAULT, compressor));
+    String query = "SELECT * FROM foo WHERE k = '" + Strings.repeat("a", 1000) + "'";
+
+    client.writeAndFlush(request(1, query));
+
+    List<ByteBuf> segments = readSegments(client);
+    assertThat(segments).hasSize(1);
+    assertThat(segments.get(0).readableBytes()).isLessThan(query.length());
+    List<Frame> frames =
+        decodeOnServer(segments, new SegmentCodec(ByteBufAllocator.DEFAULT, compressor));
+    assertThat(((Query) frames.get(0).message).query).isEqualTo(query);
+  }
+
+  @Test
+  public void should_decode_response_segment() {
+    SegmentCodec segmentCodec = new SegmentCodec(ByteBufAllocator.DEFAULT, null);
+    FrameCodec<ByteBuf> serverCodec =
+        FrameCodec.defaultServer(
+            new ByteBufPrimitiveCodec(ByteBufAllocator.DEFAULT), Compressor.none());
+    EmbeddedChannel client = newClientChannel(segmentCodec);
+
+    ByteBuf frame =
+        serverCodec.encode(
+            Frame.forResponse(
+                ProtocolConstants.Version.V5,
+                42,
+                null,
+                Frame.NO_PAYLOAD,
+                Collections.emptyList(),
+                new AuthSuccess(null)));
+    client.writeInbound(segmentCodec.encode(frame, true));
+
+    Frame response = client.readInbound();
+    assertThat(response.streamId).isEqualTo(42);
+    assertThat(response.message).isInstanceOf(AuthSuccess.class);
+  }
+
+  @Test
+  public void should_fail_on_corrupted_segment() {
+    SegmentCodec segmentCodec = new SegmentCodec(ByteBufAllocator.DEFAULT, null);
+    EmbeddedChannel client = newClientChannel(segmentCodec);
+    ByteBuf segment = segmentCodec.encode(ByteBufs.fromHexString("0xcafebabe"), true);
+    ByteBuf corrupted = ByteBufAllocator.DEFAULT.buffer().writeBytes(segment);
+    segment.release();
+    corrupted.setByte(8, corrupted.getByte(8) ^ 0x01);
+
+    assertThatThrownBy(() -> client.writeInbound(corrupted))
+        .isInstanceOf(CorruptedFrameException.class);
+  }
+
+  private static EmbeddedChannel newClientChannel(SegmentCodec segmentCodec) {
+    FrameCodec<ByteBuf> frameCodec =
+        FrameCodec.defaultClient(
+            new ByteBufPrimitiveCodec(ByteBufAllocator.DEFAULT), Compressor.none());
+    return new EmbeddedChannel(
+        new FrameToSegmentEncoder(frameCodec, segmentCodec, MAX_FRAME_LENGTH),
+        new SegmentToFrameDecoder(frameCodec, segmentCodec, MAX_FRAME_LENGTH));
+  }
+
+  private static List<Frame> decodeOnServer(List<ByteBuf> segments, SegmentCodec segmentCodec) {
+    FrameCodec<ByteBuf> frameCodec =
+        FrameCodec.defaultServer(
+            new ByteBufPrimitiveCodec(ByteBufAllocator.DEFAULT), Compressor.none());
+    EmbeddedChannel server =
+        new EmbeddedChannel(new SegmentToFrameDecoder(frameCodec, segmentCodec, MAX_FRAME_LENGTH));
+    for (ByteBuf segment : segments) {
+      server.writeInbound(segment);
+    }
+    List<Frame> frames = new ArrayList<>();
+    Frame frame;
+    while ((frame = server.readInbound()) != null) {
+      frames.add(frame);
+    }
+    return frames;
+  }
+
+  private static List<ByteBuf> readSegments(EmbeddedChannel channel) {
+    List<ByteBuf> segments = new ArrayList<>();
+    ByteBuf segment;
+    while ((segment = channel.readOutbound()) != null) {
+      segments.add(segment);
+    }
+    return segments;
+  }
+
+  private static Frame request(int streamId, String query) {
+    return Frame.forRequest(
+        ProtocolConstants.Version.V5, streamId, false, Frame.NO_PAYLOAD, new Query(query));
+  }
+}
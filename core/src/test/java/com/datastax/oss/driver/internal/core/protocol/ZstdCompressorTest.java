@@ -0,0 +1,154 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.driver.internal.core.protocol;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.Assume.assumeFalse;
+import static org.junit.Assume.assumeTrue;
+
+import com.datastax.oss.driver.internal.core.util.DependencyCheck;
+import com.datastax.oss.driver.shaded.guava.common.base.Strings;
+import com.github.luben.zstd.Zstd;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+
+public class ZstdCompressorTest {
+
+  private static final ByteBufAllocator ALLOCATOR = ByteBufAllocator.DEFAULT;
+
+  @Test
+  public void should_fail_if_library_not_on_classpath() {
+    assumeFalse(DependencyCheck.ZSTD.isPresent());
+    assertThatThrownBy(() -> new ZstdCompressor(ZstdCompressor.DEFAULT_LEVEL, null))
+        .isInstanceOf(IllegalStateException.class)
+        .hasMessageContaining("zstd-jni");
+  }
+
+  @Test
+  public void should_round_trip_heap_buffer() {
+    assumeTrue(DependencyCheck.ZSTD.isPresent());
+    should_round_trip(new ZstdCompressor(ZstdCompressor.DEFAULT_LEVEL, null), false);
+  }
+
+  @Test
+  public void should_round_trip_direct_buffer() {
+    assumeTrue(DependencyCheck.ZSTD.isPresent());
+    should_round_trip(new ZstdCompressor(ZstdCompressor.DEFAULT_LEVEL, null), true);
+  }
+
+  @Test
+  public void should_round_trip_heap_buffer_with_dictionary() {
+    assumeTrue(DependencyCheck.ZSTD.isPresent());
+    should_round_trip(new ZstdCompressor(ZstdCompressor.DEFAULT_LEVEL, trainDictionary()), false);
+  }
+
+  @Test
+  public void should_round_trip_direct_buffer_with_dictionary() {
+    assumeTrue(DependencyCheck.ZSTD.isPresent());
+    should_round_trip(new ZstdCompressor(ZstdCompressor.DEFAULT_LEVEL, trainDictionary()), true);
+  }
+
+  @Test
+  public void should_compress_small_payload_better_with_dictionary() {
+    assumeTrue(DependencyCheck.ZSTD.isPresent());
+    ZstdCompressor plain = new ZstdCompressor(ZstdCompressor.DEFAULT_LEVEL, null);
+    ZstdCompressor withDictionary =
+        new ZstdCompressor(ZstdCompressor.DEFAULT_LEVEL, trainDictionary());
+    byte[] payload = sample(42);
+
+    ByteBuf compressedPlain = plain.compress(heapBuffer(payload));
+    ByteBuf compressedWithDictionary = withDictionary.compress(heapBuffer(payload));
+    try {
+      assertThat(compressedWithDictionary.readableBytes())
+          .isLessThan(compressedPlain.readableBytes());
+    } finally {
+      compressedPlain.release();
+      compressedWithDictionary.release();
+    }
+  }
+
+  @Test
+  public void should_fail_to_decompress_with_wrong_uncompressed_length() {
+    assumeTrue(DependencyCheck.ZSTD.isPresent());
+    ZstdCompressor compressor = new ZstdCompressor(ZstdCompressor.DEFAULT_LEVEL, null);
+    ByteBuf compressed = compressor.compress(heapBuffer(sample(1)));
+    // Tamper with the 4-byte length prefix
+    compressed.setInt(0, compressed.getInt(0) + 1);
+
+    assertThatThrownBy(() -> compressor.decompress(compressed))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  private void should_round_trip(ZstdCompressor compressor, boolean direct) {
+    for (int i = 0; i < 10; i++) {
+      byte[] payload = sample(i);
+      ByteBuf input = direct ? directBuffer(payload) : heapBuffer(payload);
+
+      ByteBuf compressed = compressor.compress(input);
+      assertThat(compressed.isDirect()).isEqualTo(direct);
+      assertThat(input.isReadable()).isFalse();
+      ByteBuf decompressed = compressor.decompress(compressed);
+      try {
+        assertThat(decompressed.isDirect()).isEqualTo(direct);
+        assertThat(ByteBufUtil.getBytes(decompressed)).isEqualTo(payload);
+        assertThat(compressed.isReadable()).isFalse();
+      } finally {
+        input.release();
+        compressed.release();
+        decompressed.release();
+      }
+    }
+  }
+
+  private static byte[] trainDictionary() {
+    List<byte[]> samples = new ArrayList<>();
+    for (int i = 0; i < 1000; i++) {
+      samples.add(sample(i));
+    }
+    byte[] dictionary = new byte[4096];
+    long size = Zstd.trainFromBuffer(samples.toArray(new byte[0][]), dictionary);
+    assertThat(Zstd.isError(size)).isFalse();
+    byte[] result = new byte[(int) size];
+    System.arraycopy(dictionary, 0, result, 0, result.length);
+    return result;
+  }
+
+  /** A small, JSON-like payload that shares most of its structure with the other samples. */
+  private static byte[] sample(int i) {
+    return String.format(
+            "{\"id\":%d,\"name\":\"user%d\",\"email\":\"user%d@example.com\","
+                + "\"country\":\"%s\",\"tags\":[\"driver\",\"cassandra\"],\"padding\":\"%s\"}",
+            i, i, i, (i % 2 == 0) ? "FR" : "US", Strings.repeat("x", i % 7))
+        .getBytes(StandardCharsets.UTF_8);
+  }
+
+  private static ByteBuf heapBuffer(byte[] bytes) {
+    return Unpooled.wrappedBuffer(bytes);
+  }
+
+  private static ByteBuf directBuffer(byte[] bytes) {
+    ByteBuf buffer = ALLOCATOR.directBuffer(bytes.length);
+    buffer.writeBytes(bytes);
+    return buffer;
+  }
+}
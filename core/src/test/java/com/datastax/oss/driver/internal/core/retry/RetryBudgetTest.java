@@ -0,0 +1,124 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.driver.internal.core.retry;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+import com.datastax.oss.driver.api.core.config.DefaultDriverOption;
+import com.datastax.oss.driver.api.core.config.DriverConfig;
+import com.datastax.oss.driver.api.core.config.DriverExecutionProfile;
+import com.datastax.oss.driver.internal.core.context.InternalDriverContext;
+import java.util.concurrent.TimeUnit;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class RetryBudgetTest {
+
+  @Mock private InternalDriverContext context;
+  @Mock private DriverConfig config;
+  @Mock private DriverExecutionProfile profile;
+
+  private long nextNanoTime;
+
+  @Before
+  public void setup() {
+    when(context.getConfig()).thenReturn(config);
+    when(config.getDefaultProfile()).thenReturn(profile);
+  }
+
+  @Test
+  public void should_always_acquire_if_disabled() {
+    when(profile.getBoolean(eq(DefaultDriverOption.RETRY_BUDGET_ENABLED), anyBoolean()))
+        .thenReturn(false);
+    RetryBudget budget = new RetryBudget(context);
+
+    assertThat(budget.isEnabled()).isFalse();
+    for (int i = 0; i < 1000; i++) {
+      assertThat(budget.tryAcquire()).isTrue();
+    }
+  }
+
+  @Test
+  public void should_start_full_and_reject_when_empty() {
+    RetryBudget budget = newBudget(0.1, 0, 3);
+
+    assertThat(budget.getAvailableTokens()).isEqualTo(3.0);
+    assertThat(budget.tryAcquire()).isTrue();
+    assertThat(budget.tryAcquire()).isTrue();
+    assertThat(budget.tryAcquire()).isTrue();
+    assertThat(budget.tryAcquire()).isFalse();
+  }
+
+  @Test
+  public void should_refill_with_successful_requests() {
+    RetryBudget budget = newBudget(0.5, 0, 1);
+    assertThat(budget.tryAcquire()).isTrue();
+
+    budget.onSuccess();
+    assertThat(budget.tryAcquire()).isFalse();
+    budget.onSuccess();
+    assertThat(budget.tryAcquire()).isTrue();
+  }
+
+  @Test
+  public void should_not_exceed_max_tokens() {
+    RetryBudget budget = newBudget(0.5, 0, 2);
+    for (int i = 0; i < 100; i++) {
+      budget.onSuccess();
+    }
+
+    assertThat(budget.getAvailableTokens()).isEqualTo(2.0);
+  }
+
+  @Test
+  public void should_refill_over_time() {
+    RetryBudget budget = newBudget(0, 10, 1);
+    assertThat(budget.tryAcquire()).isTrue();
+    assertThat(budget.tryAcquire()).isFalse();
+
+    // 10 tokens per second = one every 100 milliseconds
+    nextNanoTime += TimeUnit.MILLISECONDS.toNanos(50);
+    assertThat(budget.tryAcquire()).isFalse();
+    nextNanoTime += TimeUnit.MILLISECONDS.toNanos(50);
+    assertThat(budget.tryAcquire()).isTrue();
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void should_fail_if_max_tokens_invalid() {
+    newBudget(0.1, 10, 0);
+  }
+
+  private RetryBudget newBudget(double ratio, int minPerSecond, int maxTokens) {
+    when(profile.getBoolean(eq(DefaultDriverOption.RETRY_BUDGET_ENABLED), anyBoolean()))
+        .thenReturn(true);
+    when(profile.getDouble(eq(DefaultDriverOption.RETRY_BUDGET_RATIO), anyDouble()))
+        .thenReturn(ratio);
+    when(profile.getInt(eq(DefaultDriverOption.RETRY_BUDGET_MIN_PER_SECOND), anyInt()))
+        .thenReturn(minPerSecond);
+    when(profile.getInt(eq(DefaultDriverOption.RETRY_BUDGET_MAX_TOKENS), anyInt()))
+        .thenReturn(maxTokens);
+    return new RetryBudget(context, () -> nextNanoTime);
+  }
+}
@@ -0,0 +1,294 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.driver.internal.core.session.throttling;
+
+import static com.datastax.oss.driver.Assertions.assertThat;
+import static com.datastax.oss.driver.Assertions.assertThatStage;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.datastax.oss.driver.api.core.AllNodesFailedException;
+import com.datastax.oss.driver.api.core.config.DefaultDriverOption;
+import com.datastax.oss.driver.api.core.config.DriverConfig;
+import com.datastax.oss.driver.api.core.config.DriverExecutionProfile;
+import com.datastax.oss.driver.api.core.context.DriverContext;
+import com.datastax.oss.driver.api.core.metadata.Node;
+import com.datastax.oss.driver.api.core.servererrors.OverloadedException;
+import com.datastax.oss.driver.api.core.servererrors.ReadFailureException;
+import com.datastax.oss.driver.api.core.servererrors.UnavailableException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class AdaptiveConcurrencyLimitingRequestThrottlerTest {
+
+  private static final long ONE_MS = TimeUnit.MILLISECONDS.toNanos(1);
+
+  @Mock private DriverContext context;
+  @Mock private DriverConfig config;
+  @Mock private DriverExecutionProfile defaultProfile;
+
+  private final SettableNanoClock clock = new SettableNanoClock();
+
+  private AdaptiveConcurrencyLimitingRequestThrottler throttler;
+
+  @Before
+  public void setup() {
+    when(context.getConfig()).thenReturn(config);
+    when(config.getDefaultProfile()).thenReturn(defaultProfile);
+
+    when(defaultProfile.getInt(DefaultDriverOption.REQUEST_THROTTLER_MAX_QUEUE_SIZE))
+        .thenReturn(1000);
+    when(defaultProfile.getInt(
+            DefaultDriverOption.REQUEST_THROTTLER_ADAPTIVE_MIN_CONCURRENT_REQUESTS))
+        .thenReturn(4);
+    when(defaultProfile.getInt(
+            DefaultDriverOption.REQUEST_THROTTLER_ADAPTIVE_MAX_CONCURRENT_REQUESTS))
+        .thenReturn(100);
+    when(defaultProfile.getDouble(DefaultDriverOption.REQUEST_THROTTLER_ADAPTIVE_LATENCY_TOLERANCE))
+        .thenReturn(2.0);
+    when(defaultProfile.getDouble(DefaultDriverOption.REQUEST_THROTTLER_ADAPTIVE_BACKOFF_RATIO))
+        .thenReturn(0.5);
+    when(defaultProfile.getDuration(DefaultDriverOption.REQUEST_THROTTLER_ADAPTIVE_BASELINE_WINDOW))
+        .thenReturn(Duration.ofMinutes(1));
+
+    throttler = new AdaptiveConcurrencyLimitingRequestThrottler(context, clock);
+  }
+
+  @Test
+  public void should_start_at_min_limit() {
+    assertThat(throttler.getMaxConcurrentRequests()).isEqualTo(4);
+
+    List<MockThrottled> requests = register(5);
+
+    assertThat(throttler.getConcurrentRequests()).isEqualTo(4);
+    assertThat(throttler.getQueueSize()).isEqualTo(1);
+    assertThatStage(requests.get(4).started).isNotDone();
+  }
+
+  @Test
+  public void should_grow_limit_while_latency_is_stable() {
+    int previous = throttler.getMaxConcurrentRequests();
+    for (int i = 0; i < 5; i++) {
+      runFullRound(ONE_MS);
+      assertThat(throttler.getMaxConcurrentRequests()).isGreaterThan(previous);
+      previous = throttler.getMaxConcurrentRequests();
+    }
+  }
+
+  @Test
+  public void should_not_grow_limit_above_max() {
+    for (int i = 0; i < 100; i++) {
+      runFullRound(ONE_MS);
+    }
+    assertThat(throttler.getMaxConcurrentRequests()).isEqualTo(100);
+  }
+
+  @Test
+  public void should_not_grow_limit_if_not_used() {
+    for (int i = 0; i < 10; i++) {
+      runRound(1, ONE_MS);
+    }
+    assertThat(throttler.getMaxConcurrentRequests()).isEqualTo(4);
+  }
+
+  @Test
+  public void should_back_off_when_latency_rises() {
+    for (int i = 0; i < 20; i++) {
+      runFullRound(ONE_MS);
+    }
+    int grown = throttler.getMaxConcurrentRequests();
+    assertThat(grown).isGreaterThan(20);
+
+    // The first round only moves the short-term average, the next adjustment reacts to it
+    runFullRound(10 * ONE_MS);
+    runFullRound(10 * ONE_MS);
+    assertThat(throttler.getMaxConcurrentRequests()).isLessThan(grown);
+
+    for (int i = 0; i < 20; i++) {
+      runFullRound(10 * ONE_MS);
+    }
+    assertThat(throttler.getMaxConcurrentRequests()).isEqualTo(4);
+  }
+
+  @Test
+  public void should_back_off_when_active_request_times_out() {
+    for (int i = 0; i < 10; i++) {
+      runFullRound(ONE_MS);
+    }
+    int grown = throttler.getMaxConcurrentRequests();
+
+    MockThrottled request = new MockThrottled();
+    throttler.register(request);
+    clock.add(ONE_MS);
+    throttler.signalTimeout(request);
+
+    assertThat(throttler.getMaxConcurrentRequests()).isEqualTo(grown / 2);
+  }
+
+  @Test
+  public void should_not_use_errors_as_latency_samples() {
+    for (int i = 0; i < 5; i++) {
+      runFullRound(ONE_MS);
+    }
+    int limit = throttler.getMaxConcurrentRequests();
+    double shortLatency = throttler.getShortLatencyNanos();
+
+    // Errors that are returned much faster than regular responses
+    for (int i = 0; i < 20; i++) {
+      List<MockThrottled> requests = register(throttler.getMaxConcurrentRequests());
+      clock.add(ONE_MS / 100);
+      for (int j = 0; j < requests.size(); j++) {
+        Throwable error =
+            (j % 2 == 0) ? mock(UnavailableException.class) : mock(ReadFailureException.class);
+        throttler.signalError(requests.get(j), error);
+      }
+    }
+
+    assertThat(throttler.getShortLatencyNanos()).isEqualTo(shortLatency);
+    assertThat(throttler.getMaxConcurrentRequests()).isEqualTo(limit);
+    assertThat(throttler.getConcurrentRequests()).isZero();
+  }
+
+  @Test
+  public void should_back_off_when_active_request_is_overloaded() {
+    for (int i = 0; i < 10; i++) {
+      runFullRound(ONE_MS);
+    }
+    int grown = throttler.getMaxConcurrentRequests();
+
+    MockThrottled request = new MockThrottled();
+    throttler.register(request);
+    clock.add(ONE_MS);
+    throttler.signalError(request, mock(OverloadedException.class));
+
+    assertThat(throttler.getMaxConcurrentRequests()).isEqualTo(grown / 2);
+  }
+
+  @Test
+  public void should_back_off_when_all_nodes_failed_with_server_side_timeout() {
+    for (int i = 0; i < 10; i++) {
+      runFullRound(ONE_MS);
+    }
+    int grown = throttler.getMaxConcurrentRequests();
+
+    MockThrottled request = new MockThrottled();
+    throttler.register(request);
+    clock.add(ONE_MS);
+    throttler.signalError(
+        request,
+        AllNodesFailedException.fromErrors(
+            Collections.singletonMap(mock(Node.class), mock(OverloadedException.class))));
+
+    assertThat(throttler.getMaxConcurrentRequests()).isEqualTo(grown / 2);
+  }
+
+  @Test
+  public void should_not_back_off_when_queued_request_times_out() {
+    List<MockThrottled> requests = register(5);
+    MockThrottled queued = requests.get(4);
+    assertThatStage(queued.started).isNotDone();
+
+    clock.add(ONE_MS);
+    throttler.signalTimeout(queued);
+    for (int i = 0; i < 4; i++) {
+      throttler.signalSuccess(requests.get(i));
+    }
+
+    assertThat(throttler.getMaxConcurrentRequests()).isGreaterThan(4);
+  }
+
+  @Test
+  public void should_not_count_time_spent_in_queue() {
+    runFullRound(ONE_MS);
+    int limit = throttler.getMaxConcurrentRequests();
+
+    // Twice as many requests as the limit: half of them wait in the queue for a full round trip
+    List<MockThrottled> requests = register(limit * 2);
+    clock.add(ONE_MS);
+    for (int i = 0; i < limit; i++) {
+      throttler.signalSuccess(requests.get(i));
+    }
+    clock.add(ONE_MS);
+    for (int i = limit; i < requests.size(); i++) {
+      throttler.signalSuccess(requests.get(i));
+    }
+
+    assertThat(throttler.getShortLatencyNanos()).isEqualTo(ONE_MS);
+    assertThat(throttler.getMaxConcurrentRequests()).isGreaterThan(limit);
+  }
+
+  @Test
+  public void should_start_queued_requests_when_limit_grows() {
+    List<MockThrottled> requests = register(6);
+    assertThat(throttler.getQueueSize()).isEqualTo(2);
+
+    clock.add(ONE_MS);
+    // The first completion frees a slot, and the subsequent adjustment grows the limit
+    throttler.signalSuccess(requests.get(0));
+
+    assertThat(throttler.getMaxConcurrentRequests()).isEqualTo(6);
+    assertThat(throttler.getQueueSize()).isEqualTo(0);
+    assertThat(throttler.getConcurrentRequests()).isEqualTo(5);
+    for (int i = 4; i < 6; i++) {
+      assertThatStage(requests.get(i).started)
+          .isSuccess(wasDelayed -> assertThat(wasDelayed).isTrue());
+    }
+  }
+
+  @Test
+  public void should_reject_invalid_bounds() {
+    when(defaultProfile.getInt(
+            DefaultDriverOption.REQUEST_THROTTLER_ADAPTIVE_MAX_CONCURRENT_REQUESTS))
+        .thenReturn(2);
+
+    assertThatThrownBy(() -> new AdaptiveConcurrencyLimitingRequestThrottler(context, clock))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining("advanced.throttler.adaptive.max-concurrent-requests");
+  }
+
+  /** Saturates the current limit with requests that all take the given time. */
+  private void runFullRound(long latencyNanos) {
+    runRound(throttler.getMaxConcurrentRequests(), latencyNanos);
+  }
+
+  private void runRound(int count, long latencyNanos) {
+    List<MockThrottled> requests = register(count);
+    clock.add(latencyNanos);
+    for (MockThrottled request : requests) {
+      throttler.signalSuccess(request);
+    }
+  }
+
+  private List<MockThrottled> register(int count) {
+    List<MockThrottled> requests = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      MockThrottled request = new MockThrottled();
+      throttler.register(request);
+      requests.add(request);
+    }
+    return requests;
+  }
+}
@@ -27,6 +27,10 @@ import com.datastax.oss.driver.api.core.context.DriverContext;
 import com.datastax.oss.driver.api.core.session.throttling.Throttled;
 import com.datastax.oss.driver.shaded.guava.common.collect.Lists;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 import org.junit.Before;
 import org.junit.Test;
@@ -237,4 +241,41 @@ public class ConcurrencyLimitingRequestThrottlerTest {
     assertThatStage(request.started)
         .isFailed(error -> assertThat(error).isInstanceOf(RequestThrottlingException.class));
   }
+
+  @Test
+  public void should_not_leak_capacity_under_contention() throws Exception {
+    // Given
+    int threadCount = 8; // more than the concurrency limit, less than limit + queue size
+    int requestsPerThread = 2000;
+    ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+    try {
+      List<Future<?>> futures = Lists.newArrayList();
+
+      // When
+      for (int i = 0; i < threadCount; i++) {
+        futures.add(
+            executor.submit(
+                () -> {
+                  for (int j = 0; j < requestsPerThread; j++) {
+                    MockThrottled request = new MockThrottled();
+                    throttler.register(request);
+                    // If the request was enqueued, another thread must start it
+                    request.started.toCompletableFuture().get(10, TimeUnit.SECONDS);
+                    throttler.signalSuccess(request);
+                  }
+                  return null;
+                }));
+      }
+      for (Future<?> future : futures) {
+        future.get(30, TimeUnit.SECONDS);
+      }
+
+      // Then
+      assertThat(throttler.getConcurrentRequests()).isEqualTo(0);
+      assertThat(throttler.getQueue()).isEmpty();
+      assertThat(throttler.getQueueSize()).isEqualTo(0);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
 }
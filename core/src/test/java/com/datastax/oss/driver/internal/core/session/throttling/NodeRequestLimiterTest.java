@@ -0,0 +1,164 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.driver.internal.core.session.throttling;
+
+import static com.datastax.oss.driver.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.datastax.oss.driver.api.core.config.DefaultDriverOption;
+import com.datastax.oss.driver.api.core.config.DriverConfig;
+import com.datastax.oss.driver.api.core.config.DriverExecutionProfile;
+import com.datastax.oss.driver.internal.core.context.EventBus;
+import com.datastax.oss.driver.internal.core.context.InternalDriverContext;
+import com.datastax.oss.driver.internal.core.metadata.DefaultNode;
+import com.datastax.oss.driver.internal.core.metadata.NodeStateEvent;
+import com.datastax.oss.driver.internal.core.pool.ChannelPool;
+import com.datastax.oss.driver.internal.core.session.PoolManager;
+import com.datastax.oss.driver.shaded.guava.common.collect.ImmutableMap;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+// Silent because not all tests use the stubbings of the enabled configuration
+@RunWith(MockitoJUnitRunner.Silent.class)
+public class NodeRequestLimiterTest {
+
+  private static final long ONE_MS = TimeUnit.MILLISECONDS.toNanos(1);
+
+  @Mock private InternalDriverContext context;
+  @Mock private DriverConfig config;
+  @Mock private DriverExecutionProfile defaultProfile;
+  @Mock private EventBus eventBus;
+  @Mock private PoolManager poolManager;
+  @Mock private ChannelPool pool1;
+  @Mock private DefaultNode node1;
+  @Mock private DefaultNode node2;
+
+  private final SettableNanoClock clock = new SettableNanoClock();
+
+  @Before
+  public void setup() {
+    when(context.getConfig()).thenReturn(config);
+    when(config.getDefaultProfile()).thenReturn(defaultProfile);
+    when(context.getEventBus()).thenReturn(eventBus);
+    when(context.getPoolManager()).thenReturn(poolManager);
+    when(poolManager.getPools()).thenReturn(ImmutableMap.of(node1, pool1));
+
+    when(defaultProfile.getBoolean(DefaultDriverOption.REQUEST_THROTTLER_PER_NODE_ENABLED))
+        .thenReturn(true);
+    // One request per millisecond
+    when(defaultProfile.getInt(
+            DefaultDriverOption.REQUEST_THROTTLER_PER_NODE_MAX_REQUESTS_PER_SECOND))
+        .thenReturn(1000);
+    when(defaultProfile.getInt(DefaultDriverOption.REQUEST_THROTTLER_PER_NODE_MAX_BURST))
+        .thenReturn(2);
+    when(defaultProfile.getInt(
+            DefaultDriverOption.REQUEST_THROTTLER_PER_NODE_MAX_CONCURRENT_REQUESTS))
+        .thenReturn(0);
+    when(defaultProfile.getDuration(DefaultDriverOption.REQUEST_THROTTLER_PER_NODE_MAX_QUEUE_DELAY))
+        .thenReturn(Duration.ofMillis(5));
+  }
+
+  @Test
+  public void should_be_disabled_by_config() {
+    when(defaultProfile.getBoolean(DefaultDriverOption.REQUEST_THROTTLER_PER_NODE_ENABLED))
+        .thenReturn(false);
+    NodeRequestLimiter limiter = new NodeRequestLimiter(context, clock);
+
+    assertThat(limiter.isEnabled()).isFalse();
+    for (int i = 0; i < 100; i++) {
+      assertThat(limiter.tryAcquire(node1)).isTrue();
+    }
+  }
+
+  @Test
+  public void should_allow_burst_then_limit_rate() {
+    NodeRequestLimiter limiter = new NodeRequestLimiter(context, clock);
+
+    assertThat(limiter.tryAcquire(node1)).isTrue();
+    assertThat(limiter.tryAcquire(node1)).isTrue();
+    assertThat(limiter.tryAcquire(node1)).isFalse();
+    // Nodes are limited independently
+    assertThat(limiter.tryAcquire(node2)).isTrue();
+
+    clock.add(ONE_MS);
+    assertThat(limiter.tryAcquire(node1)).isTrue();
+    assertThat(limiter.tryAcquire(node1)).isFalse();
+
+    // An idle node gets back its full burst, but not more
+    clock.add(100 * ONE_MS);
+    assertThat(limiter.tryAcquire(node1)).isTrue();
+    assertThat(limiter.tryAcquire(node1)).isTrue();
+    assertThat(limiter.tryAcquire(node1)).isFalse();
+  }
+
+  @Test
+  public void should_reserve_permit_within_max_delay() {
+    NodeRequestLimiter limiter = new NodeRequestLimiter(context, clock);
+    assertThat(limiter.getMaxQueueDelayNanos()).isEqualTo(5 * ONE_MS);
+
+    assertThat(limiter.tryAcquire(node1)).isTrue();
+    assertThat(limiter.tryAcquire(node1)).isTrue();
+
+    assertThat(limiter.tryReserve(node1, 5 * ONE_MS)).isEqualTo(ONE_MS);
+    assertThat(limiter.tryReserve(node1, 5 * ONE_MS)).isEqualTo(2 * ONE_MS);
+    assertThat(limiter.tryReserve(node1, ONE_MS)).isNegative();
+    // The failed reservation didn't consume anything
+    assertThat(limiter.tryReserve(node1, 5 * ONE_MS)).isEqualTo(3 * ONE_MS);
+  }
+
+  @Test
+  public void should_limit_concurrency() {
+    when(defaultProfile.getInt(
+            DefaultDriverOption.REQUEST_THROTTLER_PER_NODE_MAX_CONCURRENT_REQUESTS))
+        .thenReturn(10);
+    NodeRequestLimiter limiter = new NodeRequestLimiter(context, clock);
+
+    when(pool1.getInFlight()).thenReturn(10);
+    assertThat(limiter.tryAcquire(node1)).isFalse();
+    assertThat(limiter.tryReserve(node1, 5 * ONE_MS)).isNegative();
+
+    when(pool1.getInFlight()).thenReturn(9);
+    assertThat(limiter.tryAcquire(node1)).isTrue();
+
+    // No pool: no in-flight requests
+    assertThat(limiter.tryAcquire(node2)).isTrue();
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void should_reset_node_when_removed() {
+    NodeRequestLimiter limiter = new NodeRequestLimiter(context, clock);
+    ArgumentCaptor<Consumer<NodeStateEvent>> listener = ArgumentCaptor.forClass(Consumer.class);
+    verify(eventBus).register(eq(NodeStateEvent.class), listener.capture());
+
+    assertThat(limiter.tryAcquire(node1)).isTrue();
+    assertThat(limiter.tryAcquire(node1)).isTrue();
+    assertThat(limiter.tryAcquire(node1)).isFalse();
+
+    listener.getValue().accept(NodeStateEvent.removed(node1));
+
+    assertThat(limiter.tryAcquire(node1)).isTrue();
+  }
+}
@@ -0,0 +1,184 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.driver.internal.core.specex;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.datastax.dse.driver.internal.core.tracker.MultiplexingRequestTracker;
+import com.datastax.oss.driver.api.core.config.DefaultDriverOption;
+import com.datastax.oss.driver.api.core.config.DriverConfig;
+import com.datastax.oss.driver.api.core.config.DriverExecutionProfile;
+import com.datastax.oss.driver.api.core.metadata.Node;
+import com.datastax.oss.driver.api.core.session.Request;
+import com.datastax.oss.driver.internal.core.context.EventBus;
+import com.datastax.oss.driver.internal.core.context.InternalDriverContext;
+import com.datastax.oss.driver.internal.core.metadata.DefaultNode;
+import com.datastax.oss.driver.internal.core.metadata.NodeStateEvent;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class PercentileSpeculativeExecutionPolicyTest {
+
+  @Mock private InternalDriverContext context;
+  @Mock private DriverConfig config;
+  @Mock private DriverExecutionProfile profile;
+  @Mock private DriverExecutionProfile otherProfile;
+  @Mock private EventBus eventBus;
+  @Mock private DefaultNode node1;
+  @Mock private DefaultNode node2;
+  @Mock private Request request;
+
+  @Before
+  public void setup() {
+    when(context.getSessionName()).thenReturn("test");
+    when(context.getConfig()).thenReturn(config);
+    when(context.getRequestTracker()).thenReturn(new MultiplexingRequestTracker());
+    when(config.getProfile(DriverExecutionProfile.DEFAULT_NAME)).thenReturn(profile);
+    when(config.getDefaultProfile()).thenReturn(profile);
+
+    when(profile.getInt(DefaultDriverOption.SPECULATIVE_EXECUTION_MAX)).thenReturn(2);
+    when(profile.getDouble(eq(DefaultDriverOption.SPECULATIVE_EXECUTION_PERCENTILE), anyDouble()))
+        .thenReturn(90.0);
+    // Refresh the snapshot on every read, so that recorded values are visible immediately
+    when(profile.getDuration(eq(DefaultDriverOption.SPECULATIVE_EXECUTION_INTERVAL), any()))
+        .thenReturn(Duration.ZERO);
+    when(profile.getDuration(eq(DefaultDriverOption.SPECULATIVE_EXECUTION_HIGHEST_LATENCY), any()))
+        .thenReturn(Duration.ofSeconds(1));
+    when(profile.getInt(eq(DefaultDriverOption.SPECULATIVE_EXECUTION_SIGNIFICANT_DIGITS), anyInt()))
+        .thenReturn(3);
+    when(profile.getInt(eq(DefaultDriverOption.SPECULATIVE_EXECUTION_MIN_SAMPLES), anyInt()))
+        .thenReturn(100);
+    when(profile.getInt(eq(DefaultDriverOption.METRICS_HISTOGRAMS_LOCK_FREE_STRIPES), anyInt()))
+        .thenReturn(1);
+  }
+
+  @Test
+  public void should_not_speculate_until_enough_latencies_were_recorded() {
+    PercentileSpeculativeExecutionPolicy policy = newPolicy("NODE", 1.0);
+    record(policy, node1, 99);
+
+    assertThat(policy.nextExecution(node1, null, request, 1)).isEqualTo(-1);
+  }
+
+  @Test
+  public void should_use_percentile_of_recorded_latencies() {
+    PercentileSpeculativeExecutionPolicy policy = newPolicy("NODE", 1.0);
+    record(policy, node1, 100);
+
+    // HdrHistogram returns the highest value equivalent to the percentile, rounded up to millis
+    assertThat(policy.nextExecution(node1, null, request, 1)).isBetween(90L, 91L);
+  }
+
+  @Test
+  public void should_not_exceed_max_executions() {
+    PercentileSpeculativeExecutionPolicy policy = newPolicy("NODE", 1.0);
+    record(policy, node1, 100);
+
+    assertThat(policy.nextExecution(node1, null, request, 2)).isEqualTo(-1);
+  }
+
+  @Test
+  public void should_track_latencies_per_node() {
+    PercentileSpeculativeExecutionPolicy policy = newPolicy("NODE", 1.0);
+    record(policy, node1, 100);
+
+    assertThat(policy.nextExecution(node2, null, request, 1)).isEqualTo(-1);
+  }
+
+  @Test
+  public void should_track_latencies_per_profile() {
+    PercentileSpeculativeExecutionPolicy policy = newPolicy("PROFILE", 1.0);
+    record(policy, node1, 100);
+
+    assertThat(policy.nextExecution(node2, null, request, 1)).isBetween(90L, 91L);
+  }
+
+  @Test
+  public void should_ignore_requests_from_other_profiles() {
+    PercentileSpeculativeExecutionPolicy policy = newPolicy("NODE", 1.0);
+    // A profile that uses another policy (the context returns null for it)
+    when(otherProfile.getName()).thenReturn("other");
+    for (int i = 1; i <= 100; i++) {
+      policy.onNodeSuccess(
+          request, TimeUnit.MILLISECONDS.toNanos(i), otherProfile, node1, "test|request");
+    }
+
+    assertThat(policy.nextExecution(node1, null, request, 1)).isEqualTo(-1);
+  }
+
+  @Test
+  public void should_cap_ratio_of_speculative_executions() {
+    PercentileSpeculativeExecutionPolicy policy = newPolicy("NODE", 0.5);
+    record(policy, node1, 100);
+
+    // First request: no speculation yet, allowed
+    assertThat(policy.nextExecution(node1, null, request, 1)).isBetween(90L, 91L);
+    // It speculates
+    assertThat(policy.nextExecution(node1, null, request, 2)).isEqualTo(-1);
+    // Second request: 1 speculation for 2 requests, the cap is reached
+    assertThat(policy.nextExecution(node1, null, request, 1)).isEqualTo(-1);
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void should_reset_node_when_removed() {
+    PercentileSpeculativeExecutionPolicy policy = newPolicy("NODE", 1.0);
+    ArgumentCaptor<Consumer<NodeStateEvent>> listener = ArgumentCaptor.forClass(Consumer.class);
+    verify(eventBus).register(eq(NodeStateEvent.class), listener.capture());
+    record(policy, node1, 100);
+
+    listener.getValue().accept(NodeStateEvent.removed(node1));
+
+    assertThat(policy.nextExecution(node1, null, request, 1)).isEqualTo(-1);
+  }
+
+  private PercentileSpeculativeExecutionPolicy newPolicy(String scope, double maxRatio) {
+    when(profile.getString(eq(DefaultDriverOption.SPECULATIVE_EXECUTION_SCOPE), anyString()))
+        .thenReturn(scope);
+    when(profile.getDouble(eq(DefaultDriverOption.SPECULATIVE_EXECUTION_MAX_RATIO), anyDouble()))
+        .thenReturn(maxRatio);
+    if (scope.equals("NODE")) {
+      when(context.getEventBus()).thenReturn(eventBus);
+    }
+    return new PercentileSpeculativeExecutionPolicy(context, DriverExecutionProfile.DEFAULT_NAME);
+  }
+
+  /** Records latencies of 1, 2, ..., count milliseconds. */
+  private void record(PercentileSpeculativeExecutionPolicy policy, Node node, int count) {
+    when(profile.getName()).thenReturn(DriverExecutionProfile.DEFAULT_NAME);
+    when(context.getSpeculativeExecutionPolicy(DriverExecutionProfile.DEFAULT_NAME))
+        .thenReturn(policy);
+    for (int i = 1; i <= count; i++) {
+      policy.onNodeSuccess(
+          request, TimeUnit.MILLISECONDS.toNanos(i), profile, node, "test|request");
+    }
+  }
+}
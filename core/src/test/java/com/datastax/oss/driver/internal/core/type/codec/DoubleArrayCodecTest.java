@@ -0,0 +1,47 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.driver.internal.core.type.codec;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.datastax.oss.driver.api.core.type.DataTypes;
+import org.junit.Test;
+
+public class DoubleArrayCodecTest extends CodecTestBase<double[]> {
+
+  public DoubleArrayCodecTest() {
+    this.codec = new DoubleArrayCodec(DataTypes.listOf(DataTypes.DOUBLE));
+  }
+
+  @Test
+  public void should_encode() {
+    assertThat(encode(null)).isNull();
+    assertThat(encode(new double[] {0.0}))
+        .isEqualTo("0x" + "00000001" + "000000080000000000000000");
+  }
+
+  @Test
+  public void should_decode() {
+    assertThat(decode(null)).isEmpty();
+    assertThat(decode("0x" + "00000001" + "000000083ff0000000000000")).containsExactly(1.0);
+  }
+
+  @Test
+  public void should_format_and_parse() {
+    assertThat(format(new double[] {1.0, 2.5})).isEqualTo("[1.0,2.5]");
+    assertThat(parse("[1.0,2.5]")).containsExactly(1.0, 2.5);
+  }
+}
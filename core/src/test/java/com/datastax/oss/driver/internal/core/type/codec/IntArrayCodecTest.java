@@ -0,0 +1,113 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.driver.internal.core.type.codec;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.datastax.oss.driver.api.core.type.DataTypes;
+import com.datastax.oss.driver.api.core.type.reflect.GenericType;
+import org.junit.Test;
+
+public class IntArrayCodecTest extends CodecTestBase<int[]> {
+
+  public IntArrayCodecTest() {
+    this.codec = new IntArrayCodec(DataTypes.listOf(DataTypes.INT));
+  }
+
+  @Test
+  public void should_encode() {
+    assertThat(encode(null)).isNull();
+    assertThat(encode(new int[0])).isEqualTo("0x00000000");
+    assertThat(encode(new int[] {1, 2, 3}))
+        .isEqualTo(
+            "0x"
+                + "00000003" // number of elements
+                + "0000000400000001" // size + contents of element 1
+                + "0000000400000002" // size + contents of element 2
+                + "0000000400000003" // size + contents of element 3
+            );
+  }
+
+  @Test
+  public void should_decode() {
+    assertThat(decode(null)).isEmpty();
+    assertThat(decode("0x")).isEmpty();
+    assertThat(decode("0x00000000")).isEmpty();
+    assertThat(decode("0x" + "00000002" + "0000000400000001" + "00000004ffffffff"))
+        .containsExactly(1, -1);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void should_fail_to_decode_null_element() {
+    decode("0x" + "00000001" + "ffffffff");
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void should_fail_to_decode_if_wrong_element_size() {
+    decode("0x" + "00000001" + "000000020001");
+  }
+
+  @Test
+  public void should_format() {
+    assertThat(format(null)).isEqualTo("NULL");
+    assertThat(format(new int[0])).isEqualTo("[]");
+    assertThat(format(new int[] {1, 2, 3})).isEqualTo("[1,2,3]");
+  }
+
+  @Test
+  public void should_format_as_set() {
+    codec = new IntArrayCodec(DataTypes.setOf(DataTypes.INT));
+    assertThat(format(new int[] {1, 2, 3})).isEqualTo("{1,2,3}");
+  }
+
+  @Test
+  public void should_parse() {
+    assertThat(parse("NULL")).isNull();
+    assertThat(parse("")).isNull();
+    assertThat(parse(null)).isNull();
+    assertThat(parse("[]")).isEmpty();
+    assertThat(parse("[1,2,3]")).containsExactly(1, 2, 3);
+    assertThat(parse(" { 1 , 2 } ")).containsExactly(1, 2);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void should_fail_to_parse_invalid_input() {
+    parse("not a list");
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void should_fail_to_create_if_wrong_element_type() {
+    new IntArrayCodec(DataTypes.listOf(DataTypes.BIGINT));
+  }
+
+  @Test
+  public void should_accept_generic_type() {
+    assertThat(codec.accepts(GenericType.of(int[].class))).isTrue();
+    assertThat(codec.accepts(GenericType.listOf(Integer.class))).isFalse();
+  }
+
+  @Test
+  public void should_accept_raw_type() {
+    assertThat(codec.accepts(int[].class)).isTrue();
+    assertThat(codec.accepts(Integer[].class)).isFalse();
+  }
+
+  @Test
+  public void should_accept_object() {
+    assertThat(codec.accepts(new int[] {1})).isTrue();
+    assertThat(codec.accepts(new long[] {1})).isFalse();
+  }
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.driver.internal.core.type.codec;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.datastax.oss.driver.api.core.type.DataTypes;
+import org.junit.Test;
+
+public class LongArrayCodecTest extends CodecTestBase<long[]> {
+
+  public LongArrayCodecTest() {
+    this.codec = new LongArrayCodec(DataTypes.setOf(DataTypes.BIGINT));
+  }
+
+  @Test
+  public void should_encode() {
+    assertThat(encode(null)).isNull();
+    assertThat(encode(new long[] {1L, 2L}))
+        .isEqualTo("0x" + "00000002" + "000000080000000000000001" + "000000080000000000000002");
+  }
+
+  @Test
+  public void should_decode() {
+    assertThat(decode(null)).isEmpty();
+    assertThat(decode("0x" + "00000002" + "000000080000000000000001" + "00000008ffffffffffffffff"))
+        .containsExactly(1L, -1L);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void should_fail_to_decode_if_wrong_element_size() {
+    decode("0x" + "00000001" + "0000000400000001");
+  }
+
+  @Test
+  public void should_format_and_parse() {
+    assertThat(format(new long[] {1L, 2L})).isEqualTo("{1,2}");
+    assertThat(parse("{1,2}")).containsExactly(1L, 2L);
+  }
+}
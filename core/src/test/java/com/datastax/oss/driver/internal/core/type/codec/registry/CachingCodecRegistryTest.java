@@ -38,6 +38,7 @@ import com.datastax.oss.driver.internal.core.data.DefaultUdtValue;
 import com.datastax.oss.driver.internal.core.type.codec.CqlIntToStringCodec;
 import com.datastax.oss.driver.internal.core.type.codec.IntCodec;
 import com.datastax.oss.driver.internal.core.type.codec.ListCodec;
+import com.datastax.oss.driver.internal.core.type.codec.PrimitiveArrayCodec;
 import com.datastax.oss.driver.internal.core.type.codec.registry.CachingCodecRegistryTest.TestCachingCodecRegistry.MockCache;
 import com.datastax.oss.driver.shaded.guava.common.collect.Lists;
 import com.tngtech.java.junit.dataprovider.DataProviderRunner;
@@ -522,6 +523,59 @@ public class CachingCodecRegistryTest {
     verifyZeroInteractions(mockCache);
   }
 
+  @Test
+  @UseDataProvider(
+      value = "primitiveArraysWithCqlAndJavaTypes",
+      location = CachingCodecRegistryTestDataProviders.class)
+  public void should_create_primitive_array_codec_for_cql_and_java_types(
+      DataType cqlType, GenericType<?> javaType, Object value) {
+    TestCachingCodecRegistry registry = new TestCachingCodecRegistry(mockCache);
+    InOrder inOrder = inOrder(mockCache);
+    TypeCodec<?> codec = registry.codecFor(cqlType, javaType);
+    assertThat(codec).isInstanceOf(PrimitiveArrayCodec.class);
+    assertThat(codec.accepts(cqlType)).isTrue();
+    assertThat(codec.accepts(javaType)).isTrue();
+    assertThat(codec.accepts(value)).isTrue();
+    inOrder.verify(mockCache).lookup(cqlType, javaType, false);
+  }
+
+  @Test
+  @UseDataProvider(
+      value = "primitiveArraysWithCqlAndJavaTypes",
+      location = CachingCodecRegistryTestDataProviders.class)
+  public void should_create_primitive_array_codec_for_cql_type_and_java_value(
+      DataType cqlType, GenericType<?> javaType, Object value) {
+    TestCachingCodecRegistry registry = new TestCachingCodecRegistry(mockCache);
+    InOrder inOrder = inOrder(mockCache);
+    TypeCodec<?> codec = registry.codecFor(cqlType, value);
+    assertThat(codec).isInstanceOf(PrimitiveArrayCodec.class);
+    assertThat(codec.accepts(cqlType)).isTrue();
+    assertThat(codec.accepts(javaType)).isTrue();
+    inOrder.verify(mockCache).lookup(cqlType, javaType, true);
+  }
+
+  @Test
+  @UseDataProvider(
+      value = "primitiveArraysWithCqlAndJavaTypes",
+      location = CachingCodecRegistryTestDataProviders.class)
+  public void should_create_primitive_array_codec_for_java_value(
+      DataType cqlType, GenericType<?> javaType, Object value) {
+    TestCachingCodecRegistry registry = new TestCachingCodecRegistry(mockCache);
+    TypeCodec<?> codec = registry.codecFor(value);
+    assertThat(codec).isInstanceOf(PrimitiveArrayCodec.class);
+    // Without a CQL type, arrays default to lists
+    assertThat(codec.getCqlType()).isInstanceOf(ListType.class);
+    assertThat(codec.accepts(javaType)).isTrue();
+  }
+
+  @Test
+  public void should_not_create_primitive_array_codec_for_mismatched_element_type() {
+    TestCachingCodecRegistry registry = new TestCachingCodecRegistry(mockCache);
+    assertThatThrownBy(
+            () -> registry.codecFor(DataTypes.listOf(DataTypes.TEXT), GenericType.of(int[].class)))
+        .isInstanceOf(CodecNotFoundException.class);
+  }
+
   @Test
   public void should_ignore_user_codec_if_collides_with_builtin_codec() {
     TestCachingCodecRegistry registry = new TestCachingCodecRegistry(mockCache);
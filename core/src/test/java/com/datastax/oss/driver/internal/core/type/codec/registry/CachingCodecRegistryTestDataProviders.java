@@ -564,4 +564,16 @@ public class CachingCodecRegistryTestDataProviders {
       {userType3, userType3.newValue(ImmutableMap.of(userValue1, userValue2))},
     };
   }
+
+  @DataProvider
+  public static Object[][] primitiveArraysWithCqlAndJavaTypes() {
+    return new Object[][] {
+      {DataTypes.listOf(DataTypes.INT), GenericType.of(int[].class), new int[] {1}},
+      {DataTypes.setOf(DataTypes.INT), GenericType.of(int[].class), new int[] {1}},
+      {DataTypes.listOf(DataTypes.BIGINT), GenericType.of(long[].class), new long[] {1L}},
+      {DataTypes.setOf(DataTypes.BIGINT), GenericType.of(long[].class), new long[] {1L}},
+      {DataTypes.listOf(DataTypes.DOUBLE), GenericType.of(double[].class), new double[] {1.0}},
+      {DataTypes.setOf(DataTypes.DOUBLE), GenericType.of(double[].class), new double[] {1.0}},
+    };
+  }
 }
@@ -0,0 +1,124 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.driver.internal.core.util.collection;
+
+import static com.datastax.oss.driver.Assertions.assertThat;
+
+import com.datastax.oss.driver.api.core.metadata.Node;
+import com.datastax.oss.driver.shaded.guava.common.collect.ImmutableSet;
+import java.util.Iterator;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class LazyQueryPlanTest {
+
+  @Mock private Node node1;
+  @Mock private Node node2;
+  @Mock private Node node3;
+  @Mock private Node node4;
+  @Mock private Node node5;
+
+  @Test
+  public void should_poll_replicas_then_other_nodes() {
+    LazyQueryPlan queryPlan = newPlan(new Object[] {node2, node4}, 0, 0);
+    assertThat(queryPlan.poll()).isSameAs(node2);
+    assertThat(queryPlan.poll()).isSameAs(node4);
+    assertThat(queryPlan.poll()).isSameAs(node1);
+    assertThat(queryPlan.poll()).isSameAs(node3);
+    assertThat(queryPlan.poll()).isSameAs(node5);
+    assertThat(queryPlan.poll()).isNull();
+    assertThat(queryPlan.poll()).isNull();
+  }
+
+  @Test
+  public void should_apply_offsets() {
+    assertThat(newPlan(new Object[] {node2, node4}, 1, 2))
+        .containsExactly(node4, node2, node3, node5, node1);
+    assertThat(newPlan(new Object[] {node2, node4}, 0, 4))
+        .containsExactly(node2, node4, node5, node1, node3);
+  }
+
+  @Test
+  public void should_skip_replicas_that_are_not_live() {
+    Node remoteNode = node5;
+    LazyQueryPlan queryPlan =
+        new LazyQueryPlan(
+            new Object[] {node2, remoteNode, node4},
+            0,
+            new Object[] {node1, node2, node3, node4},
+            ImmutableSet.of(node1, node2, node3, node4),
+            0);
+    assertThat(queryPlan).containsExactly(node2, node4, node1, node3);
+  }
+
+  @Test
+  public void should_use_live_nodes_when_no_replicas() {
+    assertThat(newPlan(new Object[0], 0, 3)).containsExactly(node4, node5, node1, node2, node3);
+  }
+
+  @Test
+  public void should_be_empty_when_no_live_nodes() {
+    LazyQueryPlan queryPlan =
+        new LazyQueryPlan(new Object[] {node1}, 0, new Object[0], ImmutableSet.of(), 0);
+    assertThat(queryPlan.poll()).isNull();
+    assertThat(queryPlan).isEmpty();
+  }
+
+  @Test
+  public void should_return_size() {
+    LazyQueryPlan queryPlan = newPlan(new Object[] {node2, node4}, 0, 0);
+    assertThat(queryPlan.size()).isEqualTo(5);
+    queryPlan.poll();
+    assertThat(queryPlan.size()).isEqualTo(4);
+    queryPlan.poll();
+    queryPlan.poll();
+    assertThat(queryPlan.size()).isEqualTo(2);
+    queryPlan.poll();
+    queryPlan.poll();
+    assertThat(queryPlan.size()).isEqualTo(0);
+    queryPlan.poll();
+    assertThat(queryPlan.size()).isEqualTo(0);
+  }
+
+  @Test
+  public void should_return_iterator() {
+    LazyQueryPlan queryPlan = newPlan(new Object[] {node2, node4}, 0, 0);
+    Iterator<Node> iterator5 = queryPlan.iterator();
+    queryPlan.poll();
+    queryPlan.poll();
+    Iterator<Node> iterator3 = queryPlan.iterator();
+    queryPlan.poll();
+    queryPlan.poll();
+    queryPlan.poll();
+    Iterator<Node> iterator0 = queryPlan.iterator();
+
+    assertThat(iterator5).toIterable().containsExactly(node2, node4, node1, node3, node5);
+    assertThat(iterator3).toIterable().containsExactly(node1, node3, node5);
+    assertThat(iterator0).toIterable().isEmpty();
+  }
+
+  private LazyQueryPlan newPlan(Object[] replicas, int replicaOffset, int liveNodeOffset) {
+    return new LazyQueryPlan(
+        replicas,
+        replicaOffset,
+        new Object[] {node1, node2, node3, node4, node5},
+        ImmutableSet.of(node1, node2, node3, node4, node5),
+        liveNodeOffset);
+  }
+}
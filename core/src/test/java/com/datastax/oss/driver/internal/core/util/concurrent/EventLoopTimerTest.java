@@ -0,0 +1,205 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.driver.internal.core.util.concurrent;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import io.netty.channel.DefaultEventLoopGroup;
+import io.netty.channel.EventLoop;
+import io.netty.util.Timeout;
+import io.netty.util.TimerTask;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class EventLoopTimerTest {
+
+  private DefaultEventLoopGroup group;
+  private EventLoopTimer timer;
+
+  @Before
+  public void setup() {
+    group = new DefaultEventLoopGroup(2);
+    // Small wheel to exercise timeouts that span multiple rounds
+    timer = new EventLoopTimer(group, 1, TimeUnit.MILLISECONDS, 8);
+  }
+
+  @After
+  public void teardown() {
+    timer.stop();
+    group.shutdownGracefully(0, 0, TimeUnit.SECONDS).syncUninterruptibly();
+  }
+
+  @Test
+  public void should_expire_timeout_after_delay() throws Exception {
+    CompletableFuture<Long> expired = new CompletableFuture<>();
+    long start = System.nanoTime();
+
+    Timeout timeout =
+        timer.newTimeout(t -> expired.complete(System.nanoTime()), 50, TimeUnit.MILLISECONDS);
+
+    long end = expired.get(1, TimeUnit.SECONDS);
+    assertThat(TimeUnit.NANOSECONDS.toMillis(end - start)).isGreaterThanOrEqualTo(50);
+    assertThat(timeout.isExpired()).isTrue();
+    assertThat(timeout.isCancelled()).isFalse();
+    assertThat(timeout.cancel()).isFalse();
+    assertThat(timeout.timer()).isSameAs(timer);
+  }
+
+  @Test
+  public void should_not_run_cancelled_timeout() throws Exception {
+    AtomicInteger runs = new AtomicInteger();
+    Timeout timeout = timer.newTimeout(t -> runs.incrementAndGet(), 10, TimeUnit.MILLISECONDS);
+
+    assertThat(timeout.cancel()).isTrue();
+    assertThat(timeout.cancel()).isFalse();
+    assertThat(timeout.isCancelled()).isTrue();
+
+    TimeUnit.MILLISECONDS.sleep(50);
+    assertThat(runs.get()).isZero();
+    assertThat(timeout.isExpired()).isFalse();
+  }
+
+  @Test
+  public void should_run_task_on_scheduling_event_loop() throws Exception {
+    EventLoop eventLoop = group.next();
+    CompletableFuture<Boolean> inEventLoop = new CompletableFuture<>();
+
+    eventLoop.execute(
+        () ->
+            timer.newTimeout(
+                t -> inEventLoop.complete(eventLoop.inEventLoop()), 5, TimeUnit.MILLISECONDS));
+
+    assertThat(inEventLoop.get(1, TimeUnit.SECONDS)).isTrue();
+  }
+
+  @Test
+  public void should_cancel_from_event_loop() throws Exception {
+    EventLoop eventLoop = group.next();
+    AtomicInteger runs = new AtomicInteger();
+    CountDownLatch done = new CountDownLatch(1);
+
+    eventLoop.execute(
+        () -> {
+          Timeout first = timer.newTimeout(t -> runs.incrementAndGet(), 5, TimeUnit.MILLISECONDS);
+          Timeout second = timer.newTimeout(t -> runs.incrementAndGet(), 5, TimeUnit.MILLISECONDS);
+          timer.newTimeout(t -> done.countDown(), 20, TimeUnit.MILLISECONDS);
+          // both in the same bucket: unlinking the head must not lose the other entries
+          second.cancel();
+          first.cancel();
+        });
+
+    assertThat(done.await(1, TimeUnit.SECONDS)).isTrue();
+    assertThat(runs.get()).isZero();
+  }
+
+  @Test
+  public void should_release_timeout_cancelled_from_other_thread() throws Exception {
+    // Created and cancelled from the test thread, like the global timeout of a request that is
+    // started from a client thread and completes on an event loop
+    // A wheel that takes a long time to go around, otherwise a cancelled timeout would be unlinked
+    // quickly anyway when the wheel reaches its bucket
+    EventLoopTimer slowTimer = new EventLoopTimer(group, 10, TimeUnit.MILLISECONDS, 1024);
+    Object state = new Object();
+    TimerTask task = t -> state.hashCode();
+    Timeout timeout = slowTimer.newTimeout(task, 1, TimeUnit.HOURS);
+    // Let the wheel pick it up from its pending queue
+    TimeUnit.MILLISECONDS.sleep(50);
+
+    assertThat(timeout.cancel()).isTrue();
+    assertThat(timeout.task()).isNull();
+
+    WeakReference<Timeout> timeoutRef = new WeakReference<>(timeout);
+    WeakReference<TimerTask> taskRef = new WeakReference<>(task);
+    timeout = null;
+    task = null;
+    for (int i = 0; i < 50 && (timeoutRef.get() != null || taskRef.get() != null); i++) {
+      TimeUnit.MILLISECONDS.sleep(10);
+      System.gc();
+    }
+    assertThat(taskRef.get()).isNull();
+    assertThat(timeoutRef.get()).isNull();
+    slowTimer.stop();
+  }
+
+  @Test
+  public void should_allow_task_to_cancel_other_timeout_expiring_at_same_time() throws Exception {
+    EventLoop eventLoop = group.next();
+    List<Timeout> timeouts = new ArrayList<>();
+    AtomicInteger runs = new AtomicInteger();
+    CountDownLatch done = new CountDownLatch(1);
+
+    eventLoop.execute(
+        () -> {
+          for (int i = 0; i < 2; i++) {
+            timeouts.add(
+                timer.newTimeout(
+                    t -> {
+                      runs.incrementAndGet();
+                      for (Timeout other : timeouts) {
+                        other.cancel();
+                      }
+                    },
+                    5,
+                    TimeUnit.MILLISECONDS));
+          }
+          timer.newTimeout(t -> done.countDown(), 20, TimeUnit.MILLISECONDS);
+        });
+
+    assertThat(done.await(1, TimeUnit.SECONDS)).isTrue();
+    assertThat(runs.get()).isEqualTo(1);
+  }
+
+  @Test
+  public void should_expire_many_timeouts_from_multiple_threads() throws Exception {
+    int count = 1000;
+    CountDownLatch latch = new CountDownLatch(count);
+    List<Thread> threads = new ArrayList<>();
+    for (int i = 0; i < 4; i++) {
+      Thread thread =
+          new Thread(
+              () -> {
+                for (int j = 0; j < count / 4; j++) {
+                  timer.newTimeout(t -> latch.countDown(), j % 30, TimeUnit.MILLISECONDS);
+                }
+              });
+      threads.add(thread);
+      thread.start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+
+    assertThat(latch.await(2, TimeUnit.SECONDS)).isTrue();
+  }
+
+  @Test
+  public void should_return_unprocessed_timeouts_and_reject_new_ones_after_stop() {
+    Timeout timeout = timer.newTimeout(t -> {}, 1, TimeUnit.HOURS);
+
+    assertThat(timer.stop()).contains(timeout);
+    assertThatThrownBy(() -> timer.newTimeout(t -> {}, 1, TimeUnit.SECONDS))
+        .isInstanceOf(IllegalStateException.class);
+  }
+}
@@ -0,0 +1,195 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.driver.internal.metrics.micrometer;
+
+import com.datastax.oss.driver.api.core.config.DefaultDriverOption;
+import com.datastax.oss.driver.api.core.config.DriverExecutionProfile;
+import com.datastax.oss.driver.api.core.config.DriverOption;
+import com.datastax.oss.driver.internal.core.metrics.MetricUpdater;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import net.jcip.annotations.ThreadSafe;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Records metrics straight into Micrometer meters.
+ *
+ * <p>Timers are registered eagerly with the distribution settings from the configuration; counters
+ * and distribution summaries are created on first use. Dropwizard meters have no Micrometer
+ * equivalent, they are recorded as counters (rates are computed by the monitoring system).
+ */
+@ThreadSafe
+public abstract class MicrometerMetricUpdater<MetricT> implements MetricUpdater<MetricT> {
+
+  private static final Logger LOG = LoggerFactory.getLogger(MicrometerMetricUpdater.class);
+
+  protected final Set<MetricT> enabledMetrics;
+  protected final MeterRegistry registry;
+  protected final Tags tags;
+  private final boolean generateAggregableHistograms;
+  private final ConcurrentMap<MetricT, Meter> meters = new ConcurrentHashMap<>();
+
+  protected MicrometerMetricUpdater(
+      Set<MetricT> enabledMetrics,
+      MeterRegistry registry,
+      Tags tags,
+      DriverExecutionProfile config) {
+    this.enabledMetrics = enabledMetrics;
+    this.registry = registry;
+    this.tags = tags;
+    this.generateAggregableHistograms =
+        config.getBoolean(DefaultDriverOption.METRICS_GENERATE_AGGREGABLE_HISTOGRAMS);
+  }
+
+  protected abstract String buildName(MetricT metric);
+
+  @Override
+  public void incrementCounter(MetricT metric, String profileName, long amount) {
+    if (isEnabled(metric, profileName)) {
+      getCounter(metric).increment(amount);
+    }
+  }
+
+  @Override
+  public void updateHistogram(MetricT metric, String profileName, long value) {
+    if (isEnabled(metric, profileName)) {
+      DistributionSummary summary =
+          getOrCreate(
+              metric,
+              m ->
+                  DistributionSummary.builder(buildName(m))
+                      .tags(tags)
+                      .publishPercentileHistogram(generateAggregableHistograms)
+                      .register(registry));
+      summary.record(value);
+    }
+  }
+
+  @Override
+  public void markMeter(MetricT metric, String profileName, long amount) {
+    if (isEnabled(metric, profileName)) {
+      getCounter(metric).increment(amount);
+    }
+  }
+
+  @Override
+  public void updateTimer(MetricT metric, String profileName, long duration, TimeUnit unit) {
+    if (isEnabled(metric, profileName)) {
+      Timer timer =
+          getOrCreate(
+              metric,
+              m ->
+                  Timer.builder(buildName(m))
+                      .tags(tags)
+                      .publishPercentileHistogram(generateAggregableHistograms)
+                      .register(registry));
+      timer.record(duration, unit);
+    }
+  }
+
+  @Override
+  public boolean isEnabled(MetricT metric, String profileName) {
+    return enabledMetrics.contains(metric);
+  }
+
+  /** Returns the meter registered for the given metric, or null if there is none yet. */
+  @Nullable
+  @SuppressWarnings({"unchecked", "TypeParameterUnusedInFormals"})
+  public <T extends Meter> T getMeter(MetricT metric) {
+    return (T) meters.get(metric);
+  }
+
+  protected void initializeCounter(MetricT metric) {
+    if (isEnabled(metric, null)) {
+      // Just initialize eagerly so that the metric appears even when it has no data yet
+      getCounter(metric);
+    }
+  }
+
+  protected void initializeGauge(MetricT metric, Supplier<Number> reading) {
+    if (isEnabled(metric, null)) {
+      meters.put(
+          metric,
+          Gauge.builder(buildName(metric), reading)
+              .tags(tags)
+              .strongReference(true)
+              .register(registry));
+    }
+  }
+
+  protected void initializeTimer(
+      MetricT metric,
+      DriverExecutionProfile config,
+      DriverOption highestLatencyOption,
+      DriverOption significantDigitsOption,
+      DriverOption intervalOption,
+      @Nullable DriverOption sloOption) {
+    if (isEnabled(metric, config.getName())) {
+      String name = buildName(metric);
+      int significantDigits = config.getInt(significantDigitsOption);
+      if (significantDigits < 0 || significantDigits > 5) {
+        LOG.warn(
+            "[{}] Configuration option {} is out of range (expected between 0 and 5, found {}); "
+                + "using 3 instead.",
+            name,
+            significantDigitsOption,
+            significantDigits);
+        significantDigits = 3;
+      }
+      Timer.Builder builder =
+          Timer.builder(name)
+              .tags(tags)
+              .publishPercentileHistogram(generateAggregableHistograms)
+              .maximumExpectedValue(config.getDuration(highestLatencyOption))
+              .percentilePrecision(significantDigits)
+              .distributionStatisticExpiry(config.getDuration(intervalOption));
+      if (sloOption != null && config.isDefined(sloOption)) {
+        List<Duration> slos = config.getDurationList(sloOption);
+        builder.serviceLevelObjectives(slos.toArray(new Duration[0]));
+      }
+      meters.put(metric, builder.register(registry));
+    }
+  }
+
+  private Counter getCounter(MetricT metric) {
+    return getOrCreate(metric, m -> Counter.builder(buildName(m)).tags(tags).register(registry));
+  }
+
+  @SuppressWarnings({"unchecked", "TypeParameterUnusedInFormals"})
+  private <T extends Meter> T getOrCreate(MetricT metric, Function<MetricT, Meter> factory) {
+    // Avoid computeIfAbsent's locking on the hot path, the meter is almost always there already
+    Meter meter = meters.get(metric);
+    if (meter == null) {
+      meter = meters.computeIfAbsent(metric, factory);
+    }
+    return (T) meter;
+  }
+}
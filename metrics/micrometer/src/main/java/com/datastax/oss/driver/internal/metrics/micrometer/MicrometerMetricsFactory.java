@@ -0,0 +1,121 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.driver.internal.metrics.micrometer;
+
+import com.datastax.oss.driver.api.core.config.DefaultDriverOption;
+import com.datastax.oss.driver.api.core.config.DriverExecutionProfile;
+import com.datastax.oss.driver.api.core.context.DriverContext;
+import com.datastax.oss.driver.api.core.metadata.Node;
+import com.datastax.oss.driver.api.core.metrics.Metrics;
+import com.datastax.oss.driver.api.core.metrics.NodeMetric;
+import com.datastax.oss.driver.api.core.metrics.SessionMetric;
+import com.datastax.oss.driver.internal.core.context.InternalDriverContext;
+import com.datastax.oss.driver.internal.core.metrics.MetricPaths;
+import com.datastax.oss.driver.internal.core.metrics.MetricsFactory;
+import com.datastax.oss.driver.internal.core.metrics.NodeMetricUpdater;
+import com.datastax.oss.driver.internal.core.metrics.NoopNodeMetricUpdater;
+import com.datastax.oss.driver.internal.core.metrics.NoopSessionMetricUpdater;
+import com.datastax.oss.driver.internal.core.metrics.SessionMetricUpdater;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Optional;
+import java.util.Set;
+import net.jcip.annotations.ThreadSafe;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A metrics factory that records into a Micrometer {@link MeterRegistry}.
+ *
+ * <p>To activate this factory, modify the {@code advanced.metrics} section in the driver
+ * configuration, for example:
+ *
+ * <pre>
+ * datastax-java-driver {
+ *   advanced.metrics {
+ *     factory.class = com.datastax.oss.driver.internal.metrics.micrometer.MicrometerMetricsFactory
+ *   }
+ * }
+ * </pre>
+ *
+ * The registry is the one passed to {@code SessionBuilder.withMetricRegistry()}, or Micrometer's
+ * {@linkplain io.micrometer.core.instrument.Metrics#globalRegistry global registry} if there is
+ * none. Since the metrics are not recorded with Dropwizard, {@code Session.getMetrics()} is always
+ * empty.
+ */
+@ThreadSafe
+public class MicrometerMetricsFactory implements MetricsFactory {
+
+  private static final Logger LOG = LoggerFactory.getLogger(MicrometerMetricsFactory.class);
+
+  private final InternalDriverContext context;
+  private final Set<NodeMetric> enabledNodeMetrics;
+  @Nullable private final MeterRegistry registry;
+  private final SessionMetricUpdater sessionUpdater;
+
+  public MicrometerMetricsFactory(DriverContext context) {
+    String logPrefix = context.getSessionName();
+    this.context = (InternalDriverContext) context;
+
+    DriverExecutionProfile config = context.getConfig().getDefaultProfile();
+    Set<SessionMetric> enabledSessionMetrics =
+        MetricPaths.parseSessionMetricPaths(
+            config.getStringList(DefaultDriverOption.METRICS_SESSION_ENABLED), logPrefix);
+    this.enabledNodeMetrics =
+        MetricPaths.parseNodeMetricPaths(
+            config.getStringList(DefaultDriverOption.METRICS_NODE_ENABLED), logPrefix);
+
+    if (enabledSessionMetrics.isEmpty() && enabledNodeMetrics.isEmpty()) {
+      LOG.debug("[{}] All metrics are disabled", logPrefix);
+      this.registry = null;
+      this.sessionUpdater = NoopSessionMetricUpdater.INSTANCE;
+    } else {
+      this.registry = resolveRegistry(this.context.getMetricRegistry());
+      this.sessionUpdater =
+          new MicrometerSessionMetricUpdater(enabledSessionMetrics, registry, this.context);
+    }
+  }
+
+  @Override
+  public Optional<Metrics> getMetrics() {
+    return Optional.empty();
+  }
+
+  @Override
+  public SessionMetricUpdater getSessionUpdater() {
+    return sessionUpdater;
+  }
+
+  @Override
+  public NodeMetricUpdater newNodeUpdater(Node node) {
+    return (registry == null)
+        ? NoopNodeMetricUpdater.INSTANCE
+        : new MicrometerNodeMetricUpdater(node, enabledNodeMetrics, registry, context);
+  }
+
+  private static MeterRegistry resolveRegistry(@Nullable Object registry) {
+    if (registry == null) {
+      return io.micrometer.core.instrument.Metrics.globalRegistry;
+    } else if (registry instanceof MeterRegistry) {
+      return (MeterRegistry) registry;
+    } else {
+      throw new IllegalArgumentException(
+          String.format(
+              "Expected the metric registry to be a %s, got %s",
+              MeterRegistry.class.getName(), registry.getClass().getName()));
+    }
+  }
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.driver.internal.metrics.micrometer;
+
+import com.datastax.dse.driver.api.core.config.DseDriverOption;
+import com.datastax.dse.driver.api.core.metrics.DseNodeMetric;
+import com.datastax.oss.driver.api.core.config.DefaultDriverOption;
+import com.datastax.oss.driver.api.core.config.DriverExecutionProfile;
+import com.datastax.oss.driver.api.core.metadata.Node;
+import com.datastax.oss.driver.api.core.metrics.DefaultNodeMetric;
+import com.datastax.oss.driver.api.core.metrics.NodeMetric;
+import com.datastax.oss.driver.internal.core.context.InternalDriverContext;
+import com.datastax.oss.driver.internal.core.metrics.NodeMetricUpdater;
+import com.datastax.oss.driver.internal.core.pool.ChannelPool;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import java.util.Set;
+import java.util.function.Function;
+import net.jcip.annotations.ThreadSafe;
+
+@ThreadSafe
+public class MicrometerNodeMetricUpdater extends MicrometerMetricUpdater<NodeMetric>
+    implements NodeMetricUpdater {
+
+  public static final String NAME_PREFIX = "nodes.";
+  public static final String NODE_TAG = "node";
+
+  public MicrometerNodeMetricUpdater(
+      Node node,
+      Set<NodeMetric> enabledMetrics,
+      MeterRegistry registry,
+      InternalDriverContext context) {
+    this(node, enabledMetrics, registry, context, context.getConfig().getDefaultProfile());
+  }
+
+  private MicrometerNodeMetricUpdater(
+      Node node,
+      Set<NodeMetric> enabledMetrics,
+      MeterRegistry registry,
+      InternalDriverContext context,
+      DriverExecutionProfile config) {
+    super(
+        enabledMetrics,
+        registry,
+        Tags.of(
+            MicrometerSessionMetricUpdater.SESSION_TAG,
+            context.getSessionName(),
+            NODE_TAG,
+            node.getEndPoint().asMetricPrefix()),
+        config);
+
+    initializeGauge(DefaultNodeMetric.OPEN_CONNECTIONS, node::getOpenConnections);
+    initializePoolGauge(
+        DefaultNodeMetric.AVAILABLE_STREAMS, node, ChannelPool::getAvailableIds, context);
+    initializePoolGauge(DefaultNodeMetric.IN_FLIGHT, node, ChannelPool::getInFlight, context);
+    initializePoolGauge(
+        DefaultNodeMetric.ORPHANED_STREAMS, node, ChannelPool::getOrphanedIds, context);
+    initializeTimer(
+        DefaultNodeMetric.CQL_MESSAGES,
+        config,
+        DefaultDriverOption.METRICS_NODE_CQL_MESSAGES_HIGHEST,
+        DefaultDriverOption.METRICS_NODE_CQL_MESSAGES_DIGITS,
+        DefaultDriverOption.METRICS_NODE_CQL_MESSAGES_INTERVAL,
+        DefaultDriverOption.METRICS_NODE_CQL_MESSAGES_SLO);
+    initializeCounter(DefaultNodeMetric.UNSENT_REQUESTS);
+    initializeCounter(DefaultNodeMetric.ABORTED_REQUESTS);
+    initializeCounter(DefaultNodeMetric.WRITE_TIMEOUTS);
+    initializeCounter(DefaultNodeMetric.READ_TIMEOUTS);
+    initializeCounter(DefaultNodeMetric.UNAVAILABLES);
+    initializeCounter(DefaultNodeMetric.OTHER_ERRORS);
+    initializeCounter(DefaultNodeMetric.RETRIES);
+    initializeCounter(DefaultNodeMetric.RETRIES_ON_ABORTED);
+    initializeCounter(DefaultNodeMetric.RETRIES_ON_READ_TIMEOUT);
+    initializeCounter(DefaultNodeMetric.RETRIES_ON_WRITE_TIMEOUT);
+    initializeCounter(DefaultNodeMetric.RETRIES_ON_UNAVAILABLE);
+    initializeCounter(DefaultNodeMetric.RETRIES_ON_OTHER_ERROR);
+    initializeCounter(DefaultNodeMetric.IGNORES);
+    initializeCounter(DefaultNodeMetric.IGNORES_ON_ABORTED);
+    initializeCounter(DefaultNodeMetric.IGNORES_ON_READ_TIMEOUT);
+    initializeCounter(DefaultNodeMetric.IGNORES_ON_WRITE_TIMEOUT);
+    initializeCounter(DefaultNodeMetric.IGNORES_ON_UNAVAILABLE);
+    initializeCounter(DefaultNodeMetric.IGNORES_ON_OTHER_ERROR);
+    initializeCounter(DefaultNodeMetric.SPECULATIVE_EXECUTIONS);
+    initializeCounter(DefaultNodeMetric.CONNECTION_INIT_ERRORS);
+    initializeCounter(DefaultNodeMetric.AUTHENTICATION_ERRORS);
+    initializeCounter(DefaultNodeMetric.THROTTLING_SKIPS);
+    initializeCounter(DefaultNodeMetric.THROTTLING_DELAYS);
+    initializeTimer(
+        DefaultNodeMetric.COMPRESSION_TIME,
+        config,
+        DefaultDriverOption.METRICS_NODE_COMPRESSION_TIME_HIGHEST,
+        DefaultDriverOption.METRICS_NODE_COMPRESSION_TIME_DIGITS,
+        DefaultDriverOption.METRICS_NODE_COMPRESSION_TIME_INTERVAL,
+        null);
+    initializeCounter(DefaultNodeMetric.COMPRESSION_SKIPS);
+    initializeTimer(
+        DseNodeMetric.GRAPH_MESSAGES,
+        config,
+        DseDriverOption.METRICS_NODE_GRAPH_MESSAGES_HIGHEST,
+        DseDriverOption.METRICS_NODE_GRAPH_MESSAGES_DIGITS,
+        DseDriverOption.METRICS_NODE_GRAPH_MESSAGES_INTERVAL,
+        null);
+  }
+
+  @Override
+  protected String buildName(NodeMetric metric) {
+    return NAME_PREFIX + metric.getPath();
+  }
+
+  private void initializePoolGauge(
+      NodeMetric metric,
+      Node node,
+      Function<ChannelPool, Integer> reading,
+      InternalDriverContext context) {
+    initializeGauge(
+        metric,
+        () -> {
+          ChannelPool pool = context.getPoolManager().getPools().get(node);
+          return (pool == null) ? 0 : reading.apply(pool);
+        });
+  }
+}
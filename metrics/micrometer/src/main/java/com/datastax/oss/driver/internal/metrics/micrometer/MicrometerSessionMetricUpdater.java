@@ -0,0 +1,202 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.driver.internal.metrics.micrometer;
+
+import com.datastax.dse.driver.api.core.config.DseDriverOption;
+import com.datastax.dse.driver.api.core.metrics.DseSessionMetric;
+import com.datastax.oss.driver.api.core.config.DefaultDriverOption;
+import com.datastax.oss.driver.api.core.config.DriverExecutionProfile;
+import com.datastax.oss.driver.api.core.metadata.Node;
+import com.datastax.oss.driver.api.core.metrics.DefaultSessionMetric;
+import com.datastax.oss.driver.api.core.metrics.SessionMetric;
+import com.datastax.oss.driver.api.core.session.throttling.RequestThrottler;
+import com.datastax.oss.driver.internal.core.context.InternalDriverContext;
+import com.datastax.oss.driver.internal.core.cql.CqlPrepareAsyncProcessor;
+import com.datastax.oss.driver.internal.core.cql.CqlPrepareSyncProcessor;
+import com.datastax.oss.driver.internal.core.metrics.RequestPhaseMetrics;
+import com.datastax.oss.driver.internal.core.metrics.SessionMetricUpdater;
+import com.datastax.oss.driver.internal.core.session.RequestProcessor;
+import com.datastax.oss.driver.internal.core.session.throttling.ConcurrencyLimitingRequestThrottler;
+import com.datastax.oss.driver.internal.core.session.throttling.RateLimitingRequestThrottler;
+import com.datastax.oss.driver.shaded.guava.common.cache.Cache;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import java.util.Set;
+import java.util.function.Supplier;
+import net.jcip.annotations.ThreadSafe;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+@ThreadSafe
+public class MicrometerSessionMetricUpdater extends MicrometerMetricUpdater<SessionMetric>
+    implements SessionMetricUpdater {
+
+  private static final Logger LOG = LoggerFactory.getLogger(MicrometerSessionMetricUpdater.class);
+
+  public static final String NAME_PREFIX = "session.";
+  public static final String SESSION_TAG = "session";
+
+  public MicrometerSessionMetricUpdater(
+      Set<SessionMetric> enabledMetrics, MeterRegistry registry, InternalDriverContext context) {
+    this(enabledMetrics, registry, context, context.getConfig().getDefaultProfile());
+  }
+
+  private MicrometerSessionMetricUpdater(
+      Set<SessionMetric> enabledMetrics,
+      MeterRegistry registry,
+      InternalDriverContext context,
+      DriverExecutionProfile config) {
+    super(enabledMetrics, registry, Tags.of(SESSION_TAG, context.getSessionName()), config);
+
+    initializeGauge(
+        DefaultSessionMetric.CONNECTED_NODES,
+        () -> {
+          int count = 0;
+          for (Node node : context.getMetadataManager().getMetadata().getNodes().values()) {
+            if (node.getOpenConnections() > 0) {
+              count += 1;
+            }
+          }
+          return count;
+        });
+    if (enabledMetrics.contains(DefaultSessionMetric.THROTTLING_QUEUE_SIZE)) {
+      initializeGauge(
+          DefaultSessionMetric.THROTTLING_QUEUE_SIZE,
+          buildQueueGauge(context.getRequestThrottler(), context.getSessionName()));
+    }
+    if (enabledMetrics.contains(DefaultSessionMetric.THROTTLING_CONCURRENCY_LIMIT)) {
+      initializeGauge(
+          DefaultSessionMetric.THROTTLING_CONCURRENCY_LIMIT,
+          buildLimitGauge(context.getRequestThrottler(), context.getSessionName()));
+    }
+    if (enabledMetrics.contains(DefaultSessionMetric.CQL_PREPARED_CACHE_SIZE)) {
+      Cache<?, ?> cache = getPreparedStatementCache(context);
+      if (cache == null) {
+        LOG.warn(
+            "[{}] Metric {} is enabled in the config, "
+                + "but it looks like no CQL prepare processor is registered. "
+                + "The gauge will always return 0",
+            context.getSessionName(),
+            DefaultSessionMetric.CQL_PREPARED_CACHE_SIZE.getPath());
+        initializeGauge(DefaultSessionMetric.CQL_PREPARED_CACHE_SIZE, () -> 0L);
+      } else {
+        initializeGauge(DefaultSessionMetric.CQL_PREPARED_CACHE_SIZE, cache::size);
+      }
+    }
+    if (enabledMetrics.contains(DefaultSessionMetric.RETRY_BUDGET_TOKENS)) {
+      initializeGauge(
+          DefaultSessionMetric.RETRY_BUDGET_TOKENS, context.getRetryBudget()::getAvailableTokens);
+    }
+    initializeCounter(DefaultSessionMetric.RETRY_BUDGET_REJECTIONS);
+    initializeCounter(DefaultSessionMetric.CQL_PREPARED_CACHE_HITS);
+    initializeCounter(DefaultSessionMetric.CQL_PREPARED_CACHE_MISSES);
+    initializeCounter(DefaultSessionMetric.CQL_PREPARED_CACHE_EVICTIONS);
+    initializeTimer(
+        DefaultSessionMetric.CQL_REQUESTS,
+        config,
+        DefaultDriverOption.METRICS_SESSION_CQL_REQUESTS_HIGHEST,
+        DefaultDriverOption.METRICS_SESSION_CQL_REQUESTS_DIGITS,
+        DefaultDriverOption.METRICS_SESSION_CQL_REQUESTS_INTERVAL,
+        DefaultDriverOption.METRICS_SESSION_CQL_REQUESTS_SLO);
+    for (DefaultSessionMetric phaseMetric : RequestPhaseMetrics.ALL) {
+      initializeTimer(
+          phaseMetric,
+          config,
+          DefaultDriverOption.METRICS_SESSION_CQL_REQUESTS_HIGHEST,
+          DefaultDriverOption.METRICS_SESSION_CQL_REQUESTS_DIGITS,
+          DefaultDriverOption.METRICS_SESSION_CQL_REQUESTS_INTERVAL,
+          null);
+    }
+    initializeCounter(DefaultSessionMetric.CQL_CLIENT_TIMEOUTS);
+    initializeTimer(
+        DefaultSessionMetric.THROTTLING_DELAY,
+        config,
+        DefaultDriverOption.METRICS_SESSION_THROTTLING_HIGHEST,
+        DefaultDriverOption.METRICS_SESSION_THROTTLING_DIGITS,
+        DefaultDriverOption.METRICS_SESSION_THROTTLING_INTERVAL,
+        null);
+    initializeCounter(DefaultSessionMetric.THROTTLING_ERRORS);
+    initializeTimer(
+        DefaultSessionMetric.COALESCER_FLUSH_LATENCY,
+        config,
+        DefaultDriverOption.METRICS_SESSION_COALESCER_FLUSH_LATENCY_HIGHEST,
+        DefaultDriverOption.METRICS_SESSION_COALESCER_FLUSH_LATENCY_DIGITS,
+        DefaultDriverOption.METRICS_SESSION_COALESCER_FLUSH_LATENCY_INTERVAL,
+        null);
+    initializeTimer(
+        DseSessionMetric.CONTINUOUS_CQL_REQUESTS,
+        config,
+        DseDriverOption.CONTINUOUS_PAGING_METRICS_SESSION_CQL_REQUESTS_HIGHEST,
+        DseDriverOption.CONTINUOUS_PAGING_METRICS_SESSION_CQL_REQUESTS_DIGITS,
+        DseDriverOption.CONTINUOUS_PAGING_METRICS_SESSION_CQL_REQUESTS_INTERVAL,
+        null);
+    initializeCounter(DseSessionMetric.GRAPH_CLIENT_TIMEOUTS);
+    initializeTimer(
+        DseSessionMetric.GRAPH_REQUESTS,
+        config,
+        DseDriverOption.METRICS_SESSION_GRAPH_REQUESTS_HIGHEST,
+        DseDriverOption.METRICS_SESSION_GRAPH_REQUESTS_DIGITS,
+        DseDriverOption.METRICS_SESSION_GRAPH_REQUESTS_INTERVAL,
+        null);
+  }
+
+  @Override
+  protected String buildName(SessionMetric metric) {
+    return NAME_PREFIX + metric.getPath();
+  }
+
+  private Supplier<Number> buildQueueGauge(RequestThrottler requestThrottler, String logPrefix) {
+    if (requestThrottler instanceof ConcurrencyLimitingRequestThrottler) {
+      return ((ConcurrencyLimitingRequestThrottler) requestThrottler)::getQueueSize;
+    } else if (requestThrottler instanceof RateLimitingRequestThrottler) {
+      return ((RateLimitingRequestThrottler) requestThrottler)::getQueueSize;
+    } else {
+      LOG.warn(
+          "[{}] Metric {} does not support {}, it will always return 0",
+          logPrefix,
+          DefaultSessionMetric.THROTTLING_QUEUE_SIZE.getPath(),
+          requestThrottler.getClass().getName());
+      return () -> 0;
+    }
+  }
+
+  private Supplier<Number> buildLimitGauge(RequestThrottler requestThrottler, String logPrefix) {
+    // Also covers AdaptiveConcurrencyLimitingRequestThrottler, which overrides the getter
+    if (requestThrottler instanceof ConcurrencyLimitingRequestThrottler) {
+      return ((ConcurrencyLimitingRequestThrottler) requestThrottler)::getMaxConcurrentRequests;
+    } else {
+      LOG.warn(
+          "[{}] Metric {} does not support {}, it will always return 0",
+          logPrefix,
+          DefaultSessionMetric.THROTTLING_CONCURRENCY_LIMIT.getPath(),
+          requestThrottler.getClass().getName());
+      return () -> 0;
+    }
+  }
+
+  @Nullable
+  private static Cache<?, ?> getPreparedStatementCache(InternalDriverContext context) {
+    for (RequestProcessor<?, ?> processor : context.getRequestProcessorRegistry().getProcessors()) {
+      if (processor instanceof CqlPrepareAsyncProcessor) {
+        return ((CqlPrepareAsyncProcessor) processor).getCache();
+      } else if (processor instanceof CqlPrepareSyncProcessor) {
+        return ((CqlPrepareSyncProcessor) processor).getCache();
+      }
+    }
+    return null;
+  }
+}
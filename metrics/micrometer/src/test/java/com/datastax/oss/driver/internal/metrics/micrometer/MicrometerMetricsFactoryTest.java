@@ -0,0 +1,161 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.driver.internal.metrics.micrometer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.datastax.oss.driver.api.core.config.DefaultDriverOption;
+import com.datastax.oss.driver.api.core.config.DriverConfig;
+import com.datastax.oss.driver.api.core.config.DriverExecutionProfile;
+import com.datastax.oss.driver.api.core.config.DriverOption;
+import com.datastax.oss.driver.api.core.metadata.EndPoint;
+import com.datastax.oss.driver.api.core.metadata.Node;
+import com.datastax.oss.driver.api.core.metrics.DefaultNodeMetric;
+import com.datastax.oss.driver.api.core.metrics.DefaultSessionMetric;
+import com.datastax.oss.driver.internal.core.context.InternalDriverContext;
+import com.datastax.oss.driver.internal.core.metrics.NodeMetricUpdater;
+import com.datastax.oss.driver.internal.core.metrics.NoopSessionMetricUpdater;
+import com.datastax.oss.driver.internal.core.metrics.SessionMetricUpdater;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import org.junit.Before;
+import org.junit.Test;
+
+public class MicrometerMetricsFactoryTest {
+
+  private InternalDriverContext context;
+  private DriverExecutionProfile profile;
+  private SimpleMeterRegistry registry;
+
+  @Before
+  public void setup() {
+    context = mock(InternalDriverContext.class);
+    DriverConfig config = mock(DriverConfig.class);
+    profile = mock(DriverExecutionProfile.class);
+    registry = new SimpleMeterRegistry();
+
+    when(context.getSessionName()).thenReturn("s0");
+    when(context.getConfig()).thenReturn(config);
+    when(context.getMetricRegistry()).thenReturn(registry);
+    when(config.getDefaultProfile()).thenReturn(profile);
+    when(profile.getName()).thenReturn(DriverExecutionProfile.DEFAULT_NAME);
+    when(profile.getBoolean(DefaultDriverOption.METRICS_GENERATE_AGGREGABLE_HISTOGRAMS))
+        .thenReturn(true);
+    when(profile.getDuration(any(DriverOption.class))).thenReturn(Duration.ofSeconds(3));
+    when(profile.getInt(any(DriverOption.class))).thenReturn(3);
+  }
+
+  @Test
+  public void should_not_record_anything_if_all_metrics_disabled() {
+    when(profile.getStringList(DefaultDriverOption.METRICS_SESSION_ENABLED))
+        .thenReturn(Collections.emptyList());
+    when(profile.getStringList(DefaultDriverOption.METRICS_NODE_ENABLED))
+        .thenReturn(Collections.emptyList());
+
+    MicrometerMetricsFactory factory = new MicrometerMetricsFactory(context);
+
+    assertThat(factory.getSessionUpdater()).isSameAs(NoopSessionMetricUpdater.INSTANCE);
+    assertThat(factory.getMetrics()).isEmpty();
+    assertThat(registry.getMeters()).isEmpty();
+  }
+
+  @Test
+  public void should_record_enabled_metrics_into_registry() {
+    when(profile.getStringList(DefaultDriverOption.METRICS_SESSION_ENABLED))
+        .thenReturn(Arrays.asList("cql-requests", "cql-client-timeouts"));
+    when(profile.getStringList(DefaultDriverOption.METRICS_NODE_ENABLED))
+        .thenReturn(Collections.singletonList("retries.total"));
+    when(profile.isDefined(DefaultDriverOption.METRICS_SESSION_CQL_REQUESTS_SLO)).thenReturn(true);
+    when(profile.getDurationList(DefaultDriverOption.METRICS_SESSION_CQL_REQUESTS_SLO))
+        .thenReturn(Arrays.asList(Duration.ofMillis(100), Duration.ofMillis(500)));
+    Node node = mock(Node.class);
+    EndPoint endPoint = mock(EndPoint.class);
+    when(node.getEndPoint()).thenReturn(endPoint);
+    when(endPoint.asMetricPrefix()).thenReturn("127_0_0_1:9042");
+
+    MicrometerMetricsFactory factory = new MicrometerMetricsFactory(context);
+    SessionMetricUpdater sessionUpdater = factory.getSessionUpdater();
+    NodeMetricUpdater nodeUpdater = factory.newNodeUpdater(node);
+
+    sessionUpdater.updateTimer(DefaultSessionMetric.CQL_REQUESTS, null, 10, TimeUnit.MILLISECONDS);
+    sessionUpdater.incrementCounter(DefaultSessionMetric.CQL_CLIENT_TIMEOUTS, null);
+    // Disabled, should be ignored
+    sessionUpdater.incrementCounter(DefaultSessionMetric.THROTTLING_ERRORS, null);
+    nodeUpdater.incrementCounter(DefaultNodeMetric.RETRIES, null, 2);
+
+    Timer timer = registry.get("session.cql-requests").tag("session", "s0").timer();
+    assertThat(timer.count()).isEqualTo(1);
+    assertThat(timer.takeSnapshot().histogramCounts()).isNotEmpty();
+    assertThat(registry.get("session.cql-client-timeouts").counter().count()).isEqualTo(1);
+    assertThat(registry.find("session.throttling.errors").meter()).isNull();
+    Counter retries =
+        registry
+            .get("nodes.retries.total")
+            .tag("session", "s0")
+            .tag("node", "127_0_0_1:9042")
+            .counter();
+    assertThat(retries.count()).isEqualTo(2);
+  }
+
+  @Test
+  public void should_not_need_dropwizard_on_classpath() {
+    // The module's tests run with metrics-core excluded from the classpath
+    assertThatThrownBy(() -> Class.forName("com.codahale.metrics.MetricRegistry"))
+        .isInstanceOf(ClassNotFoundException.class);
+    when(profile.getStringList(DefaultDriverOption.METRICS_SESSION_ENABLED))
+        .thenReturn(Collections.singletonList("cql-requests"));
+    when(profile.getStringList(DefaultDriverOption.METRICS_NODE_ENABLED))
+        .thenReturn(Collections.singletonList("cql-messages"));
+    Node node = mock(Node.class);
+    EndPoint endPoint = mock(EndPoint.class);
+    when(node.getEndPoint()).thenReturn(endPoint);
+    when(endPoint.asMetricPrefix()).thenReturn("127_0_0_1:9042");
+
+    MicrometerMetricsFactory factory = new MicrometerMetricsFactory(context);
+    factory
+        .getSessionUpdater()
+        .updateTimer(DefaultSessionMetric.CQL_REQUESTS, null, 10, TimeUnit.MILLISECONDS);
+    factory
+        .newNodeUpdater(node)
+        .updateTimer(DefaultNodeMetric.CQL_MESSAGES, null, 10, TimeUnit.MILLISECONDS);
+
+    assertThat(factory.getMetrics()).isEmpty();
+    assertThat(registry.get("session.cql-requests").timer().count()).isEqualTo(1);
+    assertThat(registry.get("nodes.cql-messages").timer().count()).isEqualTo(1);
+  }
+
+  @Test
+  public void should_fail_if_registry_has_wrong_type() {
+    when(profile.getStringList(DefaultDriverOption.METRICS_SESSION_ENABLED))
+        .thenReturn(Collections.singletonList("cql-requests"));
+    when(profile.getStringList(DefaultDriverOption.METRICS_NODE_ENABLED))
+        .thenReturn(Collections.emptyList());
+    when(context.getMetricRegistry()).thenReturn(new Object());
+
+    assertThatThrownBy(() -> new MicrometerMetricsFactory(context))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining("MeterRegistry");
+  }
+}